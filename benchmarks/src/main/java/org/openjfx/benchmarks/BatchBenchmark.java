@@ -0,0 +1,52 @@
+package org.openjfx.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjfx.batch.BatchEvaluator;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.NumericMode;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Thread)
+public class BatchBenchmark {
+    private static final Keystroke[] TAPE = {
+            Keystroke.DIGIT_1, Keystroke.DIGIT_2, Keystroke.DIGIT_3, Keystroke.DECIMAL, Keystroke.DIGIT_4,
+            Keystroke.MULTIPLY, Keystroke.DIGIT_5, Keystroke.DIGIT_6, Keystroke.EQUALS,
+            Keystroke.SQUARE_ROOT, Keystroke.PLUS, Keystroke.DIGIT_7, Keystroke.EQUALS
+    };
+
+    @Param({"DOUBLE", "DECIMAL", "FIXED_POINT"})
+    private NumericMode numericMode;
+
+    private final BatchEvaluator evaluator = new BatchEvaluator();
+    private byte[] codes;
+
+    @Setup
+    public void setUp() {
+        evaluator.getEngine().setNumericMode(numericMode);
+        codes = new byte[TAPE.length];
+        for (int i = 0; i < TAPE.length; i++) {
+            codes[i] = TAPE[i].code();
+        }
+    }
+
+    @Benchmark
+    public double replayTape() {
+        return evaluator.replay(codes, 0, codes.length);
+    }
+}
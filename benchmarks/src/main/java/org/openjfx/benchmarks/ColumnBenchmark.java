@@ -0,0 +1,84 @@
+package org.openjfx.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjfx.batch.ColumnEvaluator;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Thread)
+public class ColumnBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    private double[] left;
+    private double[] right;
+    private double[] out;
+    private DoubleBuffer leftBuffer;
+    private DoubleBuffer rightBuffer;
+    private DoubleBuffer outBuffer;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        left = random.doubles(size, 1, 1000).toArray();
+        right = random.doubles(size, 1, 1000).toArray();
+        out = new double[size];
+        leftBuffer = direct(left);
+        rightBuffer = direct(right);
+        outBuffer = direct(out);
+    }
+
+    @Benchmark
+    public double[] multiplyColumns() {
+        ColumnEvaluator.apply(Operation.MULTIPLY, left, right, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] squareRootColumn() {
+        ColumnEvaluator.apply(UnaryOperation.SQUARE_ROOT, left, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] roundToDisplay() {
+        ColumnEvaluator.roundToDisplay(left, out);
+        return out;
+    }
+
+    @Benchmark
+    public DoubleBuffer multiplyDirectBuffers() {
+        ColumnEvaluator.apply(Operation.MULTIPLY, leftBuffer, rightBuffer, outBuffer);
+        return outBuffer;
+    }
+
+    private static DoubleBuffer direct(double[] values) {
+        DoubleBuffer buffer = ByteBuffer.allocateDirect(values.length * Double.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asDoubleBuffer();
+        buffer.put(values).flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,74 @@
+package org.openjfx.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjfx.controller.CalculatorController;
+import org.openjfx.model.CalculatorModel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full keystroke sequence through the controller, with the display label replaced by a field write.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Thread)
+public class ControllerBenchmark {
+    private CalculatorController controller;
+    private String displayed;
+
+    @Setup
+    public void setUp() {
+        controller = new CalculatorController(new CalculatorModel(), text -> displayed = text);
+    }
+
+    // 1234.56 × 7.8 = x² √ 1/x ± + 9 ⌫ 5 = C
+    @Benchmark
+    public String keystrokeSequence() {
+        controller.handleNumber(1);
+        controller.handleNumber(2);
+        controller.handleNumber(3);
+        controller.handleNumber(4);
+        controller.handleDecimal();
+        controller.handleNumber(5);
+        controller.handleNumber(6);
+        controller.handleOperation(2);
+        controller.handleNumber(7);
+        controller.handleDecimal();
+        controller.handleNumber(8);
+        controller.handleEquals();
+        controller.handleSquared();
+        controller.handleSquareRoot();
+        controller.handleOneOverX();
+        controller.handlePlusMinus();
+        controller.handleOperation(0);
+        controller.handleNumber(9);
+        controller.handleBackSpace();
+        controller.handleNumber(5);
+        controller.handleEquals();
+        String result = displayed;
+        controller.handleClear();
+        return result;
+    }
+
+    @Benchmark
+    public String digitEntry() {
+        for (int i = 0; i < 10; i++) {
+            controller.handleNumber(i);
+        }
+        String result = displayed;
+        controller.handleClearEntry();
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+package org.openjfx.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjfx.expression.CompiledExpression;
+import org.openjfx.expression.ExpressionParser;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+    private static final String FORMULA = "price * qty * (1 - discount) + sqrt(qty) / 100 + 1/rate";
+
+    private final ExpressionParser parser = new ExpressionParser();
+    private CompiledExpression expression;
+    private double[] variables;
+    private double[] stack;
+
+    @Setup
+    public void setUp() throws ParseException {
+        expression = parser.parse(FORMULA);
+        variables = new double[]{19.99, 250, 0.15, 1.08};
+        stack = expression.newStack();
+    }
+
+    @Benchmark
+    public double parseAndEvaluate() throws ParseException {
+        return parser.parse(FORMULA).evaluate(variables);
+    }
+
+    @Benchmark
+    public double evaluateCompiled() {
+        variables[1] += 1;
+        return expression.evaluate(variables, stack);
+    }
+}
@@ -0,0 +1,47 @@
+package org.openjfx.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjfx.model.DisplayFormatter;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Thread)
+public class FormatterBenchmark {
+
+    @Param({"1234567.891", "0.3333333333", "-42"})
+    private double value;
+
+    private final DecimalFormat decimalFormat = new DecimalFormat(DisplayFormatter.PATTERN);
+    private final char[] buffer = new char[DisplayFormatter.MAX_LENGTH];
+
+    @Benchmark
+    public String decimalFormat() {
+        return decimalFormat.format(value);
+    }
+
+    @Benchmark
+    public String displayFormatter() {
+        return DisplayFormatter.format(value);
+    }
+
+    @Benchmark
+    public int displayFormatterIntoBuffer() {
+        return DisplayFormatter.format(value, buffer, 0);
+    }
+}
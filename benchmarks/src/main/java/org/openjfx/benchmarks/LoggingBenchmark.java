@@ -0,0 +1,81 @@
+package org.openjfx.benchmarks;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjfx.controller.CalculatorController;
+import org.openjfx.enums.Operation;
+import org.openjfx.model.CalculatorModel;
+
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The controller keystroke sequence with logging to a file, synchronously or through async loggers,
+ * at the level the application ships with (INFO), at DEBUG, and switched off. Metrics timing is off so that
+ * only logging is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dlog4j2.configurationFile=log4j2-benchmark.xml", "-Dcalculator.metrics=false"})
+@State(Scope.Thread)
+public class LoggingBenchmark {
+    @Param({"sync", "async"})
+    private String appender;
+
+    @Param({"DEBUG", "INFO", "OFF"})
+    private String level;
+
+    private CalculatorModel model;
+    private CalculatorController controller;
+    private String displayed;
+    private double operand = 1.5;
+
+    @Setup
+    public void setUp() throws URISyntaxException {
+        Configurator.reconfigure(getClass().getResource("/log4j2-logging-" + appender + ".xml").toURI());
+        Configurator.setRootLevel(Level.valueOf(level));
+        model = new CalculatorModel();
+        controller = new CalculatorController(model, text -> displayed = text);
+    }
+
+    // 12.5 × 4 = √ + 3 = C
+    @Benchmark
+    public String keystrokeSequence() {
+        controller.handleNumber(1);
+        controller.handleNumber(2);
+        controller.handleDecimal();
+        controller.handleNumber(5);
+        controller.handleOperation(2);
+        controller.handleNumber(4);
+        controller.handleEquals();
+        controller.handleSquareRoot();
+        controller.handleOperation(0);
+        controller.handleNumber(3);
+        controller.handleEquals();
+        String result = displayed;
+        controller.handleClear();
+        return result;
+    }
+
+    // The model API logs every operand and result as a double
+    @Benchmark
+    public double modelCalculation() {
+        model.setOperand(operand);
+        model.setCurrentOperation(Operation.MULTIPLY);
+        model.setOperand(operand + 0.25);
+        return model.calculate();
+    }
+}
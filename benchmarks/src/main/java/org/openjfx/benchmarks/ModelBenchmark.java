@@ -0,0 +1,95 @@
+package org.openjfx.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjfx.enums.Operation;
+import org.openjfx.model.CalculatorModel;
+import org.openjfx.model.NumberEntry;
+import org.openjfx.model.ResultCache;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+    @Param({"1234.5678", "0.1", "987654321.123"})
+    private double operand;
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private CalculatorModel model;
+    private NumberEntry entry;
+
+    @Setup
+    public void setUp() {
+        model = new CalculatorModel();
+        entry = model.getEngine().getEntry();
+        if (cached) {
+            model.getEngine().setResultCache(new ResultCache());
+        }
+    }
+
+    @Benchmark
+    public double calculate() {
+        model.setCurrentOperation(Operation.NONE);
+        model.setOperand(operand);
+        model.setCurrentOperation(Operation.MULTIPLY);
+        model.setOperand(operand);
+        return model.calculate();
+    }
+
+    @Benchmark
+    public double setOperand() {
+        model.setOperand(operand);
+        return model.getLeftOperand();
+    }
+
+    @Benchmark
+    public double squareValue() {
+        entry.setValue(operand);
+        model.squareValue();
+        return model.getDisplayValue();
+    }
+
+    @Benchmark
+    public double squareRootValue() {
+        entry.setValue(operand);
+        model.squareRootValue();
+        return model.getDisplayValue();
+    }
+
+    @Benchmark
+    public double reciprocalValue() {
+        entry.setValue(operand);
+        model.reciprocalValue();
+        return model.getDisplayValue();
+    }
+
+    @Benchmark
+    public double toggleSign() {
+        entry.setValue(operand);
+        model.toggleSign();
+        return model.getDisplayValue();
+    }
+
+    @Benchmark
+    public String displayText() {
+        entry.setValue(operand);
+        return model.getDisplayText();
+    }
+}
@@ -1,5 +1,21 @@
 module org.openjfx {
     requires javafx.controls;
     requires org.apache.logging.log4j.core;
+    requires com.lmax.disruptor;
+    requires jdk.httpserver;
+    requires jdk.jfr;
+    requires jdk.management;
     exports org.openjfx;
-}
\ No newline at end of file
+    exports org.openjfx.batch;
+    exports org.openjfx.controller;
+    exports org.openjfx.conversion;
+    exports org.openjfx.enums;
+    exports org.openjfx.expression;
+    exports org.openjfx.history;
+    exports org.openjfx.macro;
+    exports org.openjfx.metrics;
+    exports org.openjfx.model;
+    exports org.openjfx.replay;
+    exports org.openjfx.server;
+    exports org.openjfx.session;
+}
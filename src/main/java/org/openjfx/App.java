@@ -1,27 +1,210 @@
 package org.openjfx;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.conversion.UnitConverter;
+import org.openjfx.history.HistoryStore;
+import org.openjfx.macro.MacroLibrary;
+import org.openjfx.metrics.CalculatorMetrics;
+import org.openjfx.replay.TapeReader;
+import org.openjfx.replay.TapeWriter;
+import org.openjfx.session.SessionSnapshot;
+import org.openjfx.session.SnapshotWriter;
 import org.openjfx.ui.CalculatorView;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Shows the calculator as soon as possible: only the keypad and display are built, and the last session
+ * restored, before the first frame; history, JMX and tape replay are set up right after it.
+ * {@code --startup-profile} logs where the time to the first frame went and exits, so launch options can be
+ * compared in a loop.
+ */
 public class App extends Application {
+    private static long mainNanos;
+    private static long mainMillis;
+
+    // Not static, so that Log4j is first used once main has started warming it up
+    private final Logger logger = LogManager.getLogger();
+    private TapeWriter tapeWriter;
+    private TapeReader tapeReader;
+    private HistoryStore historyStore;
+    private SnapshotWriter snapshotWriter;
+    private UnitConverter converter;
+    private Stage stage;
+    private CalculatorView calculatorView;
+    private Path historyPath;
 
     @Override
-    public void start(Stage stage) {
-        CalculatorView calculatorView = new CalculatorView(stage);
-        Scene scene = new Scene(calculatorView.getRoot(), 410, 610);
+    public void start(Stage stage) throws IOException {
+        long startNanos = System.nanoTime();
+        this.stage = stage;
+        calculatorView = new CalculatorView(stage);
+        long viewNanos = System.nanoTime();
+        restoreSession();
+        // --tape=session.tape records the session for later replay, starting from the restored state
+        String tape = getParameters().getNamed().get("tape");
+        if (tape != null) {
+            tapeWriter = new TapeWriter(Path.of(tape), calculatorView.getModel().getEngine());
+            calculatorView.getController().setTapeWriter(tapeWriter);
+        }
+        long restoreNanos = System.nanoTime();
+        Scene scene = new Scene(calculatorView.getRoot(), 410, 660);
         scene.setFill(Color.TRANSPARENT);
         stage.setScene(scene);
         stage.initStyle(StageStyle.TRANSPARENT);
         stage.show();
+        long shownNanos = System.nanoTime();
+
+        boolean profile = getParameters().getUnnamed().contains("--startup-profile");
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                long frameNanos = System.nanoTime();
+                // Queued behind the pulse, so this runs once the first frame is on its way to the screen
+                Platform.runLater(() -> {
+                    startDeferred();
+                    if (profile) {
+                        long jvmToMain = ProcessHandle.current().info().startInstant()
+                                .map(jvmStart -> mainMillis - jvmStart.toEpochMilli())
+                                .orElse(0L);
+                        logger.info("Startup: JVM to main {} ms, main to start {} ms, view {} ms, restore {} ms, "
+                                        + "show {} ms, first frame {} ms (total {} ms); deferred {} ms",
+                                jvmToMain, millis(mainNanos, startNanos), millis(startNanos, viewNanos),
+                                millis(viewNanos, restoreNanos), millis(restoreNanos, shownNanos),
+                                millis(shownNanos, frameNanos),
+                                jvmToMain + millis(mainNanos, frameNanos), millis(frameNanos, System.nanoTime()));
+                        Platform.exit();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Puts back the calculator, window position and history file of the last session, from the file named by
+     * --session (by default in the home directory), and snapshots this session to it from now on.
+     */
+    private void restoreSession() {
+        String session = getParameters().getNamed().get("session");
+        Path sessionPath = session != null ? Path.of(session)
+                : Path.of(System.getProperty("user.home"), ".javafx-calculator", "session.bin");
+        // --history=<file> moves the calculation history away from the home directory
+        String history = getParameters().getNamed().get("history");
+        historyPath = history != null ? Path.of(history)
+                : Path.of(System.getProperty("user.home"), ".javafx-calculator", "history.bin");
+        try {
+            SessionSnapshot snapshot = SessionSnapshot.read(sessionPath);
+            snapshot.restore(calculatorView.getModel());
+            calculatorView.getController().refreshDisplay();
+            if (!Double.isNaN(snapshot.getWindowX())) {
+                stage.setX(snapshot.getWindowX());
+                stage.setY(snapshot.getWindowY());
+            }
+            if (history == null && snapshot.getHistoryPath() != null) {
+                historyPath = snapshot.getHistoryPath();
+            }
+        } catch (NoSuchFileException e) {
+            logger.debug("No saved session at {}", sessionPath);
+        } catch (IOException | ParseException e) {
+            logger.warn("Could not restore the last session, starting afresh", e);
+        }
+        snapshotWriter = new SnapshotWriter(sessionPath, historyPath);
+        calculatorView.getController().setSnapshotWriter(snapshotWriter);
     }
 
+    private void startDeferred() {
+        try {
+            Files.createDirectories(historyPath.toAbsolutePath().getParent());
+            historyStore = new HistoryStore(historyPath);
+            calculatorView.setHistory(historyStore);
+        } catch (IOException e) {
+            logger.error("Could not open the calculation history", e);
+        }
+        // --macros=<file> keeps the ƒ1 to ƒ8 macros somewhere other than the home directory
+        String macros = getParameters().getNamed().get("macros");
+        Path macroPath = macros != null ? Path.of(macros)
+                : Path.of(System.getProperty("user.home"), ".javafx-calculator", "macros.txt");
+        try {
+            calculatorView.setMacros(MacroLibrary.read(macroPath), macroPath);
+        } catch (IOException | ParseException e) {
+            logger.error("Could not read macros from {}", macroPath, e);
+        }
+        // --rates=<file> reads currency rates from somewhere other than the home directory; edits apply as saved
+        String rates = getParameters().getNamed().get("rates");
+        Path ratePath = rates != null ? Path.of(rates)
+                : Path.of(System.getProperty("user.home"), ".javafx-calculator", "rates.txt");
+        try {
+            converter = new UnitConverter(ratePath);
+            calculatorView.setConverter(converter);
+        } catch (IOException | ParseException e) {
+            logger.error("Could not read currency rates from {}", ratePath, e);
+        }
+        if (converter != null) {
+            try {
+                converter.watch();
+            } catch (IOException e) {
+                logger.warn("Currency rates from {} will not reload when the file changes", ratePath, e);
+            }
+        }
+        CalculatorMetrics.registerMBean();
+        // --replay=session.tape plays a recorded session into the window, e.g. for demos
+        String replay = getParameters().getNamed().get("replay");
+        if (replay != null) {
+            try {
+                tapeReader = new TapeReader(Path.of(replay));
+                calculatorView.replay(tapeReader);
+            } catch (IOException | ParseException e) {
+                logger.error("Could not replay {}", replay, e);
+            }
+        }
+    }
 
+    @Override
+    public void stop() throws IOException {
+        // The replay thread drives the model until it is stopped
+        calculatorView.stopReplay();
+        if (snapshotWriter != null) {
+            snapshotWriter.setWindowPosition(stage.getX(), stage.getY());
+            snapshotWriter.capture(calculatorView.getModel());
+            snapshotWriter.close();
+        }
+        if (tapeWriter != null) {
+            tapeWriter.close();
+        }
+        if (historyStore != null) {
+            historyStore.close();
+        }
+        if (tapeReader != null) {
+            tapeReader.close();
+        }
+        if (converter != null) {
+            converter.close();
+        }
+    }
+
+    private static long millis(long fromNanos, long toNanos) {
+        return (toNanos - fromNanos) / 1_000_000;
+    }
 
     public static void main(String[] args) {
-        launch();
+        mainNanos = System.nanoTime();
+        mainMillis = System.currentTimeMillis();
+        // Log4j takes a few hundred milliseconds to configure; overlap that with starting the JavaFX toolkit
+        Thread logging = new Thread(() -> LogManager.getContext(false), "logging-init");
+        logging.setDaemon(true);
+        logging.start();
+        launch(args);
     }
-}
\ No newline at end of file
+}
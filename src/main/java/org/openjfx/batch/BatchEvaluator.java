@@ -0,0 +1,79 @@
+package org.openjfx.batch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.Operation;
+import org.openjfx.model.CalculatorEngine;
+import org.openjfx.model.ResultCache;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * Evaluates operand tuples and recorded keystroke tapes without a view or controller.
+ * An instance reuses one engine and is meant to be confined to a single thread. Every tape starts from
+ * {@link CalculatorEngine#clearAll}, with empty memory and statistics.
+ */
+public class BatchEvaluator {
+    private final Logger logger = LogManager.getLogger();
+    private final CalculatorEngine engine = new CalculatorEngine();
+
+    public BatchEvaluator() {
+    }
+
+    public BatchEvaluator(ResultCache resultCache) {
+        engine.setResultCache(resultCache);
+    }
+
+    public void evaluate(double[] leftOperands, Operation[] operations, double[] rightOperands,
+                         double[] results) {
+        int count = operations.length;
+        checkLength(leftOperands.length, count);
+        checkLength(rightOperands.length, count);
+        checkLength(results.length, count);
+        for (int i = 0; i < count; i++) {
+            results[i] = operations[i].apply(leftOperands[i], rightOperands[i]);
+        }
+        logger.debug("Evaluated {} operand tuples", box(count));
+    }
+
+    public double evaluate(Keystroke... keystrokes) {
+        engine.clearAll();
+        for (Keystroke keystroke : keystrokes) {
+            engine.press(keystroke);
+        }
+        return engine.getValue();
+    }
+
+    /**
+     * Replays tape {@code i} from {@code codes[offsets[i]]} up to {@code codes[offsets[i + 1]]},
+     * where each code is a {@link Keystroke#code()}, and stores the value left on the display.
+     * A tape that ends on "Error" yields NaN.
+     */
+    public void evaluateTapes(byte[] codes, int[] offsets, double[] results) {
+        int count = offsets.length - 1;
+        checkLength(results.length, count);
+        for (int i = 0; i < count; i++) {
+            results[i] = replay(codes, offsets[i], offsets[i + 1]);
+        }
+        logger.debug("Replayed {} keystroke tapes", box(count));
+    }
+
+    public double replay(byte[] codes, int from, int to) {
+        engine.clearAll();
+        for (int i = from; i < to; i++) {
+            engine.press(Keystroke.fromCode(codes[i]));
+        }
+        return engine.getValue();
+    }
+
+    public CalculatorEngine getEngine() {
+        return engine;
+    }
+
+    private static void checkLength(int actual, int expected) {
+        if (actual < expected) {
+            throw new IllegalArgumentException("Expected at least " + expected + " elements but got " + actual);
+        }
+    }
+}
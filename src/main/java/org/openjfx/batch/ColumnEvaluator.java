@@ -0,0 +1,240 @@
+package org.openjfx.batch;
+
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.model.DisplayMath;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/**
+ * Element-wise calculator arithmetic over whole columns.
+ * The operation is resolved once per call, and each case is a plain counted loop over primitive
+ * arrays that C2 can unroll and auto-vectorize. Results are bit-identical to {@link Operation#apply}
+ * and {@link UnaryOperation#apply}; use {@link #roundToDisplay} where the interactive calculator
+ * would have pushed a value through the display, as it does after every unary function.
+ * The Vector API is not used: on Java 21 it is still the incubator module jdk.incubator.vector,
+ * which every build and launch would have to add.
+ */
+public final class ColumnEvaluator {
+
+    private ColumnEvaluator() {
+    }
+
+    public static void apply(Operation operation, double[] left, double[] right, double[] out) {
+        checkRange(left.length, right.length, out.length);
+        apply(operation, left, right, out, 0, left.length);
+    }
+
+    public static void apply(Operation operation, double[] left, double[] right, double[] out, int from, int to) {
+        switch (operation) {
+            case PLUS -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left[i] + right[i];
+                }
+            }
+            case MINUS -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left[i] - right[i];
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left[i] * right[i];
+                }
+            }
+            case DIVIDE -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left[i] / right[i];
+                }
+            }
+            case NONE -> System.arraycopy(left, from, out, from, to - from);
+        }
+    }
+
+    public static void apply(Operation operation, double[] left, double right, double[] out) {
+        checkRange(left.length, left.length, out.length);
+        apply(operation, left, right, out, 0, left.length);
+    }
+
+    public static void apply(Operation operation, double[] left, double right, double[] out, int from, int to) {
+        switch (operation) {
+            case PLUS -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left[i] + right;
+                }
+            }
+            case MINUS -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left[i] - right;
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left[i] * right;
+                }
+            }
+            case DIVIDE -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left[i] / right;
+                }
+            }
+            case NONE -> System.arraycopy(left, from, out, from, to - from);
+        }
+    }
+
+    public static void apply(Operation operation, double left, double[] right, double[] out, int from, int to) {
+        switch (operation) {
+            case PLUS -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left + right[i];
+                }
+            }
+            case MINUS -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left - right[i];
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left * right[i];
+                }
+            }
+            case DIVIDE -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = left / right[i];
+                }
+            }
+            case NONE -> Arrays.fill(out, from, to, left);
+        }
+    }
+
+    public static void apply(UnaryOperation operation, double[] values, double[] out) {
+        checkRange(values.length, values.length, out.length);
+        apply(operation, values, out, 0, values.length);
+    }
+
+    public static void apply(UnaryOperation operation, double[] values, double[] out, int from, int to) {
+        switch (operation) {
+            case NEGATE -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = -values[i];
+                }
+            }
+            case SQUARE -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = values[i] * values[i];
+                }
+            }
+            case SQUARE_ROOT -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = Math.sqrt(values[i]);
+                }
+            }
+            case RECIPROCAL -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = 1 / values[i];
+                }
+            }
+        }
+    }
+
+    public static void roundToDisplay(double[] values, double[] out) {
+        checkRange(values.length, values.length, out.length);
+        roundToDisplay(values, out, 0, values.length);
+    }
+
+    public static void roundToDisplay(double[] values, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = DisplayMath.roundToDisplay(values[i]);
+        }
+    }
+
+    /**
+     * Column operation over buffers, typically direct ones holding off-heap data.
+     * Heap buffers backed by accessible arrays take the array path. Positions are not modified.
+     */
+    public static void apply(Operation operation, DoubleBuffer left, DoubleBuffer right, DoubleBuffer out) {
+        int length = left.remaining();
+        checkRange(length, right.remaining(), out.remaining());
+        if (left.hasArray() && right.hasArray() && out.hasArray()
+                && left.arrayOffset() + left.position() == 0
+                && right.arrayOffset() + right.position() == 0
+                && out.arrayOffset() + out.position() == 0) {
+            apply(operation, left.array(), right.array(), out.array(), 0, length);
+            return;
+        }
+        int l = left.position();
+        int r = right.position();
+        int o = out.position();
+        switch (operation) {
+            case PLUS -> {
+                for (int i = 0; i < length; i++) {
+                    out.put(o + i, left.get(l + i) + right.get(r + i));
+                }
+            }
+            case MINUS -> {
+                for (int i = 0; i < length; i++) {
+                    out.put(o + i, left.get(l + i) - right.get(r + i));
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = 0; i < length; i++) {
+                    out.put(o + i, left.get(l + i) * right.get(r + i));
+                }
+            }
+            case DIVIDE -> {
+                for (int i = 0; i < length; i++) {
+                    out.put(o + i, left.get(l + i) / right.get(r + i));
+                }
+            }
+            case NONE -> {
+                for (int i = 0; i < length; i++) {
+                    out.put(o + i, left.get(l + i));
+                }
+            }
+        }
+    }
+
+    public static void apply(UnaryOperation operation, DoubleBuffer values, DoubleBuffer out) {
+        int length = values.remaining();
+        checkRange(length, length, out.remaining());
+        if (values.hasArray() && out.hasArray()
+                && values.arrayOffset() + values.position() == 0
+                && out.arrayOffset() + out.position() == 0) {
+            apply(operation, values.array(), out.array(), 0, length);
+            return;
+        }
+        int v = values.position();
+        int o = out.position();
+        switch (operation) {
+            case NEGATE -> {
+                for (int i = 0; i < length; i++) {
+                    out.put(o + i, -values.get(v + i));
+                }
+            }
+            case SQUARE -> {
+                for (int i = 0; i < length; i++) {
+                    double value = values.get(v + i);
+                    out.put(o + i, value * value);
+                }
+            }
+            case SQUARE_ROOT -> {
+                for (int i = 0; i < length; i++) {
+                    out.put(o + i, Math.sqrt(values.get(v + i)));
+                }
+            }
+            case RECIPROCAL -> {
+                for (int i = 0; i < length; i++) {
+                    out.put(o + i, 1 / values.get(v + i));
+                }
+            }
+        }
+    }
+
+    private static void checkRange(int left, int right, int out) {
+        if (right < left || out < left) {
+            throw new IllegalArgumentException("Column lengths differ: " + left + ", " + right + ", " + out);
+        }
+    }
+}
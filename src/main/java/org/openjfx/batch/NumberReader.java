@@ -0,0 +1,141 @@
+package org.openjfx.batch;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Reads numbers, separated by whitespace and any number per line, into arrays a chunk at a time.
+ * Input is read through a fixed buffer and plain decimals of up to 15 digits ("1234.56", "-7") are converted
+ * without building a String, so millions of values go through in constant memory at the speed of the disk.
+ * Anything else goes through {@link Double#parseDouble}, so exponents, "NaN" and "Infinity" work as well.
+ */
+public final class NumberReader {
+    private static final long EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader input;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean ended;
+    private char[] token = new char[32];
+    private int tokenLength;
+    private long line = 1;
+    private ParseException pending;
+
+    public NumberReader(Reader input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads up to {@code to - from} numbers into {@code values}, starting at {@code from}.
+     * When a malformed number follows well-formed ones, those are returned first and the
+     * {@link ParseException} is thrown by the next call.
+     *
+     * @return the number of values read, or -1 at the end of the input
+     */
+    public int read(double[] values, int from, int to) throws IOException, ParseException {
+        if (pending != null) {
+            ParseException e = pending;
+            pending = null;
+            throw e;
+        }
+        int count = from;
+        while (count < to) {
+            if (position == limit) {
+                if (ended) {
+                    break;
+                }
+                limit = input.read(buffer);
+                position = 0;
+                if (limit < 0) {
+                    limit = 0;
+                    ended = true;
+                    if (tokenLength != 0 && !parseInto(values, count++, from)) {
+                        return count - 1 - from;
+                    }
+                    break;
+                }
+            }
+            char c = buffer[position++];
+            if (Character.isWhitespace(c)) {
+                boolean parsed = tokenLength == 0 || parseInto(values, count++, from);
+                if (c == '\n') {
+                    line++;
+                }
+                if (!parsed) {
+                    return count - 1 - from;
+                }
+            } else {
+                if (tokenLength == token.length) {
+                    token = Arrays.copyOf(token, token.length * 2);
+                }
+                token[tokenLength++] = c;
+            }
+        }
+        return count == from && ended ? -1 : count - from;
+    }
+
+    /**
+     * The line being read, counted from 1.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    private boolean parseInto(double[] values, int index, int from) throws ParseException {
+        try {
+            values[index] = parseToken();
+            return true;
+        } catch (ParseException e) {
+            if (index == from) {
+                throw e;
+            }
+            pending = e;
+            return false;
+        }
+    }
+
+    private double parseToken() throws ParseException {
+        int length = tokenLength;
+        tokenLength = 0;
+        int i = 0;
+        boolean negative = token[0] == '-';
+        if (negative || token[0] == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int scale = -1;
+        boolean digits = false;
+        for (; i < length; i++) {
+            char c = token[i];
+            if (c >= '0' && c <= '9' && mantissa < EXACT_MANTISSA / 10) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits = true;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == length && digits && scale < POWERS_OF_TEN.length) {
+            // Both operands are exact, so the one rounding of the division gives the correctly rounded value
+            double magnitude = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+            return negative ? -magnitude : magnitude;
+        }
+        String text = new String(token, 0, length);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Not a number '" + text + "' on line " + line, (int) Math.min(line, Integer.MAX_VALUE));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.openjfx.batch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.expression.CompiledExpression;
+import org.openjfx.macro.CompiledMacro;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * Splits large batches into chunks evaluated on a {@link ForkJoinPool}.
+ * Every input index writes only its own output slot, so results come back in input order
+ * regardless of how chunks were scheduled. Mutable calculator state is never shared:
+ * each chunk gets its own engine or expression stack.
+ */
+public class ParallelBatchEvaluator {
+    public static final int DEFAULT_CHUNK_SIZE = 16_384;
+
+    private final Logger logger = LogManager.getLogger();
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelBatchEvaluator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelBatchEvaluator(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public void apply(Operation operation, double[] left, double[] right, double[] out) {
+        checkLength(right.length, left.length);
+        checkLength(out.length, left.length);
+        run(left.length, (from, to) -> ColumnEvaluator.apply(operation, left, right, out, from, to));
+    }
+
+    public void apply(UnaryOperation operation, double[] values, double[] out) {
+        checkLength(out.length, values.length);
+        run(values.length, (from, to) -> ColumnEvaluator.apply(operation, values, out, from, to));
+    }
+
+    /**
+     * Parallel form of {@link CompiledMacro#applyAll}.
+     */
+    public void apply(CompiledMacro macro, double[] values, double[] out) {
+        checkLength(out.length, values.length);
+        run(values.length, (from, to) -> macro.applyAll(values, out, from, to));
+    }
+
+    /**
+     * Parallel form of {@link BatchEvaluator#evaluateTapes}; the chunk size counts tapes.
+     */
+    public void evaluateTapes(byte[] codes, int[] offsets, double[] results) {
+        int count = offsets.length - 1;
+        checkLength(results.length, count);
+        run(count, (from, to) -> {
+            BatchEvaluator evaluator = new BatchEvaluator();
+            for (int i = from; i < to; i++) {
+                results[i] = evaluator.replay(codes, offsets[i], offsets[i + 1]);
+            }
+        });
+        logger.debug("Replayed {} keystroke tapes in parallel", box(count));
+    }
+
+    /**
+     * Evaluates one expression per row, where {@code columns[v][row]} binds variable {@code v}.
+     */
+    public void evaluate(CompiledExpression expression, double[][] columns, double[] results) {
+        int variableCount = expression.getVariableNames().size();
+        if (columns.length < variableCount) {
+            throw new IllegalArgumentException("Expected " + variableCount + " columns but got " + columns.length);
+        }
+        for (int v = 0; v < variableCount; v++) {
+            checkLength(columns[v].length, results.length);
+        }
+        run(results.length, (from, to) -> {
+            double[] variables = new double[variableCount];
+            double[] stack = expression.newStack();
+            for (int row = from; row < to; row++) {
+                for (int v = 0; v < variableCount; v++) {
+                    variables[v] = columns[v][row];
+                }
+                results[row] = expression.evaluate(variables, stack);
+            }
+        });
+    }
+
+    /**
+     * Evaluates every expression against the same variable bindings.
+     */
+    public void evaluate(List<CompiledExpression> expressions, double[] variables, double[] results) {
+        checkLength(results.length, expressions.size());
+        run(expressions.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                CompiledExpression expression = expressions.get(i);
+                results[i] = expression.evaluate(variables, expression.newStack());
+            }
+        });
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private void run(int size, RangeBody body) {
+        if (size <= chunkSize) {
+            body.run(0, size);
+        } else {
+            pool.invoke(new RangeTask(body, 0, size, chunkSize));
+        }
+    }
+
+    private static void checkLength(int actual, int expected) {
+        if (actual < expected) {
+            throw new IllegalArgumentException("Expected at least " + expected + " elements but got " + actual);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private final RangeBody body;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        RangeTask(RangeBody body, int from, int to, int chunkSize) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                body.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(body, from, middle, chunkSize), new RangeTask(body, middle, to, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.openjfx.batch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.model.StreamStatistics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Streams numbers, separated by whitespace and any number per line, into a {@link StreamStatistics}.
+ * They are read by a {@link NumberReader}, so a tally of millions of values runs in constant memory at the
+ * speed of the disk.
+ *
+ * <pre>
+ * java -cp ... org.openjfx.batch.StatisticsFeed tallies.txt [50,90,99]   (or "-" for stdin)
+ * </pre>
+ * prints {@code name<TAB>value} lines: count, sum, mean, standard deviation, minimum, maximum and the given
+ * percentiles, by default 1, 5, 25, 50, 75, 95 and 99.
+ */
+public class StatisticsFeed {
+    public static final double[] DEFAULT_PERCENTILES = {1, 5, 25, 50, 75, 95, 99};
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final double[] chunk = new double[1024];
+
+    /**
+     * Adds every number in {@code input} to {@code statistics}. Numbers before a malformed one are still added
+     * when its {@link ParseException} is thrown.
+     *
+     * @return the number of values read
+     */
+    public long feed(Reader input, StreamStatistics statistics) throws IOException, ParseException {
+        long start = System.nanoTime();
+        long values = 0;
+        NumberReader reader = new NumberReader(input);
+        int count;
+        while ((count = reader.read(chunk, 0, chunk.length)) >= 0) {
+            statistics.addAll(chunk, 0, count);
+            values += count;
+        }
+        logger.info("Read {} values in {} ms", values, (System.nanoTime() - start) / 1_000_000);
+        return values;
+    }
+
+    public static void main(String[] args) throws IOException, ParseException {
+        double[] percentiles = args.length > 1
+                ? Arrays.stream(args[1].split(",")).mapToDouble(Double::parseDouble).toArray()
+                : DEFAULT_PERCENTILES;
+        for (double percentile : percentiles) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Percentiles must be between 0 and 100: " + percentile);
+            }
+        }
+        StreamStatistics statistics = new StreamStatistics();
+        try (Reader input = args.length == 0 || "-".equals(args[0])
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            new StatisticsFeed().feed(input, statistics);
+        }
+        try (Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            write(output, "count", statistics.getCount());
+            write(output, "sum", statistics.getSum());
+            write(output, "mean", statistics.getMean());
+            write(output, "stddev", statistics.getStandardDeviation());
+            write(output, "min", statistics.getMin());
+            write(output, "max", statistics.getMax());
+            for (double percentile : percentiles) {
+                String name = percentile == Math.rint(percentile) ? Long.toString((long) percentile)
+                        : Double.toString(percentile);
+                write(output, "p" + name, statistics.quantile(percentile / 100));
+            }
+        }
+    }
+
+    private static void write(Writer output, String name, double value) throws IOException {
+        output.write(name);
+        output.write('\t');
+        output.write(Double.toString(value));
+        output.write('\n');
+    }
+
+    private static void write(Writer output, String name, long value) throws IOException {
+        output.write(name);
+        output.write('\t');
+        output.write(Long.toString(value));
+        output.write('\n');
+    }
+}
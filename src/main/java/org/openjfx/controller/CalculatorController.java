@@ -3,151 +3,375 @@ package org.openjfx.controller;
 import javafx.scene.control.Label;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.openjfx.conversion.ConversionTable;
+import org.openjfx.enums.Aggregate;
+import org.openjfx.enums.Keystroke;
 import org.openjfx.enums.Operation;
+import org.openjfx.macro.Macro;
+import org.openjfx.metrics.CalculatorMetrics;
+import org.openjfx.metrics.Measurement;
 import org.openjfx.model.CalculatorModel;
+import org.openjfx.model.MemoryBank;
+import org.openjfx.replay.TapeWriter;
+import org.openjfx.session.SnapshotWriter;
 
-import java.text.ParseException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
+/**
+ * Turns button and key actions into model calls and pushes the resulting display text to a consumer.
+ * A controller may be driven from any one thread at a time; with a {@link DisplayPipeline} as its display
+ * that need not be the JavaFX thread.
+ */
 public class CalculatorController {
     protected static final Logger logger = LogManager.getLogger();
+    private static final Operation[] OPERATIONS = Operation.values();
     private final CalculatorModel model;
-    private final Label displayLabel;
+    private final CalculatorMetrics metrics = CalculatorMetrics.getInstance();
+    private final Consumer<String> display;
+    private long displayedRevision;
+    private Consumer<String> memoryIndicator;
+    private long memoryRevision = -1;
+    private TapeWriter tapeWriter;
+    private SnapshotWriter snapshotWriter;
+    private List<Keystroke> macroRecording;
 
     public CalculatorController(CalculatorModel model, Label displayLabel) {
+        this(model, displayLabel::setText);
+    }
+
+    public CalculatorController(CalculatorModel model, Consumer<String> display) {
         logger.info("Initializing CalculatorController");
         this.model = model;
-        this.displayLabel = displayLabel;
+        this.display = display;
+        this.displayedRevision = model.getDisplayRevision();
     }
 
     public void handleNumber(int number) {
         logger.debug("Handling number input: {}", number);
-        if (!model.isResetFlag()) {
-            model.setDisplayText(model.getDisplayText() + model.getFormatter().format(number));
-        } else {
-            model.setDisplayText(model.getFormatter().format(number));
-            model.setResetFlag(false);
-        }
+        model.inputDigit(number);
+        record(Keystroke.digit(number));
         updateDisplay();
     }
 
     public void handleOperation(int operationIndex) {
         logger.debug("Handling operation with index: {}", operationIndex);
-        if (!model.isResetFlag()) {
-            try {
-                model.setOperand(model.getDisplayText());
-                if (model.getCurrentOperation() != Operation.NONE) {
-                    String result = model.calculate();
-                    model.setDisplayText(result);
-                }
-                model.setCurrentOperation(Operation.values()[operationIndex]);
-                model.setResetFlag(true);
-                updateDisplay();
-            } catch (ParseException e) {
-                logger.error("Error handling operation: {}", operationIndex, e);
-                handleError(e);
-            }
-        } else {
-            model.setCurrentOperation(Operation.values()[operationIndex]);
-        }
+        model.inputOperation(OPERATIONS[operationIndex]);
+        record(Keystroke.of(OPERATIONS[operationIndex]));
+        updateDisplay();
     }
 
     public void handleEquals() {
         logger.debug("Handling equals operation");
-        if (!model.isResetFlag()) {
-            try {
-                model.setOperand(model.getDisplayText());
-                String result = model.calculate();
-                model.setDisplayText(result);
-                updateDisplay();
-                model.setResetFlag(true);
-                logger.info("Equals operation completed. Result: {}", result);
-            } catch (ParseException e) {
-                logger.error("Error handling equals operation", e);
-                handleError(e);
-            }
-        }
+        model.inputEquals();
+        record(Keystroke.EQUALS);
+        updateDisplay();
     }
 
     public void handleClear() {
         model.clear();
+        record(Keystroke.CLEAR);
         updateDisplay();
     }
 
     public void handleClearEntry() {
         model.clearEntry();
+        record(Keystroke.CLEAR_ENTRY);
         updateDisplay();
     }
 
     public void handleBackSpace() {
         model.backSpace();
+        record(Keystroke.BACK_SPACE);
         updateDisplay();
     }
 
     public void handleDecimal() {
         logger.debug("Handling decimal point input");
-        if (model.getDisplayText().contains(".") && !model.isResetFlag()) {
-            model.setDisplayText(model.getDisplayText().substring(0,
-                    model.getDisplayText().indexOf(".") + 1));
-        } else if (!model.isResetFlag()) {
-            model.setDisplayText(model.getDisplayText() + ".");
-        } else {
-            model.setDisplayText("0.");
-            model.setResetFlag(false);
-        }
+        model.inputDecimal();
+        record(Keystroke.DECIMAL);
         updateDisplay();
     }
 
     public void handlePlusMinus() {
-        try {
-            model.toggleSign();
-            updateDisplay();
-        } catch (ParseException e) {
-            handleError(e);
-        }
+        model.toggleSign();
+        record(Keystroke.NEGATE);
+        updateDisplay();
     }
 
     public void handleOneOverX() {
-        try {
-            model.reciprocalValue(model.getDisplayText());
-            updateDisplay();
-        } catch (ParseException e) {
-            handleError(e);
-        }
+        model.reciprocalValue();
+        record(Keystroke.RECIPROCAL);
+        updateDisplay();
     }
 
     public void handleSquared() {
-        try {
-            model.squareValue(model.getDisplayText());
-            updateDisplay();
-        } catch (ParseException e) {
-            handleError(e);
-        }
+        model.squareValue();
+        record(Keystroke.SQUARE);
+        updateDisplay();
     }
 
     public void handleSquareRoot() {
+        model.squareRootValue();
+        record(Keystroke.SQUARE_ROOT);
+        updateDisplay();
+    }
+
+    public void handleMemoryAdd() {
+        model.memoryAdd();
+        record(Keystroke.MEMORY_ADD);
+        updateDisplay();
+    }
+
+    public void handleMemorySubtract() {
+        model.memorySubtract();
+        record(Keystroke.MEMORY_SUBTRACT);
+        updateDisplay();
+    }
+
+    public void handleMemoryRecall() {
+        model.memoryRecall();
+        record(Keystroke.MEMORY_RECALL);
+        updateDisplay();
+    }
+
+    public void handleMemoryClear() {
+        model.memoryClear();
+        record(Keystroke.MEMORY_CLEAR);
+        updateDisplay();
+    }
+
+    public void handleMemoryRegister(int register) {
+        model.selectMemory(register);
+        record(Keystroke.memoryRegister(register));
+        updateDisplay();
+    }
+
+    public void handleMemoryStatistic(Aggregate aggregate) {
+        Keystroke keystroke = Keystroke.memoryStatistic(aggregate);
+        model.memoryRecall(aggregate);
+        record(keystroke);
+        updateDisplay();
+    }
+
+    public void handleStatisticsAdd() {
+        model.statisticsAdd();
+        record(Keystroke.STATISTICS_ADD);
+        updateDisplay();
+    }
+
+    public void handleStatistic(Aggregate aggregate) {
+        Keystroke keystroke = Keystroke.statistic(aggregate);
+        model.statisticsRecall(aggregate);
+        record(keystroke);
+        updateDisplay();
+    }
+
+    public void handleStatisticsPercentile() {
+        model.statisticsPercentile();
+        record(Keystroke.STATISTICS_PERCENTILE);
+        updateDisplay();
+    }
+
+    public void handleStatisticsClear() {
+        model.statisticsClear();
+        record(Keystroke.STATISTICS_CLEAR);
+        updateDisplay();
+    }
+
+    /**
+     * Applies the macro in {@code slot}, counted from 0, to the displayed value, as
+     * {@link org.openjfx.model.CalculatorEngine#applyMacro} describes. Tapes record the result, as the macro
+     * may be edited, or missing, by the time they are replayed; an empty slot does nothing and is not recorded.
+     */
+    public void handleMacro(int slot) {
+        if (model.getEngine().getMacro(slot) == null) {
+            return;
+        }
+        model.applyMacro(slot);
+        recordState(Keystroke.macro(slot), true);
+        updateDisplay();
+    }
+
+    /**
+     * Converts the displayed value as {@link CalculatorModel#convert} does. A conversion is not a keystroke, so
+     * macros leave it out; tapes record the converted value, as the rates may have changed by the time they
+     * are replayed, and session snapshots include it.
+     */
+    public void handleConversion(ConversionTable table, int from, int to) {
+        model.convert(table, from, to);
+        recordState(null, true);
+        updateDisplay();
+    }
+
+    /**
+     * Shows {@code value} as a completed entry, the way a conversion shows its result; replays use it for tape
+     * records that {@link org.openjfx.replay.TapeReader#setsValue set a value}.
+     */
+    public void handleValue(double value) {
+        model.inputValue(value);
+        recordState(null, true);
+        updateDisplay();
+    }
+
+    /**
+     * Starts collecting the keys pressed from now on, for {@link #stopMacroRecording}. Only keys a {@link Macro}
+     * may contain are collected; memory, statistics and macro keys still act but are left out.
+     */
+    public void startMacroRecording() {
+        macroRecording = new ArrayList<>();
+    }
+
+    /**
+     * The keys pressed since {@link #startMacroRecording}, or an empty list if nothing was being recorded.
+     */
+    public List<Keystroke> stopMacroRecording() {
+        List<Keystroke> keystrokes = macroRecording != null ? macroRecording : List.of();
+        macroRecording = null;
+        return keystrokes;
+    }
+
+    public boolean isRecordingMacro() {
+        return macroRecording != null;
+    }
+
+    /**
+     * Dispatches {@code keystroke} to the handler of the matching button.
+     */
+    public void press(Keystroke keystroke) {
+        switch (keystroke) {
+            case DIGIT_0, DIGIT_1, DIGIT_2, DIGIT_3, DIGIT_4,
+                    DIGIT_5, DIGIT_6, DIGIT_7, DIGIT_8, DIGIT_9 ->
+                    handleNumber(keystroke.ordinal() - Keystroke.DIGIT_0.ordinal());
+            case DECIMAL -> handleDecimal();
+            case PLUS -> handleOperation(Operation.PLUS.ordinal());
+            case MINUS -> handleOperation(Operation.MINUS.ordinal());
+            case MULTIPLY -> handleOperation(Operation.MULTIPLY.ordinal());
+            case DIVIDE -> handleOperation(Operation.DIVIDE.ordinal());
+            case EQUALS -> handleEquals();
+            case CLEAR -> handleClear();
+            case CLEAR_ENTRY -> handleClearEntry();
+            case BACK_SPACE -> handleBackSpace();
+            case NEGATE -> handlePlusMinus();
+            case RECIPROCAL -> handleOneOverX();
+            case SQUARE -> handleSquared();
+            case SQUARE_ROOT -> handleSquareRoot();
+            case MEMORY_CLEAR -> handleMemoryClear();
+            case MEMORY_RECALL -> handleMemoryRecall();
+            case MEMORY_ADD -> handleMemoryAdd();
+            case MEMORY_SUBTRACT -> handleMemorySubtract();
+            case MEMORY_0, MEMORY_1, MEMORY_2, MEMORY_3, MEMORY_4,
+                    MEMORY_5, MEMORY_6, MEMORY_7, MEMORY_8, MEMORY_9 ->
+                    handleMemoryRegister(keystroke.ordinal() - Keystroke.MEMORY_0.ordinal());
+            case MEMORY_COUNT -> handleMemoryStatistic(Aggregate.COUNT);
+            case MEMORY_MEAN -> handleMemoryStatistic(Aggregate.MEAN);
+            case MEMORY_VARIANCE -> handleMemoryStatistic(Aggregate.VARIANCE);
+            case STATISTICS_ADD -> handleStatisticsAdd();
+            case STATISTICS_CLEAR -> handleStatisticsClear();
+            case STATISTICS_COUNT -> handleStatistic(Aggregate.COUNT);
+            case STATISTICS_SUM -> handleStatistic(Aggregate.SUM);
+            case STATISTICS_MEAN -> handleStatistic(Aggregate.MEAN);
+            case STATISTICS_STANDARD_DEVIATION -> handleStatistic(Aggregate.STANDARD_DEVIATION);
+            case STATISTICS_MIN -> handleStatistic(Aggregate.MIN);
+            case STATISTICS_MAX -> handleStatistic(Aggregate.MAX);
+            case STATISTICS_PERCENTILE -> handleStatisticsPercentile();
+            case MACRO_1, MACRO_2, MACRO_3, MACRO_4, MACRO_5, MACRO_6, MACRO_7, MACRO_8 ->
+                    handleMacro(keystroke.ordinal() - Keystroke.MACRO_1.ordinal());
+        }
+    }
+
+    /**
+     * Records every subsequent action and the state it leaves the model in; null stops recording.
+     */
+    public void setTapeWriter(TapeWriter tapeWriter) {
+        this.tapeWriter = tapeWriter;
+    }
+
+    /**
+     * Snapshots the session after every subsequent action; null stops snapshots.
+     */
+    public void setSnapshotWriter(SnapshotWriter snapshotWriter) {
+        this.snapshotWriter = snapshotWriter;
+    }
+
+    /**
+     * Receives "M" while register 0 is selected and anything is in memory, "M3" while register 3 is selected,
+     * and "" otherwise; only when that changes, on the thread driving the controller.
+     */
+    public void setMemoryIndicator(Consumer<String> memoryIndicator) {
+        this.memoryIndicator = memoryIndicator;
+        memoryRevision = -1;
+        updateMemoryIndicator();
+    }
+
+    /**
+     * Shows the model's state after it changed other than through this controller, e.g. restored from a snapshot.
+     */
+    public void refreshDisplay() {
+        updateDisplay();
+    }
+
+    private void record(Keystroke keystroke) {
+        if (macroRecording != null && Macro.isRecordable(keystroke)) {
+            macroRecording.add(keystroke);
+        }
+        recordState(keystroke, false);
+    }
+
+    // A value record replays by showing the value the model shows now rather than by pressing the key
+    private void recordState(Keystroke keystroke, boolean value) {
+        if (snapshotWriter != null) {
+            snapshotWriter.capture(model);
+        }
+        if (tapeWriter == null) {
+            return;
+        }
         try {
-            model.squareRootValue(model.getDisplayText());
-            updateDisplay();
-        } catch (ParseException e) {
-            handleError(e);
+            if (value) {
+                tapeWriter.writeValue(keystroke, model.getEngine());
+            } else {
+                tapeWriter.write(keystroke, model.getEngine());
+            }
+        } catch (IOException e) {
+            logger.error("Could not record keystroke, recording stopped", e);
+            tapeWriter = null;
         }
     }
 
+    // Formats only when the model reports a change, so repeated no-op keys cost nothing
     private void updateDisplay() {
-        try {
-            String formattedValue = model.getFormatter().format(
-                    model.getFormatter().parse(model.getDisplayText()));
-            displayLabel.setText(formattedValue);
-            logger.trace("Display updated to: {}", formattedValue);
-        } catch (ParseException e) {
-            logger.error("Error updating display", e);
-            handleError(e);
+        updateMemoryIndicator();
+        long revision = model.getDisplayRevision();
+        if (revision == displayedRevision) {
+            return;
         }
+        displayedRevision = revision;
+        if (model.isError()) {
+            handleError();
+            return;
+        }
+        long start = metrics.begin(Measurement.UPDATE_DISPLAY);
+        String formattedValue = model.getDisplayText();
+        display.accept(formattedValue);
+        metrics.end(Measurement.UPDATE_DISPLAY, start);
+        logger.trace("Display updated to: {}", formattedValue);
     }
 
-    private void handleError(Exception e) {
-        logger.error("Calculator error occurred", e);
-        displayLabel.setText("Error");
-        model.clear();
+    private void updateMemoryIndicator() {
+        MemoryBank memory = model.getMemory();
+        if (memoryIndicator == null || memory.getRevision() == memoryRevision) {
+            return;
+        }
+        memoryRevision = memory.getRevision();
+        int selected = memory.getSelected();
+        memoryIndicator.accept(selected != 0 ? "M" + selected : memory.isEmpty() ? "" : "M");
+    }
+
+    private void handleError() {
+        logger.error("Calculator error occurred, entry could not be parsed");
+        metrics.parseError();
+        display.accept("Error");
     }
-}
\ No newline at end of file
+}
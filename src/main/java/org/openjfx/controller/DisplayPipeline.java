@@ -0,0 +1,108 @@
+package org.openjfx.controller;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import org.openjfx.enums.Operation;
+import org.openjfx.model.CalculatorModel;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces display text, operation and memory indicator changes from the model and publishes the latest of each on the
+ * JavaFX thread at most once per pulse, however fast keys arrive. Changes may come from any thread, so
+ * the model can be driven off the FX thread, e.g. to replay a tape into the visible calculator.
+ * <p>
+ * The pulse timer only runs while there is something to publish, so an idle calculator requests no frames.
+ */
+public final class DisplayPipeline implements Consumer<String> {
+    private final Consumer<String> display;
+    private final AtomicReference<String> pendingText = new AtomicReference<>();
+    private final AtomicReference<Operation> pendingOperation = new AtomicReference<>();
+    private final AtomicReference<String> pendingMemory = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ReadOnlyObjectWrapper<Operation> operation;
+    private final ReadOnlyStringWrapper memory = new ReadOnlyStringWrapper(this, "memory", "");
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            publish();
+        }
+    };
+
+    /**
+     * @param display receives the latest display text, on the JavaFX thread
+     */
+    public DisplayPipeline(CalculatorModel model, Consumer<String> display) {
+        this.display = display;
+        this.operation = new ReadOnlyObjectWrapper<>(this, "operation", model.getCurrentOperation());
+        model.currentOperationProperty().addListener((obs, oldOp, newOp) -> {
+            pendingOperation.set(newOp);
+            schedule();
+        });
+    }
+
+    /**
+     * Queues {@code text} for the next pulse, replacing any text not yet shown.
+     */
+    @Override
+    public void accept(String text) {
+        pendingText.set(text);
+        schedule();
+    }
+
+    /**
+     * Queues the memory indicator text for the next pulse; see {@link CalculatorController#setMemoryIndicator}.
+     */
+    public void acceptMemory(String text) {
+        pendingMemory.set(text);
+        schedule();
+    }
+
+    /**
+     * The memory indicator as last published; changes only on the JavaFX thread.
+     */
+    public ReadOnlyStringProperty memoryProperty() {
+        return memory.getReadOnlyProperty();
+    }
+
+    /**
+     * The model's pending operation as last published; changes only on the JavaFX thread.
+     */
+    public ReadOnlyObjectProperty<Operation> operationProperty() {
+        return operation.getReadOnlyProperty();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            if (Platform.isFxApplicationThread()) {
+                pulse.start();
+            } else {
+                Platform.runLater(pulse::start);
+            }
+        }
+    }
+
+    private void publish() {
+        pulse.stop();
+        // Cleared before taking the pending values, so a change racing with this pulse schedules the next one
+        scheduled.set(false);
+        String text = pendingText.getAndSet(null);
+        Operation op = pendingOperation.getAndSet(null);
+        String memoryText = pendingMemory.getAndSet(null);
+        if (text != null) {
+            display.accept(text);
+        }
+        if (op != null) {
+            operation.set(op);
+        }
+        if (memoryText != null) {
+            memory.set(memoryText);
+        }
+    }
+}
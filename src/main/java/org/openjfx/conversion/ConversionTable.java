@@ -0,0 +1,333 @@
+package org.openjfx.conversion;
+
+import org.openjfx.enums.Dimension;
+import org.openjfx.enums.Unit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Every conversion between the built-in {@link Unit}s and the currencies of one rate file, worked out in advance
+ * so that converting is a lookup and a multiply-add. Units are numbered by their ordinal and currencies after
+ * them, in alphabetical order; each dimension has a dense matrix of scales, and temperatures one of offsets,
+ * indexed by the position of both units within the dimension.
+ * <p>
+ * The unit matrices are computed once, exactly, and shared by all tables. Currency rates are given between pairs
+ * of currencies and the rate between any two that are linked through others is the product of the rates on the
+ * shortest chain between them, closed over the whole graph when the table is built. Instances are immutable.
+ */
+public final class ConversionTable {
+    private static final Unit[] UNITS = Unit.values();
+    private static final int CURRENCY = Dimension.CURRENCY.ordinal();
+    // Position of each unit within its dimension, and the size of each dimension
+    private static final int[] UNIT_POSITIONS = new int[UNITS.length];
+    private static final int[] UNIT_COUNTS = new int[Dimension.values().length];
+    private static final double[][] UNIT_SCALES = new double[UNIT_COUNTS.length][];
+    private static final double[][] UNIT_OFFSETS = new double[UNIT_COUNTS.length][];
+
+    static {
+        for (Unit unit : UNITS) {
+            UNIT_POSITIONS[unit.ordinal()] = UNIT_COUNTS[unit.getDimension().ordinal()]++;
+        }
+        for (int dimension = 0; dimension < CURRENCY; dimension++) {
+            int count = UNIT_COUNTS[dimension];
+            UNIT_SCALES[dimension] = new double[count * count];
+            UNIT_OFFSETS[dimension] = new double[count * count];
+        }
+        boolean[] offsets = new boolean[UNIT_COUNTS.length];
+        for (Unit from : UNITS) {
+            for (Unit to : UNITS) {
+                int dimension = from.getDimension().ordinal();
+                if (dimension == to.getDimension().ordinal()) {
+                    int index = UNIT_POSITIONS[from.ordinal()] * UNIT_COUNTS[dimension] + UNIT_POSITIONS[to.ordinal()];
+                    UNIT_SCALES[dimension][index] = from.scaleTo(to);
+                    UNIT_OFFSETS[dimension][index] = from.offsetTo(to);
+                    offsets[dimension] |= UNIT_OFFSETS[dimension][index] != 0;
+                }
+            }
+        }
+        for (int dimension = 0; dimension < CURRENCY; dimension++) {
+            if (!offsets[dimension]) {
+                UNIT_OFFSETS[dimension] = null;
+            }
+        }
+    }
+
+    private static final ConversionTable UNITS_ONLY = new ConversionTable(new String[0], new double[0]);
+
+    private final String[] currencies;
+    private final Map<String, Integer> currencyPositions = new HashMap<>();
+    private final int[] dimensions;
+    private final int[] positions;
+    private final int[] counts;
+    private final double[][] scales;
+    private final double[][] offsets;
+
+    private ConversionTable(String[] currencies, double[] currencyScales) {
+        this.currencies = currencies;
+        int size = UNITS.length + currencies.length;
+        dimensions = new int[size];
+        positions = new int[size];
+        for (Unit unit : UNITS) {
+            dimensions[unit.ordinal()] = unit.getDimension().ordinal();
+            positions[unit.ordinal()] = UNIT_POSITIONS[unit.ordinal()];
+        }
+        for (int i = 0; i < currencies.length; i++) {
+            currencyPositions.put(currencies[i], i);
+            dimensions[UNITS.length + i] = CURRENCY;
+            positions[UNITS.length + i] = i;
+        }
+        counts = UNIT_COUNTS.clone();
+        counts[CURRENCY] = currencies.length;
+        scales = UNIT_SCALES.clone();
+        scales[CURRENCY] = currencyScales;
+        offsets = UNIT_OFFSETS;
+    }
+
+    /**
+     * A table of the built-in units and no currencies.
+     */
+    public static ConversionTable unitsOnly() {
+        return UNITS_ONLY;
+    }
+
+    /**
+     * Builds the table for the rates saved at {@code path}; a missing file has no currencies. The file is UTF-8
+     * text with one rate per line as {@code FROM TO rate}, meaning one FROM is worth {@code rate} TO, e.g.
+     * {@code EUR USD 1.0856}; currencies are three capital letters and lines starting with # are ignored.
+     */
+    public static ConversionTable read(Path path) throws IOException, ParseException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return UNITS_ONLY;
+        }
+        return parse(lines, path.toString());
+    }
+
+    /**
+     * Builds the table for rate file {@code lines} as {@link #read} describes; {@code source} names them in errors.
+     */
+    public static ConversionTable parse(List<String> lines, String source) throws ParseException {
+        Map<String, Integer> codes = new TreeMap<>();
+        List<String[]> pairs = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length != 3 || !isCurrencyCode(fields[0]) || !isCurrencyCode(fields[1])
+                    || fields[0].equals(fields[1])) {
+                throw new ParseException("Expected FROM TO rate on line " + (i + 1) + " of " + source, i + 1);
+            }
+            double rate;
+            try {
+                rate = Double.parseDouble(fields[2]);
+            } catch (NumberFormatException e) {
+                rate = Double.NaN;
+            }
+            if (!(rate > 0) || Double.isInfinite(rate)) {
+                throw new ParseException("Not a rate '" + fields[2] + "' on line " + (i + 1) + " of " + source, i + 1);
+            }
+            codes.put(fields[0], 0);
+            codes.put(fields[1], 0);
+            pairs.add(fields);
+            rates.add(rate);
+        }
+        if (codes.isEmpty()) {
+            return UNITS_ONLY;
+        }
+        String[] currencies = codes.keySet().toArray(new String[0]);
+        for (int i = 0; i < currencies.length; i++) {
+            codes.put(currencies[i], i);
+        }
+        int count = currencies.length;
+        // Adjacency lists of the rate graph, both ways round, in file order
+        int[][] neighbours = new int[count][4];
+        double[][] weights = new double[count][4];
+        int[] degrees = new int[count];
+        for (int i = 0; i < pairs.size(); i++) {
+            int from = codes.get(pairs.get(i)[0]);
+            int to = codes.get(pairs.get(i)[1]);
+            addEdge(neighbours, weights, degrees, from, to, rates.get(i));
+            addEdge(neighbours, weights, degrees, to, from, 1 / rates.get(i));
+        }
+        double[] matrix = new double[count * count];
+        Arrays.fill(matrix, Double.NaN);
+        int[] queue = new int[count];
+        for (int origin = 0; origin < count; origin++) {
+            // Breadth first, so each rate is the product along a shortest chain
+            int row = origin * count;
+            matrix[row + origin] = 1;
+            queue[0] = origin;
+            for (int head = 0, tail = 1; head < tail; head++) {
+                int current = queue[head];
+                for (int e = 0; e < degrees[current]; e++) {
+                    int next = neighbours[current][e];
+                    if (Double.isNaN(matrix[row + next])) {
+                        matrix[row + next] = matrix[row + current] * weights[current][e];
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        // A rate given in the file is used as written, the last one for a pair winning
+        for (int i = 0; i < pairs.size(); i++) {
+            matrix[codes.get(pairs.get(i)[0]) * count + codes.get(pairs.get(i)[1])] = rates.get(i);
+        }
+        return new ConversionTable(currencies, matrix);
+    }
+
+    private static void addEdge(int[][] neighbours, double[][] weights, int[] degrees, int from, int to, double weight) {
+        if (degrees[from] == neighbours[from].length) {
+            neighbours[from] = Arrays.copyOf(neighbours[from], degrees[from] * 2);
+            weights[from] = Arrays.copyOf(weights[from], degrees[from] * 2);
+        }
+        neighbours[from][degrees[from]] = to;
+        weights[from][degrees[from]++] = weight;
+    }
+
+    private static boolean isCurrencyCode(String text) {
+        return text.length() == 3 && text.chars().allMatch(c -> c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * The number of units and currencies.
+     */
+    public int size() {
+        return dimensions.length;
+    }
+
+    /**
+     * The number of a unit by its symbol or alias, as {@link Unit#forSymbol}, or of a currency by its code;
+     * -1 if there is none.
+     */
+    public int indexOf(String symbol) {
+        Unit unit = Unit.forSymbol(symbol);
+        if (unit != null) {
+            return unit.ordinal();
+        }
+        Integer position = currencyPositions.get(symbol);
+        return position != null ? UNITS.length + position : -1;
+    }
+
+    public String symbol(int index) {
+        return index < UNITS.length ? UNITS[index].symbol() : currencies[index - UNITS.length];
+    }
+
+    public Dimension dimension(int index) {
+        return index < UNITS.length ? UNITS[index].getDimension() : Dimension.CURRENCY;
+    }
+
+    /**
+     * The symbols of the units of {@code dimension}, or the currency codes, in the order they are numbered.
+     */
+    public List<String> symbols(Dimension dimension) {
+        if (dimension == Dimension.CURRENCY) {
+            return List.of(currencies);
+        }
+        List<String> symbols = new ArrayList<>();
+        for (Unit unit : UNITS) {
+            if (unit.getDimension() == dimension) {
+                symbols.add(unit.symbol());
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * Whether a value converts from {@code from} to {@code to}: they measure the same dimension and, for
+     * currencies, the rate file links them.
+     */
+    public boolean isConvertible(int from, int to) {
+        return dimensions[from] == dimensions[to] && !Double.isNaN(scale(from, to));
+    }
+
+    public double convert(double value, int from, int to) {
+        if (from == to) {
+            return value;
+        }
+        int dimension = checkDimension(from, to);
+        int index = positions[from] * counts[dimension] + positions[to];
+        double[] offset = offsets[dimension];
+        return offset == null ? value * scales[dimension][index] : value * scales[dimension][index] + offset[index];
+    }
+
+    /**
+     * Converts {@code value} between units or currencies given by symbol, e.g. {@code convert(5, "mi", "km")}.
+     * NaN if the rate file does not link two currencies.
+     *
+     * @throws IllegalArgumentException if either is unknown or they measure different things
+     */
+    public double convert(double value, String from, String to) {
+        return convert(value, checkIndex(from), checkIndex(to));
+    }
+
+    public void convertAll(int from, int to, double[] values, double[] out) {
+        if (out.length < values.length) {
+            throw new IllegalArgumentException("Expected at least " + values.length + " elements but got " + out.length);
+        }
+        convertAll(from, to, values, out, 0, values.length);
+    }
+
+    /**
+     * Converts {@code values[start]} up to {@code values[end]}, writing each result to the same index of
+     * {@code out}, exactly as {@link #convert(double, int, int)} would one at a time. The scale and offset are
+     * looked up once and the loop is a multiply or multiply-add per element, which the JIT vectorizes.
+     */
+    public void convertAll(int from, int to, double[] values, double[] out, int start, int end) {
+        if (from == to) {
+            if (values != out) {
+                System.arraycopy(values, start, out, start, end - start);
+            }
+            return;
+        }
+        int dimension = checkDimension(from, to);
+        int index = positions[from] * counts[dimension] + positions[to];
+        double scale = scales[dimension][index];
+        if (offsets[dimension] == null) {
+            for (int i = start; i < end; i++) {
+                out[i] = values[i] * scale;
+            }
+        } else {
+            double offset = offsets[dimension][index];
+            for (int i = start; i < end; i++) {
+                out[i] = values[i] * scale + offset;
+            }
+        }
+    }
+
+    private double scale(int from, int to) {
+        int dimension = dimensions[from];
+        return scales[dimension][positions[from] * counts[dimension] + positions[to]];
+    }
+
+    private int checkDimension(int from, int to) {
+        int dimension = dimensions[from];
+        if (dimension != dimensions[to]) {
+            throw new IllegalArgumentException("Cannot convert " + symbol(from) + " to " + symbol(to));
+        }
+        return dimension;
+    }
+
+    private int checkIndex(String symbol) {
+        int index = indexOf(symbol);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown unit or currency: " + symbol);
+        }
+        return index;
+    }
+}
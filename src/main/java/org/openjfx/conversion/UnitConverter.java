@@ -0,0 +1,131 @@
+package org.openjfx.conversion;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.text.ParseException;
+
+/**
+ * Converts with the {@link ConversionTable} of a rate file and keeps it current as the file changes. A reload
+ * builds a complete new table off to the side and publishes it with a single volatile write, so lookups never
+ * wait for it and never see half of one: a conversion, or a whole {@link #convertAll batch}, uses the table
+ * that was current when it started. A rate file that does not parse leaves the current table in place.
+ */
+public class UnitConverter implements Closeable {
+    private static final Logger logger = LogManager.getLogger();
+
+    private final Path path;
+    private volatile ConversionTable table;
+    private WatchService watcher;
+
+    /**
+     * Reads the rates saved at {@code path}; a missing file has no currencies until it is created.
+     */
+    public UnitConverter(Path path) throws IOException, ParseException {
+        this.path = path.toAbsolutePath();
+        table = ConversionTable.read(this.path);
+    }
+
+    /**
+     * The current table; keep it for a series of conversions that must agree with each other.
+     */
+    public ConversionTable getTable() {
+        return table;
+    }
+
+    public double convert(double value, String from, String to) {
+        return table.convert(value, from, to);
+    }
+
+    /**
+     * Converts every element of {@code values} into {@code out}, as {@link ConversionTable#convertAll}, with
+     * the units given by symbol.
+     */
+    public void convertAll(String from, String to, double[] values, double[] out) {
+        ConversionTable current = table;
+        current.convertAll(checkIndex(current, from), checkIndex(current, to), values, out);
+    }
+
+    /**
+     * Reads the rate file again and swaps in its table.
+     */
+    public void reload() throws IOException, ParseException {
+        long start = System.nanoTime();
+        ConversionTable reloaded = ConversionTable.read(path);
+        table = reloaded;
+        logger.info("Loaded {} units and currencies from {} in {} ms", reloaded.size(), path,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reloads the rate file on a background thread whenever it is written, created or replaced. The file's
+     * directory is created if missing, as it can only be watched once it exists.
+     */
+    public void watch() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        Files.createDirectories(path.getParent());
+        WatchService service = FileSystems.getDefault().newWatchService();
+        try {
+            path.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            service.close();
+            throw e;
+        }
+        watcher = service;
+        Thread thread = new Thread(this::run, "rate-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= path.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IOException | ParseException e) {
+                        logger.warn("Keeping the previous rates, could not reload {}", path, e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Stopped watching {}", path);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int checkIndex(ConversionTable table, String symbol) {
+        int index = table.indexOf(symbol);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown unit or currency: " + symbol);
+        }
+        return index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+}
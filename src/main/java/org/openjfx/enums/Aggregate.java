@@ -0,0 +1,20 @@
+package org.openjfx.enums;
+
+/**
+ * Summaries of a stream of values that {@code RunningStatistics} keeps up to date as values arrive.
+ */
+public enum Aggregate {
+    COUNT,
+    SUM,
+    MEAN,
+    /**
+     * Sample variance; 0 for fewer than two values.
+     */
+    VARIANCE,
+    /**
+     * Sample standard deviation; 0 for fewer than two values.
+     */
+    STANDARD_DEVIATION,
+    MIN,
+    MAX
+}
@@ -0,0 +1,16 @@
+package org.openjfx.enums;
+
+/**
+ * What a unit measures; values convert only between units of the same dimension.
+ */
+public enum Dimension {
+    LENGTH,
+    MASS,
+    VOLUME,
+    TEMPERATURE,
+    DATA_SIZE,
+    /**
+     * Currencies are not {@link Unit}s: their codes and rates come from a rate file.
+     */
+    CURRENCY
+}
@@ -0,0 +1,200 @@
+package org.openjfx.enums;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum Keystroke {
+    DIGIT_0("0"),
+    DIGIT_1("1"),
+    DIGIT_2("2"),
+    DIGIT_3("3"),
+    DIGIT_4("4"),
+    DIGIT_5("5"),
+    DIGIT_6("6"),
+    DIGIT_7("7"),
+    DIGIT_8("8"),
+    DIGIT_9("9"),
+    DECIMAL("."),
+    PLUS("+"),
+    MINUS("-"),
+    MULTIPLY("×", "*"),
+    DIVIDE("÷", "/"),
+    EQUALS("=", "enter"),
+    CLEAR("C", "esc"),
+    CLEAR_ENTRY("CE", "delete"),
+    BACK_SPACE("⌫", "backspace"),
+    NEGATE("±", "neg"),
+    RECIPROCAL("1/x", "recip"),
+    SQUARE("x²", "sqr"),
+    SQUARE_ROOT("√", "sqrt"),
+    MEMORY_CLEAR("MC", "mc"),
+    MEMORY_RECALL("MR", "mr"),
+    MEMORY_ADD("M+", "m+"),
+    MEMORY_SUBTRACT("M-", "m-"),
+    // Select the memory register the other memory keys act on
+    MEMORY_0("M0", "m0"),
+    MEMORY_1("M1", "m1"),
+    MEMORY_2("M2", "m2"),
+    MEMORY_3("M3", "m3"),
+    MEMORY_4("M4", "m4"),
+    MEMORY_5("M5", "m5"),
+    MEMORY_6("M6", "m6"),
+    MEMORY_7("M7", "m7"),
+    MEMORY_8("M8", "m8"),
+    MEMORY_9("M9", "m9"),
+    // Recall statistics of the values added to the selected register
+    MEMORY_COUNT("n", "count"),
+    MEMORY_MEAN("x̄", "mean"),
+    MEMORY_VARIANCE("s²", "var"),
+    // Statistics mode: feed the stream and recall its statistics
+    STATISTICS_ADD("Σ+", "stat+"),
+    STATISTICS_CLEAR("CΣ", "statclear"),
+    STATISTICS_COUNT("Σn", "statn"),
+    STATISTICS_SUM("Σx", "statsum"),
+    STATISTICS_MEAN("Σx̄", "statmean"),
+    STATISTICS_STANDARD_DEVIATION("Σσ", "statsd"),
+    STATISTICS_MIN("Σmin", "statmin"),
+    STATISTICS_MAX("Σmax", "statmax"),
+    // The displayed value, 0 to 100, selects the percentile
+    STATISTICS_PERCENTILE("Σ%", "statpct"),
+    // Apply the macro saved in a slot to the displayed value
+    MACRO_1("ƒ1", "f1"),
+    MACRO_2("ƒ2", "f2"),
+    MACRO_3("ƒ3", "f3"),
+    MACRO_4("ƒ4", "f4"),
+    MACRO_5("ƒ5", "f5"),
+    MACRO_6("ƒ6", "f6"),
+    MACRO_7("ƒ7", "f7"),
+    MACRO_8("ƒ8", "f8");
+
+    private static final Keystroke[] VALUES = values();
+    private static final Map<String, Keystroke> BY_SYMBOL = new HashMap<>();
+    // Open-addressed by String.hashCode, so char runs are looked up without building a String
+    private static final int TABLE_MASK = 511;
+    private static final String[] TABLE_SYMBOLS = new String[TABLE_MASK + 1];
+    private static final Keystroke[] TABLE_KEYSTROKES = new Keystroke[TABLE_MASK + 1];
+
+    static {
+        for (Keystroke keystroke : VALUES) {
+            for (String symbol : keystroke.symbols) {
+                BY_SYMBOL.put(symbol, keystroke);
+                int slot = symbol.hashCode() & TABLE_MASK;
+                while (TABLE_SYMBOLS[slot] != null) {
+                    slot = (slot + 1) & TABLE_MASK;
+                }
+                TABLE_SYMBOLS[slot] = symbol;
+                TABLE_KEYSTROKES[slot] = keystroke;
+            }
+        }
+    }
+
+    private final String[] symbols;
+
+    Keystroke(String... symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Looks up a keystroke by its button label ("7", "×", "√") or its ASCII alias ("*", "sqrt").
+     */
+    public static Keystroke fromSymbol(String symbol) {
+        Keystroke keystroke = BY_SYMBOL.get(symbol);
+        if (keystroke == null) {
+            throw new IllegalArgumentException("Unknown keystroke: " + symbol);
+        }
+        return keystroke;
+    }
+
+    /**
+     * Looks up {@code length} characters of {@code chars} without building a String; null if unknown.
+     */
+    public static Keystroke fromSymbol(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        for (int slot = hash & TABLE_MASK; TABLE_SYMBOLS[slot] != null; slot = (slot + 1) & TABLE_MASK) {
+            String symbol = TABLE_SYMBOLS[slot];
+            if (symbol.length() == length && matches(symbol, chars, offset)) {
+                return TABLE_KEYSTROKES[slot];
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String symbol, char[] chars, int offset) {
+        for (int i = 0; i < symbol.length(); i++) {
+            if (symbol.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String symbol() {
+        return symbols[0];
+    }
+
+    public static Keystroke digit(int digit) {
+        return VALUES[DIGIT_0.ordinal() + digit];
+    }
+
+    public static Keystroke memoryRegister(int register) {
+        return VALUES[MEMORY_0.ordinal() + register];
+    }
+
+    /**
+     * The key of macro slot {@code slot}, counted from 0 and labelled from ƒ1.
+     */
+    public static Keystroke macro(int slot) {
+        return VALUES[MACRO_1.ordinal() + slot];
+    }
+
+    public static Keystroke of(Operation operation) {
+        return switch (operation) {
+            case PLUS -> PLUS;
+            case MINUS -> MINUS;
+            case MULTIPLY -> MULTIPLY;
+            case DIVIDE -> DIVIDE;
+            case NONE -> throw new IllegalArgumentException("No keystroke for " + operation);
+        };
+    }
+
+    public static Keystroke of(UnaryOperation operation) {
+        return switch (operation) {
+            case NEGATE -> NEGATE;
+            case SQUARE -> SQUARE;
+            case SQUARE_ROOT -> SQUARE_ROOT;
+            case RECIPROCAL -> RECIPROCAL;
+        };
+    }
+
+    public static Keystroke memoryStatistic(Aggregate aggregate) {
+        return switch (aggregate) {
+            case COUNT -> MEMORY_COUNT;
+            case MEAN -> MEMORY_MEAN;
+            case VARIANCE -> MEMORY_VARIANCE;
+            default -> throw new IllegalArgumentException("No memory keystroke for " + aggregate);
+        };
+    }
+
+    public static Keystroke statistic(Aggregate aggregate) {
+        return switch (aggregate) {
+            case COUNT -> STATISTICS_COUNT;
+            case SUM -> STATISTICS_SUM;
+            case MEAN -> STATISTICS_MEAN;
+            case STANDARD_DEVIATION -> STATISTICS_STANDARD_DEVIATION;
+            case MIN -> STATISTICS_MIN;
+            case MAX -> STATISTICS_MAX;
+            case VARIANCE -> throw new IllegalArgumentException("No statistics keystroke for " + aggregate);
+        };
+    }
+
+    public static Keystroke fromCode(int code) {
+        return VALUES[code];
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+}
@@ -0,0 +1,16 @@
+package org.openjfx.enums;
+
+public enum NumericMode {
+    /**
+     * Binary floating point, as the calculator always worked.
+     */
+    DOUBLE,
+    /**
+     * Exact decimal arithmetic, rounded only where the engine's {@code MathContext} requires.
+     */
+    DECIMAL,
+    /**
+     * Longs scaled to the display's 7 fraction digits; results out of that range fall back to double.
+     */
+    FIXED_POINT
+}
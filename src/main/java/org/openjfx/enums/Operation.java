@@ -5,5 +5,15 @@ public enum Operation {
     MINUS,
     MULTIPLY,
     DIVIDE,
-    NONE
+    NONE;
+
+    public double apply(double left, double right) {
+        return switch (this) {
+            case PLUS -> left + right;
+            case MINUS -> left - right;
+            case MULTIPLY -> left * right;
+            case DIVIDE -> left / right;
+            case NONE -> left;
+        };
+    }
 }
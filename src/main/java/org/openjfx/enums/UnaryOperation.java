@@ -0,0 +1,17 @@
+package org.openjfx.enums;
+
+public enum UnaryOperation {
+    NEGATE,
+    SQUARE,
+    SQUARE_ROOT,
+    RECIPROCAL;
+
+    public double apply(double value) {
+        return switch (this) {
+            case NEGATE -> -value;
+            case SQUARE -> value * value;
+            case SQUARE_ROOT -> Math.sqrt(value);
+            case RECIPROCAL -> 1 / value;
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package org.openjfx.enums;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The units the calculator converts between, each defined exactly in terms of its dimension's base unit: metres,
+ * kilograms, cubic metres, kelvin and bits. A value {@code x} in a unit is {@code (x + offset) × scale} base units,
+ * where only temperatures have an offset. US customary volumes are the US ones unless marked imperial.
+ */
+public enum Unit {
+    NANOMETRE(Dimension.LENGTH, "1e-9", "nm"),
+    MICROMETRE(Dimension.LENGTH, "1e-6", "µm", "um"),
+    MILLIMETRE(Dimension.LENGTH, "0.001", "mm"),
+    CENTIMETRE(Dimension.LENGTH, "0.01", "cm"),
+    DECIMETRE(Dimension.LENGTH, "0.1", "dm"),
+    METRE(Dimension.LENGTH, "1", "m"),
+    KILOMETRE(Dimension.LENGTH, "1000", "km"),
+    THOU(Dimension.LENGTH, "0.0000254", "mil", "thou"),
+    INCH(Dimension.LENGTH, "0.0254", "in"),
+    FOOT(Dimension.LENGTH, "0.3048", "ft"),
+    YARD(Dimension.LENGTH, "0.9144", "yd"),
+    MILE(Dimension.LENGTH, "1609.344", "mi"),
+    NAUTICAL_MILE(Dimension.LENGTH, "1852", "nmi"),
+
+    MICROGRAM(Dimension.MASS, "1e-9", "µg", "ug"),
+    MILLIGRAM(Dimension.MASS, "1e-6", "mg"),
+    GRAM(Dimension.MASS, "0.001", "g"),
+    KILOGRAM(Dimension.MASS, "1", "kg"),
+    TONNE(Dimension.MASS, "1000", "t"),
+    GRAIN(Dimension.MASS, "0.00006479891", "gr"),
+    CARAT(Dimension.MASS, "0.0002", "ct"),
+    OUNCE(Dimension.MASS, "0.028349523125", "oz"),
+    TROY_OUNCE(Dimension.MASS, "0.0311034768", "oz t"),
+    POUND(Dimension.MASS, "0.45359237", "lb"),
+    STONE(Dimension.MASS, "6.35029318", "st"),
+    SHORT_TON(Dimension.MASS, "907.18474", "sh tn"),
+    LONG_TON(Dimension.MASS, "1016.0469088", "long tn"),
+
+    MILLILITRE(Dimension.VOLUME, "1e-6", "ml", "mL"),
+    CENTILITRE(Dimension.VOLUME, "1e-5", "cl", "cL"),
+    DECILITRE(Dimension.VOLUME, "1e-4", "dl", "dL"),
+    LITRE(Dimension.VOLUME, "0.001", "l", "L"),
+    CUBIC_CENTIMETRE(Dimension.VOLUME, "1e-6", "cm³", "cm3", "cc"),
+    CUBIC_METRE(Dimension.VOLUME, "1", "m³", "m3"),
+    CUBIC_INCH(Dimension.VOLUME, "0.000016387064", "in³", "in3"),
+    CUBIC_FOOT(Dimension.VOLUME, "0.028316846592", "ft³", "ft3"),
+    TEASPOON(Dimension.VOLUME, "0.00000492892159375", "tsp"),
+    TABLESPOON(Dimension.VOLUME, "0.00001478676478125", "tbsp"),
+    FLUID_OUNCE(Dimension.VOLUME, "0.0000295735295625", "fl oz"),
+    CUP(Dimension.VOLUME, "0.0002365882365", "cup"),
+    PINT(Dimension.VOLUME, "0.000473176473", "pt"),
+    QUART(Dimension.VOLUME, "0.000946352946", "qt"),
+    GALLON(Dimension.VOLUME, "0.003785411784", "gal"),
+    IMPERIAL_FLUID_OUNCE(Dimension.VOLUME, "0.0000284130625", "imp fl oz"),
+    IMPERIAL_PINT(Dimension.VOLUME, "0.00056826125", "imp pt"),
+    IMPERIAL_GALLON(Dimension.VOLUME, "0.00454609", "imp gal"),
+    BARREL(Dimension.VOLUME, "0.158987294928", "bbl"),
+
+    KELVIN(Dimension.TEMPERATURE, "1", "K"),
+    CELSIUS(Dimension.TEMPERATURE, "1", 273.15, "°C", "C"),
+    FAHRENHEIT(Dimension.TEMPERATURE, "5/9", 459.67, "°F", "F"),
+    RANKINE(Dimension.TEMPERATURE, "5/9", "°R", "R"),
+
+    BIT(Dimension.DATA_SIZE, "1", "bit", "b"),
+    KILOBIT(Dimension.DATA_SIZE, "1e3", "kbit", "kb"),
+    MEGABIT(Dimension.DATA_SIZE, "1e6", "Mbit", "Mb"),
+    GIGABIT(Dimension.DATA_SIZE, "1e9", "Gbit", "Gb"),
+    TERABIT(Dimension.DATA_SIZE, "1e12", "Tbit", "Tb"),
+    BYTE(Dimension.DATA_SIZE, "8", "B"),
+    KILOBYTE(Dimension.DATA_SIZE, "8e3", "kB"),
+    MEGABYTE(Dimension.DATA_SIZE, "8e6", "MB"),
+    GIGABYTE(Dimension.DATA_SIZE, "8e9", "GB"),
+    TERABYTE(Dimension.DATA_SIZE, "8e12", "TB"),
+    PETABYTE(Dimension.DATA_SIZE, "8e15", "PB"),
+    EXABYTE(Dimension.DATA_SIZE, "8e18", "EB"),
+    KIBIBYTE(Dimension.DATA_SIZE, "8192", "KiB"),
+    MEBIBYTE(Dimension.DATA_SIZE, "8388608", "MiB"),
+    GIBIBYTE(Dimension.DATA_SIZE, "8589934592", "GiB"),
+    TEBIBYTE(Dimension.DATA_SIZE, "8796093022208", "TiB"),
+    PEBIBYTE(Dimension.DATA_SIZE, "9007199254740992", "PiB"),
+    EXBIBYTE(Dimension.DATA_SIZE, "9223372036854775808", "EiB");
+
+    private static final Map<String, Unit> BY_SYMBOL = new HashMap<>();
+
+    static {
+        for (Unit unit : values()) {
+            for (String symbol : unit.symbols) {
+                BY_SYMBOL.put(symbol, unit);
+            }
+        }
+    }
+
+    private final Dimension dimension;
+    private final BigDecimal numerator;
+    private final BigDecimal denominator;
+    private final BigDecimal offset;
+    private final String[] symbols;
+
+    /**
+     * @param scale base units per unit, a decimal or a fraction such as "5/9"
+     */
+    Unit(Dimension dimension, String scale, String... symbols) {
+        this(dimension, scale, 0, symbols);
+    }
+
+    Unit(Dimension dimension, String scale, double offset, String... symbols) {
+        int slash = scale.indexOf('/');
+        this.dimension = dimension;
+        this.numerator = new BigDecimal(slash < 0 ? scale : scale.substring(0, slash));
+        this.denominator = slash < 0 ? BigDecimal.ONE : new BigDecimal(scale.substring(slash + 1));
+        // As written, e.g. 273.15 rather than the binary fraction nearest to it
+        this.offset = BigDecimal.valueOf(offset);
+        this.symbols = symbols;
+    }
+
+    /**
+     * Looks up a unit by its symbol ("km", "°F", "MiB") or an ASCII alias ("um", "F"); null if unknown.
+     */
+    public static Unit forSymbol(String symbol) {
+        return BY_SYMBOL.get(symbol);
+    }
+
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    public String symbol() {
+        return symbols[0];
+    }
+
+    /**
+     * The number {@code x} in this unit is multiplied by, as in {@code x × scale + offset}, to convert it to
+     * {@code target}; exact to within one rounding to double.
+     */
+    public double scaleTo(Unit target) {
+        checkDimension(target);
+        return numerator.multiply(target.denominator)
+                .divide(denominator.multiply(target.numerator), MathContext.DECIMAL128).doubleValue();
+    }
+
+    /**
+     * What {@code 0} in this unit is in {@code target}: 0 unless both measure temperature.
+     */
+    public double offsetTo(Unit target) {
+        checkDimension(target);
+        // (0 + offset) × scale base units, in the target unit
+        return offset.multiply(numerator).multiply(target.denominator)
+                .divide(denominator.multiply(target.numerator), MathContext.DECIMAL128)
+                .subtract(target.offset).doubleValue();
+    }
+
+    private void checkDimension(Unit target) {
+        if (target.dimension != dimension) {
+            throw new IllegalArgumentException("Cannot convert " + symbol() + " to " + target.symbol());
+        }
+    }
+}
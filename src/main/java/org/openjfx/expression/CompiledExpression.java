@@ -0,0 +1,98 @@
+package org.openjfx.expression;
+
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * An infix expression compiled to postfix code, ready to be evaluated repeatedly.
+ * Instances are immutable and may be shared between threads; each thread supplies its own stack.
+ */
+public final class CompiledExpression {
+    static final int CONSTANT = 0;
+    static final int VARIABLE = 1;
+    static final int BINARY = 2;
+    static final int UNARY = 3;
+    static final int KIND_BITS = 2;
+    static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final UnaryOperation[] UNARY_OPERATIONS = UnaryOperation.values();
+
+    private final String source;
+    private final int[] code;
+    private final double[] constants;
+    private final List<String> variableNames;
+    private final int maxStackDepth;
+
+    CompiledExpression(String source, int[] code, double[] constants, List<String> variableNames, int maxStackDepth) {
+        this.source = source;
+        this.code = code;
+        this.constants = constants;
+        this.variableNames = List.copyOf(variableNames);
+        this.maxStackDepth = maxStackDepth;
+    }
+
+    public double evaluate(double... variables) {
+        return evaluate(variables, newStack());
+    }
+
+    public double evaluate(double[] variables, double[] stack) {
+        if (variables.length < variableNames.size()) {
+            throw new IllegalArgumentException("Expected " + variableNames.size()
+                    + " variable bindings " + variableNames + " but got " + variables.length);
+        }
+        int top = -1;
+        for (int instruction : code) {
+            int argument = instruction >>> KIND_BITS;
+            switch (instruction & KIND_MASK) {
+                case CONSTANT -> stack[++top] = constants[argument];
+                case VARIABLE -> stack[++top] = variables[argument];
+                case BINARY -> {
+                    double right = stack[top--];
+                    stack[top] = OPERATIONS[argument].apply(stack[top], right);
+                }
+                default -> stack[top] = UNARY_OPERATIONS[argument].apply(stack[top]);
+            }
+        }
+        return stack[0];
+    }
+
+    public double[] newStack() {
+        return new double[maxStackDepth];
+    }
+
+    public int variableIndex(String name) {
+        return variableNames.indexOf(name);
+    }
+
+    public List<String> getVariableNames() {
+        return variableNames;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int size() {
+        return code.length;
+    }
+
+    // Postfix listing, e.g. "x 2 MULTIPLY SQUARE_ROOT"
+    @Override
+    public String toString() {
+        StringJoiner listing = new StringJoiner(" ");
+        for (int instruction : code) {
+            int argument = instruction >>> KIND_BITS;
+            switch (instruction & KIND_MASK) {
+                case CONSTANT -> listing.add(Double.toString(constants[argument]));
+                case VARIABLE -> listing.add(variableNames.get(argument));
+                case BINARY -> listing.add(OPERATIONS[argument].name());
+                default -> listing.add(UNARY_OPERATIONS[argument].name());
+            }
+        }
+        return listing.toString();
+    }
+}
@@ -0,0 +1,277 @@
+package org.openjfx.expression;
+
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles infix expressions such as {@code sqrt(price * qty) + 1/x - -rate²} into a {@link CompiledExpression}.
+ * Usual precedence applies: unary minus and functions bind tighter than × and ÷, which bind tighter than + and -.
+ * Identifiers that are not functions become variables, numbered in order of first appearance.
+ * Sub-expressions without variables are folded into constants while compiling.
+ */
+public class ExpressionParser {
+    /**
+     * Parentheses, functions and prefix operators nested deeper than this are rejected rather than recursed into.
+     */
+    public static final int MAX_NESTING = 256;
+
+    private String source;
+    private int position;
+    private int[] code;
+    private int codeSize;
+    private double[] constants;
+    private int constantCount;
+    private List<String> variableNames;
+    private int depth;
+    private int maxDepth;
+    private int nesting;
+
+    public CompiledExpression parse(String expression) throws ParseException {
+        return parse(expression, List.of());
+    }
+
+    /**
+     * Compiles with {@code variables} bound to the first slots, in the given order.
+     */
+    public CompiledExpression parse(String expression, List<String> variables) throws ParseException {
+        source = expression;
+        position = 0;
+        code = new int[16];
+        codeSize = 0;
+        constants = new double[8];
+        constantCount = 0;
+        variableNames = new ArrayList<>(variables);
+        depth = 0;
+        maxDepth = 0;
+        nesting = 0;
+
+        parseSum();
+        skipWhitespace();
+        if (position < source.length()) {
+            throw error("Unexpected '" + source.charAt(position) + "'");
+        }
+        return new CompiledExpression(source, Arrays.copyOf(code, codeSize),
+                Arrays.copyOf(constants, constantCount), variableNames, maxDepth);
+    }
+
+    private void parseSum() throws ParseException {
+        parseProduct();
+        while (true) {
+            if (accept('+')) {
+                parseProduct();
+                emitBinary(Operation.PLUS);
+            } else if (accept('-')) {
+                parseProduct();
+                emitBinary(Operation.MINUS);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void parseProduct() throws ParseException {
+        parseUnary();
+        while (true) {
+            if (accept('*') || accept('×')) {
+                parseUnary();
+                emitBinary(Operation.MULTIPLY);
+            } else if (accept('/') || accept('÷')) {
+                parseUnary();
+                emitBinary(Operation.DIVIDE);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void parseUnary() throws ParseException {
+        if (++nesting > MAX_NESTING) {
+            throw error("Nested deeper than " + MAX_NESTING + " levels");
+        }
+        parseUnaryOperand();
+        nesting--;
+    }
+
+    private void parseUnaryOperand() throws ParseException {
+        if (accept('-')) {
+            parseUnary();
+            emitUnary(UnaryOperation.NEGATE);
+        } else if (accept('+')) {
+            parseUnary();
+        } else if (accept('√')) {
+            parseUnary();
+            emitUnary(UnaryOperation.SQUARE_ROOT);
+        } else {
+            parsePostfix();
+        }
+    }
+
+    private void parsePostfix() throws ParseException {
+        parsePrimary();
+        while (accept('²')) {
+            emitUnary(UnaryOperation.SQUARE);
+        }
+    }
+
+    private void parsePrimary() throws ParseException {
+        skipWhitespace();
+        if (position >= source.length()) {
+            throw error("Unexpected end of expression");
+        }
+        char c = source.charAt(position);
+        if (accept('(')) {
+            parseSum();
+            expect(')');
+        } else if (Character.isDigit(c) || c == '.') {
+            emitConstant(parseNumber());
+        } else if (Character.isLetter(c)) {
+            String name = parseIdentifier();
+            UnaryOperation function = function(name);
+            if (function != null && peek('(')) {
+                accept('(');
+                parseSum();
+                expect(')');
+                emitUnary(function);
+            } else {
+                emitVariable(name);
+            }
+        } else {
+            throw error("Unexpected '" + c + "'");
+        }
+    }
+
+    private static UnaryOperation function(String name) {
+        return switch (name) {
+            case "sqrt" -> UnaryOperation.SQUARE_ROOT;
+            case "sqr", "square" -> UnaryOperation.SQUARE;
+            case "recip", "reciprocal" -> UnaryOperation.RECIPROCAL;
+            case "neg", "negate" -> UnaryOperation.NEGATE;
+            default -> null;
+        };
+    }
+
+    private double parseNumber() throws ParseException {
+        int start = position;
+        while (position < source.length()
+                && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            position++;
+        }
+        if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+            int exponent = position + 1;
+            if (exponent < source.length() && (source.charAt(exponent) == '+' || source.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < source.length() && Character.isDigit(source.charAt(exponent))) {
+                position = exponent;
+                while (position < source.length() && Character.isDigit(source.charAt(position))) {
+                    position++;
+                }
+            }
+        }
+        try {
+            return Double.parseDouble(source.substring(start, position));
+        } catch (NumberFormatException e) {
+            ParseException exception = new ParseException("Malformed number '"
+                    + source.substring(start, position) + "'", start);
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    private String parseIdentifier() {
+        int start = position;
+        while (position < source.length()
+                && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_')) {
+            position++;
+        }
+        return source.substring(start, position);
+    }
+
+    private void emitConstant(double value) {
+        if (constantCount == constants.length) {
+            constants = Arrays.copyOf(constants, constantCount * 2);
+        }
+        constants[constantCount] = value;
+        emit(CompiledExpression.CONSTANT, constantCount++, 1);
+    }
+
+    private void emitVariable(String name) {
+        int index = variableNames.indexOf(name);
+        if (index < 0) {
+            index = variableNames.size();
+            variableNames.add(name);
+        }
+        emit(CompiledExpression.VARIABLE, index, 1);
+    }
+
+    private void emitBinary(Operation operation) {
+        if (isConstant(codeSize - 1) && isConstant(codeSize - 2)) {
+            double right = constants[--constantCount];
+            double left = constants[--constantCount];
+            codeSize -= 2;
+            depth -= 2;
+            emitConstant(operation.apply(left, right));
+            return;
+        }
+        emit(CompiledExpression.BINARY, operation.ordinal(), -1);
+    }
+
+    private void emitUnary(UnaryOperation operation) {
+        if (isConstant(codeSize - 1)) {
+            double operand = constants[--constantCount];
+            codeSize--;
+            depth--;
+            emitConstant(operation.apply(operand));
+            return;
+        }
+        emit(CompiledExpression.UNARY, operation.ordinal(), 0);
+    }
+
+    // Constants are always appended last, so a trailing constant instruction owns the last constant slot
+    private boolean isConstant(int index) {
+        return index >= 0 && (code[index] & CompiledExpression.KIND_MASK) == CompiledExpression.CONSTANT;
+    }
+
+    private void emit(int kind, int argument, int stackEffect) {
+        if (codeSize == code.length) {
+            code = Arrays.copyOf(code, codeSize * 2);
+        }
+        code[codeSize++] = argument << CompiledExpression.KIND_BITS | kind;
+        depth += stackEffect;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private boolean accept(char expected) {
+        if (peek(expected)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean peek(char expected) {
+        skipWhitespace();
+        return position < source.length() && source.charAt(position) == expected;
+    }
+
+    private void expect(char expected) throws ParseException {
+        if (!accept(expected)) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+    }
+
+    private ParseException error(String message) {
+        return new ParseException(message + " at position " + position + " in \"" + source + "\"", position);
+    }
+}
@@ -0,0 +1,73 @@
+package org.openjfx.history;
+
+import org.openjfx.enums.Keystroke;
+import org.openjfx.model.DisplayFormatter;
+
+/**
+ * One recorded calculation. Unary calculations are keyed by their function key and have no right operand.
+ */
+public final class HistoryEntry {
+    private final long index;
+    private final long timeMillis;
+    private final Keystroke operation;
+    private final double left;
+    private final double right;
+    private final double result;
+
+    HistoryEntry(long index, long timeMillis, Keystroke operation, double left, double right, double result) {
+        this.index = index;
+        this.timeMillis = timeMillis;
+        this.operation = operation;
+        this.left = left;
+        this.right = right;
+        this.result = result;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public Keystroke getOperation() {
+        return operation;
+    }
+
+    public double getLeft() {
+        return left;
+    }
+
+    public double getRight() {
+        return right;
+    }
+
+    public double getResult() {
+        return result;
+    }
+
+    public boolean isUnary() {
+        return !HistoryStore.isBinary(operation);
+    }
+
+    /**
+     * The calculation as shown on the display, e.g. "1,200 × 3 = 3,600" or "√16 = 4".
+     */
+    public String getExpression() {
+        String operand = DisplayFormatter.format(left);
+        String expression = switch (operation) {
+            case SQUARE -> "(" + operand + ")²";
+            case SQUARE_ROOT -> "√" + operand;
+            case RECIPROCAL -> "1/" + operand;
+            case NEGATE -> "±" + operand;
+            default -> operand + " " + operation.symbol() + " " + DisplayFormatter.format(right);
+        };
+        return expression + " = " + DisplayFormatter.format(result);
+    }
+
+    @Override
+    public String toString() {
+        return getExpression();
+    }
+}
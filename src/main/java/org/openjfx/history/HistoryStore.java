@@ -0,0 +1,373 @@
+package org.openjfx.history;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.model.CalculationListener;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only calculation history on disk, 32 bytes per entry: the time in epoch milliseconds with the
+ * operation's keystroke code in the top byte, then the left operand, right operand and result as doubles.
+ * <p>
+ * Only two compact indexes are kept in memory: the time of every {@value #TIME_BLOCK}th entry, and for each
+ * operation the positions of its entries. Entry times never decrease, so a time range is a contiguous run of
+ * entries found by binary search. The indexes are rebuilt by a background scan of the file, so opening a
+ * history of millions of entries returns at once; searches wait for the scan to finish, appends never do.
+ */
+public class HistoryStore implements CalculationListener, Closeable {
+    static final int ENTRY_SIZE = 32;
+    private static final int TIME_BLOCK = 64;
+    private static final int SCAN_ENTRIES = 8192;
+    private static final long TIME_MASK = (1L << 56) - 1;
+    private static final Keystroke[] KEYSTROKES = Keystroke.values();
+
+    private final Logger logger = LogManager.getLogger();
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer appendBuffer = ByteBuffer.allocate(ENTRY_SIZE);
+    private final int[][] positions = new int[KEYSTROKES.length][];
+    private final int[] positionCounts = new int[KEYSTROKES.length];
+    private final Thread indexer;
+    private long[] blockTimes = new long[64];
+    private long size;
+    private long lastTime;
+    private boolean indexing = true;
+    private IOException indexFailure;
+    private volatile boolean closed;
+
+    public HistoryStore(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // A torn entry at the end is dropped and overwritten by the next append
+            size = channel.size() / ENTRY_SIZE;
+            if (size > 0) {
+                lastTime = read(size - 1, 1).getLong() & TIME_MASK;
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        indexer = new Thread(this::buildIndexes, "history-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    static boolean isBinary(Keystroke operation) {
+        return switch (operation) {
+            case PLUS, MINUS, MULTIPLY, DIVIDE -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public void onCalculation(Operation operation, double left, double right, double result) {
+        append(Keystroke.of(operation), left, right, result);
+    }
+
+    @Override
+    public void onCalculation(UnaryOperation operation, double operand, double result) {
+        append(Keystroke.of(operation), operand, 0, result);
+    }
+
+    /**
+     * Appends an entry stamped with the current time, or with the previous entry's time if the clock went back.
+     * A failed write is logged and the entry dropped, so history problems never interrupt a calculation.
+     */
+    public synchronized void append(Keystroke operation, double left, double right, double result) {
+        long time = Math.max(System.currentTimeMillis(), lastTime);
+        long stamp = (long) operation.code() << 56 | time;
+        appendBuffer.clear();
+        appendBuffer.putLong(stamp).putDouble(left).putDouble(right).putDouble(result).flip();
+        try {
+            long position = size * ENTRY_SIZE;
+            while (appendBuffer.hasRemaining()) {
+                position += channel.write(appendBuffer, position);
+            }
+        } catch (IOException e) {
+            logger.error("Could not append to calculation history {}", path, e);
+            return;
+        }
+        if (!indexing) {
+            index(size, stamp);
+        }
+        lastTime = time;
+        size++;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Whether the background scan has built the indexes, so that {@link #search} returns without waiting.
+     */
+    public synchronized boolean isIndexed() {
+        return !indexing;
+    }
+
+    /**
+     * Every entry recorded so far.
+     */
+    public synchronized HistoryView all() {
+        return new RangeView(0, size);
+    }
+
+    /**
+     * Entries of {@code operation}, or of any operation if null, recorded from {@code fromMillis}
+     * inclusive to {@code toMillis} exclusive.
+     */
+    public synchronized HistoryView search(Keystroke operation, long fromMillis, long toMillis) throws IOException {
+        awaitIndexes();
+        long from = lowerBound(fromMillis);
+        long to = Math.max(from, lowerBound(toMillis));
+        if (operation == null) {
+            return new RangeView(from, to);
+        }
+        int[] list = positions[operation.ordinal()];
+        if (list == null) {
+            return new RangeView(0, 0);
+        }
+        int count = positionCounts[operation.ordinal()];
+        return new PositionView(list, lowerBound(list, count, from), lowerBound(list, count, to));
+    }
+
+    /**
+     * Stops the background scan, if it is still running, and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        // The scan stops within one chunk; closing the file under it would fail its read
+        try {
+            indexer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            channel.close();
+            logger.info("Closed calculation history {} with {} entries", path, size);
+        }
+    }
+
+    private void awaitIndexes() throws IOException {
+        boolean interrupted = false;
+        while (indexing && indexFailure == null && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while indexing calculation history");
+        }
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        if (indexFailure != null) {
+            throw indexFailure;
+        }
+    }
+
+    // Only this thread touches the indexes until indexing is cleared under the lock
+    private void buildIndexes() {
+        long start = System.nanoTime();
+        long indexed = 0;
+        long target;
+        synchronized (this) {
+            target = size;
+        }
+        try {
+            while (true) {
+                while (indexed < target && !closed) {
+                    int count = (int) Math.min(SCAN_ENTRIES, target - indexed);
+                    ByteBuffer buffer = read(indexed, count);
+                    for (int i = 0; i < count; i++) {
+                        index(indexed++, buffer.getLong(i * ENTRY_SIZE));
+                    }
+                }
+                synchronized (this) {
+                    if (closed) {
+                        logger.debug("Closed calculation history {} after indexing {} entries", path, indexed);
+                        return;
+                    }
+                    if (size == indexed) {
+                        indexing = false;
+                        notifyAll();
+                        break;
+                    }
+                    target = size;
+                }
+            }
+            logger.info("Indexed {} history entries in {} ms", indexed, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.error("Could not index calculation history {}", path, e);
+            synchronized (this) {
+                indexFailure = e;
+                notifyAll();
+            }
+        }
+    }
+
+    private void index(long index, long stamp) {
+        if (index % TIME_BLOCK == 0) {
+            int block = (int) (index / TIME_BLOCK);
+            if (block == blockTimes.length) {
+                blockTimes = Arrays.copyOf(blockTimes, block * 2);
+            }
+            blockTimes[block] = stamp & TIME_MASK;
+        }
+        int code = (int) (stamp >>> 56);
+        int[] list = positions[code];
+        int count = positionCounts[code];
+        if (list == null) {
+            list = positions[code] = new int[64];
+        } else if (count == list.length) {
+            list = positions[code] = Arrays.copyOf(list, count * 2);
+        }
+        list[count] = (int) index;
+        positionCounts[code] = count + 1;
+    }
+
+    // First entry recorded at or after timeMillis
+    private long lowerBound(long timeMillis) throws IOException {
+        int blocks = (int) ((size + TIME_BLOCK - 1) / TIME_BLOCK);
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blockTimes[middle] < timeMillis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == 0) {
+            return 0;
+        }
+        long first = (long) (low - 1) * TIME_BLOCK;
+        int count = (int) Math.min(TIME_BLOCK, size - first);
+        ByteBuffer block = read(first, count);
+        for (int i = 1; i < count; i++) {
+            if ((block.getLong(i * ENTRY_SIZE) & TIME_MASK) >= timeMillis) {
+                return first + i;
+            }
+        }
+        return first + count;
+    }
+
+    private static int lowerBound(int[] list, int count, long index) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (list[middle] < index) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private ByteBuffer read(long index, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count * ENTRY_SIZE);
+        long position = index * ENTRY_SIZE;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Calculation history " + path + " ends before entry " + index);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static HistoryEntry decode(long index, ByteBuffer buffer, int offset) {
+        long stamp = buffer.getLong(offset);
+        return new HistoryEntry(index, stamp & TIME_MASK, KEYSTROKES[(int) (stamp >>> 56)],
+                buffer.getDouble(offset + 8), buffer.getDouble(offset + 16), buffer.getDouble(offset + 24));
+    }
+
+    private static void checkPage(long from, int count, long size) {
+        if (from < 0 || count < 0 || from > size) {
+            throw new IndexOutOfBoundsException("Page at " + from + " of " + size);
+        }
+    }
+
+    private final class RangeView implements HistoryView {
+        private final long start;
+        private final long end;
+
+        RangeView(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public long size() {
+            return end - start;
+        }
+
+        @Override
+        public List<HistoryEntry> page(long from, int count) throws IOException {
+            checkPage(from, count, size());
+            int length = (int) Math.min(count, size() - from);
+            ByteBuffer buffer = read(start + from, length);
+            List<HistoryEntry> entries = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                entries.add(decode(start + from + i, buffer, i * ENTRY_SIZE));
+            }
+            return entries;
+        }
+    }
+
+    private final class PositionView implements HistoryView {
+        private final int[] list;
+        private final int start;
+        private final int end;
+
+        PositionView(int[] list, int start, int end) {
+            this.list = list;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public long size() {
+            return end - start;
+        }
+
+        @Override
+        public List<HistoryEntry> page(long from, int count) throws IOException {
+            checkPage(from, count, size());
+            int length = (int) Math.min(count, size() - from);
+            List<HistoryEntry> entries = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                long index = list[start + (int) from + i];
+                entries.add(decode(index, read(index, 1), 0));
+            }
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.openjfx.history;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A fixed selection of history entries, oldest first, read from disk a page at a time.
+ * Entries appended after the view was taken are not part of it.
+ */
+public interface HistoryView {
+    long size();
+
+    /**
+     * Up to {@code count} entries starting at position {@code from} of this view.
+     */
+    List<HistoryEntry> page(long from, int count) throws IOException;
+}
@@ -0,0 +1,257 @@
+package org.openjfx.macro;
+
+import org.openjfx.batch.ColumnEvaluator;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.model.CalculatorEngine;
+import org.openjfx.model.DisplayMath;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A {@link Macro} as a function of the displayed value: {@code apply(x)} is what the display shows after the
+ * macro's keys are pressed on a cleared calculator showing {@code x} as a completed entry, as after MR, in double
+ * mode. "Error" comes out as NaN. The result is bit-identical to pressing the keys on a {@link CalculatorEngine},
+ * which is what {@link #isInterpreted interpreted} macros do; compiled ones run a few arithmetic instructions
+ * instead (see {@link MacroCompiler}).
+ * <p>
+ * Instances are immutable and may be shared between threads; each thread supplies its own registers.
+ */
+public final class CompiledMacro implements DoubleUnaryOperator {
+    static final int UNARY = 4;
+    static final int ROUND = 8;
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final UnaryOperation[] UNARY_OPERATIONS = UnaryOperation.values();
+    private static final int CHUNK_SIZE = 1024;
+
+    private final Macro macro;
+    private final Keystroke[] keystrokes;
+    private final int[] code;
+    private final int[] lefts;
+    private final int[] rights;
+    // Register 0 is the input, followed by the constants and then one register per instruction
+    private final double[] registers;
+    private final int constantEnd;
+    private final int result;
+    private final int[] guards;
+    private final boolean interpreted;
+
+    CompiledMacro(Macro macro, int[] code, int[] lefts, int[] rights, double[] constants, int result, int[] guards) {
+        this.macro = macro;
+        this.keystrokes = macro.getKeystrokes().toArray(new Keystroke[0]);
+        this.code = code;
+        this.lefts = lefts;
+        this.rights = rights;
+        this.constantEnd = 1 + constants.length;
+        this.registers = new double[constantEnd + code.length];
+        System.arraycopy(constants, 0, registers, 1, constants.length);
+        this.result = result;
+        this.guards = guards;
+        this.interpreted = false;
+    }
+
+    /**
+     * A macro that is interpreted on an engine for every input.
+     */
+    CompiledMacro(Macro macro) {
+        this.macro = macro;
+        this.keystrokes = macro.getKeystrokes().toArray(new Keystroke[0]);
+        this.code = new int[0];
+        this.lefts = code;
+        this.rights = code;
+        this.registers = new double[1];
+        this.constantEnd = 1;
+        this.result = 0;
+        this.guards = code;
+        this.interpreted = true;
+    }
+
+    static int binaryOpcode(Operation operation) {
+        return operation.ordinal();
+    }
+
+    static int unaryOpcode(UnaryOperation operation) {
+        return UNARY + operation.ordinal();
+    }
+
+    public Macro getMacro() {
+        return macro;
+    }
+
+    public String getName() {
+        return macro.getName();
+    }
+
+    /**
+     * Whether every input is interpreted on an engine, because the macro edits a computed result.
+     */
+    public boolean isInterpreted() {
+        return interpreted;
+    }
+
+    /**
+     * The number of arithmetic instructions run per input.
+     */
+    public int size() {
+        return code.length;
+    }
+
+    public double apply(double value) {
+        return apply(value, newRegisters());
+    }
+
+    public double apply(double value, double[] registers) {
+        if (isInterpreted() || Double.isNaN(value)) {
+            return interpret(value, new CalculatorEngine());
+        }
+        registers[0] = value;
+        for (int i = 0; i < code.length; i++) {
+            double left = registers[lefts[i]];
+            int opcode = code[i];
+            registers[constantEnd + i] = opcode < UNARY ? OPERATIONS[opcode].apply(left, registers[rights[i]])
+                    : opcode == ROUND ? DisplayMath.roundToDisplay(left)
+                    : UNARY_OPERATIONS[opcode - UNARY].apply(left);
+        }
+        for (int guard : guards) {
+            if (Double.isNaN(registers[guard])) {
+                return interpret(value, new CalculatorEngine());
+            }
+        }
+        return registers[result];
+    }
+
+    @Override
+    public double applyAsDouble(double value) {
+        return apply(value);
+    }
+
+    /**
+     * Registers for {@link #apply(double, double[])}, with the constants filled in; they may be reused for
+     * any number of calls on the same thread.
+     */
+    public double[] newRegisters() {
+        return registers.clone();
+    }
+
+    public void applyAll(double[] values, double[] out) {
+        if (out.length < values.length) {
+            throw new IllegalArgumentException("Expected at least " + values.length + " elements but got " + out.length);
+        }
+        applyAll(values, out, 0, values.length);
+    }
+
+    /**
+     * Applies the macro to {@code values[from]} up to {@code values[to]}, writing each result to the same index
+     * of {@code out}. Instructions run a column at a time over chunks of the input, through
+     * {@link ColumnEvaluator}, so each is a tight loop over arrays; inputs that hit a guard are then interpreted.
+     */
+    public void applyAll(double[] values, double[] out, int from, int to) {
+        if (isInterpreted()) {
+            CalculatorEngine engine = new CalculatorEngine();
+            for (int i = from; i < to; i++) {
+                out[i] = interpret(values[i], engine);
+            }
+            return;
+        }
+        int columnSize = Math.min(CHUNK_SIZE, to - from);
+        double[][] columns = new double[registers.length][];
+        columns[0] = new double[columnSize];
+        for (int register = constantEnd; register < registers.length; register++) {
+            columns[register] = new double[columnSize];
+        }
+        CalculatorEngine engine = null;
+        for (int start = from; start < to; start += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, to - start);
+            System.arraycopy(values, start, columns[0], 0, length);
+            for (int i = 0; i < code.length; i++) {
+                run(i, columns, length);
+            }
+            if (isConstant(result)) {
+                Arrays.fill(out, start, start + length, registers[result]);
+            } else {
+                System.arraycopy(columns[result], 0, out, start, length);
+            }
+            for (int i = 0; i < length; i++) {
+                if (Double.isNaN(values[start + i]) || failsGuard(columns, i)) {
+                    if (engine == null) {
+                        engine = new CalculatorEngine();
+                    }
+                    out[start + i] = interpret(values[start + i], engine);
+                }
+            }
+        }
+    }
+
+    private void run(int instruction, double[][] columns, int length) {
+        double[] target = columns[constantEnd + instruction];
+        int opcode = code[instruction];
+        int left = lefts[instruction];
+        if (opcode == ROUND) {
+            ColumnEvaluator.roundToDisplay(columns[left], target, 0, length);
+        } else if (opcode >= UNARY) {
+            ColumnEvaluator.apply(UNARY_OPERATIONS[opcode - UNARY], columns[left], target, 0, length);
+        } else if (isConstant(rights[instruction])) {
+            ColumnEvaluator.apply(OPERATIONS[opcode], columns[left], registers[rights[instruction]], target, 0, length);
+        } else if (isConstant(left)) {
+            ColumnEvaluator.apply(OPERATIONS[opcode], registers[left], columns[rights[instruction]], target, 0, length);
+        } else {
+            ColumnEvaluator.apply(OPERATIONS[opcode], columns[left], columns[rights[instruction]], target, 0, length);
+        }
+    }
+
+    private boolean isConstant(int register) {
+        return register != 0 && register < constantEnd;
+    }
+
+    private boolean failsGuard(double[][] columns, int index) {
+        for (int guard : guards) {
+            if (Double.isNaN(columns[guard][index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double interpret(double value, CalculatorEngine engine) {
+        engine.clear();
+        engine.inputValue(value);
+        for (Keystroke keystroke : keystrokes) {
+            engine.press(keystroke);
+        }
+        return engine.getValue();
+    }
+
+    /**
+     * The program, one instruction per line, e.g. {@code r3 = r0 × r1} and {@code r4 = round(r3)}.
+     */
+    public String describe() {
+        if (isInterpreted()) {
+            return "interpreted";
+        }
+        StringJoiner lines = new StringJoiner("\n");
+        for (int register = 1; register < constantEnd; register++) {
+            lines.add("r" + register + " = " + registers[register]);
+        }
+        for (int i = 0; i < code.length; i++) {
+            String left = "r" + lefts[i];
+            String line = code[i] == ROUND ? "round(" + left + ")"
+                    : code[i] >= UNARY ? UNARY_OPERATIONS[code[i] - UNARY].name().toLowerCase() + "(" + left + ")"
+                    : left + " " + Keystroke.of(OPERATIONS[code[i]]).symbol() + " r" + rights[i];
+            lines.add("r" + (constantEnd + i) + " = " + line);
+        }
+        for (int guard : guards) {
+            lines.add("guard r" + guard + " is not NaN");
+        }
+        lines.add("return r" + result);
+        return lines.toString();
+    }
+
+    @Override
+    public String toString() {
+        return macro.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package org.openjfx.macro;
+
+import org.openjfx.enums.Keystroke;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A named sequence of keystrokes that turns the displayed value into another, e.g. "Sales tax" for
+ * {@code × 1.0825 =}. Only the keys of the basic calculator may be recorded: digits, the decimal point,
+ * operators, =, the unary functions, C, CE and ⌫. Instances are immutable.
+ */
+public final class Macro {
+    private final String name;
+    private final List<Keystroke> keystrokes;
+
+    public Macro(String name, List<Keystroke> keystrokes) {
+        if (name.isBlank() || name.chars().anyMatch(Character::isISOControl)) {
+            throw new IllegalArgumentException("Invalid macro name: '" + name + "'");
+        }
+        for (Keystroke keystroke : keystrokes) {
+            if (!isRecordable(keystroke)) {
+                throw new IllegalArgumentException("Macros cannot contain " + keystroke.symbol());
+            }
+        }
+        this.name = name;
+        this.keystrokes = List.copyOf(keystrokes);
+    }
+
+    /**
+     * Reads keystrokes written as in a keystroke log ({@code × 1.0825 =}): symbols or aliases separated by
+     * whitespace, where a run of digits and decimal points stands for one keystroke per character.
+     */
+    public static Macro parse(String name, String keys) throws ParseException {
+        Keystroke[] keystrokes = new Keystroke[keys.length()];
+        int count = 0;
+        int position = 0;
+        while (position < keys.length()) {
+            if (Character.isWhitespace(keys.charAt(position))) {
+                position++;
+                continue;
+            }
+            int end = position;
+            while (end < keys.length() && !Character.isWhitespace(keys.charAt(end))) {
+                end++;
+            }
+            String token = keys.substring(position, end);
+            if (isNumber(token)) {
+                for (int i = 0; i < token.length(); i++) {
+                    char c = token.charAt(i);
+                    keystrokes[count++] = c == '.' ? Keystroke.DECIMAL : Keystroke.digit(c - '0');
+                }
+            } else {
+                Keystroke keystroke;
+                try {
+                    keystroke = Keystroke.fromSymbol(token);
+                } catch (IllegalArgumentException e) {
+                    throw new ParseException("Unknown keystroke '" + token + "'", position);
+                }
+                if (!isRecordable(keystroke)) {
+                    throw new ParseException("Macros cannot contain " + token, position);
+                }
+                keystrokes[count++] = keystroke;
+            }
+            position = end;
+        }
+        return new Macro(name, Arrays.asList(keystrokes).subList(0, count));
+    }
+
+    /**
+     * Whether {@code keystroke} may be part of a macro. Memory, statistics and macro keys act on state
+     * outside the displayed calculation, so they are not.
+     */
+    public static boolean isRecordable(Keystroke keystroke) {
+        return keystroke.ordinal() <= Keystroke.SQUARE_ROOT.ordinal();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Keystroke> getKeystrokes() {
+        return keystrokes;
+    }
+
+    /**
+     * The keystrokes in the form {@link #parse} reads, with runs of digits written as numbers.
+     */
+    public String getKeys() {
+        StringBuilder keys = new StringBuilder();
+        boolean number = false;
+        for (Keystroke keystroke : keystrokes) {
+            boolean digit = keystroke.ordinal() <= Keystroke.DECIMAL.ordinal();
+            if (keys.length() != 0 && !(digit && number)) {
+                keys.append(' ');
+            }
+            keys.append(keystroke.symbol());
+            number = digit;
+        }
+        return keys.toString();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + getKeys();
+    }
+
+    private static boolean isNumber(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if ((c < '0' || c > '9') && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
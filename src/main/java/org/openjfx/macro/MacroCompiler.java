@@ -0,0 +1,416 @@
+package org.openjfx.macro;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.model.CalculatorEngine;
+import org.openjfx.model.DisplayMath;
+import org.openjfx.model.NumberEntry;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiles a {@link Macro} into a {@link CompiledMacro} by running its keystrokes once, symbolically, through the
+ * same state machine as {@link CalculatorEngine} in double mode. Typed numbers, and anything computed from them
+ * alone, are worked out while compiling; only the arithmetic that depends on the input value is left, as a
+ * straight-line program over registers, with the rounding to the display the calculator does between steps.
+ * Equal computations are shared and those whose result is overwritten are dropped.
+ * <p>
+ * A few key sequences depend on how a computed value is displayed, e.g. ⌫ right after √ removes a digit from
+ * the shown result; macros containing them are interpreted on an engine instead. ± on a computed value is
+ * compiled with a guard, because on NaN it shows "Error": inputs that trip it are interpreted as well.
+ */
+public class MacroCompiler {
+    private static final Logger logger = LogManager.getLogger();
+    private static final int INPUT = -1;
+    private static final int CONSTANT = -2;
+
+    private final NumberEntry entry = new NumberEntry();
+    private final Map<Long, Integer> constantNodes = new HashMap<>();
+    private final Map<Long, Integer> computedNodes = new HashMap<>();
+    private int[] opcodes;
+    private int[] lefts;
+    private int[] rights;
+    private double[] values;
+    private int nodeCount;
+    private int[] guards;
+    private int guardCount;
+    private boolean supported;
+
+    // The engine's state, with operands and the displayed result as nodes; a negative entry node means
+    // the entry is what the NumberEntry holds
+    private int entryNode;
+    private int leftOperand;
+    private int rightOperand;
+    private Operation currentOperation;
+    private boolean resetFlag;
+    private boolean entryComplete;
+    private boolean error;
+
+    public CompiledMacro compile(Macro macro) {
+        opcodes = new int[16];
+        lefts = new int[16];
+        rights = new int[16];
+        values = new double[16];
+        nodeCount = 0;
+        constantNodes.clear();
+        computedNodes.clear();
+        guards = new int[4];
+        guardCount = 0;
+        supported = true;
+
+        // As after clear() and inputValue(x)
+        int input = addNode(INPUT, 0, 0, 0);
+        entry.reset();
+        entryNode = input;
+        leftOperand = round(input);
+        rightOperand = constant(0);
+        currentOperation = Operation.NONE;
+        resetFlag = false;
+        entryComplete = true;
+        error = false;
+        for (Keystroke keystroke : macro.getKeystrokes()) {
+            press(keystroke);
+            if (!supported) {
+                logger.debug("Macro '{}' edits a computed result, interpreting it", macro.getName());
+                return new CompiledMacro(macro);
+            }
+        }
+        return link(macro, error ? constant(Double.NaN) : displayedValue());
+    }
+
+    private void press(Keystroke keystroke) {
+        switch (keystroke) {
+            case DIGIT_0, DIGIT_1, DIGIT_2, DIGIT_3, DIGIT_4,
+                    DIGIT_5, DIGIT_6, DIGIT_7, DIGIT_8, DIGIT_9 ->
+                    inputDigit(keystroke.ordinal() - Keystroke.DIGIT_0.ordinal());
+            case DECIMAL -> inputDecimal();
+            case PLUS -> inputOperation(Operation.PLUS);
+            case MINUS -> inputOperation(Operation.MINUS);
+            case MULTIPLY -> inputOperation(Operation.MULTIPLY);
+            case DIVIDE -> inputOperation(Operation.DIVIDE);
+            case EQUALS -> inputEquals();
+            case CLEAR -> clear();
+            case CLEAR_ENTRY -> clearEntry();
+            case BACK_SPACE -> backSpace();
+            case NEGATE -> toggleSign();
+            case RECIPROCAL -> apply(UnaryOperation.RECIPROCAL);
+            case SQUARE -> apply(UnaryOperation.SQUARE);
+            case SQUARE_ROOT -> apply(UnaryOperation.SQUARE_ROOT);
+            default -> throw new IllegalArgumentException("Macros cannot contain " + keystroke.symbol());
+        }
+    }
+
+    private void inputDigit(int digit) {
+        if (!resetFlag && !entryComplete) {
+            if (editsComputedValue()) {
+                return;
+            }
+            entry.appendDigit(digit);
+        } else {
+            entry.setDigit(digit);
+            entryNode = -1;
+            resetFlag = false;
+            entryComplete = false;
+        }
+        refresh();
+    }
+
+    private void inputDecimal() {
+        if (!resetFlag && !entryComplete) {
+            if (editsComputedValue()) {
+                return;
+            }
+            if (entry.hasDecimalPoint()) {
+                entry.truncateAfterDecimalPoint();
+            } else {
+                entry.appendDecimalPoint();
+            }
+        } else {
+            entry.setZeroPoint();
+            entryNode = -1;
+            resetFlag = false;
+            entryComplete = false;
+        }
+        refresh();
+    }
+
+    private void inputOperation(Operation operation) {
+        if (!resetFlag) {
+            if (!readOperand()) {
+                return;
+            }
+            if (currentOperation != Operation.NONE) {
+                showResult();
+            }
+            currentOperation = operation;
+            resetFlag = true;
+            refresh();
+        } else {
+            currentOperation = operation;
+        }
+    }
+
+    private void inputEquals() {
+        if (!resetFlag) {
+            if (!readOperand()) {
+                return;
+            }
+            showResult();
+            refresh();
+            resetFlag = true;
+        }
+    }
+
+    private void clear() {
+        resetState();
+        refresh();
+    }
+
+    private void clearEntry() {
+        entry.reset();
+        entryNode = -1;
+        resetFlag = true;
+        entryComplete = false;
+        refresh();
+    }
+
+    private void backSpace() {
+        if (!resetFlag) {
+            if (editsComputedValue()) {
+                return;
+            }
+            if (!entry.backSpace()) {
+                resetFlag = true;
+            }
+        }
+        entryComplete = false;
+        refresh();
+    }
+
+    private void toggleSign() {
+        if (entryNode >= 0) {
+            // The engine negates a computed value unless it is NaN, whose text does not parse once negated
+            addGuard(entryNode);
+            setEntry(unary(UnaryOperation.NEGATE, entryNode));
+        } else {
+            entry.toggleSign();
+        }
+        if (readOperand()) {
+            refresh();
+        }
+    }
+
+    private void apply(UnaryOperation operation) {
+        int value = displayedValue();
+        if (value < 0) {
+            fail();
+            return;
+        }
+        setEntry(unary(operation, value));
+        setOperand(displayedValue());
+        refresh();
+    }
+
+    private void showResult() {
+        int result = binary(currentOperation, leftOperand, rightOperand);
+        leftOperand = result;
+        currentOperation = Operation.NONE;
+        setEntry(result);
+    }
+
+    private boolean readOperand() {
+        int value = displayedValue();
+        if (value < 0) {
+            fail();
+            return false;
+        }
+        setOperand(value);
+        return true;
+    }
+
+    private void setOperand(int value) {
+        if (currentOperation == Operation.NONE) {
+            leftOperand = value;
+        } else {
+            rightOperand = value;
+        }
+    }
+
+    /**
+     * The node of the value the display parses to, or -1 if it does not parse.
+     */
+    private int displayedValue() {
+        if (entryNode >= 0) {
+            return round(entryNode);
+        }
+        try {
+            return constant(entry.doubleValue());
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    private void setEntry(int node) {
+        if (opcodes[node] == CONSTANT) {
+            entry.setValue(values[node]);
+            entryNode = -1;
+        } else {
+            entryNode = node;
+        }
+    }
+
+    private boolean editsComputedValue() {
+        if (entryNode >= 0) {
+            supported = false;
+        }
+        return !supported;
+    }
+
+    private void refresh() {
+        if (entryNode >= 0) {
+            error = false;
+            return;
+        }
+        try {
+            entry.doubleValue();
+            error = false;
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    private void fail() {
+        resetState();
+        error = true;
+    }
+
+    private void resetState() {
+        leftOperand = constant(0);
+        rightOperand = constant(0);
+        entry.reset();
+        entryNode = -1;
+        resetFlag = true;
+        entryComplete = false;
+        currentOperation = Operation.NONE;
+    }
+
+    private int constant(double value) {
+        Integer node = constantNodes.get(Double.doubleToRawLongBits(value));
+        if (node == null) {
+            node = addNode(CONSTANT, 0, 0, value);
+            constantNodes.put(Double.doubleToRawLongBits(value), node);
+        }
+        return node;
+    }
+
+    private int binary(Operation operation, int left, int right) {
+        if (operation == Operation.NONE) {
+            return left;
+        }
+        if (opcodes[left] == CONSTANT && opcodes[right] == CONSTANT) {
+            return constant(operation.apply(values[left], values[right]));
+        }
+        return computed(CompiledMacro.binaryOpcode(operation), left, right);
+    }
+
+    private int unary(UnaryOperation operation, int value) {
+        if (opcodes[value] == CONSTANT) {
+            return constant(operation.apply(values[value]));
+        }
+        return computed(CompiledMacro.unaryOpcode(operation), value, 0);
+    }
+
+    private int round(int value) {
+        if (opcodes[value] == CONSTANT) {
+            return constant(DisplayMath.roundToDisplay(values[value]));
+        }
+        return computed(CompiledMacro.ROUND, value, 0);
+    }
+
+    private int computed(int opcode, int left, int right) {
+        long key = ((long) opcode << 48) | ((long) left << 24) | right;
+        Integer node = computedNodes.get(key);
+        if (node == null) {
+            node = addNode(opcode, left, right, 0);
+            computedNodes.put(key, node);
+        }
+        return node;
+    }
+
+    private int addNode(int opcode, int left, int right, double value) {
+        if (nodeCount == opcodes.length) {
+            opcodes = Arrays.copyOf(opcodes, nodeCount * 2);
+            lefts = Arrays.copyOf(lefts, nodeCount * 2);
+            rights = Arrays.copyOf(rights, nodeCount * 2);
+            values = Arrays.copyOf(values, nodeCount * 2);
+        }
+        opcodes[nodeCount] = opcode;
+        lefts[nodeCount] = left;
+        rights[nodeCount] = right;
+        values[nodeCount] = value;
+        return nodeCount++;
+    }
+
+    private void addGuard(int node) {
+        if (guardCount == guards.length) {
+            guards = Arrays.copyOf(guards, guardCount * 2);
+        }
+        guards[guardCount++] = node;
+    }
+
+    /**
+     * Keeps the nodes the result and the guards depend on and numbers them as registers: the input first,
+     * then the constants, then one register per instruction in the order they run.
+     */
+    private CompiledMacro link(Macro macro, int result) {
+        boolean[] live = new boolean[nodeCount];
+        live[0] = true;
+        live[result] = true;
+        for (int i = 0; i < guardCount; i++) {
+            live[guards[i]] = true;
+        }
+        // Operands are always created before the nodes that use them
+        for (int node = nodeCount - 1; node > 0; node--) {
+            if (live[node] && opcodes[node] >= 0) {
+                live[lefts[node]] = true;
+                if (opcodes[node] < CompiledMacro.UNARY) {
+                    live[rights[node]] = true;
+                }
+            }
+        }
+        int[] registers = new int[nodeCount];
+        double[] constants = new double[nodeCount];
+        int constantCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (live[node] && opcodes[node] == CONSTANT) {
+                constants[constantCount] = values[node];
+                registers[node] = 1 + constantCount++;
+            }
+        }
+        int[] code = new int[nodeCount];
+        int[] codeLefts = new int[nodeCount];
+        int[] codeRights = new int[nodeCount];
+        int codeSize = 0;
+        for (int node = 1; node < nodeCount; node++) {
+            if (live[node] && opcodes[node] >= 0) {
+                code[codeSize] = opcodes[node];
+                codeLefts[codeSize] = registers[lefts[node]];
+                codeRights[codeSize] = opcodes[node] < CompiledMacro.UNARY ? registers[rights[node]] : 0;
+                registers[node] = 1 + constantCount + codeSize++;
+            }
+        }
+        int[] guardRegisters = new int[guardCount];
+        for (int i = 0; i < guardCount; i++) {
+            guardRegisters[i] = registers[guards[i]];
+        }
+        return new CompiledMacro(macro, Arrays.copyOf(code, codeSize), Arrays.copyOf(codeLefts, codeSize),
+                Arrays.copyOf(codeRights, codeSize), Arrays.copyOf(constants, constantCount), registers[result],
+                Arrays.stream(guardRegisters).distinct().toArray());
+    }
+}
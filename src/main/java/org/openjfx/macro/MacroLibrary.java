@@ -0,0 +1,122 @@
+package org.openjfx.macro;
+
+import org.openjfx.model.CalculatorEngine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * The macros behind the ƒ1 to ƒ8 keys, each compiled once when it is put in its slot. Saved as UTF-8 text, one
+ * macro per line as {@code slot<TAB>name<TAB>keys}, e.g. {@code 1	Sales tax	× 1.0825 =}, so macros can also be
+ * written by hand. Not thread-safe.
+ */
+public final class MacroLibrary {
+    public static final int SLOTS = CalculatorEngine.MACRO_SLOTS;
+
+    private final CompiledMacro[] macros = new CompiledMacro[SLOTS];
+    private final MacroCompiler compiler = new MacroCompiler();
+
+    /**
+     * Reads the macros saved at {@code path}; a missing file is an empty library.
+     */
+    public static MacroLibrary read(Path path) throws IOException, ParseException {
+        MacroLibrary library = new MacroLibrary();
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return library;
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", 3);
+            int slot;
+            try {
+                slot = fields.length == 3 ? Integer.parseInt(fields[0].trim()) - 1 : -1;
+            } catch (NumberFormatException e) {
+                slot = -1;
+            }
+            if (slot < 0 || slot >= SLOTS || fields[1].isBlank()) {
+                throw new ParseException("Expected slot<TAB>name<TAB>keys on line " + (i + 1) + " of " + path, i + 1);
+            }
+            try {
+                library.put(slot, Macro.parse(fields[1].trim(), fields[2]));
+            } catch (ParseException e) {
+                throw new ParseException(e.getMessage() + " on line " + (i + 1) + " of " + path, i + 1);
+            }
+        }
+        return library;
+    }
+
+    /**
+     * Replaces the file at {@code path}, atomically, with the macros in this library.
+     */
+    public void write(Path path) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.createDirectories(target.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# slot\tname\tkeys\n");
+            for (int slot = 0; slot < SLOTS; slot++) {
+                if (macros[slot] != null) {
+                    Macro macro = macros[slot].getMacro();
+                    writer.write((slot + 1) + "\t" + macro.getName() + "\t" + macro.getKeys() + "\n");
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The macro in {@code slot}, counted from 0, or null if the slot is empty.
+     */
+    public CompiledMacro get(int slot) {
+        return macros[slot];
+    }
+
+    /**
+     * Compiles {@code macro} into {@code slot}, replacing what was there.
+     */
+    public CompiledMacro put(int slot, Macro macro) {
+        macros[slot] = compiler.compile(macro);
+        return macros[slot];
+    }
+
+    public void remove(int slot) {
+        macros[slot] = null;
+    }
+
+    /**
+     * The first empty slot, or -1 if all are taken.
+     */
+    public int firstFreeSlot() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (macros[slot] == null) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The slot of the macro named {@code name}, ignoring case, or -1 if there is none.
+     */
+    public int slotOf(String name) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (macros[slot] != null && macros[slot].getName().equalsIgnoreCase(name)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,256 @@
+package org.openjfx.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.model.CalculationListener;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide calculator metrics: calculations by operation, latency histograms per {@link Measurement},
+ * parse errors and, optionally, allocation per timed section. Published over JMX as
+ * {@value #OBJECT_NAME} and as the JFR events {@code org.openjfx.CalculatorOperation} and
+ * {@code org.openjfx.ParseError}, which cost nothing unless a recording enables them. Thread-safe.
+ * <p>
+ * Timing a section costs two {@code System.nanoTime()} calls and a few uncontended atomic adds, some 50 ns.
+ * {@code -Dcalculator.metrics=false}, or the {@code Enabled} attribute, turns timing off; counters stay on.
+ * <pre>
+ * long start = metrics.begin(Measurement.CALCULATE);
+ * ...
+ * metrics.end(Measurement.CALCULATE, start);
+ * </pre>
+ */
+public class CalculatorMetrics implements CalculatorMetricsMXBean, CalculationListener {
+    public static final String OBJECT_NAME = "org.openjfx:type=CalculatorMetrics";
+
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+    private static final Logger logger = LogManager.getLogger();
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final UnaryOperation[] UNARY_OPERATIONS = UnaryOperation.values();
+    private static final Measurement[] MEASUREMENTS = Measurement.values();
+
+    private final LongAdder[] operationCounts = new LongAdder[OPERATIONS.length + UNARY_OPERATIONS.length];
+    private final LatencyHistogram[] histograms = new LatencyHistogram[MEASUREMENTS.length];
+    private final LongAdder parseErrors = new LongAdder();
+    // Allocation counter of the current thread when each measurement began
+    private final ThreadLocal<long[]> allocationStarts = ThreadLocal.withInitial(() -> new long[MEASUREMENTS.length]);
+    private volatile boolean enabled = !"false".equals(System.getProperty("calculator.metrics"));
+    private volatile boolean allocationTracking;
+    private long[] lastCounts = new long[operationCounts.length];
+    private double[] lastRates = new double[operationCounts.length];
+    private long lastRateNanos = System.nanoTime();
+
+    public CalculatorMetrics() {
+        for (int i = 0; i < operationCounts.length; i++) {
+            operationCounts[i] = new LongAdder();
+        }
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * The instance shared by every model and controller; see {@link #registerMBean()} to publish it.
+     */
+    public static CalculatorMetrics getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Registers the shared instance with the platform MBean server, once. Kept out of {@link #getInstance()}
+     * because starting the MBean server costs a couple of hundred milliseconds the first frame need not wait for.
+     */
+    public static void registerMBean() {
+        Registration.register();
+    }
+
+    /**
+     * Starts timing {@code measurement} on this thread; pass the result to {@link #end}.
+     */
+    public long begin(Measurement measurement) {
+        if (!enabled) {
+            return NOT_TIMED;
+        }
+        if (allocationTracking) {
+            allocationStarts.get()[measurement.ordinal()] = Allocation.THREADS.getCurrentThreadAllocatedBytes();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the section started by {@link #begin} at {@code startNanos} on this thread.
+     */
+    public void end(Measurement measurement, long startNanos) {
+        if (startNanos == NOT_TIMED) {
+            return;
+        }
+        long latency = System.nanoTime() - startNanos;
+        LatencyHistogram histogram = histograms[measurement.ordinal()];
+        histogram.record(latency);
+        long allocated = -1;
+        if (allocationTracking) {
+            allocated = Allocation.THREADS.getCurrentThreadAllocatedBytes() - allocationStarts.get()[measurement.ordinal()];
+            histogram.recordAllocation(allocated);
+        }
+        CalculatorOperationEvent event = new CalculatorOperationEvent();
+        if (event.isEnabled()) {
+            event.measurement = measurement.name();
+            event.latency = latency;
+            event.allocated = allocated;
+            event.commit();
+        }
+    }
+
+    public void count(Operation operation) {
+        if (operation != Operation.NONE) {
+            operationCounts[operation.ordinal()].increment();
+        }
+    }
+
+    public void count(UnaryOperation operation) {
+        operationCounts[OPERATIONS.length + operation.ordinal()].increment();
+    }
+
+    public void parseError() {
+        parseErrors.increment();
+        new ParseErrorEvent().commit();
+    }
+
+    @Override
+    public void onCalculation(Operation operation, double left, double right, double result) {
+        count(operation);
+    }
+
+    @Override
+    public void onCalculation(UnaryOperation operation, double operand, double result) {
+        count(operation);
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < operationCounts.length; i++) {
+            if (i != Operation.NONE.ordinal()) {
+                counts.put(operationName(i), operationCounts[i].sum());
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public synchronized Map<String, Double> getOperationsPerSecond() {
+        long now = System.nanoTime();
+        if (now - lastRateNanos >= 1_000_000_000L) {
+            double seconds = (now - lastRateNanos) / 1e9;
+            for (int i = 0; i < operationCounts.length; i++) {
+                long count = operationCounts[i].sum();
+                lastRates[i] = Math.max(0, count - lastCounts[i]) / seconds;
+                lastCounts[i] = count;
+            }
+            lastRateNanos = now;
+        }
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (int i = 0; i < operationCounts.length; i++) {
+            if (i != Operation.NONE.ordinal()) {
+                rates.put(operationName(i), lastRates[i]);
+            }
+        }
+        return rates;
+    }
+
+    @Override
+    public LatencySnapshot getCalculateLatency() {
+        return getLatency(Measurement.CALCULATE);
+    }
+
+    @Override
+    public LatencySnapshot getSetOperandLatency() {
+        return getLatency(Measurement.SET_OPERAND);
+    }
+
+    @Override
+    public LatencySnapshot getUpdateDisplayLatency() {
+        return getLatency(Measurement.UPDATE_DISPLAY);
+    }
+
+    public LatencySnapshot getLatency(Measurement measurement) {
+        return histograms[measurement.ordinal()].snapshot();
+    }
+
+    @Override
+    public long getParseErrors() {
+        return parseErrors.sum();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean isAllocationTracking() {
+        return allocationTracking;
+    }
+
+    @Override
+    public void setAllocationTracking(boolean allocationTracking) {
+        if (allocationTracking && !Allocation.THREADS.isThreadAllocatedMemoryEnabled()) {
+            Allocation.THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+        this.allocationTracking = allocationTracking;
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (LongAdder count : operationCounts) {
+            count.reset();
+        }
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        parseErrors.reset();
+        lastCounts = new long[operationCounts.length];
+        lastRates = new double[operationCounts.length];
+        lastRateNanos = System.nanoTime();
+    }
+
+    private static String operationName(int index) {
+        return index < OPERATIONS.length ? OPERATIONS[index].name() : UNARY_OPERATIONS[index - OPERATIONS.length].name();
+    }
+
+    private static final class Holder {
+        static final CalculatorMetrics INSTANCE = new CalculatorMetrics();
+    }
+
+    private static final class Registration {
+        static {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(Holder.INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                logger.warn("Could not register calculator metrics with JMX", e);
+            }
+        }
+
+        static void register() {
+            // Registers in the static initializer, which the JVM runs exactly once
+        }
+    }
+
+    // Loaded only once allocation tracking is switched on
+    private static final class Allocation {
+        static final com.sun.management.ThreadMXBean THREADS =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+}
@@ -0,0 +1,42 @@
+package org.openjfx.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link CalculatorMetrics}, registered as {@value CalculatorMetrics#OBJECT_NAME}.
+ */
+public interface CalculatorMetricsMXBean {
+    /**
+     * Calculations since start or the last reset, by {@code Operation} or {@code UnaryOperation} name.
+     */
+    Map<String, Long> getOperationCounts();
+
+    /**
+     * Calculations per second by operation, over the interval since the previous reading (at least a second).
+     */
+    Map<String, Double> getOperationsPerSecond();
+
+    LatencySnapshot getCalculateLatency();
+
+    LatencySnapshot getSetOperandLatency();
+
+    LatencySnapshot getUpdateDisplayLatency();
+
+    long getParseErrors();
+
+    boolean isEnabled();
+
+    /**
+     * Turns latency and allocation measurement on or off; operation and parse error counts are always kept.
+     */
+    void setEnabled(boolean enabled);
+
+    boolean isAllocationTracking();
+
+    /**
+     * Also measures the bytes each timed section allocates on its thread, at the cost of two extra calls.
+     */
+    void setAllocationTracking(boolean allocationTracking);
+
+    void reset();
+}
@@ -0,0 +1,28 @@
+package org.openjfx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("org.openjfx.CalculatorOperation")
+@Label("Calculator Operation")
+@Category("Calculator")
+@Description("A timed section of the calculator model or controller")
+@StackTrace(false)
+class CalculatorOperationEvent extends jdk.jfr.Event {
+    @Label("Measurement")
+    String measurement;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the thread, or -1 without allocation tracking")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+}
@@ -0,0 +1,64 @@
+package org.openjfx.metrics;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Latency percentiles of one {@link Measurement}, in nanoseconds, and the bytes it allocated on average
+ * while allocation tracking was on.
+ */
+public final class LatencySnapshot {
+    private final long count;
+    private final double meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+    private final double allocatedBytesPerOperation;
+
+    @ConstructorParameters({"count", "meanNanos", "p50Nanos", "p90Nanos", "p99Nanos", "maxNanos",
+            "allocatedBytesPerOperation"})
+    public LatencySnapshot(long count, double meanNanos, long p50Nanos, long p90Nanos, long p99Nanos,
+                           long maxNanos, double allocatedBytesPerOperation) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+        this.allocatedBytesPerOperation = allocatedBytesPerOperation;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getAllocatedBytesPerOperation() {
+        return allocatedBytesPerOperation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0fns p50=%dns p90=%dns p99=%dns max=%dns alloc=%.0fB",
+                count, meanNanos, p50Nanos, p90Nanos, p99Nanos, maxNanos, allocatedBytesPerOperation);
+    }
+}
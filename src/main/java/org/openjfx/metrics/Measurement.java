@@ -0,0 +1,16 @@
+package org.openjfx.metrics;
+
+/**
+ * Timed sections of the calculator, each with its own latency histogram.
+ */
+public enum Measurement {
+    /** A calculation, through {@code CalculatorModel.calculate} or an operator or equals key. */
+    CALCULATE,
+    /**
+     * An operator or equals key that commits the typed entry as an operand, including any calculation it
+     * completes, or {@code CalculatorModel.setOperand}.
+     */
+    SET_OPERAND,
+    /** Formatting and showing a changed display in {@code CalculatorController}. */
+    UPDATE_DISPLAY
+}
@@ -0,0 +1,13 @@
+package org.openjfx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.openjfx.ParseError")
+@Label("Calculator Parse Error")
+@Category("Calculator")
+@Description("The display could not be parsed and shows Error")
+class ParseErrorEvent extends jdk.jfr.Event {
+}
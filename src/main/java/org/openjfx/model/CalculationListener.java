@@ -0,0 +1,14 @@
+package org.openjfx.model;
+
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+/**
+ * Notified by {@link CalculatorEngine} of every calculation completed from keystrokes, with the
+ * operands as doubles whatever the numeric mode. Called on the thread driving the engine.
+ */
+public interface CalculationListener {
+    void onCalculation(Operation operation, double left, double right, double result);
+
+    void onCalculation(UnaryOperation operation, double operand, double result);
+}
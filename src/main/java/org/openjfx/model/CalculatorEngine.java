@@ -0,0 +1,686 @@
+package org.openjfx.model;
+
+import org.openjfx.enums.Aggregate;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.NumericMode;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Headless version of the calculator state machine driven by {@code CalculatorController}.
+ * It keeps the same immediate-execution semantics but holds every value as a primitive,
+ * so it can replay keystrokes without JavaFX and without formatting a String per step.
+ * In {@link NumericMode#DECIMAL} the operands are {@link DecimalRegister}s instead, and in
+ * {@link NumericMode#FIXED_POINT} {@link FixedPoint} longs; either way they are mirrored as doubles.
+ * The memory keys act on a {@link MemoryBank} and the statistics keys on a {@link StreamStatistics}, both of
+ * which {@link #clear} leaves alone. The macro keys apply the functions set with {@link #setMacro}.
+ */
+public class CalculatorEngine {
+    public static final int MACRO_SLOTS = 8;
+
+    private static final NumericMode[] NUMERIC_MODES = NumericMode.values();
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final RoundingMode[] ROUNDING_MODES = RoundingMode.values();
+    private static final int RESET_FLAG = 1;
+    private static final int ERROR = 2;
+    private static final int ENTRY_COMPLETE = 4;
+
+    private final NumberEntry entry = new NumberEntry();
+    private final DecimalRegister leftDecimal = new DecimalRegister();
+    private final DecimalRegister rightDecimal = new DecimalRegister();
+    private final DecimalRegister operandDecimal = new DecimalRegister();
+    private final MemoryBank memory = new MemoryBank();
+    private final StreamStatistics statistics = new StreamStatistics();
+    private final DoubleUnaryOperator[] macros = new DoubleUnaryOperator[MACRO_SLOTS];
+    private NumericMode numericMode = NumericMode.DOUBLE;
+    private MathContext mathContext = MathContext.DECIMAL128;
+    private double leftOperand;
+    private double rightOperand;
+    private long leftFixed;
+    private long rightFixed;
+    private Operation currentOperation = Operation.NONE;
+    private boolean resetFlag = true;
+    private boolean error;
+    // The entry shows a value put there by a memory key: operators still use it, the next digit replaces it
+    private boolean entryComplete;
+    private ResultCache resultCache;
+    private CalculationListener[] calculationListeners = new CalculationListener[0];
+
+    public void press(Keystroke keystroke) {
+        switch (keystroke) {
+            case DIGIT_0, DIGIT_1, DIGIT_2, DIGIT_3, DIGIT_4,
+                    DIGIT_5, DIGIT_6, DIGIT_7, DIGIT_8, DIGIT_9 ->
+                    inputDigit(keystroke.ordinal() - Keystroke.DIGIT_0.ordinal());
+            case DECIMAL -> inputDecimal();
+            case PLUS -> inputOperation(Operation.PLUS);
+            case MINUS -> inputOperation(Operation.MINUS);
+            case MULTIPLY -> inputOperation(Operation.MULTIPLY);
+            case DIVIDE -> inputOperation(Operation.DIVIDE);
+            case EQUALS -> inputEquals();
+            case CLEAR -> clear();
+            case CLEAR_ENTRY -> clearEntry();
+            case BACK_SPACE -> backSpace();
+            case NEGATE -> toggleSign();
+            case RECIPROCAL -> apply(UnaryOperation.RECIPROCAL);
+            case SQUARE -> apply(UnaryOperation.SQUARE);
+            case SQUARE_ROOT -> apply(UnaryOperation.SQUARE_ROOT);
+            case MEMORY_CLEAR -> memoryClear();
+            case MEMORY_RECALL -> memoryRecall();
+            case MEMORY_ADD -> memoryAdd();
+            case MEMORY_SUBTRACT -> memorySubtract();
+            case MEMORY_0, MEMORY_1, MEMORY_2, MEMORY_3, MEMORY_4,
+                    MEMORY_5, MEMORY_6, MEMORY_7, MEMORY_8, MEMORY_9 ->
+                    selectMemory(keystroke.ordinal() - Keystroke.MEMORY_0.ordinal());
+            case MEMORY_COUNT -> memoryRecall(Aggregate.COUNT);
+            case MEMORY_MEAN -> memoryRecall(Aggregate.MEAN);
+            case MEMORY_VARIANCE -> memoryRecall(Aggregate.VARIANCE);
+            case STATISTICS_ADD -> statisticsAdd();
+            case STATISTICS_CLEAR -> statisticsClear();
+            case STATISTICS_COUNT -> statisticsRecall(Aggregate.COUNT);
+            case STATISTICS_SUM -> statisticsRecall(Aggregate.SUM);
+            case STATISTICS_MEAN -> statisticsRecall(Aggregate.MEAN);
+            case STATISTICS_STANDARD_DEVIATION -> statisticsRecall(Aggregate.STANDARD_DEVIATION);
+            case STATISTICS_MIN -> statisticsRecall(Aggregate.MIN);
+            case STATISTICS_MAX -> statisticsRecall(Aggregate.MAX);
+            case STATISTICS_PERCENTILE -> statisticsPercentile();
+            case MACRO_1, MACRO_2, MACRO_3, MACRO_4, MACRO_5, MACRO_6, MACRO_7, MACRO_8 ->
+                    applyMacro(keystroke.ordinal() - Keystroke.MACRO_1.ordinal());
+        }
+    }
+
+    public void inputDigit(int digit) {
+        if (!resetFlag && !entryComplete) {
+            entry.appendDigit(digit);
+        } else {
+            entry.setDigit(digit);
+            resetFlag = false;
+            entryComplete = false;
+        }
+        refresh();
+    }
+
+    public void inputDecimal() {
+        if (!resetFlag && !entryComplete && entry.hasDecimalPoint()) {
+            entry.truncateAfterDecimalPoint();
+        } else if (!resetFlag && !entryComplete) {
+            entry.appendDecimalPoint();
+        } else {
+            entry.setZeroPoint();
+            resetFlag = false;
+            entryComplete = false;
+        }
+        refresh();
+    }
+
+    public void inputOperation(Operation operation) {
+        if (!resetFlag) {
+            try {
+                readOperand();
+            } catch (ParseException e) {
+                fail();
+                return;
+            }
+            if (currentOperation != Operation.NONE) {
+                showResult();
+            }
+            currentOperation = operation;
+            resetFlag = true;
+            refresh();
+        } else {
+            currentOperation = operation;
+        }
+    }
+
+    public void inputEquals() {
+        if (!resetFlag) {
+            try {
+                readOperand();
+            } catch (ParseException e) {
+                fail();
+                return;
+            }
+            showResult();
+            refresh();
+            resetFlag = true;
+        }
+    }
+
+    public void clear() {
+        resetState();
+        refresh();
+    }
+
+    /**
+     * Clears the calculator, the memory registers and the statistics, as in a new engine.
+     */
+    public void clearAll() {
+        clear();
+        memory.clearAll();
+        statistics.clear();
+    }
+
+    public void clearEntry() {
+        entry.reset();
+        resetFlag = true;
+        entryComplete = false;
+        refresh();
+    }
+
+    public void backSpace() {
+        if (!resetFlag && !entry.backSpace()) {
+            resetFlag = true;
+        }
+        entryComplete = false;
+        refresh();
+    }
+
+    public void toggleSign() {
+        entry.toggleSign();
+        try {
+            readOperand();
+        } catch (ParseException e) {
+            fail();
+            return;
+        }
+        refresh();
+    }
+
+    public void apply(UnaryOperation operation) {
+        if (operation == UnaryOperation.NEGATE) {
+            toggleSign();
+            return;
+        }
+        try {
+            double operand = calculationListeners.length != 0 ? entry.doubleValue() : 0;
+            if (numericMode == NumericMode.DECIMAL) {
+                entry.decimalValue(operandDecimal);
+                operandDecimal.apply(operation, mathContext);
+                entry.setValue(operandDecimal);
+                readOperand();
+            } else if (numericMode == NumericMode.FIXED_POINT && applyFixed(operation)) {
+                readOperand();
+            } else {
+                double value = entry.doubleValue();
+                if (resultCache != null) {
+                    ResultCache.CachedResult cached = resultCache.get(operation, value);
+                    entry.setValue(cached.getValue(), cached.getDisplayText());
+                } else {
+                    entry.setValue(operation.apply(value));
+                }
+                setOperand(entry.doubleValue());
+            }
+            if (calculationListeners.length != 0) {
+                double result = entry.doubleValue();
+                for (CalculationListener listener : calculationListeners) {
+                    listener.onCalculation(operation, operand, result);
+                }
+            }
+        } catch (ParseException e) {
+            fail();
+            return;
+        }
+        refresh();
+    }
+
+    /**
+     * Adds the displayed value to the selected memory register. "Error", infinity and NaN are not added, so
+     * one division by zero does not spoil a whole column.
+     */
+    public void memoryAdd() {
+        double value = getValue();
+        if (Double.isFinite(value)) {
+            memory.add(value);
+            entryComplete = true;
+        }
+    }
+
+    public void memorySubtract() {
+        double value = getValue();
+        if (Double.isFinite(value)) {
+            memory.subtract(value);
+            entryComplete = true;
+        }
+    }
+
+    public void memoryRecall() {
+        show(memory.recall());
+    }
+
+    /**
+     * Shows a statistic of the values added to the selected register.
+     */
+    public void memoryRecall(Aggregate aggregate) {
+        show(memory.recall(aggregate));
+    }
+
+    public void memoryClear() {
+        memory.clear();
+    }
+
+    public void selectMemory(int register) {
+        if (register < memory.size()) {
+            memory.select(register);
+        }
+    }
+
+    /**
+     * Finishes a pending calculation, as "=" would, and adds the displayed value to the statistics. Like M+,
+     * "Error", infinity and NaN are not added.
+     */
+    public void statisticsAdd() {
+        if (!resetFlag && currentOperation != Operation.NONE) {
+            inputEquals();
+        }
+        double value = getValue();
+        if (Double.isFinite(value)) {
+            statistics.add(value);
+            entryComplete = true;
+        }
+    }
+
+    /**
+     * Shows a statistic of the values added so far; the minimum and maximum of no values show "Error".
+     */
+    public void statisticsRecall(Aggregate aggregate) {
+        show(statistics.get(aggregate));
+    }
+
+    /**
+     * Replaces the displayed percentage, 0 to 100, with that percentile of the values added so far, e.g.
+     * "95 Σ%" shows the 95th percentile. Other percentages, or no values, show "Error".
+     */
+    public void statisticsPercentile() {
+        double percent = getValue();
+        if (!(percent >= 0 && percent <= 100)) {
+            fail();
+            return;
+        }
+        show(statistics.quantile(percent / 100));
+    }
+
+    public void statisticsClear() {
+        statistics.clear();
+    }
+
+    /**
+     * Replaces the displayed value with the macro in {@code slot} applied to it, as MR would show it: a pending
+     * operation stays pending and the next digit starts a new number. An empty slot does nothing, and a NaN
+     * result, which is how a macro reports "Error", shows "Error".
+     */
+    public void applyMacro(int slot) {
+        DoubleUnaryOperator macro = macros[slot];
+        if (macro != null) {
+            show(macro.applyAsDouble(getValue()));
+        }
+    }
+
+    public DoubleUnaryOperator getMacro(int slot) {
+        return macros[slot];
+    }
+
+    /**
+     * Puts {@code macro} in {@code slot}, 0 to {@link #MACRO_SLOTS} - 1, or empties the slot if it is null.
+     * Macros are not part of the {@link #writeState state}; whoever sets them keeps them.
+     */
+    public void setMacro(int slot, DoubleUnaryOperator macro) {
+        macros[slot] = macro;
+    }
+
+    /**
+     * Shows {@code value} as a completed entry, as MR does; NaN shows "Error".
+     */
+    public void inputValue(double value) {
+        show(value);
+    }
+
+    public double calculate() {
+        double result;
+        if (numericMode == NumericMode.DECIMAL) {
+            leftDecimal.apply(currentOperation, rightDecimal, mathContext);
+            result = leftDecimal.doubleValue();
+        } else if (numericMode == NumericMode.FIXED_POINT) {
+            long fixed = FixedPoint.apply(currentOperation, leftFixed, rightFixed);
+            if (fixed != FixedPoint.OUT_OF_RANGE) {
+                result = FixedPoint.toDouble(fixed);
+            } else {
+                result = currentOperation.apply(leftOperand, rightOperand);
+                fixed = FixedPoint.fromDouble(result);
+            }
+            leftFixed = fixed;
+        } else {
+            result = currentOperation.apply(leftOperand, rightOperand);
+        }
+        leftOperand = result;
+        currentOperation = Operation.NONE;
+        return result;
+    }
+
+    private void showResult() {
+        Operation operation = currentOperation;
+        double left = leftOperand;
+        double right = rightOperand;
+        computeResult();
+        if (operation != Operation.NONE) {
+            for (CalculationListener listener : calculationListeners) {
+                listener.onCalculation(operation, left, right, leftOperand);
+            }
+        }
+    }
+
+    private void computeResult() {
+        if (numericMode == NumericMode.DECIMAL) {
+            calculate();
+            entry.setValue(leftDecimal);
+            return;
+        }
+        if (numericMode == NumericMode.FIXED_POINT) {
+            double result = calculate();
+            if (leftFixed != FixedPoint.OUT_OF_RANGE) {
+                FixedPoint.toDecimal(leftFixed, operandDecimal);
+                entry.setValue(operandDecimal);
+            } else {
+                entry.setValue(result);
+            }
+            return;
+        }
+        if (resultCache == null) {
+            entry.setValue(calculate());
+            return;
+        }
+        ResultCache.CachedResult cached = resultCache.get(currentOperation, leftOperand, rightOperand);
+        leftOperand = cached.getValue();
+        currentOperation = Operation.NONE;
+        entry.setValue(cached.getValue(), cached.getDisplayText());
+    }
+
+    public void setOperand(double value) {
+        if (currentOperation == Operation.NONE) {
+            leftOperand = value;
+        } else {
+            rightOperand = value;
+        }
+        if (numericMode == NumericMode.DECIMAL) {
+            (currentOperation == Operation.NONE ? leftDecimal : rightDecimal).set(value);
+        } else if (numericMode == NumericMode.FIXED_POINT) {
+            setFixedOperand(FixedPoint.fromDouble(value));
+        }
+    }
+
+    public void setOperand(DecimalRegister value) {
+        if (currentOperation == Operation.NONE) {
+            leftDecimal.set(value);
+            leftOperand = value.doubleValue();
+        } else {
+            rightDecimal.set(value);
+            rightOperand = value.doubleValue();
+        }
+        if (numericMode == NumericMode.FIXED_POINT) {
+            setFixedOperand(FixedPoint.fromDecimal(value));
+        }
+    }
+
+    /**
+     * The numeric value currently shown, or NaN while the display shows "Error".
+     */
+    public double getValue() {
+        if (error) {
+            return Double.NaN;
+        }
+        try {
+            return entry.doubleValue();
+        } catch (ParseException e) {
+            return Double.NaN;
+        }
+    }
+
+    public String getDisplayText() {
+        if (error) {
+            return "Error";
+        }
+        try {
+            return entry.getDisplayText();
+        } catch (ParseException e) {
+            return "Error";
+        }
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public double getLeftOperand() {
+        return leftOperand;
+    }
+
+    public double getRightOperand() {
+        return rightOperand;
+    }
+
+    public Operation getCurrentOperation() {
+        return currentOperation;
+    }
+
+    public void setCurrentOperation(Operation operation) {
+        currentOperation = operation;
+    }
+
+    public boolean isResetFlag() {
+        return resetFlag;
+    }
+
+    /**
+     * Changes whenever the display text would change, including entering or leaving the error state.
+     */
+    public long getDisplayRevision() {
+        return entry.getRevision() * 2 + (error ? 1 : 0);
+    }
+
+    public MemoryBank getMemory() {
+        return memory;
+    }
+
+    public StreamStatistics getStatistics() {
+        return statistics;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Memoizes results and their display strings in {@code resultCache}; {@code null} turns caching off.
+     */
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Reports every completed calculation to {@code listener}, after the listeners added before it.
+     */
+    public void addCalculationListener(CalculationListener listener) {
+        CalculationListener[] listeners = Arrays.copyOf(calculationListeners, calculationListeners.length + 1);
+        listeners[listeners.length - 1] = Objects.requireNonNull(listener);
+        calculationListeners = listeners;
+    }
+
+    public void removeCalculationListener(CalculationListener listener) {
+        for (int i = 0; i < calculationListeners.length; i++) {
+            if (calculationListeners[i] == listener) {
+                CalculationListener[] listeners = new CalculationListener[calculationListeners.length - 1];
+                System.arraycopy(calculationListeners, 0, listeners, 0, i);
+                System.arraycopy(calculationListeners, i + 1, listeners, i, listeners.length - i);
+                calculationListeners = listeners;
+                return;
+            }
+        }
+    }
+
+    public NumberEntry getEntry() {
+        return entry;
+    }
+
+    public NumericMode getNumericMode() {
+        return numericMode;
+    }
+
+    /**
+     * Switches the arithmetic backend; operands pending in the current calculation carry over.
+     * The result cache only serves double arithmetic.
+     */
+    public void setNumericMode(NumericMode numericMode) {
+        if (numericMode == NumericMode.DECIMAL && this.numericMode != NumericMode.DECIMAL) {
+            leftDecimal.set(leftOperand);
+            rightDecimal.set(rightOperand);
+        } else if (numericMode == NumericMode.FIXED_POINT && this.numericMode != NumericMode.FIXED_POINT) {
+            leftFixed = FixedPoint.fromDouble(leftOperand);
+            rightFixed = FixedPoint.fromDouble(rightOperand);
+        }
+        this.numericMode = Objects.requireNonNull(numericMode);
+        entry.setDecimal(numericMode != NumericMode.DOUBLE);
+    }
+
+    public MathContext getMathContext() {
+        return mathContext;
+    }
+
+    /**
+     * Precision and rounding for decimal results that cannot be held exactly, such as 1/3 or square roots.
+     * {@link MathContext#UNLIMITED} keeps every result exact and falls back to double where that is impossible.
+     */
+    public void setMathContext(MathContext mathContext) {
+        this.mathContext = Objects.requireNonNull(mathContext);
+    }
+
+    /**
+     * Writes the complete calculator state, including settings, pending operands in every representation and
+     * the unrounded value behind the display, so that {@link #readState} continues exactly where this left off.
+     * Memory registers and statistics are written too. Listeners and the result cache are not state and are not written.
+     *
+     * @throws java.nio.BufferOverflowException if {@code out} is too small; from a few hundred bytes to a few kilobytes, with statistics
+     */
+    public void writeState(ByteBuffer out) {
+        out.put((byte) numericMode.ordinal())
+                .putInt(mathContext.getPrecision())
+                .put((byte) mathContext.getRoundingMode().ordinal())
+                .put((byte) currentOperation.ordinal())
+                .put((byte) ((resetFlag ? RESET_FLAG : 0) | (error ? ERROR : 0)
+                        | (entryComplete ? ENTRY_COMPLETE : 0)))
+                .putDouble(leftOperand)
+                .putDouble(rightOperand)
+                .putLong(leftFixed)
+                .putLong(rightFixed);
+        leftDecimal.writeTo(out);
+        rightDecimal.writeTo(out);
+        entry.writeTo(out);
+        memory.writeTo(out);
+        statistics.writeTo(out);
+    }
+
+    /**
+     * Replaces the state with one written by {@link #writeState}.
+     *
+     * @throws java.nio.BufferUnderflowException if {@code in} ends early
+     */
+    public void readState(ByteBuffer in) {
+        numericMode = NUMERIC_MODES[in.get()];
+        int precision = in.getInt();
+        mathContext = new MathContext(precision, ROUNDING_MODES[in.get()]);
+        currentOperation = OPERATIONS[in.get()];
+        int flags = in.get();
+        resetFlag = (flags & RESET_FLAG) != 0;
+        error = (flags & ERROR) != 0;
+        entryComplete = (flags & ENTRY_COMPLETE) != 0;
+        leftOperand = in.getDouble();
+        rightOperand = in.getDouble();
+        leftFixed = in.getLong();
+        rightFixed = in.getLong();
+        leftDecimal.readFrom(in);
+        rightDecimal.readFrom(in);
+        entry.readFrom(in);
+        memory.readFrom(in);
+        statistics.readFrom(in);
+    }
+
+    /**
+     * Applies a unary function in fixed point, or reports that the result is out of range.
+     */
+    private boolean applyFixed(UnaryOperation operation) throws ParseException {
+        entry.decimalValue(operandDecimal);
+        long fixed = FixedPoint.apply(operation, FixedPoint.fromDecimal(operandDecimal));
+        if (fixed == FixedPoint.OUT_OF_RANGE) {
+            return false;
+        }
+        FixedPoint.toDecimal(fixed, operandDecimal);
+        entry.setValue(operandDecimal);
+        return true;
+    }
+
+    private void show(double value) {
+        if (Double.isNaN(value)) {
+            fail();
+            return;
+        }
+        entry.setValue(value);
+        try {
+            readOperand();
+        } catch (ParseException e) {
+            fail();
+            return;
+        }
+        resetFlag = false;
+        entryComplete = true;
+        refresh();
+    }
+
+    private void setFixedOperand(long value) {
+        if (currentOperation == Operation.NONE) {
+            leftFixed = value;
+        } else {
+            rightFixed = value;
+        }
+    }
+
+    private void readOperand() throws ParseException {
+        if (numericMode != NumericMode.DOUBLE) {
+            entry.decimalValue(operandDecimal);
+            setOperand(operandDecimal);
+        } else {
+            setOperand(entry.doubleValue());
+        }
+    }
+
+    private void refresh() {
+        try {
+            entry.doubleValue();
+            error = false;
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    private void fail() {
+        resetState();
+        error = true;
+    }
+
+    private void resetState() {
+        leftOperand = 0;
+        rightOperand = 0;
+        leftDecimal.set(0, 0);
+        rightDecimal.set(0, 0);
+        leftFixed = 0;
+        rightFixed = 0;
+        entry.reset();
+        resetFlag = true;
+        entryComplete = false;
+        currentOperation = Operation.NONE;
+    }
+}
@@ -4,157 +4,297 @@ import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.openjfx.conversion.ConversionTable;
+import org.openjfx.enums.Aggregate;
+import org.openjfx.enums.NumericMode;
 import org.openjfx.enums.Operation;
-import java.text.DecimalFormat;
-import java.text.ParseException;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.metrics.CalculatorMetrics;
+import org.openjfx.metrics.Measurement;
+
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.apache.logging.log4j.util.Unbox.box;
 
 public class CalculatorModel {
     private final Logger logger = LogManager.getLogger();
-    private final DecimalFormat formatter = new DecimalFormat("#,###.#######");
-    private double leftOperand;
-    private double rightOperand;
-    private String displayText = "0";
-    private boolean resetFlag = true;
+    private final CalculatorEngine engine;
+    private final CalculatorMetrics metrics = CalculatorMetrics.getInstance();
     private final ObjectProperty<Operation> currentOperation = new SimpleObjectProperty<>(Operation.NONE);
 
-    public String calculate() {
-        logger.debug("Calculating with operation: {}, left operand: {}, right operand: {}",
-                currentOperation, leftOperand, rightOperand);
-
-        double result = switch (currentOperation.get()) {
-            case PLUS -> leftOperand + rightOperand;
-            case MINUS -> leftOperand - rightOperand;
-            case MULTIPLY -> leftOperand * rightOperand;
-            case DIVIDE -> leftOperand / rightOperand;
-            case NONE -> leftOperand;
-        };
-
-        leftOperand = result;
-        currentOperation.set(Operation.NONE);
-        String formattedResult = formatter.format(result);
-        logger.info("Calculation result: {}", formattedResult);
-        return formattedResult;
-    }
-
-
-    public void setOperand(String value) throws ParseException {
-        logger.debug("Attempting to set operand with value: {}", value);
-        try {
-            double parsedValue = formatter.parse(value).doubleValue();
-            if (currentOperation.get() == Operation.NONE) {
-                leftOperand = parsedValue;
-                logger.debug("Set left operand to: {}", leftOperand);
-            } else {
-                rightOperand = parsedValue;
-                logger.debug("Set right operand to: {}", rightOperand);
-            }
-        } catch (ParseException e) {
-            logger.error("Failed to parse operand value: {}", value, e);
-            throw e;
+    public CalculatorModel() {
+        this(new CalculatorEngine());
+    }
+
+    public CalculatorModel(CalculatorEngine engine) {
+        this.engine = engine;
+        engine.addCalculationListener(metrics);
+        syncOperation();
+    }
+
+    public double calculate() {
+        long start = metrics.begin(Measurement.CALCULATE);
+        Operation operation = engine.getCurrentOperation();
+        double left = engine.getLeftOperand();
+        double right = engine.getRightOperand();
+        double result = engine.calculate();
+        syncOperation();
+        metrics.count(operation);
+        metrics.end(Measurement.CALCULATE, start);
+        // Guarded and unboxed so that a disabled level costs neither a call nor a Double per operand
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculated {} {} {} = {}", box(left), operation, box(right), box(result));
+        }
+        return result;
+    }
+
+    public void setOperand(double value) {
+        long start = metrics.begin(Measurement.SET_OPERAND);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Setting operand to: {}", box(value));
+        }
+        engine.setOperand(value);
+        metrics.end(Measurement.SET_OPERAND, start);
+    }
+
+    public void inputDigit(int digit) {
+        engine.inputDigit(digit);
+        syncOperation();
+    }
+
+    public void inputDecimal() {
+        engine.inputDecimal();
+        syncOperation();
+    }
+
+    public void inputOperation(Operation operation) {
+        // The key commits the typed entry as an operand unless it follows another operator or equals
+        boolean committing = !engine.isResetFlag();
+        boolean calculating = isCalculationPending();
+        long operandStart = metrics.begin(Measurement.SET_OPERAND);
+        long start = metrics.begin(Measurement.CALCULATE);
+        engine.inputOperation(operation);
+        syncOperation();
+        if (calculating) {
+            metrics.end(Measurement.CALCULATE, start);
+        }
+        if (committing) {
+            metrics.end(Measurement.SET_OPERAND, operandStart);
+        }
+    }
+
+    public void inputEquals() {
+        // The key commits the typed entry as an operand unless it follows another operator or equals
+        boolean committing = !engine.isResetFlag();
+        boolean calculating = isCalculationPending();
+        long operandStart = metrics.begin(Measurement.SET_OPERAND);
+        long start = metrics.begin(Measurement.CALCULATE);
+        engine.inputEquals();
+        syncOperation();
+        if (calculating) {
+            metrics.end(Measurement.CALCULATE, start);
+        }
+        if (committing) {
+            metrics.end(Measurement.SET_OPERAND, operandStart);
         }
     }
 
+    // Whether an operator or equals key would complete a calculation now
+    private boolean isCalculationPending() {
+        return !engine.isResetFlag() && engine.getCurrentOperation() != Operation.NONE;
+    }
+
     public double getLeftOperand() {
-        return leftOperand;
+        return engine.getLeftOperand();
     }
 
     public void clear() {
         logger.debug("Clearing calculator state");
-        leftOperand = 0;
-        rightOperand = 0;
-        displayText = "0";
-        resetFlag = true;
-        currentOperation.set(Operation.NONE);
-        logger.info("Calculator state reset to initial values");
+        engine.clear();
+        syncOperation();
+    }
+
+    /**
+     * @see CalculatorEngine#clearAll
+     */
+    public void clearAll() {
+        logger.debug("Clearing calculator state, memory and statistics");
+        engine.clearAll();
+        syncOperation();
     }
 
     public void clearEntry() {
         logger.debug("Clearing calculator entry");
-        displayText = "0";
-        resetFlag = true;
-        logger.info("Calculator entry reset to initial values");
+        engine.clearEntry();
+        syncOperation();
     }
 
     public void backSpace() {
         logger.debug("Back-space");
-        if(!resetFlag) {
-            int displayTextLength = displayText.length() - 1;
-            if (displayTextLength >= 1) {
-                displayText = displayText.substring(0, displayTextLength);
-            } else {
-                displayText = "0";
-                resetFlag = true;
-            }
-        }
+        engine.backSpace();
+        syncOperation();
     }
 
-    public void toggleSign() throws ParseException {
-        logger.debug("Toggling sign for value: {}", displayText);
-        displayText = displayText.startsWith("-") ?
-                displayText.substring(1) :
-                "-" + displayText;
-        setOperand(displayText);
-        logger.debug("Sign toggled, new value: {}", displayText);
-    }
-
-    public void reciprocalValue(String value) throws ParseException {
-        logger.debug("calculating reciprocal for value: {}", displayText);
-        try {
-            double parsedValue = formatter.parse(value).doubleValue();
-            String result = formatter.format(1 / parsedValue);
-            setDisplayText(result);
-            setOperand(result);
-            logger.debug("Reciprocal value result: {}", result);
-        } catch (ParseException e) {
-            logger.error("Failed to parse reciprocal value: {}", value, e);
-            throw e;
-        }
+    public void toggleSign() {
+        logger.debug("Toggling sign");
+        engine.toggleSign();
+        syncOperation();
     }
 
-    public void squareValue(String value) throws ParseException {
-        logger.debug("Calculating square of: {}", value);
-        try {
-            double parsedValue = formatter.parse(value).doubleValue();
-            String result = formatter.format(parsedValue * parsedValue);
-            setDisplayText(result);
-            setOperand(result);
-            logger.debug("Squared value result: {}", result);
-        } catch (ParseException e) {
-            logger.error("Failed to square value: {}", value, e);
-            throw e;
-        }
+    public void reciprocalValue() {
+        logger.debug("Calculating reciprocal");
+        engine.apply(UnaryOperation.RECIPROCAL);
+        syncOperation();
     }
 
-    public void squareRootValue(String value) throws ParseException {
-        logger.debug("Calculating square root of: {}", value);
-        try {
-            double parsedValue = formatter.parse(value).doubleValue();
-            String result = formatter.format(Math.sqrt(parsedValue));
-            setDisplayText(result);
-            setOperand(result);
-            logger.debug("Square root value result: {}", result);
-        } catch (ParseException e) {
-            logger.error("Failed to square root value: {}", value, e);
-            throw e;
-        }
+    public void squareValue() {
+        logger.debug("Calculating square");
+        engine.apply(UnaryOperation.SQUARE);
+        syncOperation();
     }
-    // Getters and setters
-    public String getDisplayText() { return displayText; }
-    public void setDisplayText(String text) {
-        logger.trace("Setting display text to: {}", text);
-        this.displayText = text;
+
+    public void squareRootValue() {
+        logger.debug("Calculating square root");
+        engine.apply(UnaryOperation.SQUARE_ROOT);
+        syncOperation();
     }
-    public boolean isResetFlag() { return resetFlag; }
-    public void setResetFlag(boolean flag) { this.resetFlag = flag; }
+
+    public void memoryAdd() {
+        logger.debug("Adding to memory register {}", box(engine.getMemory().getSelected()));
+        engine.memoryAdd();
+    }
+
+    public void memorySubtract() {
+        logger.debug("Subtracting from memory register {}", box(engine.getMemory().getSelected()));
+        engine.memorySubtract();
+    }
+
+    public void memoryRecall() {
+        logger.debug("Recalling memory register {}", box(engine.getMemory().getSelected()));
+        engine.memoryRecall();
+        syncOperation();
+    }
+
+    public void memoryRecall(Aggregate aggregate) {
+        logger.debug("Recalling {} of memory register {}", aggregate, box(engine.getMemory().getSelected()));
+        engine.memoryRecall(aggregate);
+        syncOperation();
+    }
+
+    public void memoryClear() {
+        logger.debug("Clearing memory register {}", box(engine.getMemory().getSelected()));
+        engine.memoryClear();
+    }
+
+    public void selectMemory(int register) {
+        logger.debug("Selecting memory register {}", box(register));
+        engine.selectMemory(register);
+    }
+
+    public void statisticsAdd() {
+        logger.debug("Adding to statistics");
+        engine.statisticsAdd();
+        syncOperation();
+    }
+
+    public void statisticsRecall(Aggregate aggregate) {
+        logger.debug("Recalling statistics {}", aggregate);
+        engine.statisticsRecall(aggregate);
+        syncOperation();
+    }
+
+    public void statisticsPercentile() {
+        logger.debug("Recalling statistics percentile");
+        engine.statisticsPercentile();
+        syncOperation();
+    }
+
+    public void statisticsClear() {
+        logger.debug("Clearing statistics");
+        engine.statisticsClear();
+    }
+
+    public void applyMacro(int slot) {
+        logger.debug("Applying macro {}", box(slot + 1));
+        engine.applyMacro(slot);
+        syncOperation();
+    }
+
+    public void setMacro(int slot, DoubleUnaryOperator macro) {
+        engine.setMacro(slot, macro);
+    }
+
+    /**
+     * Replaces the displayed value with it converted from unit or currency {@code from} to {@code to} of
+     * {@code table}, as a completed entry like a recalled value.
+     */
+    public void convert(ConversionTable table, int from, int to) {
+        logger.debug("Converting from {} to {}", table.symbol(from), table.symbol(to));
+        engine.inputValue(table.convert(engine.getValue(), from, to));
+        syncOperation();
+    }
+
+    /**
+     * Shows {@code value} as a completed entry, as {@link CalculatorEngine#inputValue} does.
+     */
+    public void inputValue(double value) {
+        logger.debug("Showing value {}", box(value));
+        engine.inputValue(value);
+        syncOperation();
+    }
+
+    public void setNumericMode(NumericMode numericMode) {
+        logger.debug("Switching to {} arithmetic", numericMode);
+        engine.setNumericMode(numericMode);
+    }
+
+    public void setMathContext(MathContext mathContext) {
+        logger.debug("Setting decimal math context to: {}", mathContext);
+        engine.setMathContext(mathContext);
+    }
+
+    /**
+     * @see CalculatorEngine#writeState
+     */
+    public void writeState(ByteBuffer out) {
+        engine.writeState(out);
+    }
+
+    /**
+     * @see CalculatorEngine#readState
+     */
+    public void readState(ByteBuffer in) {
+        logger.debug("Restoring calculator state");
+        engine.readState(in);
+        syncOperation();
+    }
+
+    private void syncOperation() {
+        currentOperation.set(engine.getCurrentOperation());
+    }
+
+    // Getters and setters
+    public String getDisplayText() { return engine.getDisplayText(); }
+    public double getDisplayValue() { return engine.getValue(); }
+    public long getDisplayRevision() { return engine.getDisplayRevision(); }
+    public boolean isError() { return engine.isError(); }
+    public boolean isResetFlag() { return engine.isResetFlag(); }
+    public NumericMode getNumericMode() { return engine.getNumericMode(); }
+    public MathContext getMathContext() { return engine.getMathContext(); }
     public Operation getCurrentOperation() {
         return currentOperation.get();
     }
     public void setCurrentOperation(Operation operation) {
         logger.debug("Setting operation to: {}", operation);
-        currentOperation.set(operation);
+        engine.setCurrentOperation(operation);
+        syncOperation();
     }
     public ObjectProperty<Operation> currentOperationProperty() {
         return currentOperation;
     }
-    public DecimalFormat getFormatter() { return formatter; }
+    public CalculatorEngine getEngine() { return engine; }
+    public MemoryBank getMemory() { return engine.getMemory(); }
+    public StreamStatistics getStatistics() { return engine.getStatistics(); }
 }
@@ -0,0 +1,373 @@
+package org.openjfx.model;
+
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+/**
+ * A mutable decimal value for the calculator's exact mode. While a value fits, it is held as an
+ * unscaled long and a scale and the arithmetic stays primitive; only results that overflow a long or
+ * need rounding to the {@link MathContext} go through {@link BigDecimal}. Results that have no decimal
+ * value (division by zero, square roots of negatives) carry the double NaN or infinity instead,
+ * as the double mode would show them.
+ */
+public final class DecimalRegister {
+    static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+    private static final int MAX_POWER = POWERS_OF_TEN.length - 1;
+    private static final double EXACT_MANTISSA = 0x1p53;
+    private static final byte COMPACT = 0;
+    private static final byte BIG = 1;
+    private static final byte NON_FINITE = 2;
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private long unscaled;
+    private int scale;
+    private BigDecimal big;
+    private boolean finite = true;
+    private double nonFinite;
+
+    public DecimalRegister() {
+    }
+
+    public DecimalRegister(DecimalRegister other) {
+        set(other);
+    }
+
+    public void set(long unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+        big = null;
+        finite = true;
+    }
+
+    public void set(DecimalRegister other) {
+        unscaled = other.unscaled;
+        scale = other.scale;
+        big = other.big;
+        finite = other.finite;
+        nonFinite = other.nonFinite;
+    }
+
+    public void set(BigDecimal value) {
+        if (value.precision() <= MAX_POWER) {
+            set(value.unscaledValue().longValue(), value.scale());
+        } else {
+            big = value;
+            finite = true;
+        }
+    }
+
+    /**
+     * Takes the shortest decimal that round-trips to {@code value}, so 0.1 stays 0.1.
+     */
+    public void set(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            finite = false;
+            nonFinite = value;
+            big = null;
+        } else if (value == Math.rint(value) && Math.abs(value) < 0x1p63) {
+            set((long) value, 0);
+        } else {
+            set(BigDecimal.valueOf(value));
+        }
+    }
+
+    /**
+     * Writes the exact value, as {@link #readFrom} reads it back.
+     */
+    void writeTo(ByteBuffer out) {
+        if (!finite) {
+            out.put(NON_FINITE).putDouble(nonFinite);
+        } else if (big != null) {
+            byte[] unscaledBytes = big.unscaledValue().toByteArray();
+            out.put(BIG).putInt(big.scale()).putInt(unscaledBytes.length).put(unscaledBytes);
+        } else {
+            out.put(COMPACT).putLong(unscaled).putInt(scale);
+        }
+    }
+
+    void readFrom(ByteBuffer in) {
+        byte kind = in.get();
+        if (kind == NON_FINITE) {
+            finite = false;
+            nonFinite = in.getDouble();
+            big = null;
+        } else if (kind == BIG) {
+            int bigScale = in.getInt();
+            int unscaledLength = in.getInt();
+            if (unscaledLength < 0 || unscaledLength > in.remaining()) {
+                throw new IllegalArgumentException("Invalid unscaled value length " + unscaledLength);
+            }
+            byte[] unscaledBytes = new byte[unscaledLength];
+            in.get(unscaledBytes);
+            big = new BigDecimal(new BigInteger(unscaledBytes), bigScale);
+            finite = true;
+        } else {
+            set(in.getLong(), in.getInt());
+        }
+    }
+
+    public boolean isFinite() {
+        return finite;
+    }
+
+    public boolean isNaN() {
+        return !finite && Double.isNaN(nonFinite);
+    }
+
+    /**
+     * Whether the value is held as {@link #getUnscaled()} and {@link #getScale()} rather than a BigDecimal.
+     */
+    public boolean isCompact() {
+        return finite && big == null;
+    }
+
+    public long getUnscaled() {
+        return unscaled;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public int signum() {
+        if (!finite) {
+            return (int) Math.signum(nonFinite);
+        }
+        return big != null ? big.signum() : Long.signum(unscaled);
+    }
+
+    /**
+     * @throws ArithmeticException if the value is NaN or infinite
+     */
+    public BigDecimal toBigDecimal() {
+        if (!finite) {
+            throw new ArithmeticException("Not a decimal: " + nonFinite);
+        }
+        return big != null ? big : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    public double doubleValue() {
+        if (!finite) {
+            return nonFinite;
+        }
+        if (big == null && Math.abs((double) unscaled) <= EXACT_MANTISSA) {
+            if (scale >= 0 && scale < DOUBLE_POWERS_OF_TEN.length) {
+                return unscaled / DOUBLE_POWERS_OF_TEN[scale];
+            }
+            if (scale < 0 && scale > -DOUBLE_POWERS_OF_TEN.length) {
+                return unscaled * DOUBLE_POWERS_OF_TEN[-scale];
+            }
+        }
+        return toBigDecimal().doubleValue();
+    }
+
+    /**
+     * Replaces this value with {@code this operation right}.
+     */
+    public void apply(Operation operation, DecimalRegister right, MathContext context) {
+        if (operation == Operation.NONE) {
+            return;
+        }
+        if (!finite || !right.finite || (operation == Operation.DIVIDE && right.signum() == 0)) {
+            set(operation.apply(doubleValue(), right.doubleValue()));
+            return;
+        }
+        if (big == null && right.big == null
+                && applyCompact(operation, unscaled, scale, right.unscaled, right.scale, context)) {
+            return;
+        }
+        try {
+            BigDecimal left = toBigDecimal();
+            BigDecimal other = right.toBigDecimal();
+            set(switch (operation) {
+                case PLUS -> left.add(other, context);
+                case MINUS -> left.subtract(other, context);
+                case MULTIPLY -> left.multiply(other, context);
+                case DIVIDE -> left.divide(other, context);
+                case NONE -> left;
+            });
+        } catch (ArithmeticException e) {
+            // Non-terminating quotients under an unlimited context, or scales past the int range
+            set(operation.apply(doubleValue(), right.doubleValue()));
+        }
+    }
+
+    public void apply(UnaryOperation operation, MathContext context) {
+        if (!finite || (operation == UnaryOperation.RECIPROCAL && signum() == 0)
+                || (operation == UnaryOperation.SQUARE_ROOT && signum() < 0)) {
+            set(operation.apply(doubleValue()));
+            return;
+        }
+        if (big == null && applyCompact(operation, context)) {
+            return;
+        }
+        try {
+            BigDecimal value = toBigDecimal();
+            set(switch (operation) {
+                case NEGATE -> value.negate();
+                case SQUARE -> value.multiply(value, context);
+                case SQUARE_ROOT -> value.sqrt(context);
+                case RECIPROCAL -> BigDecimal.ONE.divide(value, context);
+            });
+        } catch (ArithmeticException e) {
+            set(operation.apply(doubleValue()));
+        }
+    }
+
+    /**
+     * Rounds HALF_EVEN to the display's fraction digits, as reading a value back from the display does.
+     */
+    public void roundToDisplay() {
+        if (!finite) {
+            return;
+        }
+        if (big == null && scale > DisplayMath.FRACTION_DIGITS && scale - DisplayMath.FRACTION_DIGITS <= MAX_POWER) {
+            unscaled = divideHalfEven(unscaled, POWERS_OF_TEN[scale - DisplayMath.FRACTION_DIGITS]);
+            scale = DisplayMath.FRACTION_DIGITS;
+        } else if (big != null ? big.scale() > DisplayMath.FRACTION_DIGITS : scale > DisplayMath.FRACTION_DIGITS) {
+            BigDecimal value = toBigDecimal();
+            if (value.precision() - (long) value.scale() < -DisplayMath.FRACTION_DIGITS) {
+                // Below a tenth of the last digit; setScale would first scale up by 10^scale
+                set(0, DisplayMath.FRACTION_DIGITS);
+            } else {
+                set(value.setScale(DisplayMath.FRACTION_DIGITS, RoundingMode.HALF_EVEN));
+            }
+        }
+    }
+
+    static long divideHalfEven(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = Math.abs(value % divisor);
+        if (remainder != 0) {
+            long twice = remainder * 2;
+            if (twice > divisor || (twice == divisor && (quotient & 1) != 0)) {
+                quotient += Long.signum(value);
+            }
+        }
+        return quotient;
+    }
+
+    private boolean applyCompact(Operation operation, long left, int leftScale, long right, int rightScale,
+                                 MathContext context) {
+        try {
+            long result;
+            int resultScale;
+            switch (operation) {
+                case PLUS, MINUS -> {
+                    if (operation == Operation.MINUS) {
+                        right = Math.negateExact(right);
+                    }
+                    resultScale = Math.max(leftScale, rightScale);
+                    result = Math.addExact(scaleUp(left, Math.subtractExact(resultScale, leftScale)),
+                            scaleUp(right, Math.subtractExact(resultScale, rightScale)));
+                }
+                case MULTIPLY -> {
+                    result = Math.multiplyExact(left, right);
+                    resultScale = Math.addExact(leftScale, rightScale);
+                }
+                case DIVIDE -> {
+                    // Exact quotients only; anything that needs rounding is left to BigDecimal
+                    int shift = 0;
+                    while (left % right != 0) {
+                        if (shift == MAX_POWER) {
+                            return false;
+                        }
+                        left = Math.multiplyExact(left, 10);
+                        shift++;
+                    }
+                    result = right == -1 ? Math.negateExact(left) : left / right;
+                    resultScale = Math.addExact(Math.subtractExact(leftScale, rightScale), shift);
+                }
+                default -> {
+                    return false;
+                }
+            }
+            return store(result, resultScale, context);
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private boolean applyCompact(UnaryOperation operation, MathContext context) {
+        try {
+            switch (operation) {
+                case NEGATE -> {
+                    return store(Math.negateExact(unscaled), scale, context);
+                }
+                case SQUARE -> {
+                    return store(Math.multiplyExact(unscaled, unscaled), Math.multiplyExact(scale, 2), context);
+                }
+                case SQUARE_ROOT -> {
+                    long radicand = unscaled;
+                    int radicandScale = scale;
+                    if ((radicandScale & 1) != 0) {
+                        radicand = Math.multiplyExact(radicand, 10);
+                        radicandScale = Math.incrementExact(radicandScale);
+                    }
+                    long root = (long) Math.sqrt((double) radicand);
+                    while (Math.multiplyExact(root, root) > radicand) {
+                        root--;
+                    }
+                    while (Math.multiplyExact(root + 1, root + 1) <= radicand) {
+                        root++;
+                    }
+                    return root * root == radicand && store(root, radicandScale / 2, context);
+                }
+                case RECIPROCAL -> {
+                    return applyCompact(Operation.DIVIDE, 1, 0, unscaled, scale, context);
+                }
+            }
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        return false;
+    }
+
+    private boolean store(long result, int resultScale, MathContext context) {
+        if (result == Long.MIN_VALUE
+                || (context.getPrecision() > 0 && digits(Math.abs(result)) > context.getPrecision())) {
+            return false;
+        }
+        set(result, resultScale);
+        return true;
+    }
+
+    private static long scaleUp(long value, int digits) {
+        if (digits > MAX_POWER) {
+            throw new ArithmeticException("Scale difference too large");
+        }
+        return Math.multiplyExact(value, POWERS_OF_TEN[digits]);
+    }
+
+    private static int digits(long magnitude) {
+        int digits = 1;
+        while (digits <= MAX_POWER && magnitude >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    @Override
+    public String toString() {
+        if (!finite) {
+            return Double.toString(nonFinite);
+        }
+        BigDecimal value = toBigDecimal();
+        // Written out, an exponent near the int range would need gigabytes of zeros
+        return Math.abs((long) value.scale()) > 1_000 ? value.toString() : value.toPlainString();
+    }
+}
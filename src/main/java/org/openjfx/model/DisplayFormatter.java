@@ -0,0 +1,197 @@
+package org.openjfx.model;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+
+/**
+ * Formatter and parser for the display pattern "#,###.#######", producing exactly what
+ * {@link DecimalFormat} does for it in the default locale. Stateless and therefore thread-safe;
+ * output goes to a caller-owned {@code char[]} or {@link StringBuilder}.
+ * Magnitudes of at least 2^52 / 10^7 are rare on a calculator display and take a DecimalFormat slow path.
+ */
+public final class DisplayFormatter {
+    public static final String PATTERN = "#,###.#######";
+    /**
+     * Longest output for a long, or for a double below the slow path limit.
+     */
+    public static final int MAX_FAST_LENGTH = 26;
+    /**
+     * Longest output for any double: a sign, 309 grouped integer digits and 7 fraction digits.
+     */
+    public static final int MAX_LENGTH = 1 + 309 + 102 + 1 + DisplayMath.FRACTION_DIGITS;
+
+    static final DecimalFormatSymbols SYMBOLS = DecimalFormatSymbols.getInstance();
+    static final char MINUS = SYMBOLS.getMinusSign();
+    static final char DECIMAL_SEPARATOR = SYMBOLS.getDecimalSeparator();
+    static final char GROUPING_SEPARATOR = SYMBOLS.getGroupingSeparator();
+    static final String INFINITY = SYMBOLS.getInfinity();
+    static final String NAN = SYMBOLS.getNaN();
+
+    private static final double EXACT_LIMIT = 0x1p52;
+    // A sign, a grouped long and the fraction digits
+    private static final int COMPACT_DECIMAL_LENGTH = 1 + 25 + 1 + DisplayMath.FRACTION_DIGITS;
+    private static final long FRACTION_SCALE = 10_000_000L;
+    private static final ThreadLocal<DecimalFormat> SLOW_FORMAT =
+            ThreadLocal.withInitial(() -> new DecimalFormat(PATTERN));
+
+    private DisplayFormatter() {
+    }
+
+    public static String format(double value) {
+        char[] buffer = new char[maxLength(value)];
+        return new String(buffer, 0, format(value, buffer, 0));
+    }
+
+    public static String format(long value) {
+        char[] buffer = new char[MAX_FAST_LENGTH];
+        return new String(buffer, 0, format(value, buffer, 0));
+    }
+
+    public static StringBuilder format(double value, StringBuilder out) {
+        char[] buffer = new char[maxLength(value)];
+        return out.append(buffer, 0, format(value, buffer, 0));
+    }
+
+    public static StringBuilder format(long value, StringBuilder out) {
+        char[] buffer = new char[MAX_FAST_LENGTH];
+        return out.append(buffer, 0, format(value, buffer, 0));
+    }
+
+    /**
+     * Room {@link #format(double, char[], int)} needs for this value.
+     */
+    public static int maxLength(double value) {
+        return Math.abs(value) * DisplayMath.SCALE < EXACT_LIMIT ? MAX_FAST_LENGTH : MAX_LENGTH;
+    }
+
+    /**
+     * Writes the formatted value at {@code offset} and returns the offset just past it.
+     * The buffer needs {@link #maxLength(double)} characters of room.
+     */
+    public static int format(double value, char[] buffer, int offset) {
+        if (Double.isNaN(value)) {
+            return append(NAN, buffer, offset);
+        }
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            // DecimalFormat keeps the sign of negative values that round to zero, e.g. "-0"
+            buffer[offset++] = MINUS;
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude == Double.POSITIVE_INFINITY) {
+            return append(INFINITY, buffer, offset);
+        }
+        double scaled = magnitude * DisplayMath.SCALE;
+        if (scaled >= EXACT_LIMIT) {
+            return append(SLOW_FORMAT.get().format(magnitude), buffer, offset);
+        }
+        long rounded = (long) DisplayMath.roundScaled(magnitude, scaled);
+        offset = appendGrouped(rounded / FRACTION_SCALE, buffer, offset);
+        return appendFraction(rounded % FRACTION_SCALE, buffer, offset);
+    }
+
+    /**
+     * Writes the formatted value at {@code offset} and returns the offset just past it.
+     * The buffer needs {@link #MAX_FAST_LENGTH} characters of room.
+     */
+    public static int format(long value, char[] buffer, int offset) {
+        if (value >= 0) {
+            return appendGrouped(value, buffer, offset);
+        }
+        buffer[offset++] = MINUS;
+        if (value == Long.MIN_VALUE) {
+            // The magnitude does not fit a long; it is 2^63 with the same digits as Long.MAX_VALUE plus one
+            offset = appendGrouped(Long.MAX_VALUE, buffer, offset);
+            buffer[offset - 1]++;
+            return offset;
+        }
+        return appendGrouped(-value, buffer, offset);
+    }
+
+    /**
+     * Formats a decimal exactly as DecimalFormat formats the equivalent {@link java.math.BigDecimal}.
+     */
+    public static String format(DecimalRegister value) {
+        return format(value, new StringBuilder(MAX_FAST_LENGTH)).toString();
+    }
+
+    public static StringBuilder format(DecimalRegister value, StringBuilder out) {
+        if (!value.isFinite()) {
+            return format(value.doubleValue(), out);
+        }
+        if (value.isCompact()) {
+            long unscaled = value.getUnscaled();
+            int scale = value.getScale();
+            int excess = scale - DisplayMath.FRACTION_DIGITS;
+            if (excess > 0 && excess < DecimalRegister.POWERS_OF_TEN.length) {
+                unscaled = DecimalRegister.divideHalfEven(unscaled, DecimalRegister.POWERS_OF_TEN[excess]);
+                scale = DisplayMath.FRACTION_DIGITS;
+            }
+            if (scale >= 0 && scale <= DisplayMath.FRACTION_DIGITS && unscaled != Long.MIN_VALUE) {
+                char[] buffer = new char[COMPACT_DECIMAL_LENGTH];
+                int offset = 0;
+                if (value.signum() < 0) {
+                    buffer[offset++] = MINUS;
+                }
+                long magnitude = Math.abs(unscaled);
+                long unit = DecimalRegister.POWERS_OF_TEN[scale];
+                long fraction = magnitude % unit * DecimalRegister.POWERS_OF_TEN[DisplayMath.FRACTION_DIGITS - scale];
+                offset = appendGrouped(magnitude / unit, buffer, offset);
+                offset = appendFraction(fraction, buffer, offset);
+                return out.append(buffer, 0, offset);
+            }
+        }
+        return out.append(SLOW_FORMAT.get().format(value.toBigDecimal()));
+    }
+
+    /**
+     * Parses like {@link DecimalFormat#parse(String)}: a {@link Long} for integral text that fits one,
+     * otherwise a {@link Double}. Grouping separators are accepted anywhere in the integer part.
+     */
+    public static Number parse(CharSequence text) throws ParseException {
+        NumberEntry entry = new NumberEntry();
+        entry.setText(text);
+        double value = entry.doubleValue();
+        if (entry.isLong()) {
+            return entry.longValue();
+        }
+        return value;
+    }
+
+    private static int appendGrouped(long value, char[] buffer, int offset) {
+        int digits = 1;
+        long unit = 1;
+        while (unit <= value / 10) {
+            unit *= 10;
+            digits++;
+        }
+        for (; unit > 0; unit /= 10) {
+            buffer[offset++] = (char) ('0' + value / unit % 10);
+            if (--digits > 0 && digits % 3 == 0) {
+                buffer[offset++] = GROUPING_SEPARATOR;
+            }
+        }
+        return offset;
+    }
+
+    private static int appendFraction(long fraction, char[] buffer, int offset) {
+        if (fraction == 0) {
+            return offset;
+        }
+        long unit = FRACTION_SCALE / 10;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            unit /= 10;
+        }
+        buffer[offset++] = DECIMAL_SEPARATOR;
+        for (; unit > 0; unit /= 10) {
+            buffer[offset++] = (char) ('0' + fraction / unit % 10);
+        }
+        return offset;
+    }
+
+    private static int append(String text, char[] buffer, int offset) {
+        text.getChars(0, text.length(), buffer, offset);
+        return offset + text.length();
+    }
+}
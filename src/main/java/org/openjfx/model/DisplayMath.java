@@ -0,0 +1,46 @@
+package org.openjfx.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Primitive equivalents of pushing a double through the display pattern "#,###.#######"
+ * and parsing it back, i.e. HALF_EVEN rounding of the exact binary value to 7 fraction digits.
+ */
+public final class DisplayMath {
+    public static final int FRACTION_DIGITS = 7;
+    static final double SCALE = 1e7;
+    private static final double EXACT_LIMIT = 0x1p52;
+
+    private DisplayMath() {
+    }
+
+    public static double roundToDisplay(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return value;
+        }
+        double scaled = value * SCALE;
+        if (Math.abs(scaled) >= EXACT_LIMIT) {
+            return new BigDecimal(value).setScale(FRACTION_DIGITS, RoundingMode.HALF_EVEN).doubleValue();
+        }
+        double rounded = roundScaled(value, scaled);
+        if (rounded == 0) {
+            return value < 0 || (value == 0 && 1 / value < 0) ? -0.0 : 0.0;
+        }
+        return rounded / SCALE;
+    }
+
+    /**
+     * Rounds {@code value * 10^7} HALF_EVEN using the exact product, given its double
+     * approximation {@code scaled}; only valid while {@code |scaled| < 2^52}.
+     */
+    static double roundScaled(double value, double scaled) {
+        double error = Math.fma(value, SCALE, -scaled);
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (fraction > 0.5 || (fraction == 0.5 && (error > 0 || (error == 0 && floor % 2 != 0)))) {
+            return floor + 1;
+        }
+        return floor;
+    }
+}
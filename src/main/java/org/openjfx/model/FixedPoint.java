@@ -0,0 +1,219 @@
+package org.openjfx.model;
+
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on raw longs holding {@code value * 10^7}, the display's resolution.
+ * Sums and differences are exact; products, quotients and square roots are rounded HALF_EVEN to
+ * 7 fraction digits, just as the display would round them. Every operation is primitive and
+ * allocation-free. A result that does not fit, or has no value (division by zero, roots of
+ * negatives), comes back as {@link #OUT_OF_RANGE} so the caller can fall back to another backend.
+ * Only {@link #fromDouble} allocates, and only for magnitudes of 2^52 / 10^7 and above.
+ */
+public final class FixedPoint {
+    public static final int FRACTION_DIGITS = DisplayMath.FRACTION_DIGITS;
+    public static final long ONE = 10_000_000L;
+    /**
+     * Marks a value that is not representable; it never occurs as a valid result, and operations
+     * given it return it again.
+     */
+    public static final long OUT_OF_RANGE = Long.MIN_VALUE;
+    public static final long MAX_VALUE = Long.MAX_VALUE;
+    public static final long MIN_VALUE = -Long.MAX_VALUE;
+
+    private static final long LOW_MASK = 0xFFFF_FFFFL;
+    private static final double EXACT_LIMIT = 0x1p52;
+    private static final BigDecimal LIMIT = BigDecimal.valueOf(MAX_VALUE);
+
+    private FixedPoint() {
+    }
+
+    public static long apply(Operation operation, long left, long right) {
+        return switch (operation) {
+            case PLUS -> add(left, right);
+            case MINUS -> subtract(left, right);
+            case MULTIPLY -> multiply(left, right);
+            case DIVIDE -> divide(left, right);
+            case NONE -> left;
+        };
+    }
+
+    public static long apply(UnaryOperation operation, long value) {
+        return switch (operation) {
+            case NEGATE -> value == OUT_OF_RANGE ? OUT_OF_RANGE : -value;
+            case SQUARE -> multiply(value, value);
+            case SQUARE_ROOT -> sqrt(value);
+            case RECIPROCAL -> divide(ONE, value);
+        };
+    }
+
+    public static long add(long left, long right) {
+        long sum = left + right;
+        // Overflow when both operands have the sign the sum lacks
+        if (left == OUT_OF_RANGE || right == OUT_OF_RANGE || ((left ^ sum) & (right ^ sum)) < 0) {
+            return OUT_OF_RANGE;
+        }
+        return sum;
+    }
+
+    public static long subtract(long left, long right) {
+        return right == OUT_OF_RANGE ? OUT_OF_RANGE : add(left, -right);
+    }
+
+    public static long multiply(long left, long right) {
+        if (left == OUT_OF_RANGE || right == OUT_OF_RANGE) {
+            return OUT_OF_RANGE;
+        }
+        long a = Math.abs(left);
+        long b = Math.abs(right);
+        // The 128-bit product, divided by 10^7 in 32-bit limbs
+        long high = Math.unsignedMultiplyHigh(a, b);
+        long low = a * b;
+        long limb3 = high >>> 32;
+        long quotient3 = limb3 / ONE;
+        long remainder = limb3 % ONE;
+        long limb2 = remainder << 32 | high & LOW_MASK;
+        long quotient2 = limb2 / ONE;
+        remainder = limb2 % ONE;
+        long limb1 = remainder << 32 | low >>> 32;
+        long quotient1 = limb1 / ONE;
+        remainder = limb1 % ONE;
+        long limb0 = remainder << 32 | low & LOW_MASK;
+        long quotient0 = limb0 / ONE;
+        remainder = limb0 % ONE;
+        if (quotient3 != 0 || quotient2 != 0 || quotient1 > Integer.MAX_VALUE) {
+            return OUT_OF_RANGE;
+        }
+        long magnitude = roundHalfEven(quotient1 << 32 | quotient0, remainder, ONE);
+        if (magnitude < 0) {
+            return OUT_OF_RANGE;
+        }
+        return (left ^ right) < 0 ? -magnitude : magnitude;
+    }
+
+    public static long divide(long left, long right) {
+        if (left == OUT_OF_RANGE || right == OUT_OF_RANGE || right == 0) {
+            return OUT_OF_RANGE;
+        }
+        long a = Math.abs(left);
+        long b = Math.abs(right);
+        if (b > Long.MAX_VALUE / 10) {
+            return OUT_OF_RANGE;
+        }
+        // Integer part first, then the fraction digit by digit so nothing exceeds a long
+        long whole = a / b;
+        long remainder = a % b;
+        if (whole > MAX_VALUE / ONE) {
+            return OUT_OF_RANGE;
+        }
+        long fraction = 0;
+        for (int i = 0; i < FRACTION_DIGITS; i++) {
+            remainder *= 10;
+            fraction = fraction * 10 + remainder / b;
+            remainder %= b;
+        }
+        long magnitude = roundHalfEven(whole * ONE + fraction, remainder, b);
+        if (magnitude < 0) {
+            return OUT_OF_RANGE;
+        }
+        return (left ^ right) < 0 ? -magnitude : magnitude;
+    }
+
+    /**
+     * The square root rounded to 7 fraction digits, i.e. the integer root of {@code value * 10^7}.
+     */
+    public static long sqrt(long value) {
+        if (value == OUT_OF_RANGE || value < 0) {
+            return OUT_OF_RANGE;
+        }
+        long high = Math.unsignedMultiplyHigh(value, ONE);
+        long low = value * ONE;
+        long root = (long) Math.sqrt((double) value * ONE);
+        // The double estimate is within a few units; settle on floor(sqrt) with exact 128-bit compares
+        while (compareSquare(root, high, low) > 0) {
+            root--;
+        }
+        while (compareSquare(root + 1, high, low) <= 0) {
+            root++;
+        }
+        // Round up when value * 10^7 - root^2 exceeds root, i.e. the root lies past root + 1/2
+        long excess = low - root * root;
+        return excess > root ? root + 1 : root;
+    }
+
+    /**
+     * The raw value for a double, rounded HALF_EVEN exactly as the display rounds it.
+     */
+    public static long fromDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return OUT_OF_RANGE;
+        }
+        double scaled = value * DisplayMath.SCALE;
+        if (Math.abs(scaled) < EXACT_LIMIT) {
+            double rounded = DisplayMath.roundScaled(Math.abs(value), Math.abs(scaled));
+            return value < 0 ? -(long) rounded : (long) rounded;
+        }
+        // The product rounds, so 2^63 itself may stand for a value just inside the range
+        if (Math.abs(scaled) > 0x1p63) {
+            return OUT_OF_RANGE;
+        }
+        BigDecimal raw = new BigDecimal(value).movePointRight(FRACTION_DIGITS).setScale(0, RoundingMode.HALF_EVEN);
+        return raw.abs().compareTo(LIMIT) > 0 ? OUT_OF_RANGE : raw.longValue();
+    }
+
+    /**
+     * The raw value for a decimal with at most 7 fraction digits, or {@link #OUT_OF_RANGE}.
+     */
+    public static long fromDecimal(DecimalRegister value) {
+        if (!value.isCompact() || value.getScale() > FRACTION_DIGITS) {
+            return OUT_OF_RANGE;
+        }
+        if (value.getScale() < FRACTION_DIGITS - DecimalRegister.POWERS_OF_TEN.length + 1) {
+            // Only a zero, such as 0 × 10^12, has so many trailing zeros and still fits
+            return value.getUnscaled() == 0 ? 0 : OUT_OF_RANGE;
+        }
+        long unscaled = value.getUnscaled();
+        long factor = DecimalRegister.POWERS_OF_TEN[FRACTION_DIGITS - value.getScale()];
+        long raw = unscaled * factor;
+        if (raw == OUT_OF_RANGE || Math.multiplyHigh(unscaled, factor) != (raw >> 63)) {
+            return OUT_OF_RANGE;
+        }
+        return raw;
+    }
+
+    public static double toDouble(long raw) {
+        return raw == OUT_OF_RANGE ? Double.NaN : raw / DisplayMath.SCALE;
+    }
+
+    /**
+     * Loads the raw value into {@code out} as a decimal with 7 fraction digits.
+     */
+    public static void toDecimal(long raw, DecimalRegister out) {
+        if (raw == OUT_OF_RANGE) {
+            out.set(Double.NaN);
+        } else {
+            out.set(raw, FRACTION_DIGITS);
+        }
+    }
+
+    private static long roundHalfEven(long quotient, long remainder, long divisor) {
+        long half = divisor - remainder;
+        if (remainder > half || (remainder == half && (quotient & 1) != 0)) {
+            return quotient + 1;
+        }
+        return quotient;
+    }
+
+    private static int compareSquare(long root, long high, long low) {
+        long squareHigh = Math.unsignedMultiplyHigh(root, root);
+        long squareLow = root * root;
+        if (squareHigh != high) {
+            return Long.compareUnsigned(squareHigh, high);
+        }
+        return Long.compareUnsigned(squareLow, low);
+    }
+}
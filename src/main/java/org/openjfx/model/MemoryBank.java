@@ -0,0 +1,167 @@
+package org.openjfx.model;
+
+import org.openjfx.enums.Aggregate;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Numbered memory registers behind the M+, M-, MR and MC keys. Values live in a {@code double[]}, so every
+ * operation is an array access, and each register keeps {@link RunningStatistics} of what was added to it:
+ * the count, mean and variance of a column of figures are ready after its last M+, however long the column.
+ * M- counts as adding the negated value. A register holds the compensated sum of its entries, so it agrees
+ * exactly with its {@link Aggregate#SUM}. Not thread-safe.
+ */
+public final class MemoryBank {
+    public static final int DEFAULT_REGISTERS = 10;
+
+    private final double[] registers;
+    private final RunningStatistics[] statistics;
+    private int selected;
+    private long revision;
+
+    public MemoryBank() {
+        this(DEFAULT_REGISTERS);
+    }
+
+    public MemoryBank(int size) {
+        if (size < 1 || size > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Register count must be between 1 and " + Byte.MAX_VALUE + ": " + size);
+        }
+        registers = new double[size];
+        statistics = new RunningStatistics[size];
+        for (int i = 0; i < size; i++) {
+            statistics[i] = new RunningStatistics();
+        }
+    }
+
+    public int size() {
+        return registers.length;
+    }
+
+    /**
+     * The register that the methods without a register argument act on.
+     */
+    public int getSelected() {
+        return selected;
+    }
+
+    public void select(int register) {
+        checkRegister(register);
+        if (selected != register) {
+            selected = register;
+            revision++;
+        }
+    }
+
+    public void add(double value) {
+        add(selected, value);
+    }
+
+    public void add(int register, double value) {
+        RunningStatistics stats = statistics[register];
+        stats.add(value);
+        registers[register] = stats.getSum();
+        revision++;
+    }
+
+    public void subtract(double value) {
+        add(selected, -value);
+    }
+
+    public double recall() {
+        return registers[selected];
+    }
+
+    public double recall(int register) {
+        return registers[register];
+    }
+
+    public double recall(Aggregate aggregate) {
+        return statistics[selected].get(aggregate);
+    }
+
+    public RunningStatistics getStatistics(int register) {
+        return statistics[register];
+    }
+
+    /**
+     * True if anything was added to {@code register} since it was last cleared.
+     */
+    public boolean isOccupied(int register) {
+        return statistics[register].getCount() != 0;
+    }
+
+    public boolean isEmpty() {
+        for (RunningStatistics stats : statistics) {
+            if (stats.getCount() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        clear(selected);
+    }
+
+    public void clear(int register) {
+        registers[register] = 0;
+        statistics[register].clear();
+        revision++;
+    }
+
+    /**
+     * Clears every register and selects the first.
+     */
+    public void clearAll() {
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = 0;
+            statistics[i].clear();
+        }
+        selected = 0;
+        revision++;
+    }
+
+    /**
+     * Changes whenever a register or the selection changes.
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    void writeTo(ByteBuffer out) {
+        out.put((byte) registers.length).put((byte) selected);
+        for (int i = 0; i < registers.length; i++) {
+            statistics[i].writeTo(out);
+        }
+    }
+
+    /**
+     * Reads registers written by {@link #writeTo}; a bank of another size keeps the registers both have.
+     */
+    void readFrom(ByteBuffer in) {
+        int size = in.get();
+        int selected = in.get();
+        if (size < 0 || selected < 0 || selected >= size) {
+            throw new IllegalArgumentException("Invalid memory registers: " + size + ", selected " + selected);
+        }
+        RunningStatistics skipped = new RunningStatistics();
+        for (int i = 0; i < size; i++) {
+            (i < registers.length ? statistics[i] : skipped).readFrom(in);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (i >= size) {
+                statistics[i].clear();
+            }
+            registers[i] = statistics[i].getSum();
+        }
+        this.selected = Math.min(selected, registers.length - 1);
+        revision++;
+    }
+
+    private void checkRegister(int register) {
+        if (register < 0 || register >= registers.length) {
+            throw new IllegalArgumentException("No memory register " + register + " of " + registers.length);
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package org.openjfx.model;
+
+import org.openjfx.enums.UnaryOperation;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.text.DecimalFormat;
+import java.text.ParseException;
+
+import static org.openjfx.model.DisplayFormatter.DECIMAL_SEPARATOR;
+import static org.openjfx.model.DisplayFormatter.GROUPING_SEPARATOR;
+import static org.openjfx.model.DisplayFormatter.INFINITY;
+import static org.openjfx.model.DisplayFormatter.MINUS;
+import static org.openjfx.model.DisplayFormatter.NAN;
+
+/**
+ * The text of the calculator display held as a growable char buffer instead of a String.
+ * A computed result is kept as a double, or as a {@link DecimalRegister} in decimal mode,
+ * and only turned into characters when an edit needs them.
+ */
+public class NumberEntry {
+    private static final long EXACT_MANTISSA = 1L << 53;
+    private static final int DECIMAL = 1;
+    private static final int VALUE_MODE = 2;
+    private static final int VALUE_IS_DECIMAL = 4;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final DecimalRegister decimalValue = new DecimalRegister();
+    private final DecimalRegister decimalScratch = new DecimalRegister();
+    private char[] chars = new char[32];
+    private int length;
+    private boolean decimal;
+    private boolean valueMode;
+    private boolean valueIsDecimal;
+    private double value;
+    private String valueText;
+    private boolean parsed;
+    private double parsedValue;
+    private boolean parsedLong;
+    private long parsedLongValue;
+    private boolean parsedExact;
+    private long parsedMantissa;
+    private int parsedScale;
+    private int parsedStart;
+    private int parsedEnd;
+    private long revision;
+
+    public NumberEntry() {
+        reset();
+    }
+
+    public void reset() {
+        setDigit(0);
+    }
+
+    public void setDigit(int digit) {
+        chars[0] = (char) ('0' + digit);
+        length = 1;
+        changed();
+    }
+
+    public void setZeroPoint() {
+        chars[0] = '0';
+        chars[1] = DECIMAL_SEPARATOR;
+        length = 2;
+        changed();
+    }
+
+    public void setValue(double result) {
+        setValue(result, null);
+    }
+
+    /**
+     * Shows a result whose display string is already known, e.g. from a {@link ResultCache}.
+     */
+    public void setValue(double result, String displayText) {
+        valueMode = true;
+        valueIsDecimal = false;
+        value = result;
+        valueText = displayText;
+        parsed = false;
+        revision++;
+    }
+
+    public void setValue(DecimalRegister result) {
+        valueMode = true;
+        valueIsDecimal = true;
+        decimalValue.set(result);
+        valueText = null;
+        parsed = false;
+        revision++;
+    }
+
+    /**
+     * In decimal mode typed text is displayed exactly rather than through a double.
+     */
+    void setDecimal(boolean decimal) {
+        if (this.decimal != decimal) {
+            this.decimal = decimal;
+            revision++;
+        }
+    }
+
+    public void setText(CharSequence text) {
+        length = 0;
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            chars[length++] = text.charAt(i);
+        }
+        changed();
+    }
+
+    public void appendDigit(int digit) {
+        materialize();
+        ensureCapacity(length + 1);
+        chars[length++] = (char) ('0' + digit);
+        changed();
+    }
+
+    public void appendDecimalPoint() {
+        materialize();
+        ensureCapacity(length + 1);
+        chars[length++] = DECIMAL_SEPARATOR;
+        changed();
+    }
+
+    public boolean hasDecimalPoint() {
+        materialize();
+        return indexOf(DECIMAL_SEPARATOR) >= 0;
+    }
+
+    public void truncateAfterDecimalPoint() {
+        materialize();
+        int index = indexOf(DECIMAL_SEPARATOR);
+        if (index >= 0) {
+            length = index + 1;
+            changed();
+        }
+    }
+
+    /**
+     * Removes the last character and reports whether anything is left.
+     */
+    public boolean backSpace() {
+        materialize();
+        if (length <= 1) {
+            reset();
+            return false;
+        }
+        length--;
+        changed();
+        return true;
+    }
+
+    public void toggleSign() {
+        if (valueMode && valueIsDecimal && !decimalValue.isNaN()) {
+            decimalValue.apply(UnaryOperation.NEGATE, MathContext.UNLIMITED);
+            setValue(decimalValue);
+            return;
+        }
+        if (valueMode && !valueIsDecimal && !Double.isNaN(value)) {
+            setValue(-value);
+            return;
+        }
+        materialize();
+        if (length > 0 && chars[0] == MINUS) {
+            System.arraycopy(chars, 1, chars, 0, --length);
+        } else {
+            ensureCapacity(length + 1);
+            System.arraycopy(chars, 0, chars, 1, length++);
+            chars[0] = MINUS;
+        }
+        changed();
+    }
+
+    /**
+     * The value the display parses to, with the same leniency as {@link DecimalFormat#parse(String)}.
+     */
+    public double doubleValue() throws ParseException {
+        if (valueMode && valueIsDecimal) {
+            decimalScratch.set(decimalValue);
+            decimalScratch.roundToDisplay();
+            return decimalScratch.doubleValue();
+        }
+        if (valueMode) {
+            return DisplayMath.roundToDisplay(value);
+        }
+        if (!parsed) {
+            parsedValue = parse();
+            parsed = true;
+        }
+        return parsedValue;
+    }
+
+    /**
+     * The exact decimal the display parses to, with computed results rounded to the display
+     * just as {@link #doubleValue()} rounds them.
+     */
+    public void decimalValue(DecimalRegister out) throws ParseException {
+        if (valueMode && valueIsDecimal) {
+            out.set(decimalValue);
+            out.roundToDisplay();
+            return;
+        }
+        if (valueMode) {
+            out.set(doubleValue());
+            return;
+        }
+        double current = doubleValue();
+        if (Double.isNaN(current) || Double.isInfinite(current)) {
+            out.set(current);
+        } else if (parsedExact) {
+            out.set(parsedMantissa, parsedScale);
+        } else {
+            out.set(new BigDecimal(plainDigits(parsedStart, parsedEnd, current < 0)));
+        }
+    }
+
+    /**
+     * The display string for the current value, matching what {@code format(parse(text))} shows.
+     * Integral entries that fit a long are formatted exactly, as DecimalFormat parses them to a Long.
+     */
+    public String getDisplayText() throws ParseException {
+        if (valueMode) {
+            return valueText();
+        }
+        double current = doubleValue();
+        if (parsedLong) {
+            return DisplayFormatter.format(parsedLongValue);
+        }
+        if (decimal && current != 0) {
+            decimalValue(decimalScratch);
+            return DisplayFormatter.format(decimalScratch);
+        }
+        return DisplayFormatter.format(current);
+    }
+
+    /**
+     * Writes what is on the display: the typed characters, or the unrounded result behind them.
+     * Parse results are left out; they are recomputed from the text on demand.
+     */
+    void writeTo(ByteBuffer out) {
+        // valueIsDecimal is stale outside value mode; leaving it out keeps equal states byte for byte equal
+        out.put((byte) ((decimal ? DECIMAL : 0) | (valueMode ? VALUE_MODE : 0)
+                | (valueMode && valueIsDecimal ? VALUE_IS_DECIMAL : 0)));
+        if (valueMode && valueIsDecimal) {
+            decimalValue.writeTo(out);
+        } else if (valueMode) {
+            out.putDouble(value);
+        } else {
+            out.putInt(length);
+            for (int i = 0; i < length; i++) {
+                out.putChar(chars[i]);
+            }
+        }
+    }
+
+    void readFrom(ByteBuffer in) {
+        int flags = in.get();
+        decimal = (flags & DECIMAL) != 0;
+        if ((flags & VALUE_MODE) != 0 && (flags & VALUE_IS_DECIMAL) != 0) {
+            decimalScratch.readFrom(in);
+            setValue(decimalScratch);
+        } else if ((flags & VALUE_MODE) != 0) {
+            setValue(in.getDouble());
+        } else {
+            int textLength = in.getInt();
+            if (textLength < 0 || textLength > in.remaining() / Character.BYTES) {
+                throw new IllegalArgumentException("Invalid entry length " + textLength);
+            }
+            length = 0;
+            ensureCapacity(textLength);
+            for (int i = 0; i < textLength; i++) {
+                chars[length++] = in.getChar();
+            }
+            changed();
+        }
+    }
+
+    /**
+     * Incremented on every change, so callers can skip formatting when nothing moved.
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Whether the last parse was integral text that fits a long, as a DecimalFormat parse would return a Long.
+     */
+    boolean isLong() {
+        return parsedLong;
+    }
+
+    long longValue() {
+        return parsedLongValue;
+    }
+
+    public String getText() {
+        materialize();
+        return new String(chars, 0, length);
+    }
+
+    public int length() {
+        materialize();
+        return length;
+    }
+
+    public char charAt(int index) {
+        materialize();
+        return chars[index];
+    }
+
+    private double parse() throws ParseException {
+        parsedLong = false;
+        if (startsWith(0, NAN)) {
+            return Double.NaN;
+        }
+        int start = 0;
+        boolean negative = length > 0 && chars[0] == MINUS;
+        if (negative) {
+            start++;
+        }
+        if (startsWith(start, INFINITY)) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+
+        // Accumulated negated, like Long.parseLong, so that Long.MIN_VALUE stays exact
+        long mantissa = 0;
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        int scale = 0;
+        int pendingZeros = 0;
+        boolean sawDigit = false;
+        boolean sawDecimal = false;
+        boolean exact = true;
+        int end = start;
+        for (; end < length; end++) {
+            char c = chars[end];
+            if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                sawDigit = true;
+                if (sawDecimal) {
+                    // Trailing fraction zeros do not change the value, so only carry them once a digit follows
+                    if (digit == 0) {
+                        pendingZeros++;
+                        continue;
+                    }
+                    scale += pendingZeros + 1;
+                    for (; pendingZeros > 0 && exact; pendingZeros--) {
+                        exact = mantissa >= limit / 10;
+                        mantissa *= 10;
+                    }
+                }
+                if (!exact || mantissa < limit / 10 || mantissa * 10 < limit + digit) {
+                    exact = false;
+                } else {
+                    mantissa = mantissa * 10 - digit;
+                }
+            } else if (c == DECIMAL_SEPARATOR && !sawDecimal) {
+                sawDecimal = true;
+            } else if (c != GROUPING_SEPARATOR || sawDecimal) {
+                break;
+            }
+        }
+        if (!sawDigit) {
+            throw new ParseException("Unparseable number: \"" + getText() + "\"", start);
+        }
+
+        parsedLong = exact && scale == 0 && (mantissa != 0 || !negative);
+        parsedLongValue = negative ? mantissa : -mantissa;
+        parsedExact = exact;
+        parsedMantissa = parsedLongValue;
+        parsedScale = scale;
+        parsedStart = start;
+        parsedEnd = end;
+
+        double magnitude;
+        if (exact && scale == 0) {
+            magnitude = 0.0 - mantissa;
+        } else if (exact && mantissa >= -EXACT_MANTISSA && scale < POWERS_OF_TEN.length) {
+            magnitude = -(double) mantissa / POWERS_OF_TEN[scale];
+        } else {
+            magnitude = parseSlow(start, end);
+        }
+        return negative ? -magnitude : magnitude;
+    }
+
+    private double parseSlow(int start, int end) {
+        return Double.parseDouble(plainDigits(start, end, false));
+    }
+
+    private String plainDigits(int start, int end, boolean negative) {
+        StringBuilder digits = new StringBuilder(end - start + 1);
+        if (negative) {
+            digits.append('-');
+        }
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (c == DECIMAL_SEPARATOR) {
+                digits.append('.');
+            } else if (c != GROUPING_SEPARATOR) {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private void materialize() {
+        if (!valueMode) {
+            return;
+        }
+        if (valueText != null || valueIsDecimal) {
+            setText(valueText());
+            return;
+        }
+        length = 0;
+        ensureCapacity(DisplayFormatter.maxLength(value));
+        length = DisplayFormatter.format(value, chars, 0);
+        changed();
+    }
+
+    private String valueText() {
+        if (valueText == null) {
+            valueText = valueIsDecimal ? DisplayFormatter.format(decimalValue) : DisplayFormatter.format(value);
+        }
+        return valueText;
+    }
+
+    private void changed() {
+        valueMode = false;
+        parsed = false;
+        revision++;
+    }
+
+    private boolean startsWith(int offset, String prefix) {
+        if (length - offset < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (chars[offset + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(char c) {
+        for (int i = 0; i < length; i++) {
+            if (chars[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > chars.length) {
+            char[] grown = new char[Math.max(capacity, chars.length * 2)];
+            System.arraycopy(chars, 0, grown, 0, length);
+            chars = grown;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.openjfx.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Approximate quantiles of a stream in bounded memory: a KLL sketch (Karnin, Lang and Liberty, "Optimal
+ * Quantile Approximation in Streams"). Values go into level 0. When the sketch is full, the lowest level over
+ * its capacity is sorted and every other value moves up a level, where it counts twice. Capacities shrink
+ * geometrically (by 2/3) from the top level's {@code k} downwards, so the sketch holds at most about
+ * {@code 3k} values however many arrive, plus a few per level for the levels that a billion values need.
+ * With the default {@code k} of 200 the rank of a returned quantile is typically within about 0.5% of the requested
+ * one; {@code quantile(0)} and {@code quantile(1)} are the exact minimum and maximum.
+ * <p>
+ * Which half of a level moves up is decided by a seeded generator whose state is part of the sketch, so
+ * the same values, added in the same order, always give the same answers, e.g. when a tape is replayed.
+ * Not thread-safe.
+ */
+public final class QuantileSketch {
+    public static final int DEFAULT_K = 200;
+
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final int k;
+    private double[][] levels = {new double[MIN_LEVEL_CAPACITY]};
+    private int[] sizes = new int[1];
+    private int[] capacities;
+    private int levelCount = 1;
+    private int retained;
+    private int totalCapacity;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long random = SEED;
+    // All retained values in order with their cumulative weights, rebuilt on the first query after a change
+    private double[] sortedValues = new double[0];
+    private long[] cumulativeWeights = new long[0];
+    private int sortedSize;
+    private boolean sorted = true;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k the top level's capacity; rank error shrinks roughly as 1/k and memory grows as k
+     */
+    public QuantileSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY || k > 1 << 16) {
+            throw new IllegalArgumentException("k must be between " + MIN_LEVEL_CAPACITY + " and 65536: " + k);
+        }
+        this.k = k;
+        updateCapacities();
+    }
+
+    /**
+     * Adds {@code value}; NaN is ignored.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        append(0, value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sorted = false;
+        if (retained >= totalCapacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Adds every value of {@code other}, as if they had been added here.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int level = 0; level < other.levelCount; level++) {
+            if (level == levelCount) {
+                addLevel();
+            }
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sorted = false;
+        compress();
+    }
+
+    public void clear() {
+        levels = new double[][]{new double[MIN_LEVEL_CAPACITY]};
+        sizes = new int[1];
+        levelCount = 1;
+        updateCapacities();
+        retained = 0;
+        count = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        random = SEED;
+        sortedSize = 0;
+        sorted = true;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * The number of values the sketch holds, which is bounded however many were added.
+     */
+    public int getRetained() {
+        return retained;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * An added value with about {@code fraction} of all added values at or below it; NaN if nothing was added.
+     *
+     * @param fraction between 0 and 1, e.g. 0.5 for the median or 0.99 for the 99th percentile
+     */
+    public double quantile(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Quantile fraction must be between 0 and 1: " + fraction);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (fraction == 0) {
+            return min;
+        }
+        if (fraction == 1) {
+            return max;
+        }
+        sort();
+        double rank = fraction * count;
+        int index = Arrays.binarySearch(cumulativeWeights, 0, sortedSize, (long) Math.ceil(rank));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return sortedValues[Math.min(index, sortedSize - 1)];
+    }
+
+    /**
+     * The approximate fraction of added values at or below {@code value}; NaN if nothing was added.
+     */
+    public double rank(double value) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        sort();
+        int low = 0;
+        int high = sortedSize;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low == 0 ? 0 : (double) cumulativeWeights[low - 1] / count;
+    }
+
+    private void updateCapacities() {
+        capacities = new int[levelCount];
+        totalCapacity = 0;
+        for (int level = 0; level < levelCount; level++) {
+            int depth = levelCount - 1 - level;
+            capacities[level] = Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+            totalCapacity += capacities[level];
+        }
+    }
+
+    /**
+     * Compacts the lowest levels over capacity until the sketch is no longer full.
+     */
+    private void compress() {
+        while (retained >= totalCapacity) {
+            int level = 0;
+            while (sizes[level] < capacities[level]) {
+                level++;
+            }
+            compact(level);
+        }
+    }
+
+    /**
+     * Sorts {@code level} and moves every other value, starting at a random one of the first two, up a level.
+     * With an odd number of values the largest stays behind, so no weight is lost.
+     */
+    private void compact(int level) {
+        if (level + 1 == levelCount) {
+            addLevel();
+        }
+        double[] values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+        int pairs = size & ~1;
+        for (int i = (int) (nextRandom() & 1); i < pairs; i += 2) {
+            append(level + 1, values[i]);
+        }
+        if (pairs < size) {
+            values[0] = values[size - 1];
+        }
+        sizes[level] = size - pairs;
+        retained -= pairs;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levelCount + 1);
+        sizes = Arrays.copyOf(sizes, levelCount + 1);
+        levels[levelCount] = new double[MIN_LEVEL_CAPACITY];
+        levelCount++;
+        updateCapacities();
+    }
+
+    private void append(int level, double value) {
+        double[] values = levels[level];
+        if (sizes[level] == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            levels[level] = values;
+        }
+        values[sizes[level]++] = value;
+        retained++;
+    }
+
+    // xorshift64
+    private long nextRandom() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return random;
+    }
+
+    private void sort() {
+        if (sorted) {
+            return;
+        }
+        if (sortedValues.length < retained) {
+            sortedValues = new double[retained];
+            cumulativeWeights = new long[retained];
+        }
+        for (int level = 0; level < levelCount; level++) {
+            Arrays.sort(levels[level], 0, sizes[level]);
+        }
+        // Merges the sorted levels; there are few enough of them to scan for the smallest head each time
+        int[] heads = new int[levelCount];
+        long weight = 0;
+        for (int i = 0; i < retained; i++) {
+            int next = -1;
+            for (int level = 0; level < levelCount; level++) {
+                if (heads[level] < sizes[level]
+                        && (next < 0 || levels[level][heads[level]] < levels[next][heads[next]])) {
+                    next = level;
+                }
+            }
+            sortedValues[i] = levels[next][heads[next]++];
+            weight += 1L << next;
+            cumulativeWeights[i] = weight;
+        }
+        sortedSize = retained;
+        sorted = true;
+    }
+
+    void writeTo(ByteBuffer out) {
+        out.putInt(k).putLong(count).putDouble(min).putDouble(max).putLong(random).put((byte) levelCount);
+        for (int level = 0; level < levelCount; level++) {
+            out.putInt(sizes[level]);
+            for (int i = 0; i < sizes[level]; i++) {
+                out.putDouble(levels[level][i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo} with the same {@code k}.
+     */
+    void readFrom(ByteBuffer in) {
+        int k = in.getInt();
+        if (k != this.k) {
+            throw new IllegalArgumentException("Sketch has k " + k + ", expected " + this.k);
+        }
+        long count = in.getLong();
+        double min = in.getDouble();
+        double max = in.getDouble();
+        long random = in.getLong();
+        int levelCount = in.get();
+        if (levelCount < 1) {
+            throw new IllegalArgumentException("Invalid sketch level count " + levelCount);
+        }
+        double[][] levels = new double[levelCount][];
+        int[] sizes = new int[levelCount];
+        int retained = 0;
+        for (int level = 0; level < levelCount; level++) {
+            int size = in.getInt();
+            if (size < 0 || size > in.remaining() / Double.BYTES) {
+                throw new IllegalArgumentException("Invalid sketch level size " + size);
+            }
+            levels[level] = new double[Math.max(MIN_LEVEL_CAPACITY, size)];
+            for (int i = 0; i < size; i++) {
+                levels[level][i] = in.getDouble();
+            }
+            sizes[level] = size;
+            retained += size;
+        }
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.random = random;
+        this.levels = levels;
+        this.sizes = sizes;
+        this.levelCount = levelCount;
+        this.retained = retained;
+        updateCapacities();
+        sorted = false;
+    }
+}
@@ -0,0 +1,158 @@
+package org.openjfx.model;
+
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU memo of operation results together with their display strings,
+ * for workloads that keep repeating the same operands. Safe to share between engines and threads;
+ * lookups are serialized on the cache, and a hit allocates nothing.
+ */
+public class ResultCache {
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int BINARY_OPERATIONS = Operation.values().length;
+
+    private final Key probe = new Key();
+    private final LinkedHashMap<Key, CachedResult> entries;
+    private final int capacity;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ResultCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ResultCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+                if (size() > ResultCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized CachedResult get(Operation operation, double left, double right) {
+        probe.set(operation.ordinal(), left, right);
+        CachedResult result = entries.get(probe);
+        if (result != null) {
+            hits++;
+            return result;
+        }
+        misses++;
+        return store(operation.apply(left, right));
+    }
+
+    public synchronized CachedResult get(UnaryOperation operation, double operand) {
+        // Unary keys are offset past the binary operations so the two never collide
+        probe.set(BINARY_OPERATIONS + operation.ordinal(), operand, 0);
+        CachedResult result = entries.get(probe);
+        if (result != null) {
+            hits++;
+            return result;
+        }
+        misses++;
+        return store(operation.apply(operand));
+    }
+
+    private CachedResult store(double value) {
+        CachedResult result = new CachedResult(value, DisplayFormatter.format(value));
+        entries.put(probe.copy(), result);
+        return result;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ResultCache[size=" + entries.size() + "/" + capacity + ", hits=" + hits
+                + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+
+    public static final class CachedResult {
+        private final double value;
+        private final String displayText;
+
+        CachedResult(double value, String displayText) {
+            this.value = value;
+            this.displayText = displayText;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public String getDisplayText() {
+            return displayText;
+        }
+    }
+
+    private static final class Key {
+        private int operation;
+        private long left;
+        private long right;
+
+        void set(int operation, double left, double right) {
+            this.operation = operation;
+            this.left = Double.doubleToLongBits(left);
+            this.right = Double.doubleToLongBits(right);
+        }
+
+        Key copy() {
+            Key key = new Key();
+            key.operation = operation;
+            key.left = left;
+            key.right = right;
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return operation == key.operation && left == key.left && right == key.right;
+        }
+
+        @Override
+        public int hashCode() {
+            long hash = operation * 31L + left;
+            hash = hash * 31 + right;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
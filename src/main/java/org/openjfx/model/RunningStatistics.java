@@ -0,0 +1,145 @@
+package org.openjfx.model;
+
+import org.openjfx.enums.Aggregate;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Count, sum, mean, variance, minimum and maximum of a stream of values, each kept up to date in O(1) per value.
+ * The variance uses Welford's algorithm, which stays accurate over long streams where the textbook
+ * sum-of-squares formula cancels catastrophically, and the sum carries a Neumaier compensation term, so
+ * thousands of entries total as exactly as adding them with pencil and paper would. Not thread-safe.
+ */
+public final class RunningStatistics {
+    private long count;
+    private double mean;
+    private double m2;
+    private double sum;
+    private double compensation;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        addToSum(value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value of {@code other}, as if they had been added here, using Chan's parallel update.
+     */
+    public void combine(RunningStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            set(other);
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        addToSum(other.sum);
+        compensation += other.compensation;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void set(RunningStatistics other) {
+        count = other.count;
+        mean = other.mean;
+        m2 = other.m2;
+        sum = other.sum;
+        compensation = other.compensation;
+        min = other.min;
+        max = other.max;
+    }
+
+    public void clear() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        sum = 0;
+        compensation = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    public double get(Aggregate aggregate) {
+        return switch (aggregate) {
+            case COUNT -> count;
+            case SUM -> getSum();
+            case MEAN -> getMean();
+            case VARIANCE -> getVariance();
+            case STANDARD_DEVIATION -> getStandardDeviation();
+            case MIN -> getMin();
+            case MAX -> getMax();
+        };
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum + compensation;
+    }
+
+    /**
+     * The compensated sum over the count, so as exact as the sum; 0 when no value has been added.
+     */
+    public double getMean() {
+        return count > 0 ? getSum() / count : 0;
+    }
+
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * NaN when no value has been added.
+     */
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    // Neumaier's variant of Kahan summation: the rounding error of every addition goes into the compensation
+    private void addToSum(double value) {
+        double total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - total) + value;
+        } else {
+            compensation += (value - total) + sum;
+        }
+        sum = total;
+    }
+
+    void writeTo(ByteBuffer out) {
+        out.putLong(count).putDouble(mean).putDouble(m2).putDouble(sum).putDouble(compensation)
+                .putDouble(min).putDouble(max);
+    }
+
+    void readFrom(ByteBuffer in) {
+        count = in.getLong();
+        mean = in.getDouble();
+        m2 = in.getDouble();
+        sum = in.getDouble();
+        compensation = in.getDouble();
+        min = in.getDouble();
+        max = in.getDouble();
+    }
+}
@@ -0,0 +1,110 @@
+package org.openjfx.model;
+
+import org.openjfx.enums.Aggregate;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Statistics of a stream of values in constant memory: count, sum, mean, standard deviation, minimum and
+ * maximum exactly (see {@link RunningStatistics}), and quantiles approximately (see {@link QuantileSketch}).
+ * Nothing is kept per value, so a shift's worth of millions of entries costs the same few kilobytes as a dozen.
+ * Not thread-safe; streams fed on several threads can be {@link #combine combined}.
+ */
+public final class StreamStatistics {
+    private final RunningStatistics moments = new RunningStatistics();
+    private final QuantileSketch quantiles;
+
+    public StreamStatistics() {
+        this(QuantileSketch.DEFAULT_K);
+    }
+
+    /**
+     * @see QuantileSketch#QuantileSketch(int)
+     */
+    public StreamStatistics(int k) {
+        quantiles = new QuantileSketch(k);
+    }
+
+    /**
+     * Adds {@code value}; NaN is ignored.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        moments.add(value);
+        quantiles.add(value);
+    }
+
+    public void addAll(double[] values) {
+        addAll(values, 0, values.length);
+    }
+
+    public void addAll(double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            add(values[i]);
+        }
+    }
+
+    public void combine(StreamStatistics other) {
+        moments.combine(other.moments);
+        quantiles.merge(other.quantiles);
+    }
+
+    public void clear() {
+        moments.clear();
+        quantiles.clear();
+    }
+
+    public double get(Aggregate aggregate) {
+        return moments.get(aggregate);
+    }
+
+    public long getCount() {
+        return moments.getCount();
+    }
+
+    public double getSum() {
+        return moments.getSum();
+    }
+
+    public double getMean() {
+        return moments.getMean();
+    }
+
+    public double getStandardDeviation() {
+        return moments.getStandardDeviation();
+    }
+
+    public double getMin() {
+        return moments.getMin();
+    }
+
+    public double getMax() {
+        return moments.getMax();
+    }
+
+    /**
+     * @see QuantileSketch#quantile
+     */
+    public double quantile(double fraction) {
+        return quantiles.quantile(fraction);
+    }
+
+    /**
+     * @see QuantileSketch#rank
+     */
+    public double rank(double value) {
+        return quantiles.rank(value);
+    }
+
+    void writeTo(ByteBuffer out) {
+        moments.writeTo(out);
+        quantiles.writeTo(out);
+    }
+
+    void readFrom(ByteBuffer in) {
+        moments.readFrom(in);
+        quantiles.readFrom(in);
+    }
+}
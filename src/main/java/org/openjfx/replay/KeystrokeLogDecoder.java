@@ -0,0 +1,101 @@
+package org.openjfx.replay;
+
+import org.openjfx.enums.Keystroke;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Incremental decoder for keystroke logs: one tape per line, keystrokes separated by whitespace.
+ * A keystroke is any {@link Keystroke} symbol or alias ("7", "×", "*", "sqrt", "enter"); runs of
+ * digits and decimal points such as "12.5" stand for one keystroke per character. Blank lines are
+ * skipped. Input is read through a fixed buffer, so memory does not grow with the size of the log.
+ */
+final class KeystrokeLogDecoder {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private char[] token = new char[16];
+    private int tokenLength;
+    private long line = 1;
+
+    KeystrokeLogDecoder(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Decodes whole lines into {@code chunk} until it is full or the input ends, which sets {@link TapeChunk#last}.
+     */
+    void fill(TapeChunk chunk) throws IOException, ParseException {
+        chunk.clear();
+        while (!chunk.isFull()) {
+            if (position == limit) {
+                limit = reader.read(buffer);
+                position = 0;
+                if (limit < 0) {
+                    limit = 0;
+                    endLine(chunk);
+                    chunk.last = true;
+                    return;
+                }
+            }
+            char c = buffer[position++];
+            if (c == '\n') {
+                endLine(chunk);
+            } else if (Character.isWhitespace(c)) {
+                endToken(chunk);
+            } else {
+                if (tokenLength == token.length) {
+                    token = Arrays.copyOf(token, token.length * 2);
+                }
+                token[tokenLength++] = c;
+            }
+        }
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    private void endLine(TapeChunk chunk) throws ParseException {
+        endToken(chunk);
+        if (chunk.hasOpenTape()) {
+            chunk.endTape(line);
+        }
+        line++;
+    }
+
+    private void endToken(TapeChunk chunk) throws ParseException {
+        if (tokenLength == 0) {
+            return;
+        }
+        if (isNumber()) {
+            for (int i = 0; i < tokenLength; i++) {
+                chunk.add(token[i] == '.' ? Keystroke.DECIMAL.code() : Keystroke.digit(token[i] - '0').code());
+            }
+        } else {
+            Keystroke keystroke = Keystroke.fromSymbol(token, 0, tokenLength);
+            if (keystroke == null) {
+                String symbol = new String(token, 0, tokenLength);
+                tokenLength = 0;
+                throw new ParseException("Unknown keystroke '" + symbol + "' on line " + line,
+                        (int) Math.min(line, Integer.MAX_VALUE));
+            }
+            chunk.add(keystroke.code());
+        }
+        tokenLength = 0;
+    }
+
+    private boolean isNumber() {
+        for (int i = 0; i < tokenLength; i++) {
+            char c = token[i];
+            if ((c < '0' || c > '9') && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,15 @@
+package org.openjfx.replay;
+
+import org.openjfx.model.CalculatorEngine;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface ReplayListener {
+    /**
+     * Called on the replaying thread, in input order, while {@code engine} still shows the result of
+     * the tape read from {@code line}, or of the record at that index when replaying a {@link TapeReader}.
+     * The engine moves on as soon as this returns.
+     */
+    void onResult(long line, CalculatorEngine engine) throws IOException;
+}
@@ -0,0 +1,173 @@
+package org.openjfx.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.batch.BatchEvaluator;
+import org.openjfx.enums.NumericMode;
+import org.openjfx.model.CalculatorEngine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams a keystroke log (see {@link KeystrokeLogDecoder} for the format) through the calculator.
+ * A decoder thread packs lines into {@link TapeChunk}s of keystroke codes and hands them over a bounded
+ * queue to the calling thread, which replays each line as a tape from a cleared calculator and reports
+ * it straight away. Chunks are recycled through a fixed pool: when replay falls behind, the decoder
+ * blocks instead of reading ahead, so memory stays bounded however large the log is.
+ *
+ * <pre>
+ * java -cp ... org.openjfx.replay.ReplayPipeline audit.log [DOUBLE|DECIMAL|FIXED_POINT]   (or "-" for stdin)
+ * </pre>
+ */
+public class ReplayPipeline {
+    public static final int DEFAULT_QUEUE_CAPACITY = 8;
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final BatchEvaluator evaluator = new BatchEvaluator();
+    private final int queueCapacity;
+    private final int chunkSize;
+
+    public ReplayPipeline() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param queueCapacity decoded chunks that may wait for replay before the decoder blocks
+     * @param chunkSize     lines per chunk
+     */
+    public ReplayPipeline(int queueCapacity, int chunkSize) {
+        if (queueCapacity < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Queue capacity and chunk size must be positive");
+        }
+        this.queueCapacity = queueCapacity;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * The engine tapes are replayed on, e.g. to choose a numeric mode or result cache before {@link #run}.
+     */
+    public CalculatorEngine getEngine() {
+        return evaluator.getEngine();
+    }
+
+    /**
+     * Replays every line of {@code input} and reports each result to {@code listener} in input order.
+     * Lines before a malformed one are still reported before its {@link ParseException} is thrown.
+     *
+     * @return the number of tapes replayed
+     */
+    public long run(Reader input, ReplayListener listener) throws IOException, ParseException, InterruptedException {
+        BlockingQueue<TapeChunk> filled = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<TapeChunk> free = new ArrayBlockingQueue<>(queueCapacity + 1);
+        for (int i = 0; i <= queueCapacity; i++) {
+            free.add(new TapeChunk(chunkSize));
+        }
+        Decoder decoder = new Decoder(new KeystrokeLogDecoder(input), free, filled);
+        Thread thread = new Thread(decoder, "keystroke-log-decoder");
+        thread.setDaemon(true);
+        thread.start();
+
+        long start = System.nanoTime();
+        long tapes = 0;
+        try {
+            boolean last = false;
+            while (!last) {
+                TapeChunk chunk = filled.take();
+                for (int i = 0; i < chunk.count; i++) {
+                    evaluator.replay(chunk.codes, chunk.offsets[i], chunk.offsets[i + 1]);
+                    listener.onResult(chunk.lines[i], evaluator.getEngine());
+                }
+                tapes += chunk.count;
+                last = chunk.last;
+                free.add(chunk);
+            }
+        } finally {
+            // Stops a decoder still blocked on the queues if replay is abandoned part way
+            thread.interrupt();
+        }
+        decoder.rethrow();
+        logger.info("Replayed {} tapes in {} ms", tapes, (System.nanoTime() - start) / 1_000_000);
+        return tapes;
+    }
+
+    public static void main(String[] args) throws IOException, ParseException, InterruptedException {
+        ReplayPipeline pipeline = new ReplayPipeline();
+        if (args.length > 1) {
+            pipeline.getEngine().setNumericMode(NumericMode.valueOf(args[1]));
+        }
+        try (Reader input = args.length == 0 || "-".equals(args[0])
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8);
+             Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+            pipeline.run(input, (line, engine) -> {
+                output.write(Long.toString(line));
+                output.write('\t');
+                output.write(engine.getDisplayText());
+                output.write('\n');
+            });
+        }
+    }
+
+    private static final class Decoder implements Runnable {
+        private final KeystrokeLogDecoder decoder;
+        private final BlockingQueue<TapeChunk> free;
+        private final BlockingQueue<TapeChunk> filled;
+        private volatile Throwable failure;
+
+        Decoder(KeystrokeLogDecoder decoder, BlockingQueue<TapeChunk> free, BlockingQueue<TapeChunk> filled) {
+            this.decoder = decoder;
+            this.free = free;
+            this.filled = filled;
+        }
+
+        @Override
+        public void run() {
+            try {
+                TapeChunk chunk;
+                do {
+                    chunk = free.take();
+                    try {
+                        decoder.fill(chunk);
+                    } catch (Throwable e) {
+                        // Hand over what was decoded so far, then let the replaying thread rethrow; an Error
+                        // too, or the replaying thread would wait for a last chunk forever
+                        failure = e;
+                        chunk.last = true;
+                    }
+                    filled.put(chunk);
+                } while (!chunk.last);
+            } catch (InterruptedException e) {
+                logger.debug("Keystroke log decoding stopped at line {}", decoder.getLine());
+            }
+        }
+
+        void rethrow() throws IOException, ParseException {
+            Throwable e = failure;
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            if (e instanceof ParseException) {
+                throw (ParseException) e;
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            if (e != null) {
+                throw (RuntimeException) e;
+            }
+        }
+    }
+}
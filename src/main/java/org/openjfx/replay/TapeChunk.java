@@ -0,0 +1,50 @@
+package org.openjfx.replay;
+
+import java.util.Arrays;
+
+/**
+ * A reusable batch of decoded tapes: tape {@code i} is {@code codes[offsets[i]]} up to
+ * {@code codes[offsets[i + 1]]}, read from input line {@code lines[i]}.
+ */
+final class TapeChunk {
+    final int[] offsets;
+    final long[] lines;
+    byte[] codes = new byte[1024];
+    int count;
+    boolean last;
+    private int length;
+
+    TapeChunk(int capacity) {
+        offsets = new int[capacity + 1];
+        lines = new long[capacity];
+    }
+
+    void clear() {
+        count = 0;
+        length = 0;
+        last = false;
+    }
+
+    boolean isFull() {
+        return count == lines.length;
+    }
+
+    /**
+     * Whether keystrokes have been added since the last {@link #endTape}.
+     */
+    boolean hasOpenTape() {
+        return length > offsets[count];
+    }
+
+    void add(byte code) {
+        if (length == codes.length) {
+            codes = Arrays.copyOf(codes, codes.length * 2);
+        }
+        codes[length++] = code;
+    }
+
+    void endTape(long line) {
+        lines[count++] = line;
+        offsets[count] = length;
+    }
+}
@@ -0,0 +1,49 @@
+package org.openjfx.replay;
+
+/**
+ * Layout of a binary session tape. A header (the magic "CTAP", a format version, the record size, the
+ * recording start in epoch milliseconds and the calculator state the recording started from, as
+ * {@link org.openjfx.model.CalculatorEngine#writeState} writes it, preceded by its length) is padded to a
+ * whole number of records and followed by fixed-width big-endian records:
+ * <pre>
+ *  0  u8   keystroke code + 1, 0 marks an unused slot and 255 an action without a key
+ *  1  u8   pending operation after the keystroke
+ *  2  u8   flags: 1 = error, 2 = the next digit starts a new entry, 4 = replay shows the value
+ *          instead of pressing the key, as its result depended on more than the keys, e.g. on a macro
+ *  3  u8   numeric mode
+ *  4  i32  milliseconds since the start of the recording
+ *  8  f64  value on the display after the keystroke, NaN on error
+ * </pre>
+ * The file grows a mapped region at a time, so it ends in zero-filled slots. The opcode is stored
+ * last, which means a slot is either complete or unused and readers stop at the first unused one.
+ */
+final class TapeFormat {
+    static final int MAGIC = 0x43544150;
+    static final short VERSION = 2;
+    // Up to and including the length of the starting state
+    static final int HEADER_SIZE = 20;
+    static final int RECORD_SIZE = 16;
+
+    static final int OPCODE = 0;
+    static final int OPERATION = 1;
+    static final int FLAGS = 2;
+    static final int MODE = 3;
+    static final int ELAPSED = 4;
+    static final int VALUE = 8;
+
+    static final int NO_KEY = 0xFF;
+
+    static final int ERROR = 1;
+    static final int RESET = 2;
+    static final int SET_VALUE = 4;
+
+    /**
+     * Where the records start after a starting state of {@code stateLength} bytes.
+     */
+    static long recordsStart(int stateLength) {
+        return (HEADER_SIZE + (long) stateLength + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+    }
+
+    private TapeFormat() {
+    }
+}
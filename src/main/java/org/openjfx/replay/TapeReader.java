@@ -0,0 +1,208 @@
+package org.openjfx.replay;
+
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.NumericMode;
+import org.openjfx.enums.Operation;
+import org.openjfx.model.CalculatorEngine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+
+import static org.openjfx.replay.TapeFormat.*;
+
+/**
+ * Random access to the records of a {@link TapeFormat} file written by {@link TapeWriter}. The file
+ * is mapped read-only and every accessor reads the record in place, without decoding the file up front;
+ * only the starting state is read once, to check it.
+ */
+public class TapeReader implements Closeable {
+    private static final Keystroke[] KEYSTROKES = Keystroke.values();
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final NumericMode[] NUMERIC_MODES = NumericMode.values();
+    private static final int REGION_RECORDS = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final ByteBuffer startState;
+    private final long startMillis;
+    private final long size;
+
+    public TapeReader(Path path) throws IOException, ParseException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new ParseException("Not a calculator tape: " + path, 0);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new ParseException("Not a calculator tape: " + path, 0);
+            }
+            short version = header.getShort();
+            if (version != VERSION || header.getShort() != RECORD_SIZE) {
+                throw new ParseException("Unsupported tape version " + version + ": " + path, 4);
+            }
+            startMillis = header.getLong();
+            int stateLength = header.getInt();
+            long recordsStart = recordsStart(stateLength);
+            if (stateLength < 0 || recordsStart > fileSize) {
+                throw new ParseException("Truncated calculator tape: " + path, HEADER_SIZE);
+            }
+            startState = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, stateLength);
+            checkStartState(path);
+
+            long slots = (fileSize - recordsStart) / RECORD_SIZE;
+            regions = new MappedByteBuffer[(int) ((slots + REGION_RECORDS - 1) / REGION_RECORDS)];
+            for (int i = 0; i < regions.length; i++) {
+                long first = (long) i * REGION_RECORDS;
+                long records = Math.min(REGION_RECORDS, slots - first);
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        recordsStart + first * RECORD_SIZE, records * RECORD_SIZE);
+            }
+            size = countRecords(slots);
+        } catch (IOException | ParseException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void checkStartState(Path path) throws ParseException {
+        try {
+            new CalculatorEngine().readState(getStartState());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                 | IllegalArgumentException e) {
+            throw new ParseException("Corrupt calculator state in tape: " + path, HEADER_SIZE);
+        }
+    }
+
+    // Written slots are contiguous and followed only by unused ones
+    private long countRecords(long slots) {
+        long low = 0;
+        long high = slots;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (opcode(middle) != 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * When the recording started, in epoch milliseconds.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * The calculator state the recording started from, for {@link CalculatorEngine#readState}.
+     */
+    public ByteBuffer getStartState() {
+        return startState.duplicate();
+    }
+
+    /**
+     * The key pressed, or null for an action without a key, such as a conversion.
+     */
+    public Keystroke keystroke(long index) {
+        int opcode = opcode(checkIndex(index));
+        return opcode != NO_KEY ? KEYSTROKES[opcode - 1] : null;
+    }
+
+    /**
+     * Whether a replay shows {@link #value} for this record rather than pressing its key, because what the key
+     * did depended on more than the keys before it, e.g. on currency rates or the macro on a macro key.
+     */
+    public boolean setsValue(long index) {
+        return (region(checkIndex(index)).get(offset(index) + FLAGS) & SET_VALUE) != 0;
+    }
+
+    public Operation operation(long index) {
+        return OPERATIONS[region(checkIndex(index)).get(offset(index) + OPERATION)];
+    }
+
+    public boolean isError(long index) {
+        return (region(checkIndex(index)).get(offset(index) + FLAGS) & TapeFormat.ERROR) != 0;
+    }
+
+    public boolean isResetFlag(long index) {
+        return (region(checkIndex(index)).get(offset(index) + FLAGS) & RESET) != 0;
+    }
+
+    public NumericMode numericMode(long index) {
+        return NUMERIC_MODES[region(checkIndex(index)).get(offset(index) + MODE)];
+    }
+
+    /**
+     * Milliseconds between the start of the recording and the keystroke.
+     */
+    public int elapsedMillis(long index) {
+        return region(checkIndex(index)).getInt(offset(index) + ELAPSED);
+    }
+
+    /**
+     * The value the keystroke left on the display, NaN if it showed "Error".
+     */
+    public double value(long index) {
+        return region(checkIndex(index)).getDouble(offset(index) + VALUE);
+    }
+
+    /**
+     * Presses every recorded keystroke on {@code engine}, starting from the state the recording started from,
+     * memory and statistics included, and switching numeric mode where the recording did, and reports the
+     * state after each one under its record index. Records that {@link #setsValue set a value} show it instead.
+     */
+    public void replay(CalculatorEngine engine, ReplayListener listener) throws IOException {
+        engine.readState(getStartState());
+        for (long i = 0; i < size; i++) {
+            NumericMode numericMode = numericMode(i);
+            if (engine.getNumericMode() != numericMode) {
+                engine.setNumericMode(numericMode);
+            }
+            if (setsValue(i)) {
+                engine.inputValue(value(i));
+            } else {
+                engine.press(keystroke(i));
+            }
+            listener.onResult(i, engine);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int opcode(long index) {
+        return region(index).get(offset(index) + OPCODE) & 0xFF;
+    }
+
+    private MappedByteBuffer region(long index) {
+        return regions[(int) (index / REGION_RECORDS)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % REGION_RECORDS) * RECORD_SIZE;
+    }
+
+    private long checkIndex(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + size);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,145 @@
+package org.openjfx.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.model.CalculatorEngine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.openjfx.replay.TapeFormat.*;
+
+/**
+ * Records every keystroke and the state it leaves the calculator in as a {@link TapeFormat} file, after the
+ * state the calculator was in when recording started, so that a replay starts from there too.
+ * Records go straight into a memory-mapped region of the file, so a write is a few stores into the
+ * page cache and survives a crash of the application. Not thread-safe.
+ */
+public class TapeWriter implements Closeable {
+    public static final int DEFAULT_REGION_RECORDS = 4096;
+
+    private final Logger logger = LogManager.getLogger();
+    private final Path path;
+    private final FileChannel channel;
+    private final long regionSize;
+    private final long startNanos = System.nanoTime();
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long count;
+
+    /**
+     * Starts a tape at {@code path} from the state {@code engine} is in now.
+     */
+    public TapeWriter(Path path, CalculatorEngine engine) throws IOException {
+        this(path, engine, DEFAULT_REGION_RECORDS);
+    }
+
+    /**
+     * @param regionRecords records mapped at a time; the file grows by this many slots when one fills up
+     */
+    public TapeWriter(Path path, CalculatorEngine engine, int regionRecords) throws IOException {
+        if (regionRecords < 1 || regionRecords > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid region size: " + regionRecords);
+        }
+        this.path = path;
+        this.regionSize = (long) regionRecords * RECORD_SIZE;
+        ByteBuffer state = startState(engine);
+        regionStart = recordsStart(state.remaining());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            channel.map(FileChannel.MapMode.READ_WRITE, 0, regionStart)
+                    .putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putShort((short) RECORD_SIZE)
+                    .putLong(System.currentTimeMillis())
+                    .putInt(state.remaining())
+                    .put(state);
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, regionSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        logger.info("Recording calculator tape to {}", path);
+    }
+
+    /**
+     * Appends {@code keystroke} together with the state it left {@code engine} in.
+     */
+    public void write(Keystroke keystroke, CalculatorEngine engine) throws IOException {
+        append(keystroke.code() + 1, 0, engine);
+    }
+
+    /**
+     * Appends an action that showed a value the keys on the tape cannot reproduce, such as a conversion
+     * ({@code keystroke} null), together with the state it left {@code engine} in; replays show that value.
+     */
+    public void writeValue(Keystroke keystroke, CalculatorEngine engine) throws IOException {
+        append(keystroke != null ? keystroke.code() + 1 : NO_KEY, SET_VALUE, engine);
+    }
+
+    private void append(int opcode, int flags, CalculatorEngine engine) throws IOException {
+        if (region == null) {
+            throw new ClosedChannelException();
+        }
+        if (!region.hasRemaining()) {
+            regionStart += regionSize;
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, regionSize);
+        }
+        int offset = region.position();
+        boolean error = engine.isError();
+        long elapsed = (System.nanoTime() - startNanos) / 1_000_000;
+        region.put(offset + OPERATION, (byte) engine.getCurrentOperation().ordinal())
+                .put(offset + FLAGS, (byte) (flags | (error ? ERROR : 0) | (engine.isResetFlag() ? RESET : 0)))
+                .put(offset + MODE, (byte) engine.getNumericMode().ordinal())
+                .putInt(offset + ELAPSED, (int) Math.min(elapsed, Integer.MAX_VALUE))
+                .putDouble(offset + VALUE, engine.getValue())
+                .put(offset + OPCODE, (byte) opcode);
+        region.position(offset + RECORD_SIZE);
+        count++;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Forces the records written so far to the storage device.
+     */
+    public void force() {
+        if (region != null) {
+            region.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (region == null) {
+            return;
+        }
+        region.force();
+        region = null;
+        channel.close();
+        logger.info("Recorded {} keystrokes to {}", count, path);
+    }
+
+    private static ByteBuffer startState(CalculatorEngine engine) {
+        ByteBuffer state = ByteBuffer.allocate(1024);
+        while (true) {
+            try {
+                engine.writeState(state);
+                return state.flip();
+            } catch (BufferOverflowException e) {
+                state = ByteBuffer.allocate(state.capacity() * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.openjfx.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.Operation;
+import org.openjfx.expression.CompiledExpression;
+import org.openjfx.expression.ExpressionParser;
+import org.openjfx.model.CalculatorEngine;
+import org.openjfx.session.SessionRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP/JSON entry point to the calculator, built on the JDK's {@link HttpServer}
+ * with one virtual thread per request. Only the headless engine is used, never JavaFX.
+ *
+ * <pre>
+ * POST   /evaluate        {"expression": "sqrt(x) + 1", "variables": {"x": 16}}  -> {"result": 5}
+ *                         {"expressions": ["1+2", "x*2"], "variables": {"x": 3}} -> {"results": [3, 6]}
+ * POST   /calculate       {"left": 6, "operation": "DIVIDE", "right": 4}         -> {"result": 1.5}
+ *                         {"left": [1, 2], "operations": ["PLUS", "MINUS"], "right": [3, 4]} -> {"results": [4, -2]}
+ * POST   /sessions/{id}   {"keys": ["1", "2", "+", "3", "="]}                    -> {"display": "15", "value": 15}
+ * GET    /sessions/{id}                                                          -> {"display": "15", "value": 15}
+ *                         404 for sessions that were never used, were deleted or have expired
+ * DELETE /sessions/{id}
+ * </pre>
+ *
+ * Bodies over {@link #MAX_BODY_BYTES} are refused with 413, and malformed or mistyped requests with 400.
+ */
+public class CalculatorServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int MAX_BODY_BYTES = 1 << 20;
+
+    private static final Logger logger = LogManager.getLogger();
+    private static final String SESSIONS_PATH = "/sessions/";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SessionRegistry sessions;
+
+    public CalculatorServer(InetSocketAddress address, Duration sessionIdleTimeout) throws IOException {
+        sessions = new SessionRegistry(sessionIdleTimeout);
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/evaluate", exchange -> handle(exchange, "POST", this::evaluate));
+        server.createContext("/calculate", exchange -> handle(exchange, "POST", this::calculate));
+        server.createContext(SESSIONS_PATH, this::handleSession);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Calculator server listening on {}", server.getAddress());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        sessions.close();
+        logger.info("Calculator server stopped");
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        CalculatorServer server = new CalculatorServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), Duration.ofMinutes(30));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "calculator-server-shutdown"));
+        server.start();
+    }
+
+    private Map<String, Object> evaluate(Map<String, Object> request) throws ParseException {
+        ExpressionParser parser = new ExpressionParser();
+        Map<String, Object> bindings = request.containsKey("variables")
+                ? asObject(request.get("variables"), "variables") : Map.of();
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (request.containsKey("expressions")) {
+            List<Object> expressions = asArray(request.get("expressions"), "expressions");
+            double[] results = new double[expressions.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = evaluate(parser, asString(expressions.get(i), "expressions"), bindings);
+            }
+            response.put("results", results);
+        } else {
+            response.put("result", evaluate(parser, asString(require(request, "expression"), "expression"), bindings));
+        }
+        return response;
+    }
+
+    private static double evaluate(ExpressionParser parser, String source, Map<String, Object> bindings)
+            throws ParseException {
+        CompiledExpression expression = parser.parse(source);
+        List<String> names = expression.getVariableNames();
+        double[] variables = new double[names.size()];
+        for (int i = 0; i < variables.length; i++) {
+            Object value = bindings.get(names.get(i));
+            if (value == null) {
+                throw new IllegalArgumentException("No value bound to variable '" + names.get(i) + "'");
+            }
+            variables[i] = asNumber(value, names.get(i));
+        }
+        return expression.evaluate(variables);
+    }
+
+    private Map<String, Object> calculate(Map<String, Object> request) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (request.containsKey("operations")) {
+            List<Object> left = asArray(require(request, "left"), "left");
+            List<Object> operations = asArray(request.get("operations"), "operations");
+            List<Object> right = asArray(require(request, "right"), "right");
+            if (left.size() != operations.size() || right.size() != operations.size()) {
+                throw new IllegalArgumentException("left, operations and right must have the same length");
+            }
+            double[] results = new double[operations.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = Operation.valueOf(asString(operations.get(i), "operations"))
+                        .apply(asNumber(left.get(i), "left"), asNumber(right.get(i), "right"));
+            }
+            response.put("results", results);
+        } else {
+            Operation operation = Operation.valueOf(asString(require(request, "operation"), "operation"));
+            response.put("result", operation.apply(asNumber(require(request, "left"), "left"),
+                    asNumber(require(request, "right"), "right")));
+        }
+        return response;
+    }
+
+    private void handleSession(HttpExchange exchange) throws IOException {
+        String sessionId = exchange.getRequestURI().getPath().substring(SESSIONS_PATH.length());
+        if (sessionId.isEmpty() || sessionId.contains("/")) {
+            send(exchange, 404, error("Unknown session path"));
+            exchange.close();
+            return;
+        }
+        switch (exchange.getRequestMethod()) {
+            // Reading a session must not create it
+            case "GET" -> handle(exchange, "GET", request -> sessions.executeIfPresent(sessionId,
+                    CalculatorServer::sessionState).orElseThrow(() -> new UnknownSessionException(sessionId)));
+            case "POST" -> handle(exchange, "POST",
+                    request -> press(sessionId, asArray(require(request, "keys"), "keys")));
+            case "DELETE" -> {
+                boolean removed = sessions.remove(sessionId);
+                send(exchange, removed ? 200 : 404, Map.of("removed", removed));
+                exchange.close();
+            }
+            default -> {
+                send(exchange, 405, error("Method not allowed"));
+                exchange.close();
+            }
+        }
+    }
+
+    private Map<String, Object> press(String sessionId, List<Object> keys) {
+        List<Keystroke> keystrokes = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            keystrokes.add(Keystroke.fromSymbol(asString(key, "keys")));
+        }
+        return sessions.execute(sessionId, engine -> {
+            for (Keystroke keystroke : keystrokes) {
+                engine.press(keystroke);
+            }
+            return sessionState(engine);
+        });
+    }
+
+    private static Map<String, Object> sessionState(CalculatorEngine engine) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("display", engine.getDisplayText());
+        response.put("value", engine.getValue());
+        return response;
+    }
+
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                send(exchange, 405, error("Method not allowed"));
+                return;
+            }
+            Map<String, Object> request = Map.of();
+            if ("POST".equals(method)) {
+                request = asObject(Json.parse(readBody(exchange)), "request body");
+            }
+            send(exchange, 200, handler.handle(request));
+        } catch (BodyTooLargeException e) {
+            logger.debug("Rejected request to {}: {}", exchange.getRequestURI(), e.getMessage());
+            send(exchange, 413, error(e.getMessage()));
+        } catch (UnknownSessionException e) {
+            send(exchange, 404, error(e.getMessage()));
+        } catch (ParseException | IllegalArgumentException e) {
+            logger.debug("Rejected request to {}: {}", exchange.getRequestURI(), e.getMessage());
+            send(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.error("Failed to handle request to {}", exchange.getRequestURI(), e);
+            send(exchange, 500, error("Internal error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null && Long.parseLong(declared.trim()) > MAX_BODY_BYTES) {
+            throw new BodyTooLargeException();
+        }
+        try (InputStream body = exchange.getRequestBody()) {
+            // One byte past the limit tells a body that is too large from one that just fits
+            byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new BodyTooLargeException();
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        return body;
+    }
+
+    private static Object require(Map<String, Object> request, String field) {
+        Object value = request.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field '" + field + "'");
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value, String field) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected an object for '" + field + "'");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> asArray(Object value, String field) {
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Expected an array for '" + field + "'");
+        }
+        return (List<Object>) value;
+    }
+
+    private static String asString(Object value, String field) {
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Expected a string for '" + field + "'");
+        }
+        return (String) value;
+    }
+
+    private static double asNumber(Object value, String field) {
+        if (value instanceof String) {
+            return Double.parseDouble((String) value);
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Expected a number for '" + field + "'");
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Map<String, Object> handle(Map<String, Object> request) throws ParseException;
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+        BodyTooLargeException() {
+            super("Request body larger than " + MAX_BODY_BYTES + " bytes");
+        }
+    }
+
+    private static final class UnknownSessionException extends RuntimeException {
+        UnknownSessionException(String sessionId) {
+            super("Unknown session '" + sessionId + "'");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.openjfx.session;
+
+import org.openjfx.model.CalculatorEngine;
+
+/**
+ * One user's calculator state. The engine is only touched while holding the session's own
+ * monitor, so sessions never contend with each other.
+ */
+public class CalculatorSession {
+    private final String id;
+    private final CalculatorEngine engine = new CalculatorEngine();
+    private volatile long lastAccessNanos;
+    private boolean evicted;
+
+    CalculatorSession(String id, long now) {
+        this.id = id;
+        this.lastAccessNanos = now;
+    }
+
+    // Callers hold the session monitor
+    CalculatorEngine getEngine() {
+        return engine;
+    }
+
+    void touch(long now) {
+        lastAccessNanos = now;
+    }
+
+    boolean isEvicted() {
+        return evicted;
+    }
+
+    /**
+     * Evicts the session if it was last used before {@code deadline}; true only if this call evicted it.
+     */
+    synchronized boolean evictIfIdleSince(long deadline) {
+        if (evicted || lastAccessNanos - deadline >= 0) {
+            return false;
+        }
+        evicted = true;
+        return true;
+    }
+
+    synchronized void evict() {
+        evicted = true;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+}
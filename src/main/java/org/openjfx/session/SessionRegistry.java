@@ -0,0 +1,131 @@
+package org.openjfx.session;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.model.CalculatorEngine;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * Hosts many independent calculator sessions keyed by session id.
+ * Lookups go through a {@link ConcurrentHashMap}, and each session is guarded by its own monitor,
+ * so there is no registry-wide lock. Sessions idle for longer than the timeout are evicted
+ * by a background sweep, or on demand through {@link #evictIdle()}.
+ */
+public class SessionRegistry implements AutoCloseable {
+    private final Logger logger = LogManager.getLogger();
+    private final ConcurrentHashMap<String, CalculatorSession> sessions = new ConcurrentHashMap<>();
+    private final long idleTimeoutNanos;
+    private final ScheduledExecutorService sweeper;
+
+    public SessionRegistry(Duration idleTimeout) {
+        this(idleTimeout, idleTimeout.dividedBy(2));
+    }
+
+    public SessionRegistry(Duration idleTimeout, Duration sweepInterval) {
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "calculator-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, sweepInterval.toMillis());
+        sweeper.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs {@code action} against the session's engine, creating the session on first use.
+     * The engine must not escape the action.
+     */
+    public <T> T execute(String sessionId, Function<CalculatorEngine, T> action) {
+        while (true) {
+            CalculatorSession session = sessions.computeIfAbsent(sessionId,
+                    id -> new CalculatorSession(id, System.nanoTime()));
+            synchronized (session) {
+                if (!session.isEvicted()) {
+                    // Read under the monitor, so a caller that waited behind a slow action cannot move it back
+                    session.touch(System.nanoTime());
+                    return action.apply(session.getEngine());
+                }
+            }
+            // Evicted between lookup and lock; drop the stale mapping and start a fresh session
+            sessions.remove(sessionId, session);
+        }
+    }
+
+    /**
+     * Runs {@code action} against the session's engine if the session exists, without creating it.
+     * Empty for sessions that were never used, were removed or have been evicted.
+     */
+    public <T> Optional<T> executeIfPresent(String sessionId, Function<CalculatorEngine, T> action) {
+        CalculatorSession session = sessions.get(sessionId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        synchronized (session) {
+            if (!session.isEvicted()) {
+                session.touch(System.nanoTime());
+                return Optional.ofNullable(action.apply(session.getEngine()));
+            }
+        }
+        sessions.remove(sessionId, session);
+        return Optional.empty();
+    }
+
+    public String press(String sessionId, Keystroke keystroke) {
+        return execute(sessionId, engine -> {
+            engine.press(keystroke);
+            return engine.getDisplayText();
+        });
+    }
+
+    public String getDisplayText(String sessionId) {
+        return execute(sessionId, CalculatorEngine::getDisplayText);
+    }
+
+    public boolean remove(String sessionId) {
+        CalculatorSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return false;
+        }
+        session.evict();
+        return true;
+    }
+
+    public int evictIdle() {
+        long deadline = System.nanoTime() - idleTimeoutNanos;
+        int evicted = 0;
+        for (Map.Entry<String, CalculatorSession> entry : sessions.entrySet()) {
+            CalculatorSession session = entry.getValue();
+            if (session.getLastAccessNanos() - deadline < 0 && session.evictIfIdleSince(deadline)) {
+                sessions.remove(entry.getKey(), session);
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle calculator sessions", box(evicted));
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        sessions.values().forEach(CalculatorSession::evict);
+        sessions.clear();
+    }
+}
@@ -0,0 +1,130 @@
+package org.openjfx.session;
+
+import org.openjfx.enums.NumericMode;
+import org.openjfx.model.CalculatorModel;
+
+import java.io.IOException;
+import java.math.MathContext;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * A saved desktop session: the complete calculator state (see {@link CalculatorModel#writeState}), the window
+ * position and the history file in use. History entries themselves are already on disk in that file, so a
+ * snapshot stays within a few kilobytes and is read in one go. Written by {@link SnapshotWriter}.
+ * <pre>
+ * int    magic "CSNP"
+ * short  version
+ * short  reserved
+ * long   saved at, epoch milliseconds
+ * double window x, window y (NaN when not known)
+ * int    length of the history path in UTF-8 bytes, then the bytes (0 for none)
+ * ...    calculator state
+ * </pre>
+ */
+public final class SessionSnapshot {
+    static final int MAGIC = 0x43534E50;
+    static final short VERSION = 3;
+
+    private final long savedMillis;
+    private final double windowX;
+    private final double windowY;
+    private final Path historyPath;
+    private final ByteBuffer state;
+
+    private SessionSnapshot(long savedMillis, double windowX, double windowY, Path historyPath, ByteBuffer state) {
+        this.savedMillis = savedMillis;
+        this.windowX = windowX;
+        this.windowY = windowY;
+        this.historyPath = historyPath;
+        this.state = state;
+    }
+
+    /**
+     * Reads a snapshot with a single read of the whole file.
+     *
+     * @throws ParseException if the file is not a snapshot of this version or is truncated
+     */
+    public static SessionSnapshot read(Path path) throws IOException, ParseException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new ParseException("Not a session snapshot: " + path, 0);
+            }
+            short version = in.getShort();
+            if (version != VERSION) {
+                throw new ParseException("Unsupported session snapshot version " + version + ": " + path, 4);
+            }
+            in.getShort();
+            long savedMillis = in.getLong();
+            double windowX = in.getDouble();
+            double windowY = in.getDouble();
+            int historyLength = in.getInt();
+            if (historyLength > in.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            byte[] history = new byte[historyLength];
+            in.get(history);
+            return new SessionSnapshot(savedMillis, windowX, windowY,
+                    history.length == 0 ? null : Path.of(new String(history, StandardCharsets.UTF_8)), in.slice());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                 | IllegalArgumentException e) {
+            throw new ParseException("Truncated session snapshot: " + path, in.position());
+        }
+    }
+
+    /**
+     * Puts {@code model} back in the saved state. If the state cannot be read, the model is cleared along with its
+     * memory and statistics, as a part read state may have reached them, and keeps its numeric mode and math context.
+     */
+    public void restore(CalculatorModel model) throws ParseException {
+        NumericMode numericMode = model.getNumericMode();
+        MathContext mathContext = model.getMathContext();
+        try {
+            model.readState(state.duplicate());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                 | IllegalArgumentException e) {
+            model.setNumericMode(numericMode);
+            model.setMathContext(mathContext);
+            model.clearAll();
+            throw new ParseException("Corrupt calculator state in session snapshot", 0);
+        }
+    }
+
+    static void writeHeader(ByteBuffer out, long savedMillis, double windowX, double windowY, byte[] historyPath) {
+        out.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)
+                .putLong(savedMillis)
+                .putDouble(windowX)
+                .putDouble(windowY)
+                .putInt(historyPath.length)
+                .put(historyPath);
+    }
+
+    public long getSavedMillis() {
+        return savedMillis;
+    }
+
+    /**
+     * Where the window was, NaN if not known.
+     */
+    public double getWindowX() {
+        return windowX;
+    }
+
+    public double getWindowY() {
+        return windowY;
+    }
+
+    /**
+     * The calculation history the session recorded to, or null.
+     */
+    public Path getHistoryPath() {
+        return historyPath;
+    }
+}
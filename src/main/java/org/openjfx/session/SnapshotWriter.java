@@ -0,0 +1,132 @@
+package org.openjfx.session;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.model.CalculatorModel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps a {@link SessionSnapshot} file up to date without blocking the thread that owns the calculator.
+ * {@link #capture} encodes the state on the calling thread, which takes well under a microsecond, and a
+ * background thread writes the latest capture to a temporary file and moves it into place; captures made
+ * while a write is in progress replace each other, so a burst of keys costs one write. {@link #close}
+ * writes whatever is still pending before returning.
+ * <p>
+ * Captures are encoded into one of three preallocated buffers that rotate between the capturing thread, the
+ * latest capture and the writer, so neither side waits for the other and a capture allocates nothing.
+ */
+public class SnapshotWriter implements Closeable {
+    private static final Logger logger = LogManager.getLogger();
+    private static final int INDEX = 3;
+    private static final int FRESH = 4;
+
+    private final Path path;
+    private final Path temp;
+    private final byte[] historyPath;
+    private final ByteBuffer[] buffers = {
+            ByteBuffer.allocate(1024), ByteBuffer.allocate(1024), ByteBuffer.allocate(1024)};
+    // Index of the latest capture, with FRESH set until the writer takes it
+    private final AtomicInteger latest = new AtomicInteger(0);
+    private final Thread thread;
+    private int captureIndex = 1;
+    private int writeIndex = 2;
+    private volatile double windowX = Double.NaN;
+    private volatile double windowY = Double.NaN;
+    private volatile boolean closed;
+
+    /**
+     * @param historyPath the history file to record in snapshots, or null
+     */
+    public SnapshotWriter(Path path, Path historyPath) {
+        this.path = path.toAbsolutePath();
+        this.temp = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        this.historyPath = historyPath == null ? new byte[0]
+                : historyPath.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8);
+        thread = new Thread(this::run, "session-snapshot");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Included in every later capture.
+     */
+    public void setWindowPosition(double x, double y) {
+        windowX = x;
+        windowY = y;
+    }
+
+    /**
+     * Snapshots {@code model} as it is now; call from the thread that drives it.
+     */
+    public void capture(CalculatorModel model) {
+        ByteBuffer buffer = buffers[captureIndex];
+        while (true) {
+            buffer.clear();
+            try {
+                SessionSnapshot.writeHeader(buffer, System.currentTimeMillis(), windowX, windowY, historyPath);
+                model.writeState(buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = buffers[captureIndex] = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+        buffer.flip();
+        captureIndex = latest.getAndSet(captureIndex | FRESH) & INDEX;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (!closed) {
+            if ((latest.get() & FRESH) == 0) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                writeLatest();
+            } catch (IOException e) {
+                logger.warn("Could not write session snapshot to {}", path, e);
+            }
+        }
+    }
+
+    // Takes the latest capture in exchange for the buffer written last time
+    private void writeLatest() throws IOException {
+        writeIndex = latest.getAndSet(writeIndex) & INDEX;
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer snapshot = buffers[writeIndex];
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+        }
+        // Readers see the old snapshot or the new one, never half of one
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if ((latest.get() & FRESH) != 0) {
+            writeLatest();
+        }
+    }
+}
@@ -1,52 +1,106 @@
 package org.openjfx.ui;
 
+import javafx.application.Platform;
+import javafx.css.PseudoClass;
+import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
+import javafx.scene.control.Menu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.control.TextInputDialog;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
-import javafx.scene.text.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openjfx.controller.CalculatorController;
+import org.openjfx.controller.DisplayPipeline;
+import org.openjfx.conversion.ConversionTable;
+import org.openjfx.conversion.UnitConverter;
+import org.openjfx.enums.Aggregate;
+import org.openjfx.enums.Dimension;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.NumericMode;
 import org.openjfx.enums.Operation;
+import org.openjfx.enums.Unit;
+import org.openjfx.history.HistoryStore;
+import org.openjfx.macro.CompiledMacro;
+import org.openjfx.macro.Macro;
+import org.openjfx.macro.MacroLibrary;
 import org.openjfx.model.CalculatorModel;
+import org.openjfx.replay.TapeReader;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class CalculatorView {
     private final Logger logger = LogManager.getLogger();
     private final GridPane gridPane;
     private final Label displayLabel;
+    private final Label memoryLabel;
     private final CalculatorController controller;
+    private final DisplayPipeline display;
     private final Map<Operation, Button> operationButtons = new HashMap<>();
     private final BorderPane root;
+    private final CalculatorModel model;
+    private HBox topBar;
+    private HistoryStore historyStore;
+    private HistoryPanel historyPanel;
+    private Button[] memoryRow;
+    private Button[] statisticsRow;
+    private Node[] conversionRow;
+    private Node[] shownRow;
+    private Button statisticsButton;
+    private UnitConverter converter;
+    private Button conversionButton;
+    private ComboBox<String> fromUnit;
+    private ComboBox<String> toUnit;
+    private MacroLibrary macroLibrary;
+    private Path macroPath;
+    private Button macroButton;
+    private boolean statisticsMode;
+    private Thread replayThread;
+    private volatile boolean replayStopped;
     private boolean shiftPressed = false;
     private double xOffset = 0;
     private double yOffset = 0;
 
-    private static final Color BACKGROUND_COLOR = Color.rgb(28, 28, 30);
-    private static final Color DISPLAY_BACKGROUND = Color.rgb(44, 44, 46);
-    private static final Color NUMBER_BUTTON_COLOR = Color.rgb(58, 58, 60);
-    private static final Color OPERATION_BUTTON_COLOR = Color.rgb(255, 159, 10);
-    private static final Color OPERATION_ACTIVE_COLOR = Color.rgb(255, 255, 255);
-    private static final Color SPECIAL_BUTTON_COLOR = Color.rgb(72, 72, 74);
-    private static final Color TEXT_COLOR = Color.WHITE;
+    // Looks are in calculator.css; the view only assigns style classes and toggles pseudo-classes
+    private static final String STYLESHEET = CalculatorView.class.getResource("calculator.css").toExternalForm();
+    private static final PseudoClass ACTIVE_OP = PseudoClass.getPseudoClass("active-op");
+    private static final PseudoClass ACTIVE_MODE = PseudoClass.getPseudoClass("active-mode");
+    private static final PseudoClass RECORDING = PseudoClass.getPseudoClass("recording");
+    private static final String NUMBER_BUTTON = "digit";
+    private static final String OPERATION_BUTTON = "operator";
+    private static final String SPECIAL_BUTTON = "function";
+    private static final String MEMORY_BUTTON = "memory";
 
     public CalculatorView(Stage stage) {
         logger.info("Initializing CalculatorView");
         gridPane = new GridPane();
         displayLabel = createDisplayLabel();
-        CalculatorModel model = new CalculatorModel();
-        controller = new CalculatorController(model, displayLabel);
+        memoryLabel = createMemoryLabel();
+        model = new CalculatorModel();
+        display = new DisplayPipeline(model, displayLabel::setText);
+        controller = new CalculatorController(model, display);
+        controller.setMemoryIndicator(display::acceptMemory);
+        memoryLabel.textProperty().bind(display.memoryProperty());
         root = new BorderPane();
 
         // Add listener to update operation button states
-        model.currentOperationProperty().addListener((obs, oldOp, newOp) -> {
+        display.operationProperty().addListener((obs, oldOp, newOp) -> {
             updateOperationButtonStates(oldOp, newOp);
         });
 
@@ -62,31 +116,229 @@ public class CalculatorView {
         return root;
     }
 
+    public CalculatorController getController() {
+        return controller;
+    }
+
+    public CalculatorModel getModel() {
+        return model;
+    }
+
+    /**
+     * Records every calculation to {@code store} and adds a button, and the H key, to browse it.
+     */
+    public void setHistory(HistoryStore store) {
+        model.getEngine().addCalculationListener(store);
+        historyStore = store;
+        Button historyButton = new Button("☰");
+        historyButton.getStyleClass().add("title-button");
+        historyButton.setFocusTraversable(false);
+        historyButton.setOnAction(e -> toggleHistory());
+        historyButton.setDisable(gridPane.isDisabled());
+        topBar.getChildren().add(0, historyButton);
+    }
+
+    /**
+     * Puts the macros of {@code library} on the ƒ1 to ƒ8 keys (F1 to F8) and adds a button, and the F9 key, to
+     * record new ones, which are saved to {@code path}.
+     */
+    public void setMacros(MacroLibrary library, Path path) {
+        macroLibrary = library;
+        macroPath = path;
+        for (int slot = 0; slot < MacroLibrary.SLOTS; slot++) {
+            model.setMacro(slot, library.get(slot));
+        }
+        macroButton = new Button("ƒ");
+        macroButton.getStyleClass().add("title-button");
+        macroButton.setFocusTraversable(false);
+        macroButton.setOnAction(e -> showMacroMenu());
+        macroButton.setDisable(gridPane.isDisabled());
+        topBar.getChildren().add(topBar.getChildren().indexOf(statisticsButton), macroButton);
+    }
+
+    /**
+     * Adds a button, and Ctrl+U, to swap the memory row for one that converts the displayed value between the
+     * units and currencies of {@code converter}.
+     */
+    public void setConverter(UnitConverter converter) {
+        this.converter = converter;
+        conversionButton = new Button("⇄");
+        conversionButton.getStyleClass().add("title-button");
+        conversionButton.setFocusTraversable(false);
+        conversionButton.setOnAction(e -> toggleConversionMode());
+        conversionButton.setDisable(gridPane.isDisabled());
+        topBar.getChildren().add(topBar.getChildren().indexOf(statisticsButton), conversionButton);
+    }
+
+    /**
+     * Plays {@code tape} into the visible calculator on a background thread, with the keypad and the title bar
+     * buttons that act on the calculator disabled until it ends, as that thread owns the model meanwhile. The
+     * display shows the latest state once per frame, so the tape runs at the speed of the model. The calculator
+     * is first put in the state the recording started from, which replaces its memory and statistics.
+     */
+    public void replay(TapeReader tape) {
+        setReplaying(true);
+        replayThread = new Thread(() -> {
+            try {
+                model.readState(tape.getStartState());
+                controller.refreshDisplay();
+                for (long i = 0; i < tape.size() && !replayStopped; i++) {
+                    NumericMode numericMode = tape.numericMode(i);
+                    if (model.getNumericMode() != numericMode) {
+                        model.setNumericMode(numericMode);
+                    }
+                    if (tape.setsValue(i)) {
+                        controller.handleValue(tape.value(i));
+                    } else {
+                        controller.press(tape.keystroke(i));
+                    }
+                }
+                logger.info("Replayed {} keystrokes", tape.size());
+            } catch (RuntimeException e) {
+                logger.error("Tape replay failed", e);
+            } finally {
+                Platform.runLater(() -> setReplaying(false));
+            }
+        }, "tape-replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    /**
+     * Stops a replay started by {@link #replay} and waits for its thread, so the model is the caller's again.
+     */
+    public void stopReplay() {
+        if (replayThread == null) {
+            return;
+        }
+        replayStopped = true;
+        try {
+            replayThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void setReplaying(boolean replaying) {
+        gridPane.setDisable(replaying);
+        for (Node node : topBar.getChildren()) {
+            if (!node.getStyleClass().contains("exit")) {
+                node.setDisable(replaying);
+            }
+        }
+        if (!replaying) {
+            gridPane.requestFocus();
+        }
+    }
+
+    private void showMacroMenu() {
+        ContextMenu menu = new ContextMenu();
+        MenuItem record = new MenuItem(controller.isRecordingMacro() ? "Stop Recording…" : "Record Macro");
+        record.setOnAction(e -> toggleMacroRecording());
+        menu.getItems().add(record);
+        Menu delete = new Menu("Delete");
+        for (int slot = 0; slot < MacroLibrary.SLOTS; slot++) {
+            CompiledMacro macro = macroLibrary.get(slot);
+            if (macro == null) {
+                continue;
+            }
+            int index = slot;
+            String label = Keystroke.macro(slot).symbol() + "  " + macro.getName();
+            MenuItem run = new MenuItem(label + "  (" + macro.getMacro().getKeys() + ")");
+            run.setOnAction(e -> controller.handleMacro(index));
+            MenuItem remove = new MenuItem(label);
+            remove.setOnAction(e -> {
+                macroLibrary.remove(index);
+                model.setMacro(index, null);
+                saveMacros();
+            });
+            if (delete.getItems().isEmpty()) {
+                menu.getItems().add(new SeparatorMenuItem());
+            }
+            menu.getItems().add(run);
+            delete.getItems().add(remove);
+        }
+        if (!delete.getItems().isEmpty()) {
+            menu.getItems().addAll(new SeparatorMenuItem(), delete);
+        }
+        menu.setOnHidden(e -> gridPane.requestFocus());
+        menu.show(macroButton, Side.BOTTOM, 0, 0);
+    }
+
+    /**
+     * Starts recording, or stops and asks for a name. A macro replaces the one with the same name, or else takes the
+     * first free slot, or ƒ8 when all are taken.
+     */
+    private void toggleMacroRecording() {
+        if (macroLibrary == null) {
+            return;
+        }
+        if (!controller.isRecordingMacro()) {
+            controller.startMacroRecording();
+            macroButton.pseudoClassStateChanged(RECORDING, true);
+            return;
+        }
+        List<Keystroke> keystrokes = controller.stopMacroRecording();
+        macroButton.pseudoClassStateChanged(RECORDING, false);
+        if (keystrokes.isEmpty()) {
+            return;
+        }
+        int free = macroLibrary.firstFreeSlot();
+        TextInputDialog dialog = new TextInputDialog("Macro " + (free >= 0 ? free + 1 : MacroLibrary.SLOTS));
+        dialog.setTitle("Save Macro");
+        dialog.setHeaderText(new Macro("Recorded", keystrokes).getKeys());
+        dialog.setContentText("Name:");
+        dialog.showAndWait().map(String::strip).filter(name -> !name.isEmpty()).ifPresent(name -> {
+            int named = macroLibrary.slotOf(name);
+            int slot = named >= 0 ? named : free >= 0 ? free : MacroLibrary.SLOTS - 1;
+            try {
+                model.setMacro(slot, macroLibrary.put(slot, new Macro(name, keystrokes)));
+                saveMacros();
+            } catch (IllegalArgumentException e) {
+                logger.warn("Could not save macro '{}'", name, e);
+            }
+        });
+        gridPane.requestFocus();
+    }
+
+    private void saveMacros() {
+        try {
+            macroLibrary.write(macroPath);
+        } catch (IOException e) {
+            logger.error("Could not save macros to {}", macroPath, e);
+        }
+    }
+
+    private void toggleHistory() {
+        if (historyStore == null) {
+            return;
+        }
+        if (historyPanel == null) {
+            // Built on first use; most sessions never open it
+            historyPanel = new HistoryPanel(historyStore);
+        }
+        if (root.getCenter() == gridPane) {
+            historyPanel.refresh();
+            root.setCenter(historyPanel.getRoot());
+        } else {
+            root.setCenter(gridPane);
+            gridPane.requestFocus();
+        }
+    }
+
     private void updateOperationButtonStates(Operation oldOp, Operation newOp) {
-        // Reset old operation button style if it exists
         if (oldOp != null && operationButtons.containsKey(oldOp)) {
-            setOperationButtonStyle(operationButtons.get(oldOp), OPERATION_BUTTON_COLOR, false);
+            operationButtons.get(oldOp).pseudoClassStateChanged(ACTIVE_OP, false);
         }
-
-        // Set new operation button style if it exists
         if (newOp != null && newOp != Operation.NONE && operationButtons.containsKey(newOp)) {
-            setOperationButtonStyle(operationButtons.get(newOp), OPERATION_ACTIVE_COLOR, true);
+            operationButtons.get(newOp).pseudoClassStateChanged(ACTIVE_OP, true);
         }
     }
 
     private void setupBorderPane(Stage stage) {
         root.setCenter(this.getView());
-
-        // Style the BorderPane with the same dark theme and rounded corners
-        BackgroundFill backgroundFill = new BackgroundFill(
-                BACKGROUND_COLOR,
-                new CornerRadii(20),
-                Insets.EMPTY
-        );
-        root.setBackground(new Background(backgroundFill));
-
-        // Add padding around the entire calculator
-        root.setPadding(new Insets(10));
+        root.getStyleClass().add("calculator");
+        root.getStylesheets().add(STYLESHEET);
 
         // Setup window drag functionality
         root.setOnMousePressed(event -> {
@@ -98,70 +350,29 @@ public class CalculatorView {
             stage.setX(event.getScreenX() - xOffset);
             stage.setY(event.getScreenY() - yOffset);
         });
-
-        // Add a subtle border effect
-        root.setStyle("""
-        -fx-border-color: rgba(255, 255, 255, 0.1);
-        -fx-border-width: 1px;
-        -fx-border-radius: 20px;
-        -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.4), 15, 0, 0, 0);
-        """);
     }
 
 
-
-
     private Button createExitButton(Stage stage) {
         Button exitButton = new Button("×");
-        exitButton.setStyle("""
-        -fx-background-color: transparent;
-        -fx-text-fill: rgb(255, 255, 255, 0.8);
-        -fx-font-family: 'SF Pro Display';
-        -fx-font-size: 18;
-        -fx-cursor: hand;
-        -fx-padding: 5 10;
-        """);
-
-        // Add hover effect
-        exitButton.setOnMouseEntered(e -> exitButton.setStyle("""
-        -fx-background-color: rgba(255, 59, 48, 0.8);
-        -fx-text-fill: white;
-        -fx-font-family: 'SF Pro Display';
-        -fx-font-size: 18;
-        -fx-cursor: hand;
-        -fx-padding: 5 10;
-        -fx-background-radius: 5;
-        """));
-
-        exitButton.setOnMouseExited(e -> exitButton.setStyle("""
-        -fx-background-color: transparent;
-        -fx-text-fill: rgb(255, 255, 255, 0.8);
-        -fx-font-family: 'SF Pro Display';
-        -fx-font-size: 18;
-        -fx-cursor: hand;
-        -fx-padding: 5 10;
-        """));
-
+        exitButton.getStyleClass().addAll("title-button", "exit");
         exitButton.setOnAction(event -> stage.close());
         return exitButton;
     }
 
     private void addExitButton(Stage stage) {
         Button exitButton = createExitButton(stage);
-        HBox topBar = new HBox(exitButton);
+        statisticsButton = new Button("Σ");
+        statisticsButton.getStyleClass().add("title-button");
+        statisticsButton.setFocusTraversable(false);
+        statisticsButton.setOnAction(e -> toggleStatisticsMode());
+        topBar = new HBox(statisticsButton, exitButton);
         topBar.setAlignment(Pos.TOP_RIGHT);
-        topBar.setPadding(new Insets(5, 5, 0, 0));
-        topBar.setBackground(new Background(new BackgroundFill(
-                BACKGROUND_COLOR,
-                new CornerRadii(20, 20, 0, 0, false),  // Rounded top corners only
-                Insets.EMPTY
-        )));
+        topBar.getStyleClass().add("top-bar");
         root.setTop(topBar);
     }
 
 
-
-
     private void setupKeyboardHandling() {
         logger.debug("Setting up keyboard event handling");
         gridPane.setFocusTraversable(true);
@@ -181,6 +392,18 @@ public class CalculatorView {
                 return;
             }
 
+            if (event.isControlDown()) {
+                handleMemoryKey(event.getCode());
+                event.consume();
+                return;
+            }
+
+            if (event.isAltDown()) {
+                handleStatisticsKey(event.getCode());
+                event.consume();
+                return;
+            }
+
             switch (event.getCode()) {
                 case DIGIT0, NUMPAD0 -> controller.handleNumber(0);
                 case DIGIT1, NUMPAD1 -> controller.handleNumber(1);
@@ -208,7 +431,15 @@ public class CalculatorView {
                 case SUBTRACT, MINUS -> controller.handleOperation(1);
                 case MULTIPLY, STAR -> controller.handleOperation(2);
                 case DIVIDE, SLASH -> controller.handleOperation(3);
-                case ENTER -> controller.handleEquals();
+                case ENTER -> {
+                    if (statisticsMode) {
+                        controller.handleStatisticsAdd();
+                    } else if (shownRow == conversionRow) {
+                        convert();
+                    } else {
+                        controller.handleEquals();
+                    }
+                }
                 case EQUALS -> {
                     if (!shiftPressed) controller.handleEquals();
                 }
@@ -218,6 +449,10 @@ public class CalculatorView {
                 case R -> controller.handleOneOverX();
                 case DELETE -> controller.handleClearEntry();
                 case BACK_SPACE -> controller.handleBackSpace();
+                case H -> toggleHistory();
+                // "F3" runs ƒ3
+                case F1, F2, F3, F4, F5, F6, F7, F8 -> controller.handleMacro(event.getCode().getName().charAt(1) - '1');
+                case F9 -> toggleMacroRecording();
             }
             event.consume();
         });
@@ -230,6 +465,92 @@ public class CalculatorView {
         });
     }
 
+    // Ctrl+P/S add to and subtract from memory, Ctrl+R recalls, Ctrl+L clears, Ctrl+digit selects a register,
+    // and Ctrl+N/A/V recall the count, mean and variance of what was added to it; Ctrl+T toggles statistics mode
+    // and Ctrl+U conversion mode
+    private void handleMemoryKey(KeyCode code) {
+        if (code.isDigitKey()) {
+            // "7" or "Numpad 7"
+            String name = code.getName();
+            controller.handleMemoryRegister(name.charAt(name.length() - 1) - '0');
+            return;
+        }
+        switch (code) {
+            case T -> toggleStatisticsMode();
+            case U -> toggleConversionMode();
+            case P -> controller.handleMemoryAdd();
+            case S -> controller.handleMemorySubtract();
+            case R -> controller.handleMemoryRecall();
+            case L -> controller.handleMemoryClear();
+            case N -> controller.handleMemoryStatistic(Aggregate.COUNT);
+            case A -> controller.handleMemoryStatistic(Aggregate.MEAN);
+            case V -> controller.handleMemoryStatistic(Aggregate.VARIANCE);
+        }
+    }
+
+    // Alt+Enter adds to the statistics in either mode; Alt+C clears them
+    private void handleStatisticsKey(KeyCode code) {
+        switch (code) {
+            case ENTER -> controller.handleStatisticsAdd();
+            case C -> controller.handleStatisticsClear();
+            case N -> controller.handleStatistic(Aggregate.COUNT);
+            case U -> controller.handleStatistic(Aggregate.SUM);
+            case A -> controller.handleStatistic(Aggregate.MEAN);
+            case D -> controller.handleStatistic(Aggregate.STANDARD_DEVIATION);
+            case L -> controller.handleStatistic(Aggregate.MIN);
+            case H -> controller.handleStatistic(Aggregate.MAX);
+            case P -> controller.handleStatisticsPercentile();
+        }
+    }
+
+    /**
+     * Swaps the memory row for the statistics row (Σ+ x̄ σ Σ%) and makes Enter add to the statistics.
+     */
+    private void toggleStatisticsMode() {
+        if (statisticsRow == null) {
+            statisticsRow = createStatisticsRow();
+        }
+        showRow(statisticsMode ? memoryRow : statisticsRow);
+    }
+
+    /**
+     * Swaps the memory row for the conversion row (from, to, ⇆ and →) and makes Enter convert.
+     */
+    private void toggleConversionMode() {
+        if (converter == null) {
+            return;
+        }
+        if (conversionRow == null) {
+            conversionRow = createConversionRow();
+        }
+        showRow(shownRow == conversionRow ? memoryRow : conversionRow);
+    }
+
+    private void showRow(Node[] row) {
+        gridPane.getChildren().removeAll(shownRow);
+        shownRow = row;
+        for (int i = 0; i < row.length; i++) {
+            gridPane.add(row[i], i, 1);
+        }
+        statisticsMode = row == statisticsRow;
+        statisticsButton.pseudoClassStateChanged(ACTIVE_MODE, statisticsMode);
+        if (conversionButton != null) {
+            conversionButton.pseudoClassStateChanged(ACTIVE_MODE, row == conversionRow);
+        }
+        gridPane.requestFocus();
+    }
+
+    private void convert() {
+        ConversionTable table = converter.getTable();
+        int from = table.indexOf(fromUnit.getValue());
+        int to = table.indexOf(toUnit.getValue());
+        // A currency may have left the rate file since it was chosen
+        if (from >= 0 && to >= 0 && table.dimension(from) == table.dimension(to)) {
+            controller.handleConversion(table, from, to);
+        }
+        gridPane.requestFocus();
+    }
+
     private void setupGridPane() {
         logger.debug("Setting up GridPane layout");
         gridPane.setPadding(new Insets(20));
@@ -237,11 +558,14 @@ public class CalculatorView {
         gridPane.setVgap(10);
 
         // Set fixed row heights
-        for (int i = 0; i < 7; i++) {
+        for (int i = 0; i < 8; i++) {
             RowConstraints rc = new RowConstraints();
             if (i == 0) {
                 rc.setMinHeight(100); // Display row
                 rc.setMaxHeight(100);
+            } else if (i == 1) {
+                rc.setMinHeight(40); // Memory row
+                rc.setMaxHeight(40);
             } else {
                 rc.setMinHeight(60); // Button rows
                 rc.setMaxHeight(60);
@@ -259,55 +583,31 @@ public class CalculatorView {
             gridPane.getColumnConstraints().add(cc);
         }
 
-        setupBackground();
+        gridPane.getStyleClass().add("keypad");
         gridPane.add(displayLabel, 0, 0, 4, 1);
-    }
-
-
-    private void setupBackground() {
-        var backgroundFill = new BackgroundFill(BACKGROUND_COLOR, new CornerRadii(20), Insets.EMPTY);
-        gridPane.setBackground(new Background(backgroundFill));
+        gridPane.add(memoryLabel, 0, 0, 4, 1);
     }
 
     private Label createDisplayLabel() {
         Label label = new Label("0");
-        label.setStyle(String.format("""
-            -fx-background-color: rgb(%d, %d, %d);
-            -fx-background-radius: 10;
-            -fx-padding: 20;
-            """,
-                (int)(DISPLAY_BACKGROUND.getRed() * 255),
-                (int)(DISPLAY_BACKGROUND.getGreen() * 255),
-                (int)(DISPLAY_BACKGROUND.getBlue() * 255)));
-
-        Font font = Font.font("SF Pro Display", FontWeight.LIGHT, 48);
+        label.getStyleClass().add("display");
         label.setMaxWidth(Double.MAX_VALUE);
         label.setPrefHeight(100);
         label.setMinHeight(100);
-        label.setTextFill(TEXT_COLOR);
         label.setAlignment(Pos.CENTER_RIGHT);
-        label.setFont(font);
 
         // Add text wrapping for long numbers
         label.setWrapText(true);
         return label;
     }
 
-    private void setOperationButtonStyle(Button button, Color backgroundColor, boolean isActive) {
-        String style = String.format("""
-            -fx-background-color: rgb(%d, %d, %d);
-            -fx-text-fill: %s;
-            -fx-font-family: 'SF Pro Display';
-            -fx-font-size: 18;
-            -fx-background-radius: 30;
-            -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.2), 10, 0, 0, 0);
-            """,
-                (int)(backgroundColor.getRed() * 255),
-                (int)(backgroundColor.getGreen() * 255),
-                (int)(backgroundColor.getBlue() * 255),
-                isActive ? "rgb(255, 159, 10)" : "white");
-
-        button.setStyle(style);
+    private Label createMemoryLabel() {
+        Label label = new Label();
+        label.getStyleClass().add("memory-indicator");
+        label.setMouseTransparent(true);
+        GridPane.setHalignment(label, HPos.LEFT);
+        GridPane.setValignment(label, VPos.TOP);
+        return label;
     }
 
     private void addButtons() {
@@ -316,6 +616,7 @@ public class CalculatorView {
             addNumberButtons();
             addOperationButtons();
             addSpecialButtons();
+            addMemoryButtons();
             logger.debug("All buttons added successfully");
         } catch (Exception e) {
             logger.error("Error adding calculator buttons", e);
@@ -325,13 +626,13 @@ public class CalculatorView {
 
     private void addNumberButtons() {
         for (int i = 1; i <= 9; i++) {
-            Button button = createButton(String.valueOf(i), NUMBER_BUTTON_COLOR);
+            Button button = createButton(String.valueOf(i), NUMBER_BUTTON);
             int finalI = i;
             button.setOnAction(e -> {
                 controller.handleNumber(finalI);
                 gridPane.requestFocus();
             });
-            gridPane.add(button, (i - 1) % 3, ((i - 1) / 3) + 3);
+            gridPane.add(button, (i - 1) % 3, ((i - 1) / 3) + 4);
         }
     }
 
@@ -342,9 +643,7 @@ public class CalculatorView {
         button.setMinSize(80, 60);
         button.setMaxSize(80, 60);
         button.setFocusTraversable(false);
-
-        setOperationButtonStyle(button, CalculatorView.OPERATION_BUTTON_COLOR, false);
-
+        button.getStyleClass().addAll("calc-button", OPERATION_BUTTON);
         return button;
     }
 
@@ -359,7 +658,7 @@ public class CalculatorView {
                 controller.handleOperation(finalI);
                 gridPane.requestFocus();
             });
-            gridPane.add(button, 3, i + 2);
+            gridPane.add(button, 3, i + 3);
 
             // Store the button reference
             operationButtons.put(operationEnums[i], button);
@@ -367,82 +666,215 @@ public class CalculatorView {
     }
 
     private void addSpecialButtons() {
-        Button zeroButton = createButton("0", NUMBER_BUTTON_COLOR);
+        Button zeroButton = createButton("0", NUMBER_BUTTON);
         zeroButton.setOnAction(e -> {
             controller.handleNumber(0);
             gridPane.requestFocus();
         });
-        gridPane.add(zeroButton, 1, 6);
+        gridPane.add(zeroButton, 1, 7);
 
-        Button clearButton = createButton("C", SPECIAL_BUTTON_COLOR);
+        Button clearButton = createButton("C", SPECIAL_BUTTON);
         clearButton.setOnAction(e -> {
             controller.handleClear();
             gridPane.requestFocus();
         });
-        gridPane.add(clearButton, 2, 1);
+        gridPane.add(clearButton, 2, 2);
 
-        Button equalButton = createButton("=", OPERATION_BUTTON_COLOR);
+        Button equalButton = createButton("=", OPERATION_BUTTON);
         equalButton.setOnAction(e -> {
             controller.handleEquals();
             gridPane.requestFocus();
         });
-        gridPane.add(equalButton, 3, 6);
+        gridPane.add(equalButton, 3, 7);
 
         addRemainingSpecialButtons();
     }
 
     private void addRemainingSpecialButtons() {
-        Button decimalButton = createButton(".", NUMBER_BUTTON_COLOR);
+        Button decimalButton = createButton(".", NUMBER_BUTTON);
         decimalButton.setOnAction(e -> {
             controller.handleDecimal();
             gridPane.requestFocus();
         });
-        gridPane.add(decimalButton, 2, 6);
+        gridPane.add(decimalButton, 2, 7);
 
-        Button plusMinusButton = createButton("±", SPECIAL_BUTTON_COLOR);
+        Button plusMinusButton = createButton("±", SPECIAL_BUTTON);
         plusMinusButton.setOnAction(e -> {
             controller.handlePlusMinus();
             gridPane.requestFocus();
         });
-        gridPane.add(plusMinusButton, 0, 6);
+        gridPane.add(plusMinusButton, 0, 7);
 
-        Button oneOverXButton = createButton("1/x", SPECIAL_BUTTON_COLOR);
+        Button oneOverXButton = createButton("1/x", SPECIAL_BUTTON);
         oneOverXButton.setOnAction(e -> {
             controller.handleOneOverX();
             gridPane.requestFocus();
         });
-        gridPane.add(oneOverXButton, 0, 2);
+        gridPane.add(oneOverXButton, 0, 3);
 
-        Button squaredButton = createButton("x²", SPECIAL_BUTTON_COLOR);
+        Button squaredButton = createButton("x²", SPECIAL_BUTTON);
         squaredButton.setOnAction(e -> {
             controller.handleSquared();
             gridPane.requestFocus();
         });
-        gridPane.add(squaredButton, 1, 2);
+        gridPane.add(squaredButton, 1, 3);
 
-        Button squareRootButton = createButton("√", SPECIAL_BUTTON_COLOR);
+        Button squareRootButton = createButton("√", SPECIAL_BUTTON);
         squareRootButton.setOnAction(e -> {
             controller.handleSquareRoot();
             gridPane.requestFocus();
         });
-        gridPane.add(squareRootButton, 2, 2);
+        gridPane.add(squareRootButton, 2, 3);
 
-        Button clearEntryButton = createButton("CE", SPECIAL_BUTTON_COLOR);
+        Button clearEntryButton = createButton("CE", SPECIAL_BUTTON);
         clearEntryButton.setOnAction(e -> {
             controller.handleClearEntry();
             gridPane.requestFocus();
         });
-        gridPane.add(clearEntryButton, 1, 1);
+        gridPane.add(clearEntryButton, 1, 2);
 
-        Button backSpaceButton = createButton("⌫", SPECIAL_BUTTON_COLOR);
+        Button backSpaceButton = createButton("⌫", SPECIAL_BUTTON);
         backSpaceButton.setOnAction(e -> {
             controller.handleBackSpace();
             gridPane.requestFocus();
         });
-        gridPane.add(backSpaceButton, 3, 1);
+        gridPane.add(backSpaceButton, 3, 2);
+    }
+
+    private void addMemoryButtons() {
+        Button clearButton = createButton("MC", MEMORY_BUTTON);
+        clearButton.setOnAction(e -> {
+            controller.handleMemoryClear();
+            gridPane.requestFocus();
+        });
+        gridPane.add(clearButton, 0, 1);
+
+        Button recallButton = createButton("MR", MEMORY_BUTTON);
+        recallButton.setOnAction(e -> {
+            controller.handleMemoryRecall();
+            gridPane.requestFocus();
+        });
+        gridPane.add(recallButton, 1, 1);
+
+        Button addButton = createButton("M+", MEMORY_BUTTON);
+        addButton.setOnAction(e -> {
+            controller.handleMemoryAdd();
+            gridPane.requestFocus();
+        });
+        gridPane.add(addButton, 2, 1);
+
+        Button subtractButton = createButton("M-", MEMORY_BUTTON);
+        subtractButton.setOnAction(e -> {
+            controller.handleMemorySubtract();
+            gridPane.requestFocus();
+        });
+        gridPane.add(subtractButton, 3, 1);
+
+        memoryRow = new Button[]{clearButton, recallButton, addButton, subtractButton};
+        shownRow = memoryRow;
+        for (Button button : memoryRow) {
+            button.setMinSize(80, 40);
+            button.setMaxSize(80, 40);
+        }
     }
 
-    private Button createButton(String text, Color backgroundColor) {
+    private Button[] createStatisticsRow() {
+        Button addButton = createButton("Σ+", MEMORY_BUTTON);
+        addButton.setOnAction(e -> {
+            controller.handleStatisticsAdd();
+            gridPane.requestFocus();
+        });
+
+        Button meanButton = createButton("x̄", MEMORY_BUTTON);
+        meanButton.setOnAction(e -> {
+            controller.handleStatistic(Aggregate.MEAN);
+            gridPane.requestFocus();
+        });
+
+        Button deviationButton = createButton("σ", MEMORY_BUTTON);
+        deviationButton.setOnAction(e -> {
+            controller.handleStatistic(Aggregate.STANDARD_DEVIATION);
+            gridPane.requestFocus();
+        });
+
+        Button percentileButton = createButton("Σ%", MEMORY_BUTTON);
+        percentileButton.setOnAction(e -> {
+            controller.handleStatisticsPercentile();
+            gridPane.requestFocus();
+        });
+
+        Button[] row = {addButton, meanButton, deviationButton, percentileButton};
+        for (Button button : row) {
+            button.setMinSize(80, 40);
+            button.setMaxSize(80, 40);
+        }
+        return row;
+    }
+
+    private Node[] createConversionRow() {
+        fromUnit = createUnitBox();
+        toUnit = createUnitBox();
+        fromUnit.setValue(Unit.MILE.symbol());
+        toUnit.setValue(Unit.KILOMETRE.symbol());
+        // The rate file may have changed since the list was last shown
+        fromUnit.setOnShowing(e -> fromUnit.getItems().setAll(allSymbols(converter.getTable())));
+        toUnit.setOnShowing(e -> updateTargetUnits());
+        fromUnit.valueProperty().addListener((obs, oldUnit, newUnit) -> updateTargetUnits());
+
+        Button swapButton = createButton("⇆", MEMORY_BUTTON);
+        swapButton.setOnAction(e -> {
+            String from = fromUnit.getValue();
+            fromUnit.setValue(toUnit.getValue());
+            toUnit.setValue(from);
+            gridPane.requestFocus();
+        });
+
+        Button convertButton = createButton("→", MEMORY_BUTTON);
+        convertButton.setOnAction(e -> convert());
+
+        Node[] row = {fromUnit, toUnit, swapButton, convertButton};
+        for (int i = 2; i < row.length; i++) {
+            ((Button) row[i]).setMinSize(80, 40);
+            ((Button) row[i]).setMaxSize(80, 40);
+        }
+        return row;
+    }
+
+    private ComboBox<String> createUnitBox() {
+        ComboBox<String> box = new ComboBox<>();
+        box.setMinSize(80, 40);
+        box.setMaxSize(80, 40);
+        box.setVisibleRowCount(12);
+        box.setFocusTraversable(false);
+        box.getStyleClass().add("unit-box");
+        box.setOnHidden(e -> gridPane.requestFocus());
+        return box;
+    }
+
+    /**
+     * Lists the units of the chosen source unit's dimension as targets, keeping the target if it still fits.
+     */
+    private void updateTargetUnits() {
+        ConversionTable table = converter.getTable();
+        int from = table.indexOf(fromUnit.getValue());
+        if (from < 0) {
+            return;
+        }
+        List<String> symbols = table.symbols(table.dimension(from));
+        String to = toUnit.getValue();
+        toUnit.getItems().setAll(symbols);
+        toUnit.setValue(symbols.contains(to) ? to : symbols.get(0));
+    }
+
+    private static List<String> allSymbols(ConversionTable table) {
+        List<String> symbols = new ArrayList<>();
+        for (Dimension dimension : Dimension.values()) {
+            symbols.addAll(table.symbols(dimension));
+        }
+        return symbols;
+    }
+
+    private Button createButton(String text, String styleClass) {
         logger.trace("Creating button with text: {}", text);
         Button button = new Button(text);
         button.setMaxWidth(Double.MAX_VALUE);
@@ -450,48 +882,7 @@ public class CalculatorView {
         button.setMinSize(80, 60);
         button.setMaxSize(80, 60);
         button.setFocusTraversable(false);
-        setOperationButtonStyle(button, backgroundColor, false);
-
-        // Modern button styling
-        button.setStyle(String.format("""
-            -fx-background-color: rgb(%d, %d, %d);
-            -fx-text-fill: white;
-            -fx-font-family: 'SF Pro Display';
-            -fx-font-size: 18;
-            -fx-background-radius: 30;
-            -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.2), 10, 0, 0, 0);
-            """,
-                (int)(backgroundColor.getRed() * 255),
-                (int)(backgroundColor.getGreen() * 255),
-                (int)(backgroundColor.getBlue() * 255)));
-
-        // Hover effect
-        button.setOnMouseEntered(e ->
-                button.setStyle(String.format("""
-                -fx-background-color: rgb(%d, %d, %d);
-                -fx-text-fill: white;
-                -fx-font-family: 'SF Pro Display';
-                -fx-font-size: 18;
-                -fx-background-radius: 30;
-                -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.4), 15, 0, 0, 0);
-                """,
-                        (int)(backgroundColor.getBrightness() * 1.2 * 255),
-                        (int)(backgroundColor.getBrightness() * 1.2 * 255),
-                        (int)(backgroundColor.getBrightness() * 1.2 * 255))));
-
-        button.setOnMouseExited(e ->
-                button.setStyle(String.format("""
-                -fx-background-color: rgb(%d, %d, %d);
-                -fx-text-fill: white;
-                -fx-font-family: 'SF Pro Display';
-                -fx-font-size: 18;
-                -fx-background-radius: 30;
-                -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.2), 10, 0, 0, 0);
-                """,
-                        (int)(backgroundColor.getRed() * 255),
-                        (int)(backgroundColor.getGreen() * 255),
-                        (int)(backgroundColor.getBlue() * 255))));
-
+        button.getStyleClass().addAll("calc-button", styleClass);
         return button;
     }
 
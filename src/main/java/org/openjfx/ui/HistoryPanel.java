@@ -0,0 +1,162 @@
+package org.openjfx.ui;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.history.HistoryEntry;
+import org.openjfx.history.HistoryStore;
+import org.openjfx.history.HistoryView;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Newest-first pages of the calculation history, filtered by operation and period.
+ * Only the page on screen is ever read from the {@link HistoryStore}. Searches run on a background thread,
+ * as they wait for the store to finish indexing.
+ */
+public class HistoryPanel {
+    private static final int PAGE_SIZE = 50;
+    private static final Keystroke[] OPERATIONS = {null, Keystroke.PLUS, Keystroke.MINUS, Keystroke.MULTIPLY,
+            Keystroke.DIVIDE, Keystroke.SQUARE, Keystroke.SQUARE_ROOT, Keystroke.RECIPROCAL};
+    private static final String[] PERIODS = {"All time", "Last hour", "Last 24 hours", "Last 7 days"};
+    private static final Duration[] PERIOD_LENGTHS = {null, Duration.ofHours(1), Duration.ofDays(1), Duration.ofDays(7)};
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("MMM d HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final Logger logger = LogManager.getLogger();
+    private final HistoryStore store;
+    private final VBox root;
+    private final ListView<HistoryEntry> listView = new ListView<>();
+    private final ComboBox<Keystroke> operationFilter = new ComboBox<>(FXCollections.observableArrayList(OPERATIONS));
+    private final ComboBox<String> periodFilter = new ComboBox<>(FXCollections.observableArrayList(PERIODS));
+    private final Label pageLabel = new Label();
+    private final Button newerButton = new Button("‹");
+    private final Button olderButton = new Button("›");
+    private HistoryView view;
+    private long page;
+    private long searches;
+
+    public HistoryPanel(HistoryStore store) {
+        this.store = store;
+        operationFilter.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Keystroke operation) {
+                return operation == null ? "All" : operation.symbol();
+            }
+
+            @Override
+            public Keystroke fromString(String text) {
+                return null;
+            }
+        });
+        operationFilter.getSelectionModel().select(0);
+        periodFilter.getSelectionModel().select(0);
+        operationFilter.setOnAction(e -> refresh());
+        periodFilter.setOnAction(e -> refresh());
+        newerButton.setOnAction(e -> showPage(page - 1));
+        olderButton.setOnAction(e -> showPage(page + 1));
+
+        listView.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(HistoryEntry entry, boolean empty) {
+                super.updateItem(entry, empty);
+                setText(empty || entry == null ? null
+                        : TIME_FORMAT.format(Instant.ofEpochMilli(entry.getTimeMillis())) + "   " + entry.getExpression());
+            }
+        });
+        VBox.setVgrow(listView, Priority.ALWAYS);
+        pageLabel.getStyleClass().add("page-label");
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox filters = new HBox(8, operationFilter, periodFilter);
+        HBox pager = new HBox(8, newerButton, spacer, pageLabel, olderButton);
+        pager.setAlignment(Pos.CENTER);
+        root = new VBox(8, filters, listView, pager);
+        root.setPadding(new Insets(10));
+        // Styled by the calculator stylesheet
+        root.getStyleClass().add("history");
+    }
+
+    public VBox getRoot() {
+        return root;
+    }
+
+    /**
+     * Re-runs the search, picking up entries recorded since, and shows the newest page once it returns.
+     */
+    public void refresh() {
+        Duration period = PERIOD_LENGTHS[periodFilter.getSelectionModel().getSelectedIndex()];
+        long from = period == null ? Long.MIN_VALUE : System.currentTimeMillis() - period.toMillis();
+        Keystroke operation = operationFilter.getValue();
+        // Only the latest search is shown when the filters change again before an earlier one returns
+        long search = ++searches;
+        if (!store.isIndexed()) {
+            listView.getItems().clear();
+            pageLabel.setText("Indexing…");
+            newerButton.setDisable(true);
+            olderButton.setDisable(true);
+        }
+        Thread thread = new Thread(() -> {
+            HistoryView found;
+            try {
+                found = store.search(operation, from, Long.MAX_VALUE);
+            } catch (IOException e) {
+                logger.error("Could not search calculation history", e);
+                found = null;
+            }
+            HistoryView result = found;
+            Platform.runLater(() -> {
+                if (search == searches) {
+                    view = result;
+                    showPage(0);
+                }
+            });
+        }, "history-search");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void showPage(long page) {
+        long size = view == null ? 0 : view.size();
+        long pages = Math.max(1, (size + PAGE_SIZE - 1) / PAGE_SIZE);
+        this.page = Math.max(0, Math.min(page, pages - 1));
+        long end = size - this.page * PAGE_SIZE;
+        long start = Math.max(0, end - PAGE_SIZE);
+        List<HistoryEntry> entries = new ArrayList<>();
+        if (end > start) {
+            try {
+                entries.addAll(view.page(start, (int) (end - start)));
+            } catch (IOException e) {
+                logger.error("Could not read calculation history", e);
+            }
+        }
+        Collections.reverse(entries);
+        listView.getItems().setAll(entries);
+        pageLabel.setText(size == 0 ? "No calculations"
+                : String.format("%,d–%,d of %,d", this.page * PAGE_SIZE + 1, this.page * PAGE_SIZE + end - start, size));
+        newerButton.setDisable(this.page == 0);
+        olderButton.setDisable(this.page >= pages - 1);
+    }
+}
@@ -0,0 +1,200 @@
+package org.openjfx.batch;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.model.DisplayMath;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColumnEvaluatorTest {
+    private static final int[] SIZES = {0, 1, 7, 1_000};
+    private static final int PADDING = 3;
+
+    @Test
+    void binaryColumnsMatchOperationApply() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            double[] left = randomColumn(random, size);
+            double[] right = randomColumn(random, size);
+            double scalar = random.nextDouble() - 0.5;
+            for (Operation operation : Operation.values()) {
+                String description = operation + " of " + size;
+                double[] out = new double[size];
+                ColumnEvaluator.apply(operation, left, right, out);
+                for (int i = 0; i < size; i++) {
+                    assertBitsEqual(operation.apply(left[i], right[i]), out[i], description);
+                }
+                ColumnEvaluator.apply(operation, left, scalar, out);
+                for (int i = 0; i < size; i++) {
+                    assertBitsEqual(operation.apply(left[i], scalar), out[i], description + " by a scalar");
+                }
+                ColumnEvaluator.apply(operation, scalar, right, out, 0, size);
+                for (int i = 0; i < size; i++) {
+                    assertBitsEqual(operation.apply(scalar, right[i]), out[i], description + " of a scalar");
+                }
+            }
+        }
+    }
+
+    @Test
+    void unaryColumnsMatchUnaryOperationApply() {
+        for (int size : SIZES) {
+            double[] values = randomColumn(new Random(size), size);
+            double[] out = new double[size];
+            for (UnaryOperation operation : UnaryOperation.values()) {
+                ColumnEvaluator.apply(operation, values, out);
+                for (int i = 0; i < size; i++) {
+                    assertBitsEqual(operation.apply(values[i]), out[i], operation + " of " + size);
+                }
+            }
+            ColumnEvaluator.roundToDisplay(values, out);
+            for (int i = 0; i < size; i++) {
+                assertBitsEqual(DisplayMath.roundToDisplay(values[i]), out[i], "rounding " + size);
+            }
+        }
+    }
+
+    @Test
+    void rangesLeaveTheRestOfTheColumnAlone() {
+        double[] left = randomColumn(new Random(1), 20);
+        double[] right = randomColumn(new Random(2), 20);
+        for (Operation operation : Operation.values()) {
+            double[] out = new double[20];
+            ColumnEvaluator.apply(operation, left, right, out, 5, 12);
+            ColumnEvaluator.apply(operation, left, 2.5, out, 14, 16);
+            ColumnEvaluator.apply(operation, -1.5, right, out, 18, 19);
+            for (int i = 0; i < out.length; i++) {
+                double expected = i >= 5 && i < 12 ? operation.apply(left[i], right[i])
+                        : i >= 14 && i < 16 ? operation.apply(left[i], 2.5)
+                        : i == 18 ? operation.apply(-1.5, right[i]) : 0;
+                assertBitsEqual(expected, out[i], operation + " at " + i);
+            }
+        }
+        for (UnaryOperation operation : UnaryOperation.values()) {
+            double[] out = new double[20];
+            ColumnEvaluator.apply(operation, left, out, 3, 9);
+            for (int i = 0; i < out.length; i++) {
+                assertBitsEqual(i >= 3 && i < 9 ? operation.apply(left[i]) : 0, out[i], operation + " at " + i);
+            }
+        }
+    }
+
+    @Test
+    void buffersMatchArraysWhereverTheyLive() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            double[] left = randomColumn(random, size);
+            double[] right = randomColumn(random, size);
+            for (Kind kind : Kind.values()) {
+                String description = kind + " buffers of " + size;
+                for (Operation operation : Operation.values()) {
+                    DoubleBuffer out = kind.output(size);
+                    ColumnEvaluator.apply(operation, kind.input(left), kind.input(right), out);
+                    assertEquals(kind.position(), out.position(), description);
+                    for (int i = 0; i < size; i++) {
+                        assertBitsEqual(operation.apply(left[i], right[i]), out.get(out.position() + i),
+                                operation + " on " + description);
+                    }
+                }
+                for (UnaryOperation operation : UnaryOperation.values()) {
+                    DoubleBuffer values = kind.input(left);
+                    DoubleBuffer out = kind.output(size);
+                    ColumnEvaluator.apply(operation, values, out);
+                    assertEquals(kind.position(), values.position(), description);
+                    assertEquals(kind.position(), out.position(), description);
+                    for (int i = 0; i < size; i++) {
+                        assertBitsEqual(operation.apply(left[i]), out.get(out.position() + i),
+                                operation + " on " + description);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shortColumnsAreRejected() {
+        double[] column = new double[10];
+        double[] shorter = new double[9];
+        assertThrows(IllegalArgumentException.class, () -> ColumnEvaluator.apply(Operation.PLUS, column, shorter, column));
+        assertThrows(IllegalArgumentException.class, () -> ColumnEvaluator.apply(Operation.PLUS, column, column, shorter));
+        assertThrows(IllegalArgumentException.class, () -> ColumnEvaluator.apply(Operation.PLUS, column, 1, shorter));
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnEvaluator.apply(UnaryOperation.NEGATE, column, shorter));
+        assertThrows(IllegalArgumentException.class, () -> ColumnEvaluator.roundToDisplay(column, shorter));
+        assertThrows(IllegalArgumentException.class, () -> ColumnEvaluator.apply(Operation.MINUS,
+                DoubleBuffer.wrap(column), DoubleBuffer.wrap(shorter), DoubleBuffer.allocate(10)));
+        assertThrows(IllegalArgumentException.class, () -> ColumnEvaluator.apply(Operation.MINUS,
+                DoubleBuffer.wrap(column), DoubleBuffer.wrap(column), directBuffer(9)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnEvaluator.apply(UnaryOperation.SQUARE, directBuffer(10), DoubleBuffer.allocate(9)));
+        // Longer outputs and right-hand columns are fine; only the left length counts
+        double[] out = new double[11];
+        ColumnEvaluator.apply(Operation.PLUS, shorter, column, out);
+        assertEquals(0, out[10]);
+    }
+
+    // Operands of every magnitude, with zeros and negatives that send some results to infinity and NaN
+    private static double[] randomColumn(Random random, int size) {
+        double[] column = new double[size];
+        for (int i = 0; i < size; i++) {
+            column[i] = random.nextInt(10) == 0 ? (random.nextBoolean() ? 0.0 : -0.0)
+                    : (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(40) - 20);
+        }
+        return column;
+    }
+
+    private static DoubleBuffer directBuffer(int size) {
+        return ByteBuffer.allocateDirect(size * Double.BYTES).asDoubleBuffer();
+    }
+
+    private static void assertBitsEqual(double expected, double actual, String description) {
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual), description);
+    }
+
+    private enum Kind {
+        // Backed by arrays from index 0, so the array path
+        HEAP,
+        // The buffer path
+        DIRECT,
+        // Backed by arrays, but starting part way in, as after a slice or a read
+        HEAP_AT_POSITION,
+        SLICED,
+        // Without an accessible array
+        READ_ONLY;
+
+        int position() {
+            return this == HEAP_AT_POSITION ? PADDING : 0;
+        }
+
+        DoubleBuffer input(double[] values) {
+            return switch (this) {
+                case HEAP -> DoubleBuffer.wrap(values.clone());
+                case DIRECT -> directBuffer(values.length).put(values).flip();
+                case HEAP_AT_POSITION -> padded(values).position(PADDING);
+                case SLICED -> padded(values).position(PADDING).slice();
+                case READ_ONLY -> DoubleBuffer.wrap(values.clone()).asReadOnlyBuffer();
+            };
+        }
+
+        DoubleBuffer output(int size) {
+            return switch (this) {
+                case HEAP, READ_ONLY -> DoubleBuffer.allocate(size);
+                case DIRECT -> directBuffer(size);
+                case HEAP_AT_POSITION -> DoubleBuffer.allocate(size + PADDING).position(PADDING);
+                case SLICED -> DoubleBuffer.allocate(size + PADDING).position(PADDING).slice();
+            };
+        }
+
+        private static DoubleBuffer padded(double[] values) {
+            double[] padded = new double[values.length + PADDING];
+            System.arraycopy(values, 0, padded, PADDING, values.length);
+            return DoubleBuffer.wrap(padded);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.openjfx.batch;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.expression.CompiledExpression;
+import org.openjfx.expression.ExpressionParser;
+import org.openjfx.macro.CompiledMacro;
+import org.openjfx.macro.Macro;
+import org.openjfx.macro.MacroCompiler;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelBatchEvaluatorTest {
+    private static final int CHUNK_SIZE = 64;
+    // Everything up to the macro keys, which need macros set
+    private static final Keystroke[] KEYS = Arrays.copyOf(Keystroke.values(), Keystroke.MACRO_1.ordinal());
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void start() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stop() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void columnsMatchSequentialEvaluation() throws ParseException {
+        CompiledMacro macro = new MacroCompiler().compile(Macro.parse("tax", "× 1.0825 = + 3 ="));
+        for (ParallelBatchEvaluator evaluator : evaluators()) {
+            for (int size : sizes(evaluator)) {
+                Random random = new Random(size);
+                double[] left = randomColumn(random, size);
+                double[] right = randomColumn(random, size);
+                String description = "size " + size + ", chunks of " + evaluator.getChunkSize();
+                for (Operation operation : Operation.values()) {
+                    double[] expected = new double[size];
+                    ColumnEvaluator.apply(operation, left, right, expected);
+                    double[] actual = new double[size];
+                    evaluator.apply(operation, left, right, actual);
+                    assertBitsEqual(expected, actual, description + " " + operation);
+                }
+                for (UnaryOperation operation : UnaryOperation.values()) {
+                    double[] expected = new double[size];
+                    ColumnEvaluator.apply(operation, left, expected);
+                    double[] actual = new double[size];
+                    evaluator.apply(operation, left, actual);
+                    assertBitsEqual(expected, actual, description + " " + operation);
+                }
+                double[] expected = new double[size];
+                macro.applyAll(left, expected);
+                double[] actual = new double[size];
+                evaluator.apply(macro, left, actual);
+                assertBitsEqual(expected, actual, description + " macro");
+            }
+        }
+    }
+
+    @Test
+    void tapesMatchSequentialReplay() {
+        for (ParallelBatchEvaluator evaluator : evaluators()) {
+            for (int size : sizes(evaluator)) {
+                Random random = new Random(size);
+                int[] offsets = new int[size + 1];
+                byte[] codes = new byte[size * 12];
+                for (int i = 0; i < size; i++) {
+                    int length = random.nextInt(12);
+                    for (int k = 0; k < length; k++) {
+                        codes[offsets[i] + k] = KEYS[random.nextInt(KEYS.length)].code();
+                    }
+                    offsets[i + 1] = offsets[i] + length;
+                }
+                double[] expected = new double[size];
+                new BatchEvaluator().evaluateTapes(codes, offsets, expected);
+                double[] actual = new double[size];
+                evaluator.evaluateTapes(codes, offsets, actual);
+                assertBitsEqual(expected, actual, "size " + size + ", chunks of " + evaluator.getChunkSize());
+            }
+        }
+    }
+
+    @Test
+    void expressionRowsMatchSequentialEvaluation() throws ParseException {
+        ExpressionParser parser = new ExpressionParser();
+        CompiledExpression expression = parser.parse("a * b - √c / (a + 1)");
+        for (ParallelBatchEvaluator evaluator : evaluators()) {
+            for (int size : sizes(evaluator)) {
+                Random random = new Random(size);
+                double[][] columns = {randomColumn(random, size), randomColumn(random, size),
+                        randomColumn(random, size)};
+                double[] expected = new double[size];
+                for (int row = 0; row < size; row++) {
+                    expected[row] = expression.evaluate(columns[0][row], columns[1][row], columns[2][row]);
+                }
+                double[] actual = new double[size];
+                evaluator.evaluate(expression, columns, actual);
+                String description = "size " + size + ", chunks of " + evaluator.getChunkSize();
+                assertBitsEqual(expected, actual, description);
+
+                List<CompiledExpression> expressions = new ArrayList<>();
+                double[] variables = {random.nextDouble(), random.nextDouble(), random.nextDouble()};
+                double[] each = new double[size];
+                for (int i = 0; i < size; i++) {
+                    CompiledExpression row = parser.parse("a * " + i + " - b / " + (i + 1) + " + c",
+                            List.of("a", "b", "c"));
+                    expressions.add(row);
+                    each[i] = row.evaluate(variables);
+                }
+                double[] results = new double[size];
+                evaluator.evaluate(expressions, variables, results);
+                assertBitsEqual(each, results, description + " expressions");
+            }
+        }
+    }
+
+    @Test
+    void mismatchedLengthsAreRejected() throws ParseException {
+        ParallelBatchEvaluator evaluator = new ParallelBatchEvaluator(pool, CHUNK_SIZE);
+        double[] column = new double[100];
+        double[] shorter = new double[99];
+        assertThrows(IllegalArgumentException.class, () -> evaluator.apply(Operation.PLUS, column, shorter, column));
+        assertThrows(IllegalArgumentException.class, () -> evaluator.apply(Operation.PLUS, column, column, shorter));
+        assertThrows(IllegalArgumentException.class, () -> evaluator.apply(UnaryOperation.SQUARE, column, shorter));
+        assertThrows(IllegalArgumentException.class,
+                () -> evaluator.evaluateTapes(new byte[0], new int[101], shorter));
+        CompiledExpression expression = new ExpressionParser().parse("a + b");
+        assertThrows(IllegalArgumentException.class,
+                () -> evaluator.evaluate(expression, new double[][]{column, shorter}, column));
+        assertThrows(IllegalArgumentException.class,
+                () -> evaluator.evaluate(expression, new double[][]{column}, column));
+        assertThrows(IllegalArgumentException.class,
+                () -> evaluator.evaluate(List.of(expression, expression), new double[2], new double[1]));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBatchEvaluator(pool, 0));
+    }
+
+    private static List<ParallelBatchEvaluator> evaluators() {
+        return List.of(new ParallelBatchEvaluator(pool, CHUNK_SIZE), new ParallelBatchEvaluator(pool, 1));
+    }
+
+    private static int[] sizes(ParallelBatchEvaluator evaluator) {
+        int chunkSize = evaluator.getChunkSize();
+        return new int[]{0, 1, chunkSize - 1, chunkSize, chunkSize + 1, 10_007};
+    }
+
+    // Operands of every magnitude, with zeros and negatives that send some results to infinity and NaN
+    private static double[] randomColumn(Random random, int size) {
+        double[] column = new double[size];
+        for (int i = 0; i < size; i++) {
+            column[i] = random.nextInt(10) == 0 ? 0 : (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(20) - 10);
+        }
+        return column;
+    }
+
+    private static void assertBitsEqual(double[] expected, double[] actual, String description) {
+        assertEquals(expected.length, actual.length, description);
+        long[] expectedBits = new long[expected.length];
+        long[] actualBits = new long[actual.length];
+        for (int i = 0; i < expected.length; i++) {
+            expectedBits[i] = Double.doubleToRawLongBits(expected[i]);
+            actualBits[i] = Double.doubleToRawLongBits(actual[i]);
+        }
+        assertArrayEquals(expectedBits, actualBits, description);
+    }
+}
@@ -0,0 +1,135 @@
+package org.openjfx.conversion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjfx.enums.Dimension;
+import org.openjfx.enums.Unit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConversionTableTest {
+    private static final List<String> RATES = List.of(
+            "# EUR links to JPY through USD, and to GBP directly",
+            "EUR USD 1.1",
+            "USD JPY 150",
+            "GBP EUR 1.2",
+            "",
+            "CHF CAD 1.5");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void chainedRatesAreClosed() throws ParseException {
+        ConversionTable table = ConversionTable.parse(RATES, "rates");
+        assertEquals(List.of("CAD", "CHF", "EUR", "GBP", "JPY", "USD"), table.symbols(Dimension.CURRENCY));
+        assertEquals(1.1, table.convert(1, "EUR", "USD"));
+        assertEquals(1 / 1.1, table.convert(1, "USD", "EUR"));
+        assertRate(1.1 * 150, table.convert(1, "EUR", "JPY"));
+        assertRate(1.2 * 1.1 * 150, table.convert(1, "GBP", "JPY"));
+        assertRate(1 / (1.2 * 1.1 * 150), table.convert(1, "JPY", "GBP"));
+        assertRate(240, table.convert(200, "GBP", "EUR"));
+        assertRate(2 / 1.5, table.convert(2, "CAD", "CHF"));
+        assertEquals(7, table.convert(7, "JPY", "JPY"));
+    }
+
+    @Test
+    void shortestChainsAndWrittenRatesWin() throws ParseException {
+        List<String> lines = List.of("EUR USD 1.1", "USD CHF 0.9", "CHF JPY 160", "EUR GBP 0.85", "GBP JPY 190",
+                "EUR USD 1.25");
+        ConversionTable table = ConversionTable.parse(lines, "rates");
+        // Two steps through GBP, not three through USD and CHF
+        assertRate(0.85 * 190, table.convert(1, "EUR", "JPY"));
+        assertRate(1 / (190 * 0.85), table.convert(1, "JPY", "EUR"));
+        assertRate(0.9 * 160, table.convert(1, "USD", "JPY"));
+        // The last rate written for a pair is used as written; the reverse comes from the first edge found
+        assertEquals(1.25, table.convert(1, "EUR", "USD"));
+        assertRate(1 / 1.1, table.convert(1, "USD", "EUR"));
+    }
+
+    @Test
+    void unlinkedCurrenciesDoNotConvert() throws ParseException {
+        ConversionTable table = ConversionTable.parse(RATES, "rates");
+        int euro = table.indexOf("EUR");
+        int franc = table.indexOf("CHF");
+        assertFalse(table.isConvertible(euro, franc));
+        assertTrue(table.isConvertible(table.indexOf("CAD"), franc));
+        assertTrue(Double.isNaN(table.convert(1, "EUR", "CHF")));
+        assertTrue(Double.isNaN(table.convert(1, "CAD", "JPY")));
+        double[] out = new double[3];
+        table.convertAll(franc, euro, new double[]{1, 2, 3}, out);
+        assertTrue(Double.isNaN(out[0]) && Double.isNaN(out[2]));
+        assertEquals(-1, table.indexOf("SEK"));
+        assertThrows(IllegalArgumentException.class, () -> table.convert(1, "EUR", "SEK"));
+        assertThrows(IllegalArgumentException.class, () -> table.convert(1, "EUR", "km"));
+    }
+
+    @Test
+    void temperaturesHaveOffsets() {
+        ConversionTable table = ConversionTable.unitsOnly();
+        assertEquals(212, table.convert(100, "°C", "°F"), 1e-12);
+        assertEquals(0, table.convert(32, "F", "C"), 1e-12);
+        assertEquals(-40, table.convert(-40, "C", "F"), 1e-12);
+        assertEquals(-273.15, table.convert(0, "K", "°C"), 1e-12);
+        assertEquals(273.15, table.convert(32, "°F", "K"), 1e-12);
+        assertEquals(-459.67, table.convert(0, "K", "°F"), 1e-12);
+        double[] celsius = {-273.15, -40, 0, 36.6, 100, 1e6};
+        double[] fahrenheit = new double[celsius.length];
+        int from = table.indexOf("°C");
+        int to = table.indexOf("°F");
+        table.convertAll(from, to, celsius, fahrenheit);
+        for (int i = 0; i < celsius.length; i++) {
+            assertEquals(table.convert(celsius[i], from, to), fahrenheit[i]);
+            assertEquals(celsius[i], table.convert(fahrenheit[i], to, from),
+                    1e-9 * Math.max(1, Math.abs(celsius[i])));
+        }
+        // Other dimensions scale without an offset
+        assertEquals(0, table.convert(0, "mi", "km"));
+        assertEquals(1.609344, table.convert(1, "mi", "km"), 1e-15);
+    }
+
+    @Test
+    void malformedRatesAreRejected() {
+        String[] lines = {"EUR USD 0", "EUR EUR 1", "EUR USD x", "EURO USD 1", "eur USD 1", "EUR USD",
+                "EUR USD Infinity", "EUR USD NaN", "EUR USD -2"};
+        for (String line : lines) {
+            ParseException e = assertThrows(ParseException.class,
+                    () -> ConversionTable.parse(List.of("# rates", "GBP EUR 1.2", line), "rates"), line);
+            assertEquals(3, e.getErrorOffset(), line);
+        }
+    }
+
+    @Test
+    void missingFilesHaveNoCurrencies() throws IOException, ParseException {
+        ConversionTable table = ConversionTable.read(directory.resolve("rates.txt"));
+        assertEquals(Unit.values().length, table.size());
+        assertTrue(table.symbols(Dimension.CURRENCY).isEmpty());
+    }
+
+    @Test
+    void watchingCreatesTheDirectory() throws IOException, ParseException, InterruptedException {
+        Path rates = directory.resolve("missing").resolve("rates.txt");
+        try (UnitConverter converter = new UnitConverter(rates)) {
+            converter.watch();
+            assertTrue(Files.isDirectory(rates.getParent()));
+            Files.write(rates, RATES);
+            for (int i = 0; i < 500 && converter.getTable().indexOf("EUR") < 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1.1, converter.convert(1, "EUR", "USD"));
+        }
+    }
+
+    private static void assertRate(double expected, double actual) {
+        assertEquals(expected, actual, Math.abs(expected) * 1e-12);
+    }
+}
@@ -0,0 +1,141 @@
+package org.openjfx.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpressionParserTest {
+    private final ExpressionParser parser = new ExpressionParser();
+
+    @Test
+    void productsBindTighterThanSums() throws ParseException {
+        assertValue(7, "1 + 2 * 3");
+        assertValue(9, "(1 + 2) * 3");
+        assertValue(26, "2 * 3 + 4 * 5");
+        assertValue(8, "10 - 4 / 2");
+        assertValue(3, "10 - 4 - 6 / 2");
+        assertValue(14, "2 × (3 + 4) ÷ 1");
+        assertValue(-6.5, "1.5 - 2 * (3 + 1)");
+    }
+
+    @Test
+    void operatorsAssociateToTheLeft() throws ParseException {
+        assertValue(-4, "1-2-3");
+        assertValue(1, "8/4/2");
+        assertValue(2, "1-2+3");
+        assertValue(1.5, "2*3/4");
+        assertValue(6, "12/2*1");
+        // The same with variables, which are not folded while compiling
+        assertValue(-4, "a-b-c", 1, 2, 3);
+        assertValue(1, "a/b/c", 8, 4, 2);
+        assertValue(2, "a-b+c", 1, 2, 3);
+        assertValue(0.75, "a/b*c", 1, 4, 3);
+    }
+
+    @Test
+    void prefixOperatorsBindTighterThanProductsAndLooserThanSquares() throws ParseException {
+        assertValue(-9, "-3²");
+        assertValue(9, "(-3)²");
+        assertValue(3, "--3");
+        assertValue(-6, "2*-3");
+        assertValue(5, "2 - -3");
+        assertValue(-5, "-(2 + 3)");
+        assertValue(5, "+5");
+        assertValue(-1, "-4 + 3");
+        assertValue(4, "√16");
+        assertValue(5, "√x²", -5);
+        assertValue(-12, "-x * 3", 4);
+        assertValue(81, "x²²", 3);
+    }
+
+    @Test
+    void functionsApplyToTheirParentheses() throws ParseException {
+        assertValue(3.25, "sqrt(9) + recip(4)");
+        assertValue(-2, "neg(2)");
+        assertValue(25, "square(2 + 3)");
+        assertValue(0.5, "1 / sqr(x) * 2", 2);
+        // Without parentheses a function name is a variable
+        CompiledExpression expression = parser.parse("sqrt + 1");
+        assertEquals(List.of("sqrt"), expression.getVariableNames());
+        assertEquals(3, expression.evaluate(2));
+    }
+
+    @Test
+    void variablesAreNumberedInOrderOfAppearance() throws ParseException {
+        CompiledExpression expression = parser.parse("price * qty + price");
+        assertEquals(List.of("price", "qty"), expression.getVariableNames());
+        assertEquals(2.5 * 4 + 2.5, expression.evaluate(2.5, 4));
+        CompiledExpression bound = parser.parse("b - a", List.of("a", "b"));
+        assertEquals(List.of("a", "b"), bound.getVariableNames());
+        assertEquals(1, bound.variableIndex("b"));
+        assertEquals(7, bound.evaluate(3, 10));
+        assertEquals(7, bound.evaluate(new double[]{3, 10}, bound.newStack()));
+        assertThrows(IllegalArgumentException.class, () -> bound.evaluate(3));
+    }
+
+    @Test
+    void constantSubExpressionsAreFolded() throws ParseException {
+        assertCompiled("10.0", 10, "2 * 3 + 4");
+        assertCompiled("-9.0", -9, "-3²");
+        assertCompiled("3.5", 3.5, "sqrt(9) + 1/2");
+        assertCompiled("x 5.0 MULTIPLY", 15, "x * (2 + 3)", 3);
+        assertCompiled("4.0 x MULTIPLY", 12, "sqrt(16) * x", 3);
+        assertCompiled("x 2.0 MINUS", 1, "x - (5 - 3)", 3);
+        // Left to right: x * 2 is not constant, so neither is multiplying it by 3
+        assertCompiled("x 2.0 MULTIPLY 3.0 MULTIPLY", 18, "x * 2 * 3", 3);
+        assertCompiled("6.0 x MULTIPLY", 18, "2 * 3 * x", 3);
+        assertCompiled("x NEGATE 1.0 PLUS", -2, "-x + 1", 3);
+    }
+
+    @Test
+    void nestingIsLimited() throws ParseException {
+        // The whole expression is one level, and every parenthesis or prefix operator one more
+        int deepest = ExpressionParser.MAX_NESTING - 1;
+        assertValue(1, "(".repeat(deepest) + "1" + ")".repeat(deepest));
+        assertValue(deepest % 2 == 0 ? 1 : -1, "-".repeat(deepest) + "1");
+        assertValue(1, "√".repeat(deepest) + "1");
+        for (String expression : new String[]{
+                "(".repeat(deepest + 1) + "1" + ")".repeat(deepest + 1),
+                "-".repeat(deepest + 1) + "1",
+                "(".repeat(100_000) + "1" + ")".repeat(100_000),
+                "-".repeat(100_000) + "x"}) {
+            ParseException e = assertThrows(ParseException.class, () -> parser.parse(expression));
+            assertTrue(e.getMessage().startsWith("Nested deeper than " + ExpressionParser.MAX_NESTING),
+                    e::getMessage);
+        }
+    }
+
+    @Test
+    void malformedExpressionsAreRejectedWithTheirPosition() {
+        assertError(3, "1 +");
+        assertError(2, "(1");
+        assertError(2, "1 2");
+        assertError(2, "1 $");
+        assertError(0, "1..2");
+        assertError(0, "");
+        assertError(4, "2 * )");
+        assertError(7, "sqrt(2 ");
+    }
+
+    private void assertValue(double expected, String expression, double... variables) throws ParseException {
+        assertEquals(expected, parser.parse(expression).evaluate(variables), expression);
+    }
+
+    private void assertCompiled(String listing, double expected, String expression, double... variables)
+            throws ParseException {
+        CompiledExpression compiled = parser.parse(expression);
+        assertEquals(listing, compiled.toString(), expression);
+        assertEquals(listing.split(" ").length, compiled.size(), expression);
+        assertEquals(expected, compiled.evaluate(variables), expression);
+    }
+
+    private void assertError(int offset, String expression) {
+        assertEquals(offset, assertThrows(ParseException.class, () -> parser.parse(expression)).getErrorOffset(),
+                expression);
+    }
+}
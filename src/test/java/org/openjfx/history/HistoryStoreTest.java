@@ -0,0 +1,191 @@
+package org.openjfx.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjfx.enums.Keystroke;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryStoreTest {
+    private static final Keystroke[] OPERATIONS = {Keystroke.PLUS, Keystroke.MINUS, Keystroke.SQUARE_ROOT};
+    private static final int TIME_BLOCK = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void timeRangesAcrossBlocksMatchAScan() throws IOException {
+        // Several entries per millisecond, runs of equal times across the block boundaries at 64 and 128, and a gap
+        long[] times = new long[3 * TIME_BLOCK + 17];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = 1_000 + i / 5 + (i >= 2 * TIME_BLOCK ? 40 : 0);
+        }
+        Path file = directory.resolve("history.bin");
+        write(file, times, 0);
+        try (HistoryStore store = new HistoryStore(file)) {
+            assertEquals(times.length, store.size());
+            long last = times[times.length - 1];
+            for (long from = 995; from <= last + 2; from++) {
+                for (long to = from - 1; to <= last + 2; to += 3) {
+                    assertSearch(store, times, null, from, to);
+                    for (Keystroke operation : OPERATIONS) {
+                        assertSearch(store, times, operation, from, to);
+                    }
+                }
+            }
+            assertEquals(0, store.search(Keystroke.MULTIPLY, 0, Long.MAX_VALUE).size());
+        }
+    }
+
+    @Test
+    void operationViewsPageThroughTheirEntries() throws IOException {
+        long[] times = new long[1_000];
+        Arrays.fill(times, 5_000);
+        Path file = directory.resolve("history.bin");
+        write(file, times, 0);
+        try (HistoryStore store = new HistoryStore(file)) {
+            HistoryView view = store.search(Keystroke.MINUS, 5_000, 5_001);
+            assertEquals(333, view.size());
+            List<HistoryEntry> entries = new ArrayList<>();
+            for (long from = 0; from < view.size(); from += 50) {
+                entries.addAll(view.page(from, 50));
+            }
+            assertEquals(333, entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                HistoryEntry entry = entries.get(i);
+                assertEquals(3 * i + 1, entry.getIndex());
+                assertEquals(Keystroke.MINUS, entry.getOperation());
+                assertEquals(3 * i + 1, entry.getLeft());
+                assertEquals(3 * i + 1, entry.getRight());
+                assertEquals(0, entry.getResult());
+            }
+            assertEquals(List.of(), view.page(333, 10));
+            assertThrows(IndexOutOfBoundsException.class, () -> view.page(334, 1));
+        }
+    }
+
+    @Test
+    void appendsDuringIndexingAreIndexed() throws IOException {
+        long[] times = new long[200_000];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = 1_000 + i;
+        }
+        Path file = directory.resolve("history.bin");
+        write(file, times, 0);
+        int appended = 0;
+        try (HistoryStore store = new HistoryStore(file)) {
+            // Starts while the scan is running, and goes on until it has caught up with the appends
+            do {
+                store.append(OPERATIONS[(times.length + appended) % 3], appended, 1, appended + 1);
+                appended++;
+            } while (!store.isIndexed() || appended < 100);
+            long total = times.length + appended;
+            assertEquals(total, store.size());
+            assertEquals(total, store.search(null, 0, Long.MAX_VALUE).size());
+            assertEquals(appended, store.search(null, 1_000 + times.length, Long.MAX_VALUE).size());
+            for (int o = 0; o < OPERATIONS.length; o++) {
+                HistoryView view = store.search(OPERATIONS[o], 0, Long.MAX_VALUE);
+                assertEquals((total - o + 2) / 3, view.size());
+                List<HistoryEntry> entries = view.page(view.size() - 2, 2);
+                assertEquals(OPERATIONS[o], entries.get(1).getOperation());
+                assertEquals(3, entries.get(1).getIndex() - entries.get(0).getIndex());
+            }
+            List<HistoryEntry> tail = store.all().page(times.length, appended);
+            for (int i = 0; i < appended; i++) {
+                assertEquals(times.length + i, tail.get(i).getIndex());
+                assertEquals(i + 1, tail.get(i).getResult());
+            }
+        }
+    }
+
+    @Test
+    void tornTrailingEntryIsOverwritten() throws IOException {
+        long[] times = {100, 100, 101, 102, 102, 102, 103};
+        Path file = directory.resolve("history.bin");
+        write(file, times, 13);
+        try (HistoryStore store = new HistoryStore(file)) {
+            assertEquals(times.length, store.size());
+            store.append(Keystroke.DIVIDE, 9, 3, 3);
+            assertEquals(times.length + 1, store.size());
+            assertEquals((times.length + 1L) * HistoryStore.ENTRY_SIZE, Files.size(file));
+            HistoryEntry entry = store.search(Keystroke.DIVIDE, 0, Long.MAX_VALUE).page(0, 1).get(0);
+            assertEquals(times.length, entry.getIndex());
+            assertEquals(9, entry.getLeft());
+            assertEquals(3, entry.getRight());
+            assertTrue(entry.getTimeMillis() >= 103);
+        }
+        try (HistoryStore store = new HistoryStore(file)) {
+            assertEquals(times.length + 1, store.size());
+            assertEquals(1, store.search(Keystroke.DIVIDE, 0, Long.MAX_VALUE).size());
+            assertEquals(3, store.search(null, 102, 103).size());
+        }
+    }
+
+    @Test
+    void closeStopsIndexing() throws IOException {
+        Path file = directory.resolve("history.bin");
+        write(file, new long[500_000], 0);
+        HistoryStore store = new HistoryStore(file);
+        store.close();
+        // Stopped rather than left to fail on the closed file
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                .noneMatch(thread -> thread.getName().equals("history-indexer")));
+        assertThrows(ClosedChannelException.class, () -> store.search(null, 0, 1));
+    }
+
+    /**
+     * Checks a search against a scan of the entries {@link #write} wrote, paging through the result.
+     */
+    private static void assertSearch(HistoryStore store, long[] times, Keystroke operation, long from, long to)
+            throws IOException {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < times.length; i++) {
+            if (times[i] >= from && times[i] < to && (operation == null || OPERATIONS[i % 3] == operation)) {
+                expected.add((long) i);
+            }
+        }
+        HistoryView view = store.search(operation, from, to);
+        String description = operation + " in [" + from + ", " + to + ")";
+        assertEquals(expected.size(), view.size(), description);
+        List<Long> found = new ArrayList<>();
+        for (long page = 0; page < view.size(); page += 7) {
+            for (HistoryEntry entry : view.page(page, 7)) {
+                found.add(entry.getIndex());
+                assertEquals(times[(int) entry.getIndex()], entry.getTimeMillis(), description);
+            }
+        }
+        assertEquals(expected, found, description);
+    }
+
+    /**
+     * Writes entry i at {@code times[i]}, cycling through {@link #OPERATIONS} with i as the operands, then
+     * {@code tornBytes} bytes of an entry that was never finished.
+     */
+    private static void write(Path file, long[] times, int tornBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(times.length * HistoryStore.ENTRY_SIZE + tornBytes);
+        for (int i = 0; i < times.length; i++) {
+            Keystroke operation = OPERATIONS[i % 3];
+            double result = switch (operation) {
+                case PLUS -> i + i;
+                case MINUS -> 0;
+                default -> Math.sqrt(i);
+            };
+            buffer.putLong((long) operation.code() << 56 | times[i])
+                    .putDouble(i)
+                    .putDouble(HistoryStore.isBinary(operation) ? i : 0)
+                    .putDouble(result);
+        }
+        Files.write(file, buffer.array());
+    }
+}
@@ -0,0 +1,119 @@
+package org.openjfx.macro;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.model.CalculatorEngine;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class MacroCompilerTest {
+    private static final Keystroke[] RECORDABLE =
+            Arrays.copyOf(Keystroke.values(), Keystroke.SQUARE_ROOT.ordinal() + 1);
+    private static final double[] SPECIAL_INPUTS = {
+            0, -0.0, 1, -1, -4, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 1e300, -1e-300,
+            0.1, 1 / 3.0, 123456789.123456789, 2.5e-8, 4.99999995e-8, Double.MAX_VALUE, Double.MIN_VALUE
+    };
+
+    private final MacroCompiler compiler = new MacroCompiler();
+
+    @Test
+    void randomMacrosMatchTheEngineBitForBit() {
+        Random random = new Random(42);
+        int interpreted = 0;
+        for (int m = 0; m < 5_000; m++) {
+            List<Keystroke> keys = new ArrayList<>();
+            int length = 1 + random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                // Mostly digits, so that numbers longer than one digit are typed
+                keys.add(random.nextInt(10) < 4 ? Keystroke.digit(random.nextInt(10))
+                        : RECORDABLE[random.nextInt(RECORDABLE.length)]);
+            }
+            CompiledMacro macro = compiler.compile(new Macro("random", keys));
+            if (macro.isInterpreted()) {
+                interpreted++;
+            }
+            double[] inputs = new double[200];
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = randomInput(random);
+            }
+            assertMatchesEngine(macro, inputs);
+        }
+        assertTrue(interpreted > 0 && interpreted < 1_000, "interpreted " + interpreted + " of 5000");
+    }
+
+    @Test
+    void typedNumbersAreFolded() throws ParseException {
+        CompiledMacro macro = compile("× 1.0825 = + 3 =");
+        assertFalse(macro.isInterpreted());
+        assertMatchesEngine(macro, SPECIAL_INPUTS);
+        assertEquals(0, compile("2 + 3 =").size());
+    }
+
+    @Test
+    void negatingAComputedNaNFallsBackToTheEngine() throws ParseException {
+        // √ of a negative input is NaN, which the engine shows as "Error" instead of negating
+        CompiledMacro macro = compile("√ ± + 1 =");
+        assertFalse(macro.isInterpreted());
+        assertTrue(macro.describe().contains("guard"), macro.describe());
+        assertMatchesEngine(macro, new double[]{-4, -1, 0, 4, 9, Double.NaN, Double.NEGATIVE_INFINITY});
+    }
+
+    @Test
+    void editingAComputedResultIsInterpreted() throws ParseException {
+        for (String keys : new String[]{"√ ⌫", "1/x ⌫ 5", "x² ⌫ ."}) {
+            CompiledMacro macro = compile(keys);
+            assertTrue(macro.isInterpreted(), keys);
+            assertMatchesEngine(macro, SPECIAL_INPUTS);
+        }
+    }
+
+    @Test
+    void errorsAndClearsMatchTheEngine() throws ParseException {
+        for (String keys : new String[]{"÷ 0 =", "÷ 0 = + 1 =", "C 5 +", "CE 2 × =", ". . 5 =", "± ± ±", "= = ="}) {
+            assertMatchesEngine(compile(keys), SPECIAL_INPUTS);
+        }
+    }
+
+    private CompiledMacro compile(String keys) throws ParseException {
+        return compiler.compile(Macro.parse(keys, keys));
+    }
+
+    private static void assertMatchesEngine(CompiledMacro macro, double[] inputs) {
+        double[] all = new double[inputs.length];
+        macro.applyAll(inputs, all);
+        double[] registers = macro.newRegisters();
+        CalculatorEngine engine = new CalculatorEngine();
+        for (int i = 0; i < inputs.length; i++) {
+            engine.clear();
+            engine.inputValue(inputs[i]);
+            for (Keystroke keystroke : macro.getMacro().getKeystrokes()) {
+                engine.press(keystroke);
+            }
+            long expected = Double.doubleToRawLongBits(engine.getValue());
+            if (Double.doubleToRawLongBits(macro.apply(inputs[i], registers)) != expected
+                    || Double.doubleToRawLongBits(all[i]) != expected) {
+                fail(macro.getMacro().getKeys() + " of " + inputs[i] + ": engine " + engine.getValue()
+                        + ", apply " + macro.apply(inputs[i]) + ", applyAll " + all[i] + "\n" + macro.describe());
+            }
+        }
+    }
+
+    private static double randomInput(Random random) {
+        return switch (random.nextInt(5)) {
+            case 0 -> SPECIAL_INPUTS[random.nextInt(SPECIAL_INPUTS.length)];
+            case 1 -> random.nextInt(2000) - 1000;
+            case 2 -> random.nextGaussian() * 1e6;
+            case 3 -> Math.round(random.nextDouble() * 1e4) / 100.0;
+            default -> random.nextDouble();
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package org.openjfx.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjfx.controller.CalculatorController;
+import org.openjfx.enums.Operation;
+import org.openjfx.model.CalculatorModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CalculatorMetricsTest {
+    private final CalculatorMetrics metrics = CalculatorMetrics.getInstance();
+
+    @BeforeEach
+    void enable() {
+        metrics.setEnabled(true);
+        metrics.reset();
+    }
+
+    @AfterEach
+    void reset() {
+        metrics.reset();
+    }
+
+    @Test
+    void keysFeedEveryMeasurement() {
+        List<String> displayed = new ArrayList<>();
+        CalculatorController controller = new CalculatorController(new CalculatorModel(), displayed::add);
+        // 12 + 3 × 4 = − 2 = √ − −
+        controller.handleNumber(1);
+        controller.handleNumber(2);
+        controller.handleOperation(Operation.PLUS.ordinal());
+        controller.handleNumber(3);
+        controller.handleOperation(Operation.MULTIPLY.ordinal());
+        controller.handleNumber(4);
+        controller.handleEquals();
+        controller.handleOperation(Operation.MINUS.ordinal());
+        controller.handleNumber(2);
+        controller.handleEquals();
+        controller.handleSquareRoot();
+        controller.handleOperation(Operation.MINUS.ordinal());
+        controller.handleOperation(Operation.MINUS.ordinal());
+        assertEquals("58", displayed.get(displayed.size() - 2));
+
+        // Committed 12, 3, 4 and 2; operators after a result or another operator commit nothing
+        assertEquals(4, metrics.getSetOperandLatency().getCount());
+        // 12 + 3, 15 × 4 and 60 − 2
+        assertEquals(3, metrics.getCalculateLatency().getCount());
+        assertEquals(displayed.size(), metrics.getUpdateDisplayLatency().getCount());
+        Map<String, Long> counts = metrics.getOperationCounts();
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            long expected = switch (count.getKey()) {
+                case "PLUS", "MULTIPLY", "MINUS", "SQUARE_ROOT" -> 1;
+                default -> 0;
+            };
+            assertEquals(expected, count.getValue(), count.getKey());
+        }
+        assertEquals(0, metrics.getParseErrors());
+    }
+
+    @Test
+    void disabledMetricsStillCount() {
+        metrics.setEnabled(false);
+        CalculatorModel model = new CalculatorModel();
+        model.inputDigit(6);
+        model.inputOperation(Operation.DIVIDE);
+        model.inputDigit(4);
+        model.inputEquals();
+        assertEquals(1.5, model.getDisplayValue());
+        assertEquals(0, metrics.getSetOperandLatency().getCount());
+        assertEquals(0, metrics.getCalculateLatency().getCount());
+        assertEquals(1, metrics.getOperationCounts().get("DIVIDE"));
+        metrics.setEnabled(true);
+    }
+}
@@ -0,0 +1,302 @@
+package org.openjfx.model;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.text.DecimalFormat;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CalculatorEngineTest {
+    private static final Keystroke[] BASELINE_KEYS = {
+            Keystroke.DECIMAL, Keystroke.PLUS, Keystroke.MINUS, Keystroke.MULTIPLY, Keystroke.DIVIDE,
+            Keystroke.EQUALS, Keystroke.CLEAR, Keystroke.CLEAR_ENTRY, Keystroke.BACK_SPACE, Keystroke.NEGATE,
+            Keystroke.RECIPROCAL, Keystroke.SQUARE, Keystroke.SQUARE_ROOT
+    };
+
+    @Test
+    void backSpaceToEmpty() {
+        assertMatchesBaseline("5 ⌫");
+        assertMatchesBaseline("5 ⌫ ⌫ 3 +");
+        assertMatchesBaseline("1 2 ⌫ ⌫ ⌫ 3 + 4 =");
+        assertMatchesBaseline("2 + 3 = ⌫ ⌫");
+        assertMatchesBaseline("1 . ⌫ ⌫ 7 × 2 =");
+        assertMatchesBaseline("9 + 8 ⌫ ⌫ =");
+    }
+
+    @Test
+    void repeatedDecimalPoints() {
+        assertMatchesBaseline(". . .");
+        assertMatchesBaseline("1 . 2 . 3");
+        assertMatchesBaseline("1 . 2 5 . 7 + . 5 =");
+        assertMatchesBaseline("0 . 0 0 0 0 0 0 0 1 × 3 =");
+        assertMatchesBaseline("2 + 3 = . 5");
+        assertMatchesBaseline("1 . 5 √ . 2");
+    }
+
+    @Test
+    void negateOnEntryAndOnResult() {
+        assertMatchesBaseline("5 ± 3");
+        assertMatchesBaseline("± ± 4");
+        assertMatchesBaseline("0 . ± 5 =");
+        assertMatchesBaseline("2 + 3 = ± + 1 =");
+        assertMatchesBaseline("1 ÷ 3 = ± × 3 =");
+        assertMatchesBaseline("7 + 2 ± =");
+        assertMatchesBaseline("1 2 3 4 5 6 7 × 1 0 0 = ± ±");
+        assertMatchesBaseline("0 ÷ 0 = ±");
+        assertMatchesBaseline("1 ÷ 0 = ± + 1 =");
+    }
+
+    @Test
+    void errorPath() {
+        // A lone minus sign does not parse: the baseline showed "Error" and cleared
+        assertEquals("Error", assertMatchesBaseline("5 ± ⌫"));
+        assertEquals("2", assertMatchesBaseline("5 ± ⌫ + 2 ="));
+        assertEquals("3", assertMatchesBaseline("5 ± ⌫ 3"));
+        assertMatchesBaseline("5 ± ⌫ = = 4 + 1 =");
+        assertMatchesBaseline("8 ± ⌫ √ 2");
+        assertMatchesBaseline("8 ± ⌫ CE 2 ×");
+        assertMatchesBaseline("4 ± √ + 1 =");
+        assertMatchesBaseline("0 1/x + 1 =");
+    }
+
+    @Test
+    void randomSequencesMatchTheBaseline() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            List<Keystroke> keys = new ArrayList<>();
+            int length = 1 + random.nextInt(24);
+            for (int k = 0; k < length; k++) {
+                keys.add(random.nextInt(10) < 5 ? Keystroke.digit(random.nextInt(10))
+                        : BASELINE_KEYS[random.nextInt(BASELINE_KEYS.length)]);
+            }
+            assertMatchesBaseline(keys);
+        }
+    }
+
+    @Test
+    void cachedResultsShowTheSameText() {
+        Random random = new Random(5);
+        ResultCache cache = new ResultCache(64);
+        for (int i = 0; i < 5_000; i++) {
+            List<Keystroke> keys = new ArrayList<>();
+            for (int k = 0; k < 12; k++) {
+                keys.add(random.nextBoolean() ? Keystroke.digit(random.nextInt(4))
+                        : BASELINE_KEYS[random.nextInt(BASELINE_KEYS.length)]);
+            }
+            CalculatorEngine plain = new CalculatorEngine();
+            CalculatorEngine cached = new CalculatorEngine();
+            cached.setResultCache(cache);
+            for (Keystroke keystroke : keys) {
+                plain.press(keystroke);
+                cached.press(keystroke);
+                assertEquals(plain.getDisplayText(), cached.getDisplayText(), keys::toString);
+            }
+        }
+    }
+
+    private static String assertMatchesBaseline(String keys) {
+        List<Keystroke> keystrokes = new ArrayList<>();
+        for (String symbol : keys.split(" ")) {
+            keystrokes.add(Keystroke.fromSymbol(symbol));
+        }
+        return assertMatchesBaseline(keystrokes);
+    }
+
+    /**
+     * Presses {@code keys} on an engine and on the baseline, comparing the display after each, and returns the
+     * last display text.
+     */
+    private static String assertMatchesBaseline(List<Keystroke> keys) {
+        CalculatorEngine engine = new CalculatorEngine();
+        Baseline baseline = new Baseline();
+        StringBuilder typed = new StringBuilder();
+        for (Keystroke keystroke : keys) {
+            typed.append(keystroke.symbol()).append(' ');
+            engine.press(keystroke);
+            baseline.press(keystroke);
+            assertEquals(baseline.label, engine.getDisplayText(), typed::toString);
+        }
+        return engine.getDisplayText();
+    }
+
+    /**
+     * The String state machine of the original controller and model, without JavaFX: {@link #label} is what the
+     * display label showed.
+     */
+    private static final class Baseline {
+        private final DecimalFormat formatter = new DecimalFormat("#,###.#######");
+        private double leftOperand;
+        private double rightOperand;
+        private String displayText = "0";
+        private boolean resetFlag = true;
+        private Operation currentOperation = Operation.NONE;
+        private String label = "0";
+
+        void press(Keystroke keystroke) {
+            switch (keystroke) {
+                case DECIMAL -> handleDecimal();
+                case PLUS -> handleOperation(Operation.PLUS);
+                case MINUS -> handleOperation(Operation.MINUS);
+                case MULTIPLY -> handleOperation(Operation.MULTIPLY);
+                case DIVIDE -> handleOperation(Operation.DIVIDE);
+                case EQUALS -> handleEquals();
+                case CLEAR -> {
+                    clear();
+                    updateDisplay();
+                }
+                case CLEAR_ENTRY -> {
+                    displayText = "0";
+                    resetFlag = true;
+                    updateDisplay();
+                }
+                case BACK_SPACE -> {
+                    backSpace();
+                    updateDisplay();
+                }
+                case NEGATE -> handlePlusMinus();
+                case RECIPROCAL -> handleUnary(UnaryOperation.RECIPROCAL);
+                case SQUARE -> handleUnary(UnaryOperation.SQUARE);
+                case SQUARE_ROOT -> handleUnary(UnaryOperation.SQUARE_ROOT);
+                default -> handleNumber(keystroke.ordinal() - Keystroke.DIGIT_0.ordinal());
+            }
+        }
+
+        private void handleNumber(int number) {
+            if (!resetFlag) {
+                displayText = displayText + formatter.format(number);
+            } else {
+                displayText = formatter.format(number);
+                resetFlag = false;
+            }
+            updateDisplay();
+        }
+
+        private void handleOperation(Operation operation) {
+            if (!resetFlag) {
+                try {
+                    setOperand(displayText);
+                    if (currentOperation != Operation.NONE) {
+                        displayText = calculate();
+                    }
+                    currentOperation = operation;
+                    resetFlag = true;
+                    updateDisplay();
+                } catch (ParseException e) {
+                    handleError();
+                }
+            } else {
+                currentOperation = operation;
+            }
+        }
+
+        private void handleEquals() {
+            if (!resetFlag) {
+                try {
+                    setOperand(displayText);
+                    displayText = calculate();
+                    updateDisplay();
+                    resetFlag = true;
+                } catch (ParseException e) {
+                    handleError();
+                }
+            }
+        }
+
+        private void handleDecimal() {
+            if (displayText.contains(".") && !resetFlag) {
+                displayText = displayText.substring(0, displayText.indexOf(".") + 1);
+            } else if (!resetFlag) {
+                displayText = displayText + ".";
+            } else {
+                displayText = "0.";
+                resetFlag = false;
+            }
+            updateDisplay();
+        }
+
+        private void handlePlusMinus() {
+            try {
+                displayText = displayText.startsWith("-") ? displayText.substring(1) : "-" + displayText;
+                setOperand(displayText);
+                updateDisplay();
+            } catch (ParseException e) {
+                handleError();
+            }
+        }
+
+        /**
+         * 1/x, x² and √, which the model computed from the display text alike.
+         */
+        private void handleUnary(UnaryOperation operation) {
+            try {
+                displayText = formatter.format(operation.apply(formatter.parse(displayText).doubleValue()));
+                setOperand(displayText);
+                updateDisplay();
+            } catch (ParseException e) {
+                handleError();
+            }
+        }
+
+        private void backSpace() {
+            if (!resetFlag) {
+                int displayTextLength = displayText.length() - 1;
+                if (displayTextLength >= 1) {
+                    displayText = displayText.substring(0, displayTextLength);
+                } else {
+                    displayText = "0";
+                    resetFlag = true;
+                }
+            }
+        }
+
+        private String calculate() {
+            double result = switch (currentOperation) {
+                case PLUS -> leftOperand + rightOperand;
+                case MINUS -> leftOperand - rightOperand;
+                case MULTIPLY -> leftOperand * rightOperand;
+                case DIVIDE -> leftOperand / rightOperand;
+                case NONE -> leftOperand;
+            };
+            leftOperand = result;
+            currentOperation = Operation.NONE;
+            return formatter.format(result);
+        }
+
+        private void setOperand(String value) throws ParseException {
+            double parsedValue = formatter.parse(value).doubleValue();
+            if (currentOperation == Operation.NONE) {
+                leftOperand = parsedValue;
+            } else {
+                rightOperand = parsedValue;
+            }
+        }
+
+        private void clear() {
+            leftOperand = 0;
+            rightOperand = 0;
+            displayText = "0";
+            resetFlag = true;
+            currentOperation = Operation.NONE;
+        }
+
+        private void updateDisplay() {
+            try {
+                label = formatter.format(formatter.parse(displayText));
+            } catch (ParseException e) {
+                handleError();
+            }
+        }
+
+        private void handleError() {
+            label = "Error";
+            clear();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package org.openjfx.model;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecimalRegisterTest {
+    private static final MathContext[] CONTEXTS = {
+            MathContext.DECIMAL32, MathContext.DECIMAL64, MathContext.DECIMAL128, MathContext.UNLIMITED,
+            new MathContext(5, RoundingMode.HALF_UP), new MathContext(19, RoundingMode.DOWN),
+            new MathContext(40, RoundingMode.HALF_EVEN)
+    };
+    private static final Operation[] OPERATIONS = {
+            Operation.PLUS, Operation.MINUS, Operation.MULTIPLY, Operation.DIVIDE
+    };
+    private static final long[] BOUNDARIES = {
+            0, 1, -1, 2, -2, 3, 7, 10, 999_999_999_999_999_999L, 1_000_000_000_000_000_000L,
+            Long.MAX_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE, Long.MIN_VALUE + 1, 1L << 62, -(1L << 62),
+            3_037_000_499L, 3_037_000_500L
+    };
+    private static final int[] SCALES = {
+            0, 1, 7, 18, 19, -1, -18, Integer.MAX_VALUE, Integer.MAX_VALUE - 1, Integer.MIN_VALUE,
+            Integer.MIN_VALUE + 1, Integer.MAX_VALUE / 2 + 1, Integer.MIN_VALUE / 2
+    };
+
+    @Test
+    void boundaryArithmeticMatchesBigDecimal() {
+        for (long left : BOUNDARIES) {
+            for (int leftScale : SCALES) {
+                for (long right : BOUNDARIES) {
+                    for (int rightScale : new int[]{0, 3, -2, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+                        for (MathContext context : CONTEXTS) {
+                            for (Operation operation : OPERATIONS) {
+                                assertMatchesBigDecimal(compact(left, leftScale), operation,
+                                        compact(right, rightScale), context);
+                            }
+                        }
+                    }
+                }
+                for (MathContext context : CONTEXTS) {
+                    for (UnaryOperation operation : UnaryOperation.values()) {
+                        assertMatchesBigDecimal(compact(left, leftScale), operation, context);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void randomArithmeticMatchesBigDecimal() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            DecimalRegister left = randomRegister(random);
+            MathContext context = CONTEXTS[random.nextInt(CONTEXTS.length)];
+            if (random.nextInt(4) == 0) {
+                UnaryOperation operation = UnaryOperation.values()[random.nextInt(UnaryOperation.values().length)];
+                assertMatchesBigDecimal(left, operation, context);
+            } else {
+                assertMatchesBigDecimal(left, OPERATIONS[random.nextInt(OPERATIONS.length)],
+                        randomRegister(random), context);
+            }
+        }
+    }
+
+    @Test
+    void chainedArithmeticMatchesBigDecimal() {
+        // Results feed the next operation, so values cross between compact and inflated both ways
+        Random random = new Random(11);
+        for (MathContext context : CONTEXTS) {
+            DecimalRegister register = new DecimalRegister();
+            register.set(1, 0);
+            for (int i = 0; i < 20_000; i++) {
+                if (!register.isFinite()) {
+                    register.set(random.nextLong() >> random.nextInt(64), random.nextInt(20) - 5);
+                }
+                DecimalRegister right = randomRegister(random);
+                Operation operation = OPERATIONS[random.nextInt(OPERATIONS.length)];
+                Object expected = expected(register, operation, right, context);
+                DecimalRegister left = new DecimalRegister(register);
+                register.apply(operation, right, context);
+                if (operation != Operation.DIVIDE || !(expected instanceof Double)
+                        || !isExactProduct(register, right, left)) {
+                    assertResult(expected, register, () -> operation + " " + right + " " + context);
+                }
+            }
+        }
+    }
+
+    @Test
+    void divisionRoundsLikeBigDecimal() {
+        long[][] quotients = {{1, 3}, {2, 3}, {-2, 3}, {2, -3}, {1, 7}, {5, 2}, {-5, 2}, {15, 2}, {1, 8},
+                {Long.MAX_VALUE, 3}, {Long.MIN_VALUE, 3}, {Long.MIN_VALUE, -1}, {Long.MIN_VALUE, 1},
+                {Long.MAX_VALUE, Long.MIN_VALUE}, {1, 1L << 60}, {1, 1_000_000_000_000_000_000L}};
+        for (long[] quotient : quotients) {
+            for (MathContext context : CONTEXTS) {
+                for (RoundingMode mode : new RoundingMode[]{RoundingMode.HALF_EVEN, RoundingMode.HALF_UP,
+                        RoundingMode.HALF_DOWN, RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING,
+                        RoundingMode.FLOOR}) {
+                    MathContext rounded = new MathContext(context.getPrecision(), mode);
+                    assertMatchesBigDecimal(compact(quotient[0], 0), Operation.DIVIDE, compact(quotient[1], 0),
+                            rounded);
+                    assertMatchesBigDecimal(compact(quotient[0], 4), Operation.DIVIDE, compact(quotient[1], 1),
+                            rounded);
+                }
+            }
+        }
+        DecimalRegister third = compact(1, 0);
+        third.apply(Operation.DIVIDE, compact(3, 0), MathContext.DECIMAL64);
+        assertEquals(new BigDecimal("0.3333333333333333"), third.toBigDecimal());
+        DecimalRegister eighth = compact(1, 0);
+        eighth.apply(Operation.DIVIDE, compact(8, 0), MathContext.UNLIMITED);
+        assertTrue(eighth.isCompact());
+        assertEquals(new BigDecimal("0.125"), eighth.toBigDecimal());
+    }
+
+    @Test
+    void overflowingTheLongInflates() {
+        DecimalRegister register = compact(Long.MAX_VALUE, 0);
+        register.apply(Operation.PLUS, compact(1, 0), MathContext.UNLIMITED);
+        assertFalse(register.isCompact());
+        assertEquals(new BigDecimal("9223372036854775808"), register.toBigDecimal());
+
+        register = compact(Long.MIN_VALUE, 0);
+        register.apply(UnaryOperation.NEGATE, MathContext.UNLIMITED);
+        assertFalse(register.isCompact());
+        assertEquals(new BigDecimal("9223372036854775808"), register.toBigDecimal());
+
+        // -2^62 × 2 is exactly Long.MIN_VALUE, which the compact form never holds as a result
+        register = compact(-(1L << 62), 0);
+        register.apply(Operation.MULTIPLY, compact(2, 0), MathContext.UNLIMITED);
+        assertFalse(register.isCompact());
+        assertEquals(BigDecimal.valueOf(Long.MIN_VALUE), register.toBigDecimal());
+
+        register.apply(Operation.MINUS, compact(Long.MIN_VALUE, 0), MathContext.UNLIMITED);
+        assertTrue(register.isCompact());
+        assertEquals(0, register.signum());
+    }
+
+    @Test
+    void scaleOverflowFallsBackToDouble() {
+        DecimalRegister register = compact(5, Integer.MAX_VALUE);
+        register.apply(Operation.MULTIPLY, compact(5, 1), MathContext.UNLIMITED);
+        assertTrue(register.isFinite());
+        assertEquals(0.0, register.doubleValue());
+
+        register = compact(5, Integer.MIN_VALUE);
+        register.apply(Operation.MULTIPLY, compact(5, -1), MathContext.DECIMAL64);
+        assertFalse(register.isFinite());
+        assertEquals(Double.POSITIVE_INFINITY, register.doubleValue());
+
+        // Odd scales are evened out before a square root; at Integer.MAX_VALUE that must not wrap around
+        register = compact(10, Integer.MAX_VALUE);
+        register.apply(UnaryOperation.SQUARE_ROOT, MathContext.DECIMAL64);
+        assertEquals(0.0, register.doubleValue());
+
+        // BigDecimal gives up on this quotient, the compact path does not need to
+        register = compact(1, 0);
+        register.apply(Operation.DIVIDE, compact(1, -Integer.MAX_VALUE), MathContext.DECIMAL64);
+        assertEquals(BigDecimal.valueOf(1, Integer.MAX_VALUE), register.toBigDecimal());
+    }
+
+    @Test
+    void nonDecimalResultsAreDoubles() {
+        DecimalRegister register = compact(3, 0);
+        register.apply(Operation.DIVIDE, compact(0, 2), MathContext.DECIMAL64);
+        assertEquals(Double.POSITIVE_INFINITY, register.doubleValue());
+        register.apply(Operation.MINUS, compact(1, 0), MathContext.DECIMAL64);
+        assertEquals(Double.POSITIVE_INFINITY, register.doubleValue());
+
+        register = compact(0, 0);
+        register.apply(Operation.DIVIDE, compact(0, 0), MathContext.DECIMAL64);
+        assertTrue(register.isNaN());
+
+        register = compact(-4, 0);
+        register.apply(UnaryOperation.SQUARE_ROOT, MathContext.DECIMAL64);
+        assertTrue(register.isNaN());
+    }
+
+    @Test
+    void roundsToDisplayLikeSetScale() {
+        Random random = new Random(5);
+        for (int i = 0; i < 100_000; i++) {
+            DecimalRegister register = randomRegister(random);
+            if (!register.isFinite() || register.toBigDecimal().scale() < -1_000) {
+                continue;
+            }
+            BigDecimal before = register.toBigDecimal();
+            register.roundToDisplay();
+            if (before.precision() - (long) before.scale() < -DisplayMath.FRACTION_DIGITS) {
+                assertEquals(BigDecimal.valueOf(0, DisplayMath.FRACTION_DIGITS), register.toBigDecimal(),
+                        before::toString);
+            } else if (before.scale() > DisplayMath.FRACTION_DIGITS) {
+                assertEquals(before.setScale(DisplayMath.FRACTION_DIGITS, RoundingMode.HALF_EVEN),
+                        register.toBigDecimal(), before::toString);
+            } else {
+                assertEquals(before, register.toBigDecimal());
+            }
+        }
+        DecimalRegister tie = compact(25, 8);
+        tie.roundToDisplay();
+        assertEquals(new BigDecimal("0.0000002"), tie.toBigDecimal());
+        DecimalRegister negativeTie = compact(-35, 8);
+        negativeTie.roundToDisplay();
+        assertEquals(new BigDecimal("-0.0000004"), negativeTie.toBigDecimal());
+    }
+
+    @Test
+    void roundTripsThroughBuffers() {
+        Random random = new Random(9);
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        for (int i = 0; i < 10_000; i++) {
+            DecimalRegister register = randomRegister(random);
+            buffer.clear();
+            register.writeTo(buffer);
+            buffer.flip();
+            DecimalRegister read = new DecimalRegister();
+            read.readFrom(buffer);
+            assertFalse(buffer.hasRemaining());
+            assertEquals(register.isCompact(), read.isCompact());
+            assertSameValue(register, read, register::toString);
+        }
+    }
+
+    @Test
+    void doublesConvertExactly() {
+        Random random = new Random(13);
+        for (int i = 0; i < 100_000; i++) {
+            double value = random.nextBoolean() ? Double.longBitsToDouble(random.nextLong())
+                    : Math.round(random.nextGaussian() * 1e9) / Math.pow(10, random.nextInt(12));
+            DecimalRegister register = new DecimalRegister();
+            register.set(value);
+            assertEquals(Double.doubleToRawLongBits(value == 0 ? 0.0 : value),
+                    Double.doubleToRawLongBits(register.doubleValue()), () -> Double.toString(value));
+            if (register.isFinite()) {
+                assertEquals(register.toBigDecimal().doubleValue(), register.doubleValue());
+            }
+        }
+        DecimalRegister tenth = new DecimalRegister();
+        tenth.set(0.1);
+        assertEquals(new BigDecimal("0.1"), tenth.toBigDecimal());
+    }
+
+    private static void assertMatchesBigDecimal(DecimalRegister left, Operation operation, DecimalRegister right,
+                                                MathContext context) {
+        Object expected = expected(left, operation, right, context);
+        DecimalRegister result = new DecimalRegister(left);
+        result.apply(operation, right, context);
+        if (operation != Operation.DIVIDE || !(expected instanceof Double) || !isExactProduct(result, right, left)) {
+            assertResult(expected, result, () -> left + " " + operation + " " + right + " " + context);
+        }
+    }
+
+    private static void assertMatchesBigDecimal(DecimalRegister value, UnaryOperation operation, MathContext context) {
+        Object expected;
+        if (!value.isFinite() || (operation == UnaryOperation.RECIPROCAL && value.signum() == 0)
+                || (operation == UnaryOperation.SQUARE_ROOT && value.signum() < 0)) {
+            expected = operation.apply(value.doubleValue());
+        } else {
+            BigDecimal decimal = value.toBigDecimal();
+            try {
+                expected = switch (operation) {
+                    case NEGATE -> decimal.negate();
+                    case SQUARE -> decimal.multiply(decimal, context);
+                    case SQUARE_ROOT -> decimal.sqrt(context);
+                    case RECIPROCAL -> BigDecimal.ONE.divide(decimal, context);
+                };
+            } catch (ArithmeticException e) {
+                expected = operation.apply(value.doubleValue());
+            }
+        }
+        DecimalRegister result = new DecimalRegister(value);
+        result.apply(operation, context);
+        boolean exact = switch (operation) {
+            case RECIPROCAL -> isExactProduct(result, value, compact(1, 0));
+            case SQUARE_ROOT -> isExactProduct(result, result, value);
+            default -> false;
+        };
+        if (!(expected instanceof Double) || !exact) {
+            assertResult(expected, result, () -> operation + " " + value + " " + context);
+        }
+    }
+
+    private static Object expected(DecimalRegister left, Operation operation, DecimalRegister right,
+                                   MathContext context) {
+        if (!left.isFinite() || !right.isFinite() || (operation == Operation.DIVIDE && right.signum() == 0)) {
+            return operation.apply(left.doubleValue(), right.doubleValue());
+        }
+        BigDecimal a = left.toBigDecimal();
+        BigDecimal b = right.toBigDecimal();
+        try {
+            return switch (operation) {
+                case PLUS -> a.add(b, context);
+                case MINUS -> a.subtract(b, context);
+                case MULTIPLY -> a.multiply(b, context);
+                case DIVIDE -> a.divide(b, context);
+                case NONE -> a;
+            };
+        } catch (ArithmeticException e) {
+            return operation.apply(left.doubleValue(), right.doubleValue());
+        }
+    }
+
+    private static void assertResult(Object expected, DecimalRegister result,
+                                     Supplier<String> message) {
+        if (expected instanceof BigDecimal decimal) {
+            assertTrue(result.isFinite(), message);
+            // Equal in value; an exact result may keep a trailing zero that BigDecimal drops
+            assertEquals(0, decimal.compareTo(result.toBigDecimal()), () -> message.get() + ": expected " + decimal
+                    + " but was " + result.toBigDecimal());
+            // Results only stay inflated when they need more digits than the compact form holds
+            assertTrue(result.isCompact() || decimal.precision() > DecimalRegister.POWERS_OF_TEN.length - 1, message);
+            if (result.isCompact()) {
+                assertNotEquals(Long.MIN_VALUE, result.getUnscaled(), message);
+            }
+        } else {
+            DecimalRegister fallback = new DecimalRegister();
+            fallback.set((double) expected);
+            assertSameValue(fallback, result, message);
+        }
+    }
+
+    /**
+     * Whether {@code left × right} is exactly {@code product}. BigDecimal refuses quotients and roots whose preferred
+     * scale passes the int range even when the exact result fits, as 1 / 1E+2147483647 does; the compact path
+     * computes those exactly instead, which this checks.
+     */
+    private static boolean isExactProduct(DecimalRegister left, DecimalRegister right, DecimalRegister product) {
+        if (!left.isFinite() || !right.isFinite() || !product.isFinite() || product.signum() == 0) {
+            return false;
+        }
+        // Compared as unscaled integers, since the scale of the product itself may not fit an int
+        BigDecimal a = left.toBigDecimal();
+        BigDecimal b = right.toBigDecimal();
+        BigDecimal c = product.toBigDecimal();
+        long exponent = (long) a.scale() + b.scale() - c.scale();
+        if (Math.abs(exponent) > 1_000) {
+            return false;
+        }
+        BigInteger actual = a.unscaledValue().multiply(b.unscaledValue());
+        BigInteger expected = c.unscaledValue();
+        if (exponent >= 0) {
+            expected = expected.multiply(BigInteger.TEN.pow((int) exponent));
+        } else {
+            actual = actual.multiply(BigInteger.TEN.pow((int) -exponent));
+        }
+        return actual.equals(expected);
+    }
+
+    private static void assertSameValue(DecimalRegister expected, DecimalRegister actual, Supplier<String> message) {
+        assertEquals(expected.isFinite(), actual.isFinite(), message);
+        if (expected.isFinite()) {
+            assertEquals(0, expected.toBigDecimal().compareTo(actual.toBigDecimal()), message);
+        } else {
+            assertEquals(Double.doubleToRawLongBits(expected.doubleValue()),
+                    Double.doubleToRawLongBits(actual.doubleValue()), message);
+        }
+    }
+
+    private static DecimalRegister compact(long unscaled, int scale) {
+        DecimalRegister register = new DecimalRegister();
+        register.set(unscaled, scale);
+        return register;
+    }
+
+    private static DecimalRegister randomRegister(Random random) {
+        DecimalRegister register = new DecimalRegister();
+        switch (random.nextInt(8)) {
+            case 0 -> register.set(BOUNDARIES[random.nextInt(BOUNDARIES.length)],
+                    SCALES[random.nextInt(SCALES.length)]);
+            case 1 -> register.set(random.nextInt(2_001) - 1_000, random.nextInt(10));
+            case 2 -> register.set(random.nextLong() >> random.nextInt(64), random.nextInt(40) - 10);
+            case 3 -> {
+                BigInteger unscaled = new BigInteger(20 + random.nextInt(80), random);
+                int scale = random.nextInt(60) - 20;
+                register.set(new BigDecimal(random.nextBoolean() ? unscaled : unscaled.negate(), scale));
+            }
+            case 4 -> register.set(random.nextGaussian() * Math.pow(10, random.nextInt(30) - 15));
+            case 5 -> register.set(random.nextLong(), random.nextInt(4));
+            case 6 -> register.set((long) random.nextInt(100) * random.nextInt(100), random.nextInt(4) * 2);
+            default -> register.set(random.nextInt(10) == 0 ? Double.NaN : random.nextInt(1_000) / 8.0);
+        }
+        return register;
+    }
+}
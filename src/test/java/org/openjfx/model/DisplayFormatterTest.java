@@ -0,0 +1,105 @@
+package org.openjfx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.text.ParseException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DisplayFormatterTest {
+    private static final double[] EDGE_CASES = {
+            0.0, -0.0, 1e-8, -1e-8, 4.9e-8, 5e-8, 5.1e-8, -5e-8, 1.5e-7, 2.5e-7, 0.00000005, 0.00000015,
+            0.5, 1.5, 2.5, 0.12345675, 0.12345685, 999.99999995, 999, 1000, 9999.9999999, 999999, 1000000,
+            -999, -1000, -1234567.891, 123456789012.3456789, 0x1p52 / 1e7, Math.nextDown(0x1p52 / 1e7),
+            0x1p52, 0x1p53, 1e15, 1e16, 1e17, 9.223372036854776e18, 1e19, 1e100, 1e300, Double.MAX_VALUE,
+            -Double.MAX_VALUE, Double.MIN_VALUE, Double.MIN_NORMAL, Double.NaN, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY
+    };
+    private static final long[] LONG_EDGE_CASES = {
+            0, 1, -1, 999, 1000, -1000, 999_999, 1_000_000, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1
+    };
+
+    private final DecimalFormat reference = new DecimalFormat(DisplayFormatter.PATTERN);
+
+    @Test
+    void formatsEdgeCasesLikeDecimalFormat() {
+        for (double value : EDGE_CASES) {
+            assertFormatsLikeDecimalFormat(value);
+        }
+        for (long value : LONG_EDGE_CASES) {
+            assertFormatsLikeDecimalFormat(value);
+        }
+    }
+
+    @Test
+    void formatsRandomDoublesLikeDecimalFormat() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            assertFormatsLikeDecimalFormat(randomDouble(random));
+        }
+    }
+
+    @Test
+    void formatsRandomLongsLikeDecimalFormat() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            assertFormatsLikeDecimalFormat(random.nextLong() >> random.nextInt(64));
+        }
+    }
+
+    @Test
+    void parsesLikeDecimalFormat() throws ParseException {
+        for (double value : EDGE_CASES) {
+            assertParsesLikeDecimalFormat(reference.format(value));
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            assertParsesLikeDecimalFormat(reference.format(randomDouble(random)));
+        }
+        for (String text : new String[]{"0", "-0", "12", "1,234", "1,2,3,4", "0.5", ".5", "-.5", "12.", "007",
+                "9223372036854775807", "9223372036854775808", "-9223372036854775808", "1,234.5678"}) {
+            assertParsesLikeDecimalFormat(text);
+        }
+    }
+
+    private void assertFormatsLikeDecimalFormat(double value) {
+        String expected = reference.format(value);
+        assertEquals(expected, DisplayFormatter.format(value), () -> "format(" + value + ")");
+        assertEquals("> " + expected, DisplayFormatter.format(value, new StringBuilder("> ")).toString(),
+                () -> "format(" + value + ", StringBuilder)");
+        char[] buffer = new char[3 + DisplayFormatter.maxLength(value)];
+        int end = DisplayFormatter.format(value, buffer, 3);
+        assertEquals(expected, new String(buffer, 3, end - 3), () -> "format(" + value + ", char[])");
+    }
+
+    private void assertFormatsLikeDecimalFormat(long value) {
+        String expected = reference.format(value);
+        assertEquals(expected, DisplayFormatter.format(value), () -> "format(" + value + "L)");
+        assertEquals(expected, DisplayFormatter.format(value, new StringBuilder()).toString(),
+                () -> "format(" + value + "L, StringBuilder)");
+        char[] buffer = new char[DisplayFormatter.MAX_FAST_LENGTH];
+        int end = DisplayFormatter.format(value, buffer, 0);
+        assertEquals(expected, new String(buffer, 0, end), () -> "format(" + value + "L, char[])");
+    }
+
+    private void assertParsesLikeDecimalFormat(String text) throws ParseException {
+        assertEquals(reference.parse(text), DisplayFormatter.parse(text), () -> "parse(\"" + text + "\")");
+    }
+
+    /**
+     * Values a display sees: short decimals, exact ties at the seventh fraction digit, and arbitrary doubles
+     * over the whole exponent range.
+     */
+    private static double randomDouble(Random random) {
+        double value = switch (random.nextInt(5)) {
+            case 0 -> random.nextInt(2_000_000) / 100.0;
+            case 1 -> (random.nextInt(2_000_000) + 0.5) / 1e7;
+            case 2 -> random.nextDouble() * Math.pow(10, random.nextInt(20) - 8);
+            case 3 -> random.nextLong() / 1e7;
+            default -> Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE);
+        };
+        return random.nextBoolean() ? -value : value;
+    }
+}
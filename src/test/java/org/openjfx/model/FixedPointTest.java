@@ -0,0 +1,228 @@
+package org.openjfx.model;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixedPointTest {
+    private static final BigDecimal MAX = BigDecimal.valueOf(FixedPoint.MAX_VALUE, FixedPoint.FRACTION_DIGITS);
+    private static final long WHOLE_LIMIT = FixedPoint.MAX_VALUE / FixedPoint.ONE;
+    /**
+     * The raw value whose square is just past the range, about 3037000.4999 × 10^7.
+     */
+    private static final long SQUARE_LIMIT = (long) Math.sqrt((double) FixedPoint.MAX_VALUE * FixedPoint.ONE);
+    private static final long[] BOUNDARIES = {
+            0, 1, 2, 5, 15, 25, FixedPoint.ONE, FixedPoint.ONE / 2, FixedPoint.ONE * 3, FixedPoint.MAX_VALUE,
+            FixedPoint.MAX_VALUE - 1, WHOLE_LIMIT, WHOLE_LIMIT + 1, WHOLE_LIMIT * FixedPoint.ONE,
+            WHOLE_LIMIT * FixedPoint.ONE - 1, FixedPoint.MAX_VALUE / 2, FixedPoint.MAX_VALUE / 2 + 1,
+            SQUARE_LIMIT - 1, SQUARE_LIMIT, SQUARE_LIMIT + 1, SQUARE_LIMIT + 2, Long.MAX_VALUE / 10,
+            Long.MAX_VALUE / 10 + 1
+    };
+
+    @Test
+    void boundaryArithmeticMatchesBigDecimal() {
+        for (long left : BOUNDARIES) {
+            for (long right : BOUNDARIES) {
+                for (int signs = 0; signs < 4; signs++) {
+                    assertMatchesBigDecimal((signs & 1) == 0 ? left : -left, (signs & 2) == 0 ? right : -right);
+                }
+            }
+        }
+    }
+
+    @Test
+    void randomArithmeticMatchesBigDecimal() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500_000; i++) {
+            assertMatchesBigDecimal(randomRaw(random), randomRaw(random));
+        }
+    }
+
+    @Test
+    void negativeResultsRoundHalfEvenOnTheMagnitude() {
+        // 0.0000001 × ±0.5 is a tie at the last digit: to even, 0, on both sides of zero
+        assertEquals(0, FixedPoint.multiply(1, FixedPoint.ONE / 2));
+        assertEquals(0, FixedPoint.multiply(-1, FixedPoint.ONE / 2));
+        assertEquals(2, FixedPoint.multiply(3, FixedPoint.ONE / 2));
+        assertEquals(-2, FixedPoint.multiply(-3, FixedPoint.ONE / 2));
+        assertEquals(-2, FixedPoint.multiply(3, -FixedPoint.ONE / 2));
+        assertEquals(2, FixedPoint.multiply(-3, -FixedPoint.ONE / 2));
+        // -0.0000001 ÷ 2 and -0.0000003 ÷ 2
+        assertEquals(0, FixedPoint.divide(-1, 2 * FixedPoint.ONE));
+        assertEquals(-2, FixedPoint.divide(-3, 2 * FixedPoint.ONE));
+        // -2 ÷ 3 = -0.6666666|67
+        assertEquals(-6_666_667, FixedPoint.divide(-2 * FixedPoint.ONE, 3 * FixedPoint.ONE));
+        assertEquals(-6_666_667, FixedPoint.divide(2 * FixedPoint.ONE, -3 * FixedPoint.ONE));
+    }
+
+    @Test
+    void overflowIsOutOfRange() {
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.add(FixedPoint.MAX_VALUE, 1));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.add(FixedPoint.MIN_VALUE, -1));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.subtract(FixedPoint.MIN_VALUE, 1));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.subtract(0, FixedPoint.OUT_OF_RANGE));
+        assertEquals(FixedPoint.MIN_VALUE, FixedPoint.subtract(0, FixedPoint.MAX_VALUE));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.multiply(SQUARE_LIMIT + 1, SQUARE_LIMIT + 1));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.multiply(-SQUARE_LIMIT - 1, SQUARE_LIMIT + 1));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.multiply(FixedPoint.MAX_VALUE, 2 * FixedPoint.ONE));
+        assertEquals(FixedPoint.MAX_VALUE, FixedPoint.multiply(FixedPoint.MAX_VALUE, FixedPoint.ONE));
+        assertEquals(FixedPoint.MIN_VALUE, FixedPoint.multiply(FixedPoint.MAX_VALUE, -FixedPoint.ONE));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.divide(FixedPoint.MAX_VALUE, FixedPoint.ONE / 2));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.divide(FixedPoint.MIN_VALUE, FixedPoint.ONE - 1));
+        assertEquals(FixedPoint.MAX_VALUE, FixedPoint.divide(FixedPoint.MAX_VALUE, FixedPoint.ONE));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.divide(FixedPoint.ONE, 0));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.sqrt(-1));
+    }
+
+    @Test
+    void outOfRangePropagates() {
+        long out = FixedPoint.OUT_OF_RANGE;
+        for (Operation operation : new Operation[]{Operation.PLUS, Operation.MINUS, Operation.MULTIPLY,
+                Operation.DIVIDE}) {
+            for (long value : new long[]{0, 1, -1, FixedPoint.ONE, FixedPoint.MAX_VALUE, FixedPoint.MIN_VALUE}) {
+                assertEquals(out, FixedPoint.apply(operation, out, value), operation + " " + value);
+                assertEquals(out, FixedPoint.apply(operation, value, out), value + " " + operation);
+            }
+        }
+        for (UnaryOperation operation : UnaryOperation.values()) {
+            assertEquals(out, FixedPoint.apply(operation, out), operation.toString());
+        }
+        assertTrue(Double.isNaN(FixedPoint.toDouble(out)));
+        DecimalRegister register = new DecimalRegister();
+        FixedPoint.toDecimal(out, register);
+        assertTrue(register.isNaN());
+    }
+
+    @Test
+    void unaryOperationsMatchBigDecimal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            long value = i < BOUNDARIES.length ? BOUNDARIES[i] : randomRaw(random);
+            BigDecimal decimal = BigDecimal.valueOf(value, FixedPoint.FRACTION_DIGITS);
+            assertEquals(-value, FixedPoint.apply(UnaryOperation.NEGATE, value));
+            assertEquals(expected(decimal.multiply(decimal)), FixedPoint.apply(UnaryOperation.SQUARE, value),
+                    () -> "square of " + decimal);
+            long root = FixedPoint.apply(UnaryOperation.SQUARE_ROOT, value);
+            if (value < 0) {
+                assertEquals(FixedPoint.OUT_OF_RANGE, root);
+            } else {
+                assertEquals(expected(decimal.sqrt(new MathContext(60))), root, () -> "root of " + decimal);
+            }
+            long reciprocal = FixedPoint.apply(UnaryOperation.RECIPROCAL, value);
+            if (value == 0) {
+                assertEquals(FixedPoint.OUT_OF_RANGE, reciprocal);
+            } else if (Math.abs(value) > Long.MAX_VALUE / 10) {
+                assertTrue(reciprocal == FixedPoint.OUT_OF_RANGE || reciprocal == 0);
+            } else {
+                assertEquals(expected(BigDecimal.ONE.divide(decimal, FixedPoint.FRACTION_DIGITS,
+                        RoundingMode.HALF_EVEN)), reciprocal, () -> "reciprocal of " + decimal);
+            }
+        }
+    }
+
+    @Test
+    void fromDoubleRoundsLikeBigDecimal() {
+        Random random = new Random(3);
+        double[] edges = {0, -0.0, 5e-8, -5e-8, 1.5e-7, -1.5e-7, 2.5e-7, -2.5e-7, 0x1p52 / 1e7,
+                Math.nextDown(0x1p52 / 1e7), -0x1p52 / 1e7, 0x1p63 / 1e7, Math.nextDown(0x1p63 / 1e7),
+                -Math.nextDown(0x1p63 / 1e7), 922337203685.4775807, Double.MAX_VALUE, Double.MIN_VALUE};
+        for (double value : edges) {
+            assertFromDouble(value);
+        }
+        for (int i = 0; i < 200_000; i++) {
+            double value = switch (random.nextInt(3)) {
+                case 0 -> (random.nextInt(2_000_000) - 1_000_000 + 0.5) / 1e7;
+                case 1 -> random.nextGaussian() * Math.pow(10, random.nextInt(24) - 9);
+                default -> Double.longBitsToDouble(random.nextLong());
+            };
+            assertFromDouble(value);
+        }
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.fromDouble(Double.NaN));
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.fromDouble(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    void convertsDecimals() {
+        Random random = new Random(9);
+        DecimalRegister register = new DecimalRegister();
+        for (int i = 0; i < 100_000; i++) {
+            long unscaled = random.nextLong() >> random.nextInt(64);
+            int scale = random.nextInt(30) - 12;
+            register.set(unscaled, scale);
+            long raw = FixedPoint.fromDecimal(register);
+            BigDecimal decimal = register.toBigDecimal();
+            if (scale > FixedPoint.FRACTION_DIGITS || decimal.abs().compareTo(MAX) > 0) {
+                assertEquals(FixedPoint.OUT_OF_RANGE, raw, decimal::toString);
+            } else {
+                assertEquals(decimal.movePointRight(FixedPoint.FRACTION_DIGITS).longValueExact(), raw,
+                        decimal::toString);
+                FixedPoint.toDecimal(raw, register);
+                assertEquals(0, decimal.compareTo(register.toBigDecimal()));
+                if (Math.abs(raw) <= 1L << 53) {
+                    assertEquals(decimal.doubleValue(), FixedPoint.toDouble(raw), decimal::toString);
+                }
+            }
+        }
+        register.set(Long.MIN_VALUE, FixedPoint.FRACTION_DIGITS);
+        assertEquals(FixedPoint.OUT_OF_RANGE, FixedPoint.fromDecimal(register));
+    }
+
+    private static void assertMatchesBigDecimal(long left, long right) {
+        BigDecimal a = BigDecimal.valueOf(left, FixedPoint.FRACTION_DIGITS);
+        BigDecimal b = BigDecimal.valueOf(right, FixedPoint.FRACTION_DIGITS);
+        assertEquals(expected(a.add(b)), FixedPoint.add(left, right), () -> a + " + " + b);
+        assertEquals(expected(a.subtract(b)), FixedPoint.subtract(left, right), () -> a + " - " + b);
+        assertEquals(expected(a.multiply(b)), FixedPoint.multiply(left, right), () -> a + " × " + b);
+        long quotient = FixedPoint.divide(left, right);
+        if (right == 0) {
+            assertEquals(FixedPoint.OUT_OF_RANGE, quotient);
+        } else if (Math.abs(right) > Long.MAX_VALUE / 10) {
+            // Divisors past 10^11 are left to the caller's fallback even where the quotient would fit
+            assertTrue(quotient == FixedPoint.OUT_OF_RANGE
+                    || quotient == expected(a.divide(b, FixedPoint.FRACTION_DIGITS, RoundingMode.HALF_EVEN)));
+        } else {
+            assertEquals(expected(a.divide(b, FixedPoint.FRACTION_DIGITS, RoundingMode.HALF_EVEN)), quotient,
+                    () -> a + " ÷ " + b);
+        }
+    }
+
+    private static void assertFromDouble(double value) {
+        long expected = Double.isFinite(value) ? expected(new BigDecimal(value)) : FixedPoint.OUT_OF_RANGE;
+        assertEquals(expected, FixedPoint.fromDouble(value), () -> Double.toString(value));
+    }
+
+    /**
+     * The raw value of {@code value} rounded HALF_EVEN to 7 fraction digits, or OUT_OF_RANGE if that does not fit.
+     */
+    private static long expected(BigDecimal value) {
+        BigDecimal rounded = value.setScale(FixedPoint.FRACTION_DIGITS, RoundingMode.HALF_EVEN);
+        if (rounded.abs().compareTo(MAX) > 0) {
+            return FixedPoint.OUT_OF_RANGE;
+        }
+        long raw = rounded.unscaledValue().longValueExact();
+        assertTrue(raw != FixedPoint.OUT_OF_RANGE);
+        return raw;
+    }
+
+    private static long randomRaw(Random random) {
+        long value = switch (random.nextInt(6)) {
+            case 0 -> BOUNDARIES[random.nextInt(BOUNDARIES.length)] + random.nextInt(5) - 2;
+            case 1 -> random.nextInt(2_000) * (FixedPoint.ONE / 2) + random.nextInt(3) - 1;
+            case 2 -> SQUARE_LIMIT + random.nextInt(2_000_001) - 1_000_000;
+            case 3 -> random.nextLong() & Long.MAX_VALUE;
+            case 4 -> random.nextInt(100_000);
+            default -> (random.nextLong() & Long.MAX_VALUE) >> random.nextInt(63);
+        };
+        // Boundaries plus a few can pass Long.MAX_VALUE, and no operand is ever OUT_OF_RANGE
+        value = value < 0 ? FixedPoint.MAX_VALUE : value;
+        return random.nextBoolean() ? -value : value;
+    }
+}
@@ -0,0 +1,220 @@
+package org.openjfx.model;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.enums.Aggregate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryBankTest {
+    private static final MathContext EXACT = MathContext.DECIMAL128;
+
+    @Test
+    void statisticsMatchAnExactTwoPassComputation() {
+        Random random = new Random(3);
+        for (double offset : new double[]{0, 1e6, 1e9, -1e12}) {
+            double[] values = new double[10_000];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = offset + random.nextDouble();
+            }
+            RunningStatistics stats = new RunningStatistics();
+            for (double value : values) {
+                stats.add(value);
+            }
+            String description = "offset " + offset;
+            assertEquals(values.length, stats.getCount());
+            assertEquals(exactSum(values).doubleValue(), stats.getSum(), description);
+            BigDecimal mean = exactSum(values).divide(BigDecimal.valueOf(values.length), EXACT);
+            assertEquals(mean.doubleValue(), stats.getMean(), Math.ulp(mean.doubleValue()), description);
+            double variance = exactVariance(values, mean).doubleValue();
+            // Welford's error comes from rounding the running mean, about an ulp of the offset per unit of spread;
+            // the textbook sum of squares would lose an ulp of the offset squared instead
+            double tolerance = varianceTolerance(offset, variance);
+            assertEquals(variance, stats.getVariance(), tolerance, description);
+            assertEquals(Math.sqrt(variance), stats.get(Aggregate.STANDARD_DEVIATION),
+                    tolerance / Math.sqrt(variance), description);
+        }
+    }
+
+    @Test
+    void sumsCancellingTermsExactly() {
+        double[] values = {1e100, 1.0, -1e100, 0.1, 0.2, -0.3, 1e-20, 3e16, 1, -3e16};
+        RunningStatistics stats = new RunningStatistics();
+        for (double value : values) {
+            stats.add(value);
+        }
+        assertEquals(exactSum(values).doubleValue(), stats.getSum());
+        // The register agrees with the sum of its entries
+        MemoryBank bank = new MemoryBank();
+        for (double value : values) {
+            bank.add(value);
+        }
+        assertEquals(stats.getSum(), bank.recall());
+        assertEquals(stats.getSum(), bank.recall(Aggregate.SUM));
+        assertEquals(-1e100, stats.getMin());
+        assertEquals(1e100, stats.getMax());
+    }
+
+    @Test
+    void combiningMatchesAddingInSequence() {
+        Random random = new Random(5);
+        double[] values = new double[1_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e8 + random.nextGaussian();
+        }
+        for (int split : new int[]{0, 1, 500, 999, 1_000}) {
+            RunningStatistics sequential = new RunningStatistics();
+            RunningStatistics left = new RunningStatistics();
+            RunningStatistics right = new RunningStatistics();
+            for (int i = 0; i < values.length; i++) {
+                sequential.add(values[i]);
+                (i < split ? left : right).add(values[i]);
+            }
+            left.combine(right);
+            String description = "split at " + split;
+            assertEquals(sequential.getCount(), left.getCount(), description);
+            assertEquals(sequential.getSum(), left.getSum(), description);
+            assertEquals(sequential.getMean(), left.getMean(), description);
+            assertEquals(sequential.getVariance(), left.getVariance(),
+                    2 * varianceTolerance(1e8, sequential.getVariance()), description);
+            assertEquals(sequential.getMin(), left.getMin(), description);
+            assertEquals(sequential.getMax(), left.getMax(), description);
+        }
+        RunningStatistics empty = new RunningStatistics();
+        empty.combine(new RunningStatistics());
+        assertEquals(0, empty.getCount());
+        assertEquals(Double.NaN, empty.getMin());
+        assertEquals(0, empty.getVariance());
+    }
+
+    @Test
+    void subtractingAddsTheNegatedValue() {
+        MemoryBank subtracted = new MemoryBank();
+        MemoryBank added = new MemoryBank();
+        for (double value : new double[]{2.5, -1, 1e10, 0.1, 7}) {
+            subtracted.subtract(value);
+            added.add(-value);
+        }
+        assertArrayEquals(state(added), state(subtracted));
+        assertEquals(-1e10 - 8.6, subtracted.recall(), 1e-6);
+        assertEquals(5, subtracted.recall(Aggregate.COUNT));
+        assertEquals(-1e10, subtracted.recall(Aggregate.MIN));
+    }
+
+    @Test
+    void keysActOnTheSelectedRegister() {
+        MemoryBank bank = new MemoryBank(4);
+        bank.add(1);
+        bank.select(2);
+        long revision = bank.getRevision();
+        bank.select(2);
+        assertEquals(revision, bank.getRevision());
+        bank.add(5);
+        bank.add(7);
+        bank.subtract(2);
+        assertEquals(2, bank.getSelected());
+        assertEquals(10, bank.recall());
+        assertEquals(1, bank.recall(0));
+        assertEquals(10, bank.recall(2));
+        assertEquals(3, bank.recall(Aggregate.COUNT));
+        assertEquals(10 / 3.0, bank.recall(Aggregate.MEAN), 1e-15);
+        assertEquals(67 / 3.0, bank.recall(Aggregate.VARIANCE), 1e-12);
+
+        bank.clear();
+        assertEquals(0, bank.recall());
+        assertEquals(0, bank.recall(Aggregate.COUNT));
+        assertFalse(bank.isOccupied(2));
+        assertTrue(bank.isOccupied(0));
+        assertEquals(1, bank.recall(0));
+        assertFalse(bank.isEmpty());
+
+        bank.add(4);
+        bank.clearAll();
+        assertEquals(0, bank.getSelected());
+        assertTrue(bank.isEmpty());
+        assertEquals(0, bank.recall(2));
+        assertNotEquals(revision, bank.getRevision());
+        assertThrows(IllegalArgumentException.class, () -> bank.select(4));
+        assertThrows(IllegalArgumentException.class, () -> bank.select(-1));
+        assertThrows(IllegalArgumentException.class, () -> new MemoryBank(0));
+    }
+
+    @Test
+    void registersRoundTripIntoBanksOfAnySize() {
+        MemoryBank bank = new MemoryBank(6);
+        for (int register = 0; register < bank.size(); register++) {
+            bank.select(register);
+            for (int i = 0; i <= register; i++) {
+                bank.add(register * 10 + i + 0.25);
+            }
+        }
+        byte[] written = state(bank);
+
+        MemoryBank same = new MemoryBank(6);
+        same.readFrom(ByteBuffer.wrap(written));
+        assertArrayEquals(written, state(same));
+        assertEquals(5, same.getSelected());
+
+        // A smaller bank keeps the registers it has, and the selection within them
+        MemoryBank smaller = new MemoryBank(3);
+        smaller.readFrom(ByteBuffer.wrap(written));
+        assertEquals(2, smaller.getSelected());
+        for (int register = 0; register < smaller.size(); register++) {
+            assertEquals(bank.recall(register), smaller.recall(register));
+            assertEquals(register + 1, smaller.getStatistics(register).getCount());
+            assertEquals(bank.getStatistics(register).getVariance(), smaller.getStatistics(register).getVariance());
+        }
+
+        // A larger one clears the registers the snapshot does not have
+        MemoryBank larger = new MemoryBank(MemoryBank.DEFAULT_REGISTERS);
+        larger.add(9, 99);
+        larger.readFrom(ByteBuffer.wrap(written));
+        assertEquals(5, larger.getSelected());
+        for (int register = 0; register < bank.size(); register++) {
+            assertEquals(bank.recall(register), larger.recall(register));
+        }
+        assertFalse(larger.isOccupied(9));
+        assertEquals(0, larger.recall(9));
+
+        ByteBuffer invalid = ByteBuffer.wrap(written.clone()).put(1, (byte) 6);
+        assertThrows(IllegalArgumentException.class, () -> new MemoryBank().readFrom(invalid));
+    }
+
+    private static double varianceTolerance(double offset, double variance) {
+        return 4 * Math.ulp(offset) * Math.sqrt(variance) + 1e-12 * variance;
+    }
+
+    private static BigDecimal exactSum(double[] values) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (double value : values) {
+            sum = sum.add(new BigDecimal(value));
+        }
+        return sum;
+    }
+
+    private static BigDecimal exactVariance(double[] values, BigDecimal mean) {
+        BigDecimal squares = BigDecimal.ZERO;
+        for (double value : values) {
+            BigDecimal deviation = new BigDecimal(value).subtract(mean);
+            squares = squares.add(deviation.multiply(deviation));
+        }
+        return squares.divide(BigDecimal.valueOf(values.length - 1), EXACT);
+    }
+
+    private static byte[] state(MemoryBank bank) {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        bank.writeTo(buffer);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,203 @@
+package org.openjfx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+    private static final int COUNT = 1_000_000;
+    // The documented typical rank error at the default k, and a ceiling for the worst of 99 quantiles
+    private static final double TYPICAL_ERROR = 0.005;
+    private static final double MAX_ERROR = 0.01;
+
+    @Test
+    void quantilesAreWithinTheRankBound() {
+        for (double[] values : new double[][]{gaussian(1), sorted(2), reversed(3), fewDistinct(4)}) {
+            QuantileSketch sketch = new QuantileSketch();
+            for (double value : values) {
+                sketch.add(value);
+            }
+            assertWithinBound(sketch, values);
+        }
+    }
+
+    @Test
+    void extremesAreExact() {
+        double[] values = gaussian(5);
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+        assertEquals(Arrays.stream(values).min().orElseThrow(), sketch.quantile(0));
+        assertEquals(Arrays.stream(values).max().orElseThrow(), sketch.quantile(1));
+        assertEquals(COUNT, sketch.getCount());
+        sketch.add(Double.NaN);
+        assertEquals(COUNT, sketch.getCount());
+        assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+    }
+
+    @Test
+    void retainedSizeIsBounded() {
+        for (int k : new int[]{8, 50, QuantileSketch.DEFAULT_K, 1000}) {
+            QuantileSketch sketch = new QuantileSketch(k);
+            Random random = new Random(k);
+            int mostRetained = 0;
+            for (int i = 0; i < COUNT; i++) {
+                sketch.add(random.nextDouble());
+                mostRetained = Math.max(mostRetained, sketch.getRetained());
+            }
+            // About 3k, plus at most the minimum level capacity for each of the levels a million values need
+            int levels = 64 - Long.numberOfLeadingZeros(COUNT);
+            assertTrue(mostRetained <= 3 * k + 8 * levels, "k " + k + " retained " + mostRetained);
+        }
+    }
+
+    @Test
+    void mergedSketchesAreAsAccurate() {
+        double[] values = gaussian(6);
+        QuantileSketch merged = new QuantileSketch();
+        QuantileSketch part = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            part.add(values[i]);
+            if ((i + 1) % (values.length / 7) == 0 || i == values.length - 1) {
+                merged.merge(part);
+                part = new QuantileSketch();
+            }
+        }
+        assertEquals(COUNT, merged.getCount());
+        assertTrue(merged.getRetained() <= 3 * QuantileSketch.DEFAULT_K + 8 * 20, "retained " + merged.getRetained());
+        assertWithinBound(merged, values);
+
+        QuantileSketch whole = new QuantileSketch();
+        Arrays.stream(values).forEach(whole::add);
+        assertEquals(whole.quantile(0), merged.quantile(0));
+        assertEquals(whole.quantile(1), merged.quantile(1));
+        merged.merge(new QuantileSketch());
+        assertEquals(COUNT, merged.getCount());
+    }
+
+    @Test
+    void identicalStreamsGiveIdenticalSketches() {
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (double value : gaussian(7)) {
+            first.add(value);
+            second.add(value);
+        }
+        assertArrayEquals(bytes(first), bytes(second));
+        for (double q = 0; q <= 1; q += 0.001) {
+            assertEquals(first.quantile(q), second.quantile(q));
+        }
+        first.clear();
+        second.clear();
+        assertArrayEquals(bytes(new QuantileSketch()), bytes(first));
+    }
+
+    @Test
+    void readSketchesCarryOnIdentically() {
+        double[] values = gaussian(8);
+        QuantileSketch original = new QuantileSketch();
+        for (int i = 0; i < values.length / 2; i++) {
+            original.add(values[i]);
+        }
+        QuantileSketch read = new QuantileSketch();
+        read.readFrom(ByteBuffer.wrap(bytes(original)));
+        assertEquals(original.getCount(), read.getCount());
+        assertEquals(original.getRetained(), read.getRetained());
+        for (double q = 0; q <= 1; q += 0.01) {
+            assertEquals(original.quantile(q), read.quantile(q));
+            assertEquals(original.rank(values[(int) (q * (values.length - 1))]),
+                    read.rank(values[(int) (q * (values.length - 1))]));
+        }
+        // The generator state is saved too, so both compact the rest alike
+        for (int i = values.length / 2; i < values.length; i++) {
+            original.add(values[i]);
+            read.add(values[i]);
+        }
+        assertArrayEquals(bytes(original), bytes(read));
+        assertWithinBound(read, values);
+    }
+
+    /**
+     * Checks that the exact rank of each percentile the sketch returns, and the sketch's rank of each exact
+     * percentile, is within the bound of the requested fraction.
+     */
+    private static void assertWithinBound(QuantileSketch sketch, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double totalError = 0;
+        for (int percent = 1; percent < 100; percent++) {
+            double q = percent / 100.0;
+            double error = Math.abs(rank(sorted, sketch.quantile(q)) - q);
+            assertTrue(error <= MAX_ERROR, "quantile " + q + " has rank error " + error);
+            double exact = sorted[(int) Math.ceil(q * sorted.length) - 1];
+            double rankError = Math.abs(sketch.rank(exact) - rank(sorted, exact));
+            assertTrue(rankError <= MAX_ERROR, "rank of " + exact + " has error " + rankError);
+            totalError += error;
+        }
+        assertTrue(totalError / 99 <= TYPICAL_ERROR, "mean rank error " + totalError / 99);
+    }
+
+    /**
+     * The exact fraction of {@code sorted} at or below {@code value}.
+     */
+    private static double rank(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return (double) low / sorted.length;
+    }
+
+    private static double[] gaussian(long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = random.nextGaussian() * 1e3;
+        }
+        return values;
+    }
+
+    private static double[] sorted(long seed) {
+        double[] values = gaussian(seed);
+        Arrays.sort(values);
+        return values;
+    }
+
+    private static double[] reversed(long seed) {
+        double[] values = sorted(seed);
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+        return values;
+    }
+
+    private static double[] fewDistinct(long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = random.nextInt(1000);
+        }
+        return values;
+    }
+
+    private static byte[] bytes(QuantileSketch sketch) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        sketch.writeTo(buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+}
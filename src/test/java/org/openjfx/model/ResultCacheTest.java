@@ -0,0 +1,98 @@
+package org.openjfx.model;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.enums.Operation;
+import org.openjfx.enums.UnaryOperation;
+import org.openjfx.model.ResultCache.CachedResult;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedResult() {
+        ResultCache cache = new ResultCache(3);
+        CachedResult oldest = cache.get(Operation.PLUS, 1, 1);
+        cache.get(Operation.PLUS, 1, 2);
+        cache.get(Operation.PLUS, 1, 3);
+        assertCounts(cache, 0, 3, 0);
+        assertEquals(3, cache.size());
+
+        // Touching the oldest leaves 1 + 2 as the least recently used
+        assertSame(oldest, cache.get(Operation.PLUS, 1, 1));
+        assertCounts(cache, 1, 3, 0);
+        cache.get(Operation.PLUS, 1, 4);
+        assertCounts(cache, 1, 4, 1);
+        assertEquals(3, cache.size());
+
+        assertSame(oldest, cache.get(Operation.PLUS, 1, 1));
+        assertCounts(cache, 2, 4, 1);
+        cache.get(Operation.PLUS, 1, 3);
+        assertCounts(cache, 3, 4, 1);
+        cache.get(Operation.PLUS, 1, 4);
+        assertCounts(cache, 4, 4, 1);
+        // Evicted, so computed again, which evicts 1 + 1, now the least recently used
+        assertEquals(3, cache.get(Operation.PLUS, 1, 2).getValue());
+        assertCounts(cache, 4, 5, 2);
+        assertNotSame(oldest, cache.get(Operation.PLUS, 1, 1));
+        assertCounts(cache, 4, 6, 3);
+        assertEquals(3, cache.size());
+        assertEquals("ResultCache[size=3/3, hits=4, misses=6, evictions=3]", cache.toString());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new ResultCache(0));
+    }
+
+    @Test
+    void keysTellOperationsAndSignedZerosApart() {
+        ResultCache cache = new ResultCache(16);
+        assertEquals(5, cache.get(Operation.PLUS, 5, 0).getValue());
+        assertEquals(-5, cache.get(UnaryOperation.NEGATE, 5).getValue());
+        assertEquals(5, cache.get(Operation.MINUS, 5, 0).getValue());
+        assertEquals(Double.POSITIVE_INFINITY, cache.get(Operation.DIVIDE, 1, 0.0).getValue());
+        assertEquals(Double.NEGATIVE_INFINITY, cache.get(Operation.DIVIDE, 1, -0.0).getValue());
+        assertCounts(cache, 0, 5, 0);
+        assertEquals(Double.NaN, cache.get(UnaryOperation.SQUARE_ROOT, -1).getValue());
+        assertEquals(Double.NaN, cache.get(UnaryOperation.SQUARE_ROOT, -1).getValue());
+        assertCounts(cache, 1, 6, 0);
+    }
+
+    @Test
+    void cachedResultsMatchUncachedOnes() {
+        Random random = new Random(9);
+        ResultCache cache = new ResultCache(64);
+        for (int i = 0; i < 2_000; i++) {
+            // Few enough distinct operands that lookups both hit and evict
+            double left = random.nextInt(20) - 5 + (random.nextBoolean() ? 0.1 : 0);
+            double right = random.nextInt(20) - 5;
+            for (Operation operation : Operation.values()) {
+                double expected = operation.apply(left, right);
+                assertResult(expected, cache.get(operation, left, right), operation + " " + left + ", " + right);
+            }
+            for (UnaryOperation operation : UnaryOperation.values()) {
+                double expected = operation.apply(left);
+                assertResult(expected, cache.get(operation, left), operation + " " + left);
+            }
+        }
+        long lookups = 2_000L * (Operation.values().length + UnaryOperation.values().length);
+        assertEquals(lookups, cache.getHitCount() + cache.getMissCount());
+        assertEquals(cache.getMissCount() - cache.size(), cache.getEvictionCount());
+    }
+
+    private static void assertResult(double expected, CachedResult result, String description) {
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(result.getValue()), description);
+        assertEquals(DisplayFormatter.format(expected), result.getDisplayText(), description);
+    }
+
+    private static void assertCounts(ResultCache cache, long hits, long misses, long evictions) {
+        assertEquals(hits, cache.getHitCount(), "hits");
+        assertEquals(misses, cache.getMissCount(), "misses");
+        assertEquals(evictions, cache.getEvictionCount(), "evictions");
+    }
+}
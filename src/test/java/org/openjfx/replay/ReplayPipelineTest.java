@@ -0,0 +1,220 @@
+package org.openjfx.replay;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.batch.BatchEvaluator;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.NumericMode;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayPipelineTest {
+    // Everything up to the macro keys, which need macros set
+    private static final Keystroke[] KEYS = Arrays.copyOf(Keystroke.values(), Keystroke.MACRO_1.ordinal());
+    private static final String[] ALIASES = {"*", "/", "enter", "esc", "delete", "backspace", "neg", "recip",
+            "sqr", "sqrt", "mc", "mr", "m+", "m-", "m3", "count", "mean", "var", "stat+", "statclear", "statn",
+            "statsum", "statmean", "statsd", "statmin", "statmax", "statpct"};
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    void resultsMatchBatchReplayInInputOrder() throws Exception {
+        for (NumericMode mode : NumericMode.values()) {
+            Log log = randomLog(new Random(mode.ordinal()), 2_000);
+            // One waiting chunk of three lines, so the decoder blocks on the queue and reuses two chunks throughout
+            ReplayPipeline pipeline = new ReplayPipeline(1, 3);
+            pipeline.getEngine().setNumericMode(mode);
+            BatchEvaluator expected = new BatchEvaluator();
+            expected.getEngine().setNumericMode(mode);
+            CountingReader input = new CountingReader(log.text);
+            List<Long> lines = new ArrayList<>();
+            long tapes = assertTimeoutPreemptively(TIMEOUT, () -> pipeline.run(input, (line, engine) -> {
+                int tape = lines.size();
+                lines.add(line);
+                byte[] codes = log.codes.get(tape);
+                double value = expected.replay(codes, 0, codes.length);
+                String description = mode + " line " + line;
+                assertEquals(Double.doubleToRawLongBits(value), Double.doubleToRawLongBits(engine.getValue()),
+                        description);
+                assertEquals(expected.getEngine().getDisplayText(), engine.getDisplayText(), description);
+                // Read ahead no further than the rest of this chunk, one more chunk and the read buffer
+                int ahead = Math.min(tape + 5, log.ends.size() - 1);
+                long readAhead = input.read - log.ends.get(tape);
+                assertTrue(readAhead <= log.ends.get(ahead) - log.ends.get(tape) + 8192,
+                        description + " read ahead " + readAhead);
+            }));
+            assertEquals(log.lines, lines);
+            assertEquals(log.lines.size(), tapes);
+        }
+    }
+
+    @Test
+    void malformedLinesAreReportedWithTheirNumber() {
+        String text = "1 + 2 =\n\n3 × 4 =\n12.5 bogus =\n6\n";
+        for (int chunkSize : new int[]{1, 2, 100}) {
+            List<Long> lines = new ArrayList<>();
+            ReplayPipeline pipeline = new ReplayPipeline(1, chunkSize);
+            ParseException e = assertThrows(ParseException.class, () -> assertTimeoutPreemptively(TIMEOUT,
+                    () -> pipeline.run(new StringReader(text), (line, engine) -> lines.add(line))));
+            assertEquals(4, e.getErrorOffset());
+            assertEquals("Unknown keystroke 'bogus' on line 4", e.getMessage());
+            // The lines before it were still replayed
+            assertEquals(List.of(1L, 3L), lines);
+        }
+    }
+
+    @Test
+    void listenerFailuresReachTheCaller() throws InterruptedException {
+        Log log = randomLog(new Random(1), 1_000);
+        IOException failure = new IOException("Listener failed");
+        ReplayPipeline pipeline = new ReplayPipeline(1, 2);
+        IOException e = assertThrows(IOException.class, () -> assertTimeoutPreemptively(TIMEOUT,
+                () -> pipeline.run(new StringReader(log.text), (line, engine) -> {
+                    if (line == log.lines.get(10)) {
+                        throw failure;
+                    }
+                })));
+        assertSame(failure, e);
+        assertDecoderStops();
+    }
+
+    @Test
+    void decoderFailuresReachTheCaller() throws InterruptedException {
+        Log log = randomLog(new Random(2), 1_000);
+        int failAt = log.text.length() / 2;
+        for (Throwable failure : new Throwable[]{
+                new IOException("Reader failed"), new IllegalStateException("Reader failed"),
+                new OutOfMemoryError("Reader failed")}) {
+            Reader input = new FilterReader(new StringReader(log.text)) {
+                private int read;
+
+                @Override
+                public int read(char[] buffer, int offset, int length) throws IOException {
+                    if (read >= failAt) {
+                        sneakyThrow(failure);
+                    }
+                    int count = super.read(buffer, offset, Math.min(length, 100));
+                    read += Math.max(count, 0);
+                    return count;
+                }
+            };
+            List<Long> lines = new ArrayList<>();
+            ReplayPipeline pipeline = new ReplayPipeline(1, 2);
+            Throwable e = assertThrows(Throwable.class, () -> assertTimeoutPreemptively(TIMEOUT,
+                    () -> pipeline.run(input, (line, engine) -> lines.add(line))));
+            assertSame(failure, e);
+            // Everything decoded before the failure was replayed, in order
+            assertEquals(log.lines.subList(0, lines.size()), lines);
+            assertTrue(log.ends.get(lines.size() - 1) <= failAt);
+            assertDecoderStops();
+        }
+    }
+
+    private static void assertDecoderStops() throws InterruptedException {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("keystroke-log-decoder")) {
+                thread.join(TIMEOUT.toMillis());
+                assertFalse(thread.isAlive(), "Decoder thread still running");
+            }
+        }
+    }
+
+    /**
+     * Lines of random keys, written with their symbols, aliases or as runs of digits, with the occasional
+     * blank line and one line long enough to grow a chunk's code buffer.
+     */
+    private static Log randomLog(Random random, int tapes) {
+        Log log = new Log();
+        StringBuilder text = new StringBuilder();
+        long line = 1;
+        for (int tape = 0; tape < tapes; tape++) {
+            while (random.nextInt(10) == 0) {
+                text.append(random.nextBoolean() ? "\n" : "  \t\n");
+                line++;
+            }
+            List<Keystroke> keys = new ArrayList<>();
+            int length = tape == tapes / 2 ? 1_500 : 1 + random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    text.append(random.nextInt(5) == 0 ? "\t" : " ");
+                }
+                if (random.nextInt(4) == 0) {
+                    String number = random.nextInt(1_000) + (random.nextBoolean() ? "." + random.nextInt(100) : "");
+                    text.append(number);
+                    for (char c : number.toCharArray()) {
+                        keys.add(c == '.' ? Keystroke.DECIMAL : Keystroke.digit(c - '0'));
+                    }
+                } else {
+                    Keystroke keystroke = KEYS[random.nextInt(KEYS.length)];
+                    text.append(random.nextBoolean() ? keystroke.symbol() : alias(keystroke));
+                    keys.add(keystroke);
+                }
+            }
+            // The last line may end without a newline
+            if (tape < tapes - 1 || random.nextBoolean()) {
+                text.append('\n');
+            }
+            byte[] codes = new byte[keys.size()];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = keys.get(i).code();
+            }
+            log.codes.add(codes);
+            log.lines.add(line++);
+            log.ends.add((long) text.length());
+        }
+        log.text = text.toString();
+        return log;
+    }
+
+    // The ASCII alias of a key that has one, as keystroke logs usually spell it
+    private static String alias(Keystroke keystroke) {
+        for (String alias : ALIASES) {
+            if (Keystroke.fromSymbol(alias) == keystroke) {
+                return alias;
+            }
+        }
+        return keystroke.symbol();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> void sneakyThrow(Throwable e) throws E {
+        throw (E) e;
+    }
+
+    private static final class Log {
+        final List<byte[]> codes = new ArrayList<>();
+        final List<Long> lines = new ArrayList<>();
+        // Offset just past each tape's line in the text
+        final List<Long> ends = new ArrayList<>();
+        String text;
+    }
+
+    private static final class CountingReader extends FilterReader {
+        volatile long read;
+
+        CountingReader(String text) {
+            super(new StringReader(text));
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            read += Math.max(count, 0);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package org.openjfx.replay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjfx.controller.CalculatorController;
+import org.openjfx.conversion.ConversionTable;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.NumericMode;
+import org.openjfx.enums.Operation;
+import org.openjfx.model.CalculatorEngine;
+import org.openjfx.model.CalculatorModel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TapeReaderTest {
+    private static final NumericMode[] MODES = NumericMode.values();
+    // Everything up to the macro keys, which need macros set
+    private static final Keystroke[] KEYS = Arrays.copyOf(Keystroke.values(), Keystroke.MACRO_1.ordinal());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayStartsFromTheRecordedState() throws IOException, ParseException {
+        for (NumericMode mode : NumericMode.values()) {
+            CalculatorEngine engine = new CalculatorEngine();
+            engine.setNumericMode(mode);
+            press(engine, "M2 4 M+ 1 Σ+ 5 +");
+            Path file = directory.resolve("restored.tape");
+            try (TapeWriter writer = new TapeWriter(file, engine)) {
+                record(writer, engine, "3 = M+ MR Σ+ Σn");
+            }
+
+            try (TapeReader reader = new TapeReader(file)) {
+                assertEquals(6, reader.size());
+                assertEquals(8, reader.value(1), mode::toString);
+                CalculatorEngine replayed = new CalculatorEngine();
+                press(replayed, "7 M+ 9 ×");
+                List<Double> values = new ArrayList<>();
+                reader.replay(replayed, (index, state) -> values.add(state.getValue()));
+                for (int i = 0; i < reader.size(); i++) {
+                    assertEquals(reader.value(i), values.get(i), mode + " record " + i);
+                }
+                assertEquals(2, replayed.getStatistics().getCount());
+                assertEquals(12, replayed.getMemory().recall());
+                assertEquals(2, replayed.getMemory().getSelected());
+            }
+        }
+    }
+
+    @Test
+    void conversionsReplayTheConvertedValue() throws IOException, ParseException {
+        ConversionTable table = ConversionTable.parse(List.of("EUR USD 1.1"), "rates");
+        CalculatorModel model = new CalculatorModel();
+        CalculatorController controller = new CalculatorController(model, text -> { });
+        Path file = directory.resolve("conversion.tape");
+        try (TapeWriter writer = new TapeWriter(file, model.getEngine())) {
+            controller.setTapeWriter(writer);
+            press(controller, "5 + 2");
+            controller.handleConversion(table, table.indexOf("EUR"), table.indexOf("USD"));
+            press(controller, "= × 3 =");
+        }
+        assertEquals(21.6, model.getDisplayValue(), 1e-12);
+
+        try (TapeReader reader = new TapeReader(file)) {
+            assertEquals(8, reader.size());
+            assertNull(reader.keystroke(3));
+            assertTrue(reader.setsValue(3));
+            assertFalse(reader.setsValue(4));
+            assertEquals(2.2, reader.value(3), 1e-12);
+            CalculatorEngine replayed = new CalculatorEngine();
+            List<Double> values = new ArrayList<>();
+            reader.replay(replayed, (index, state) -> values.add(state.getValue()));
+            for (int i = 0; i < reader.size(); i++) {
+                assertEquals(reader.value(i), values.get(i), "record " + i);
+            }
+            assertEquals(model.getDisplayText(), replayed.getDisplayText());
+        }
+    }
+
+    @Test
+    void macroKeysReplayTheValueTheyShowed() throws IOException, ParseException {
+        CalculatorModel model = new CalculatorModel();
+        model.setMacro(0, x -> x * 2 + 1);
+        CalculatorController controller = new CalculatorController(model, text -> { });
+        Path file = directory.resolve("macro.tape");
+        try (TapeWriter writer = new TapeWriter(file, model.getEngine())) {
+            controller.setTapeWriter(writer);
+            // ƒ2 is empty, does nothing and is left off the tape
+            press(controller, "5 + 2 ƒ1 = ƒ2 × 3 =");
+        }
+        assertEquals(30, model.getDisplayValue());
+
+        try (TapeReader reader = new TapeReader(file)) {
+            assertEquals(8, reader.size());
+            assertEquals(Keystroke.MACRO_1, reader.keystroke(3));
+            assertTrue(reader.setsValue(3));
+            assertEquals(5, reader.value(3));
+            // The replaying engine has a different macro in slot 1, or none at all
+            CalculatorEngine edited = new CalculatorEngine();
+            edited.setMacro(0, x -> -x);
+            for (CalculatorEngine replayed : new CalculatorEngine[]{new CalculatorEngine(), edited}) {
+                List<Double> values = new ArrayList<>();
+                reader.replay(replayed, (index, state) -> values.add(state.getValue()));
+                for (int i = 0; i < reader.size(); i++) {
+                    assertEquals(reader.value(i), values.get(i), "record " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void recordsRoundTrip() throws IOException, ParseException {
+        Random random = new Random(14);
+        for (int regionRecords : new int[]{1, 3, 64, TapeWriter.DEFAULT_REGION_RECORDS}) {
+            Path file = directory.resolve("round-trip-" + regionRecords + ".tape");
+            CalculatorEngine engine = new CalculatorEngine();
+            List<Record> written = new ArrayList<>();
+            long before = System.currentTimeMillis();
+            try (TapeWriter writer = new TapeWriter(file, engine, regionRecords)) {
+                for (int i = 0; i < 500; i++) {
+                    if (random.nextInt(50) == 0) {
+                        engine.setNumericMode(MODES[random.nextInt(MODES.length)]);
+                    }
+                    Keystroke keystroke = randomKey(random);
+                    engine.press(keystroke);
+                    if (random.nextInt(20) == 0) {
+                        Keystroke recorded = random.nextBoolean() ? keystroke : null;
+                        writer.writeValue(recorded, engine);
+                        written.add(new Record(recorded, true, engine));
+                    } else {
+                        writer.write(keystroke, engine);
+                        written.add(new Record(keystroke, false, engine));
+                    }
+                    assertEquals(i + 1, writer.size());
+                }
+            }
+            // Rolled over to a new region every regionRecords records
+            long regions = (500 + regionRecords - 1) / regionRecords;
+            assertEquals(TapeFormat.recordsStart(stateLength(file)) + regions * regionRecords * TapeFormat.RECORD_SIZE,
+                    Files.size(file));
+
+            try (TapeReader reader = new TapeReader(file)) {
+                assertEquals(500, reader.size());
+                assertTrue(reader.getStartMillis() >= before && reader.getStartMillis() <= System.currentTimeMillis());
+                int elapsed = 0;
+                for (int i = 0; i < written.size(); i++) {
+                    written.get(i).assertRead(reader, i);
+                    assertTrue(reader.elapsedMillis(i) >= elapsed);
+                    elapsed = reader.elapsedMillis(i);
+                }
+                assertThrows(IndexOutOfBoundsException.class, () -> reader.value(500));
+                assertThrows(IndexOutOfBoundsException.class, () -> reader.keystroke(-1));
+            }
+        }
+    }
+
+    @Test
+    void replayMatchesTheRecording() throws IOException, ParseException {
+        Random random = new Random(2014);
+        for (int tape = 0; tape < 200; tape++) {
+            CalculatorEngine engine = new CalculatorEngine();
+            engine.setNumericMode(MODES[random.nextInt(MODES.length)]);
+            for (int i = random.nextInt(20); i > 0; i--) {
+                engine.press(randomKey(random));
+            }
+            Path file = directory.resolve("replay.tape");
+            List<Record> written = new ArrayList<>();
+            try (TapeWriter writer = new TapeWriter(file, engine, 16)) {
+                for (int i = 1 + random.nextInt(100); i > 0; i--) {
+                    if (random.nextInt(30) == 0) {
+                        engine.setNumericMode(MODES[random.nextInt(MODES.length)]);
+                    }
+                    Keystroke keystroke = randomKey(random);
+                    engine.press(keystroke);
+                    writer.write(keystroke, engine);
+                    written.add(new Record(keystroke, false, engine));
+                }
+            }
+
+            try (TapeReader reader = new TapeReader(file)) {
+                CalculatorEngine replayed = new CalculatorEngine();
+                String description = "tape " + tape + " record ";
+                reader.replay(replayed, (index, state) ->
+                        written.get((int) index).assertState(state, description + index));
+                assertEquals(engine.getDisplayText(), replayed.getDisplayText());
+                assertEquals(engine.getMemory().recall(), replayed.getMemory().recall());
+                assertEquals(engine.getStatistics().getCount(), replayed.getStatistics().getCount());
+            }
+        }
+    }
+
+    @Test
+    void unusedAndTornSlotsAreNotRecords() throws IOException, ParseException {
+        Path file = directory.resolve("torn.tape");
+        CalculatorEngine engine = new CalculatorEngine();
+        try (TapeWriter writer = new TapeWriter(file, engine, 8)) {
+            record(writer, engine, "1 2 + 3 = √ 4 × 2");
+        }
+        long recordsStart = TapeFormat.recordsStart(stateLength(file));
+        // The file ends in the zero-filled rest of its region
+        assertEquals(recordsStart + 16L * TapeFormat.RECORD_SIZE, Files.size(file));
+        try (TapeReader reader = new TapeReader(file)) {
+            assertEquals(9, reader.size());
+            assertEquals(Keystroke.DIGIT_2, reader.keystroke(8));
+        }
+
+        // A crash before the opcode of the last record was stored leaves the rest of it behind
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(1), recordsStart + 8L * TapeFormat.RECORD_SIZE + TapeFormat.OPCODE);
+        }
+        try (TapeReader reader = new TapeReader(file)) {
+            assertEquals(8, reader.size());
+            assertEquals(Keystroke.MULTIPLY, reader.keystroke(7));
+        }
+
+        // A file cut off in the middle of a record keeps the records before it
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(recordsStart + 5L * TapeFormat.RECORD_SIZE + 7);
+        }
+        try (TapeReader reader = new TapeReader(file)) {
+            assertEquals(5, reader.size());
+            CalculatorEngine replayed = new CalculatorEngine();
+            reader.replay(replayed, (index, state) -> { });
+            assertEquals("15", replayed.getDisplayText());
+        }
+
+        // An empty tape is just a header
+        try (TapeWriter writer = new TapeWriter(file, engine)) {
+            assertEquals(0, writer.size());
+        }
+        try (TapeReader reader = new TapeReader(file)) {
+            assertEquals(0, reader.size());
+        }
+    }
+
+    @Test
+    void damagedHeadersAreRejected() throws IOException {
+        Path file = directory.resolve("header.tape");
+        CalculatorEngine engine = new CalculatorEngine();
+        press(engine, "M4 6 M+ 2 Σ+ 7 ÷");
+        try (TapeWriter writer = new TapeWriter(file, engine)) {
+            record(writer, engine, "2 =");
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int stateLength = stateLength(file);
+
+        // Cut anywhere in the header or the starting state
+        for (int length = 0; length < TapeFormat.HEADER_SIZE + stateLength; length += 3) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            assertThrows(ParseException.class, () -> new TapeReader(file).close(), "length " + length);
+        }
+        byte[] magic = bytes.clone();
+        magic[3] = 'Q';
+        Files.write(file, magic);
+        assertEquals(0, assertThrows(ParseException.class, () -> new TapeReader(file)).getErrorOffset());
+        byte[] version = bytes.clone();
+        version[5] = 1;
+        Files.write(file, version);
+        assertEquals(4, assertThrows(ParseException.class, () -> new TapeReader(file)).getErrorOffset());
+        byte[] length = bytes.clone();
+        ByteBuffer.wrap(length).putInt(16, -1);
+        Files.write(file, length);
+        assertThrows(ParseException.class, () -> new TapeReader(file));
+        // A numeric mode that does not exist
+        byte[] state = bytes.clone();
+        state[TapeFormat.HEADER_SIZE] = 100;
+        Files.write(file, state);
+        assertThrows(ParseException.class, () -> new TapeReader(file));
+    }
+
+    /**
+     * What a record should read back as, taken from the engine when it was written.
+     */
+    private record Record(Keystroke keystroke, boolean setsValue, Operation operation, boolean error,
+                          boolean resetFlag, NumericMode numericMode, double value) {
+        Record(Keystroke keystroke, boolean setsValue, CalculatorEngine engine) {
+            this(keystroke, setsValue, engine.getCurrentOperation(), engine.isError(), engine.isResetFlag(),
+                    engine.getNumericMode(), engine.getValue());
+        }
+
+        void assertRead(TapeReader reader, long index) {
+            String description = "record " + index;
+            assertEquals(keystroke, reader.keystroke(index), description);
+            assertEquals(setsValue, reader.setsValue(index), description);
+            assertEquals(operation, reader.operation(index), description);
+            assertEquals(error, reader.isError(index), description);
+            assertEquals(resetFlag, reader.isResetFlag(index), description);
+            assertEquals(numericMode, reader.numericMode(index), description);
+            assertEquals(Double.doubleToLongBits(value), Double.doubleToLongBits(reader.value(index)), description);
+        }
+
+        void assertState(CalculatorEngine engine, String description) {
+            assertEquals(new Record(keystroke, setsValue, engine), this, description);
+        }
+    }
+
+    private static int stateLength(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, TapeFormat.HEADER_SIZE - 4);
+            return length.getInt(0);
+        }
+    }
+
+    private static Keystroke randomKey(Random random) {
+        return random.nextInt(10) < 4 ? Keystroke.digit(random.nextInt(10)) : KEYS[random.nextInt(KEYS.length)];
+    }
+
+    private static void record(TapeWriter writer, CalculatorEngine engine, String keys) throws IOException {
+        for (String symbol : keys.split(" ")) {
+            Keystroke keystroke = Keystroke.fromSymbol(symbol);
+            engine.press(keystroke);
+            writer.write(keystroke, engine);
+        }
+    }
+
+    private static void press(CalculatorController controller, String keys) {
+        for (String symbol : keys.split(" ")) {
+            controller.press(Keystroke.fromSymbol(symbol));
+        }
+    }
+
+    private static void press(CalculatorEngine engine, String keys) {
+        for (String symbol : keys.split(" ")) {
+            engine.press(Keystroke.fromSymbol(symbol));
+        }
+    }
+}
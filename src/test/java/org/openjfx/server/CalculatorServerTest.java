@@ -0,0 +1,186 @@
+package org.openjfx.server;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculatorServerTest {
+    private static final String ONE = "{\"expression\":\"1\"}";
+
+    private static CalculatorServer server;
+
+    @BeforeAll
+    static void start() throws IOException {
+        server = new CalculatorServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                Duration.ofMinutes(1));
+        server.start();
+    }
+
+    @AfterAll
+    static void stop() {
+        server.close();
+    }
+
+    @Test
+    void evaluates() throws IOException {
+        assertResponse(200, "{\"result\":5}",
+                post("/evaluate", "{\"expression\":\"sqrt(x) + 1\",\"variables\":{\"x\":16}}"));
+        assertResponse(200, "{\"results\":[4,-2]}",
+                post("/calculate", "{\"left\":[1,2],\"operations\":[\"PLUS\",\"MINUS\"],\"right\":[3,4]}"));
+        assertResponse(200, "{\"display\":\"15\",\"value\":15}",
+                post("/sessions/a", "{\"keys\":[\"1\",\"2\",\"+\",\"3\",\"=\"]}"));
+    }
+
+    @Test
+    void readsOnlyExistingSessions() throws IOException {
+        assertEquals(404, request("GET", "/sessions/unknown").status);
+        // Still unknown: the first GET did not create it
+        assertEquals(404, request("GET", "/sessions/unknown").status);
+        assertResponse(200, "{\"display\":\"42\",\"value\":42}", post("/sessions/c", "{\"keys\":[\"4\",\"2\"]}"));
+        assertResponse(200, "{\"display\":\"42\",\"value\":42}", request("GET", "/sessions/c"));
+        assertResponse(200, "{\"removed\":true}", request("DELETE", "/sessions/c"));
+        Response response = request("GET", "/sessions/c");
+        assertEquals(404, response.status);
+        assertTrue(response.body.startsWith("{\"error\":"), response.body);
+    }
+
+    @Test
+    void refusesLargeBodies() throws IOException {
+        // Refused on the declared length alone, before any more of the body is sent
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.getOutputStream().write(("POST /evaluate HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+                    + (CalculatorServer.MAX_BODY_BYTES + 1) + "\r\n\r\n" + ONE).getBytes(StandardCharsets.US_ASCII));
+            byte[] statusLine = socket.getInputStream().readNBytes("HTTP/1.1 413".length());
+            assertEquals("HTTP/1.1 413", new String(statusLine, StandardCharsets.US_ASCII));
+        }
+        // Without a Content-Length the limit applies while reading
+        String padding = " ".repeat(CalculatorServer.MAX_BODY_BYTES);
+        assertEquals(413, post("/evaluate", ONE + padding, true).status);
+        assertResponse(200, "{\"result\":1}", post("/evaluate", ONE + padding.substring(ONE.length()), true));
+    }
+
+    @Test
+    void rejectsDeepNesting() throws IOException {
+        assertEquals(400, post("/evaluate", "[".repeat(100_000)).status);
+        assertEquals(400, post("/evaluate", "{\"a\":".repeat(100_000)).status);
+        assertEquals(400, post("/evaluate", "{\"expression\":\"" + "(".repeat(100_000) + "1\"}").status);
+        assertEquals(400, post("/evaluate", "{\"expression\":\"" + "-".repeat(100_000) + "1\"}").status);
+        assertEquals(400, post("/evaluate", "{\"expression\":\"" + "sqrt(".repeat(10_000) + "1\"}").status);
+        assertResponse(200, "{\"result\":-1}",
+                post("/evaluate", "{\"expression\":\"" + "(".repeat(100) + "-1" + ")".repeat(100) + "\"}"));
+    }
+
+    @Test
+    void rejectsMistypedFields() throws IOException {
+        String[][] requests = {
+                {"/evaluate", "null"},
+                {"/evaluate", "[]"},
+                {"/evaluate", "{\"expression\":null}"},
+                {"/evaluate", "{\"expression\":1}"},
+                {"/evaluate", "{\"expressions\":[\"1\",null]}"},
+                {"/evaluate", "{\"expressions\":{}}"},
+                {"/evaluate", "{\"expression\":\"x\",\"variables\":null}"},
+                {"/evaluate", "{\"expression\":\"x\",\"variables\":{\"x\":true}}"},
+                {"/calculate", "{\"left\":1,\"operation\":null,\"right\":2}"},
+                {"/calculate", "{\"left\":1,\"operation\":\"POWER\",\"right\":2}"},
+                {"/calculate", "{\"left\":[null],\"operations\":[\"PLUS\"],\"right\":[1]}"},
+                {"/calculate", "{\"left\":[1],\"operations\":[1],\"right\":[1]}"},
+                {"/calculate", "{\"left\":[1],\"operations\":\"PLUS\",\"right\":[1]}"},
+                {"/calculate", "{\"left\":\"x\",\"operation\":\"PLUS\",\"right\":2}"},
+                {"/sessions/b", "{\"keys\":[null]}"},
+                {"/sessions/b", "{\"keys\":\"1\"}"},
+                {"/sessions/b", "{\"keys\":[\"1\",7]}"}
+        };
+        for (String[] request : requests) {
+            Response response = post(request[0], request[1]);
+            assertEquals(400, response.status, request[1] + " -> " + response.body);
+            assertTrue(response.body.startsWith("{\"error\":"), response.body);
+        }
+    }
+
+    @Test
+    void limitsJsonDepth() throws ParseException {
+        String deepest = "[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH);
+        assertEquals(deepest, Json.write(Json.parse(deepest)));
+        ParseException e = assertThrows(ParseException.class,
+                () -> Json.parse("[".repeat(Json.MAX_DEPTH + 1) + "1" + "]".repeat(Json.MAX_DEPTH + 1)));
+        assertEquals(Json.MAX_DEPTH, e.getErrorOffset());
+    }
+
+    private static Response post(String path, String body) throws IOException {
+        return post(path, body, false);
+    }
+
+    private static Response post(String path, String body, boolean chunked) throws IOException {
+        String address = InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort();
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://" + address + path).toURL()
+                .openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            if (chunked) {
+                connection.setChunkedStreamingMode(8192);
+            } else {
+                connection.setFixedLengthStreamingMode(bytes.length);
+            }
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            } catch (IOException e) {
+                // The server may answer and close before all of a refused body is sent
+            }
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                return new Response(status, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static Response request(String method, String path) throws IOException {
+        String address = InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort();
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://" + address + path).toURL()
+                .openConnection();
+        try {
+            connection.setRequestMethod(method);
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                return new Response(status, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void assertResponse(int status, String body, Response response) {
+        assertEquals(status, response.status, response.body);
+        assertEquals(body, response.body);
+    }
+
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
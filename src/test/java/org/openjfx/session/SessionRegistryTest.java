@@ -0,0 +1,163 @@
+package org.openjfx.session;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.model.CalculatorEngine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionRegistryTest {
+    // Long enough that only explicit evictIdle calls evict
+    private static final Duration NO_SWEEP = Duration.ofHours(1);
+
+    @Test
+    void concurrentActionsOnASessionAreNotLost() throws Exception {
+        int threads = 8;
+        int actions = 2_000;
+        try (SessionRegistry registry = new SessionRegistry(NO_SWEEP, NO_SWEEP);
+             ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < actions; i++) {
+                        // Read-modify-write of the engine, which only the session monitor keeps whole
+                        registry.execute("session-" + i % 4, engine -> {
+                            engine.inputValue(engine.getValue() + 1);
+                            return null;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals(4, registry.size());
+            for (int s = 0; s < 4; s++) {
+                assertEquals(threads * actions / 4, registry.execute("session-" + s, CalculatorEngine::getValue));
+            }
+        }
+    }
+
+    @Test
+    void idleSessionsAreEvictedAndStartAfresh() throws InterruptedException {
+        try (SessionRegistry registry = new SessionRegistry(Duration.ofMillis(50), NO_SWEEP)) {
+            registry.press("idle", Keystroke.DIGIT_7);
+            registry.press("busy", Keystroke.DIGIT_2);
+            assertEquals("22", registry.press("busy", Keystroke.DIGIT_2));
+            assertEquals(0, registry.evictIdle());
+            Thread.sleep(100);
+            registry.getDisplayText("busy");
+            assertEquals(1, registry.evictIdle());
+            assertEquals(0, registry.evictIdle());
+            assertEquals(1, registry.size());
+            assertEquals("0", registry.getDisplayText("idle"));
+            assertEquals("22", registry.getDisplayText("busy"));
+            assertTrue(registry.remove("idle"));
+            assertFalse(registry.remove("idle"));
+        }
+    }
+
+    @Test
+    void lookupsDoNotCreateSessions() throws InterruptedException {
+        try (SessionRegistry registry = new SessionRegistry(Duration.ofMillis(50), NO_SWEEP)) {
+            assertEquals(Optional.empty(), registry.executeIfPresent("missing", CalculatorEngine::getDisplayText));
+            assertEquals(0, registry.size());
+            registry.press("kept", Keystroke.DIGIT_7);
+            registry.press("removed", Keystroke.DIGIT_1);
+            assertEquals(Optional.of("7"), registry.executeIfPresent("kept", CalculatorEngine::getDisplayText));
+            assertTrue(registry.remove("removed"));
+            assertEquals(Optional.empty(), registry.executeIfPresent("removed", CalculatorEngine::getDisplayText));
+            Thread.sleep(100);
+            assertEquals(1, registry.evictIdle());
+            assertEquals(Optional.empty(), registry.executeIfPresent("kept", CalculatorEngine::getDisplayText));
+            assertEquals(0, registry.size());
+        }
+    }
+
+    @Test
+    void waitingBehindASlowActionCountsAsUse() throws Exception {
+        Duration timeout = Duration.ofMillis(500);
+        try (SessionRegistry registry = new SessionRegistry(timeout, NO_SWEEP);
+             ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            CountDownLatch entered = new CountDownLatch(1);
+            Future<?> slow = executor.submit(() -> registry.execute("shared", engine -> {
+                entered.countDown();
+                sleep(timeout.multipliedBy(2));
+                return null;
+            }));
+            entered.await();
+            // Blocks on the session until the slow action is done, then uses it
+            Future<String> waiting = executor.submit(() -> registry.press("shared", Keystroke.DIGIT_5));
+            slow.get();
+            assertEquals("5", waiting.get());
+            assertEquals(0, registry.evictIdle());
+            assertEquals("5", registry.getDisplayText("shared"));
+        }
+    }
+
+    @Test
+    void evictionRacingWithUseLosesNothing() throws Exception {
+        int threads = 4;
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (SessionRegistry registry = new SessionRegistry(Duration.ofNanos(1), NO_SWEEP);
+             ExecutorService executor = Executors.newFixedThreadPool(threads + 1)) {
+            Future<Integer> evictions = executor.submit(() -> {
+                int evicted = 0;
+                while (running.get()) {
+                    evicted += registry.evictIdle();
+                }
+                return evicted;
+            });
+            List<Future<Integer>> restarts = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String id = "session-" + t;
+                restarts.add(executor.submit(() -> {
+                    // Each session counts its own uses; an eviction between two uses starts it again from 1
+                    double count = 0;
+                    int restarted = 0;
+                    for (int i = 0; i < 20_000; i++) {
+                        double value = registry.execute(id, engine -> {
+                            engine.inputValue(engine.getValue() + 1);
+                            return engine.getValue();
+                        });
+                        if (value != count + 1) {
+                            assertEquals(1, value);
+                            restarted++;
+                        }
+                        count = value;
+                    }
+                    return restarted;
+                }));
+            }
+            int restarted = 0;
+            for (Future<Integer> future : restarts) {
+                restarted += future.get();
+            }
+            running.set(false);
+            int evicted = evictions.get() + registry.evictIdle();
+            // Every eviction reported is seen exactly once: as a restart, or as a session that is gone
+            assertEquals(0, registry.size());
+            assertEquals(restarted + threads, evicted);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.openjfx.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjfx.enums.Keystroke;
+import org.openjfx.enums.NumericMode;
+import org.openjfx.model.CalculatorModel;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionSnapshotTest {
+    // Everything up to the macro keys, which need macros set
+    private static final Keystroke[] KEYS = Arrays.copyOf(Keystroke.values(), Keystroke.MACRO_1.ordinal());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pendingOperationsRoundTrip() throws IOException, ParseException {
+        for (NumericMode mode : NumericMode.values()) {
+            for (String keys : new String[]{"1 2 +", "1 2 + 3", "7 ÷ 3 = ×", "5 . 2 5 ±", "9 ÷ 0 =", "2 √ x²"}) {
+                assertRoundTrip(model(mode, keys), keys, "4 = + 1 =");
+            }
+        }
+    }
+
+    @Test
+    void memoryAndStatisticsRoundTrip() throws IOException, ParseException {
+        for (NumericMode mode : NumericMode.values()) {
+            String keys = "M3 4 M+ 6 M+ 1 M- M7 8 M+ 1 2 Σ+ 3 Σ+ 5 0 Σ+ 7 Σ+";
+            CalculatorModel model = model(mode, keys);
+            assertTrue(model.getStatistics().getCount() == 4 && model.getMemory().getSelected() == 7);
+            CalculatorModel restored = assertRoundTrip(model, keys, "M3 x̄ s² n MR Σx̄ Σσ 5 0 Σ% Σmin Σmax");
+            assertEquals(9, restored.getMemory().recall(3));
+            assertEquals(model.getStatistics().quantile(0.5), restored.getStatistics().quantile(0.5));
+        }
+    }
+
+    @Test
+    void largeSketchRoundTrips() throws IOException, ParseException {
+        CalculatorModel model = new CalculatorModel();
+        Random random = new Random(21);
+        for (int i = 0; i < 100_000; i++) {
+            model.getStatistics().add(random.nextGaussian());
+        }
+        model.setMathContext(new MathContext(20, RoundingMode.HALF_DOWN));
+        CalculatorModel restored = assertRoundTrip(model, "sketch", "Σ% 5 0 Σ% Σσ");
+        for (double q = 0; q <= 1; q += 0.125) {
+            assertEquals(model.getStatistics().quantile(q), restored.getStatistics().quantile(q));
+        }
+        assertEquals(model.getMathContext(), restored.getMathContext());
+    }
+
+    @Test
+    void randomSessionsRoundTrip() throws IOException, ParseException {
+        Random random = new Random(42);
+        NumericMode[] modes = NumericMode.values();
+        for (int i = 0; i < 300; i++) {
+            CalculatorModel model = new CalculatorModel();
+            model.setNumericMode(modes[random.nextInt(modes.length)]);
+            List<Keystroke> keys = randomKeys(random, 1 + random.nextInt(40));
+            keys.forEach(model.getEngine()::press);
+            assertRoundTrip(model, keys.toString(), randomKeys(random, 20));
+        }
+    }
+
+    @Test
+    void truncatedSnapshotsAreRejected() throws IOException, ParseException {
+        byte[] bytes = snapshot(model(NumericMode.DECIMAL, "M2 3 M+ 1 Σ+ 2 Σ+ 1 . 5 ×"));
+        for (int length = 0; length < bytes.length; length++) {
+            Path file = directory.resolve("truncated.bin");
+            Files.write(file, Arrays.copyOf(bytes, length));
+            CalculatorModel model = model(NumericMode.DECIMAL, "M5 7 M+ 4 Σ+ 6 +");
+            assertRejected(file, model);
+        }
+    }
+
+    @Test
+    void corruptSnapshotsAreRejected() throws IOException, ParseException {
+        Random random = new Random(7);
+        byte[] bytes = snapshot(model(NumericMode.DECIMAL, "M2 3 M+ 1 Σ+ 2 Σ+ 1 . 5 × 1 ÷ 3 ="));
+        Path file = directory.resolve("corrupt.bin");
+        int rejected = 0;
+        for (int i = 0; i < 5_000; i++) {
+            byte[] corrupt = bytes.clone();
+            for (int n = 1 + random.nextInt(3); n > 0; n--) {
+                corrupt[random.nextInt(corrupt.length)] = (byte) random.nextInt(256);
+            }
+            Files.write(file, corrupt);
+            CalculatorModel model = model(NumericMode.FIXED_POINT, "M5 7 M+ 4 Σ+ 6 +");
+            if (!restores(file, model)) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0);
+        Files.write(file, new byte[]{'C', 'S', 'N', 'Q', 0, 3});
+        assertEquals(0, assertThrows(ParseException.class, () -> SessionSnapshot.read(file)).getErrorOffset());
+    }
+
+    @Test
+    void latestOfManyCapturesIsWrittenWithoutAllocating() throws IOException, ParseException {
+        Path file = directory.resolve("session.bin");
+        CalculatorModel model = model(NumericMode.DOUBLE, "M4 2 M+ 3 Σ+ 1");
+        SnapshotWriter writer = new SnapshotWriter(file, null);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = 0;
+        for (int round = 0; round < 3; round++) {
+            allocated = 0;
+            for (int i = 0; i < 10_000; i++) {
+                // Only the captures are counted; pressing keys allocates on its own
+                model.getEngine().press(i % 100 == 0 ? Keystroke.CLEAR_ENTRY : Keystroke.digit(i % 10));
+                long before = threads.getCurrentThreadAllocatedBytes();
+                writer.capture(model);
+                allocated += threads.getCurrentThreadAllocatedBytes() - before;
+            }
+            // The first round grows the buffers and warms up the code
+        }
+        writer.close();
+        assertTrue(allocated < 10_000, "Allocated " + allocated + " bytes in 10000 captures");
+
+        CalculatorModel restored = new CalculatorModel();
+        SessionSnapshot.read(file).restore(restored);
+        assertArrayEquals(state(model), state(restored));
+    }
+
+    /**
+     * Writes {@code model} through a {@link SnapshotWriter}, restores it into a new model and checks that the
+     * state is the same, and that both go on to show the same display for {@code then}.
+     */
+    private CalculatorModel assertRoundTrip(CalculatorModel model, String description, String then)
+            throws IOException, ParseException {
+        List<Keystroke> keys = new ArrayList<>();
+        for (String symbol : then.split(" ")) {
+            keys.add(Keystroke.fromSymbol(symbol));
+        }
+        return assertRoundTrip(model, description, keys);
+    }
+
+    private CalculatorModel assertRoundTrip(CalculatorModel model, String description, List<Keystroke> then)
+            throws IOException, ParseException {
+        Path file = directory.resolve("session.bin");
+        Path history = directory.resolve("history.bin");
+        SnapshotWriter writer = new SnapshotWriter(file, history);
+        writer.setWindowPosition(120.5, -3);
+        writer.capture(model);
+        writer.close();
+
+        SessionSnapshot snapshot = SessionSnapshot.read(file);
+        assertEquals(120.5, snapshot.getWindowX());
+        assertEquals(-3, snapshot.getWindowY());
+        assertEquals(history.toAbsolutePath(), snapshot.getHistoryPath());
+        CalculatorModel restored = new CalculatorModel();
+        snapshot.restore(restored);
+
+        assertArrayEquals(state(model), state(restored), description);
+        assertEquals(model.getDisplayText(), restored.getDisplayText(), description);
+        assertEquals(model.getNumericMode(), restored.getNumericMode(), description);
+        assertEquals(model.getEngine().getCurrentOperation(), restored.getCurrentOperation(), description);
+        assertEquals(model.isError(), restored.isError(), description);
+        assertEquals(model.isResetFlag(), restored.isResetFlag(), description);
+        StringBuilder typed = new StringBuilder(description).append(" then");
+        for (Keystroke keystroke : then) {
+            typed.append(' ').append(keystroke.symbol());
+            model.getEngine().press(keystroke);
+            restored.getEngine().press(keystroke);
+            assertEquals(Double.doubleToLongBits(model.getDisplayValue()),
+                    Double.doubleToLongBits(restored.getDisplayValue()), typed::toString);
+            assertEquals(model.getDisplayText(), restored.getDisplayText(), typed::toString);
+        }
+        return restored;
+    }
+
+    private byte[] snapshot(CalculatorModel model) throws IOException, ParseException {
+        Path file = directory.resolve("snapshot.bin");
+        SnapshotWriter writer = new SnapshotWriter(file, null);
+        writer.capture(model);
+        writer.close();
+        assertNull(SessionSnapshot.read(file).getHistoryPath());
+        return Files.readAllBytes(file);
+    }
+
+    private static void assertRejected(Path file, CalculatorModel model) throws IOException {
+        if (restores(file, model)) {
+            throw new AssertionError("Restored " + Files.size(file) + " bytes of a snapshot");
+        }
+    }
+
+    /**
+     * Restores the snapshot in {@code file} into {@code model}. If that fails, checks that a file that does not read
+     * left the model alone, and that one whose calculator state does not read left it as new, apart from its numeric
+     * mode and math context.
+     */
+    private static boolean restores(Path file, CalculatorModel model) throws IOException {
+        byte[] before = state(model);
+        SessionSnapshot snapshot;
+        try {
+            snapshot = SessionSnapshot.read(file);
+        } catch (ParseException e) {
+            assertArrayEquals(before, state(model));
+            return false;
+        }
+        try {
+            snapshot.restore(model);
+            return true;
+        } catch (ParseException e) {
+            CalculatorModel cleared = new CalculatorModel();
+            cleared.setNumericMode(model.getNumericMode());
+            assertArrayEquals(state(cleared), state(model));
+            assertEquals("0", model.getDisplayText());
+            return false;
+        }
+    }
+
+    private static CalculatorModel model(NumericMode mode, String keys) {
+        CalculatorModel model = new CalculatorModel();
+        model.setNumericMode(mode);
+        for (String symbol : keys.split(" ")) {
+            model.getEngine().press(Keystroke.fromSymbol(symbol));
+        }
+        return model;
+    }
+
+    private static List<Keystroke> randomKeys(Random random, int count) {
+        List<Keystroke> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(random.nextInt(10) < 4 ? Keystroke.digit(random.nextInt(10)) : KEYS[random.nextInt(KEYS.length)]);
+        }
+        return keys;
+    }
+
+    private static byte[] state(CalculatorModel model) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        model.writeState(buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+}